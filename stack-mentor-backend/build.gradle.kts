@@ -4,6 +4,9 @@ plugins {
     id("io.spring.dependency-management") version "1.1.6"
 }
 
+// Ships in the Spring Boot plugin artifact, which has no marker for it
+apply(plugin = "org.springframework.boot.aot")
+
 group = "io.stackmentor"
 version = "1.0-SNAPSHOT"
 
@@ -16,12 +19,15 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-mail")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-security")
+    implementation("org.springframework.boot:spring-boot-starter-oauth2-resource-server")
     implementation("org.springframework.boot:spring-boot-starter-websocket")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("jakarta.validation:jakarta.validation-api")
     implementation("org.liquibase:liquibase-core")
     implementation("org.postgresql:postgresql")
+    implementation("com.github.ben-manes.caffeine:caffeine")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
 
     // Lombok
     compileOnly("org.projectlombok:lombok")
@@ -42,11 +48,90 @@ dependencies {
 
 
 tasks.test {
-    useJUnitPlatform()
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+// Tests tagged benchmark print their measurements; run on demand, never cached
+tasks.register<Test>("benchmark") {
+    group = "verification"
+    description = "Runs the tests tagged benchmark."
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    testLogging {
+        showStandardStreams = true
+    }
+    outputs.upToDateWhen { false }
+}
+
+// Loads a seeded synthetic dataset into a migrated database for load testing; see
+// io.stackmentor.dataset.SyntheticDataLoader for the options, e.g.
+//   ./gradlew generateDataset --args="--url=jdbc:postgresql://localhost:5433/stackmentor --users=100000"
+tasks.register<JavaExec>("generateDataset") {
+    group = "verification"
+    description = "Loads a reproducible synthetic dataset into Postgres with COPY."
+    classpath = sourceSets.test.get().runtimeClasspath
+    mainClass = "io.stackmentor.dataset.SyntheticDataLoader"
 }
 
 java {
     toolchain {
         languageVersion = JavaLanguageVersion.of(23)
     }
-}
\ No newline at end of file
+}
+
+// AOT bean definitions are fixed at build time, so they are generated for the profile the
+// containers run. They are only used when started with -Dspring.aot.enabled=true.
+tasks.named<org.springframework.boot.gradle.tasks.aot.ProcessAot>("processAot") {
+    args("--spring.profiles.active=fast-startup")
+}
+
+// Tests run on the regular reflection-based context; AOT-processing them would start the
+// Testcontainers-backed context at build time
+tasks.named("processTestAot") {
+    enabled = false
+}
+
+val appCdsDir = layout.buildDirectory.dir("appcds")
+val appCdsJava = javaToolchains.launcherFor(java.toolchain).map { it.executablePath.asFile.absolutePath }
+
+// Spring Boot 3.3 jar mode: application.jar plus lib/, the layout CDS needs
+val extractBootJar by tasks.registering(Exec::class) {
+    group = "build"
+    description = "Extracts the boot jar into build/appcds for the AppCDS training run."
+    val bootJar = tasks.bootJar.flatMap { it.archiveFile }
+    inputs.file(bootJar)
+    outputs.dir(appCdsDir)
+    doFirst { executable = appCdsJava.get() }
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("-Djarmode=tools", "-jar", bootJar.get().asFile.absolutePath, "extract",
+            "--destination", appCdsDir.get().asFile.absolutePath,
+            "--application-filename", "application.jar", "--force")
+    })
+}
+
+// Starts the app up to context refresh and dumps every class it loaded. Run the result from
+// build/appcds with the same relative jar path, or the JVM ignores the archive:
+//   java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+//        -jar application.jar --spring.profiles.active=fast-startup
+tasks.register<Exec>("appCdsArchive") {
+    group = "build"
+    description = "Builds an AppCDS archive (build/appcds/application.jsa) from a training run."
+    dependsOn(extractBootJar)
+    workingDir(appCdsDir)
+    outputs.file(appCdsDir.map { it.file("application.jsa") })
+    doFirst { executable = appCdsJava.get() }
+    args(
+        "-XX:ArchiveClassesAtExit=application.jsa",
+        "-Dspring.context.exit=onRefresh",
+        "-Dspring.aot.enabled=true",
+        "-jar", "application.jar",
+        "--spring.profiles.active=fast-startup",
+        // The training run needs no database: migrations are skipped and the pool never connects
+        "--spring.liquibase.enabled=false",
+    )
+}
@@ -2,11 +2,18 @@ package io.stackmentor;
 
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class StackMentorBackendApplication {
+
+    // Startup steps kept for /actuator/startup; later steps are dropped once full
+    private static final int STARTUP_STEP_CAPACITY = 4096;
+
     public static void main(String[] args) {
 
-        SpringApplication.run(StackMentorBackendApplication.class, args);
+        SpringApplication application = new SpringApplication(StackMentorBackendApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+        application.run(args);
     }
 }
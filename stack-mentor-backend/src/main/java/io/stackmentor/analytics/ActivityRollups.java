@@ -0,0 +1,211 @@
+package io.stackmentor.analytics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.stackmentor.dto.message.MessageDto;
+import io.stackmentor.dto.message.ReadReceiptDto;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.event.MessageSentEvent;
+import io.stackmentor.event.MessagesReadEvent;
+import io.stackmentor.repository.ActivityRollupRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns message and read events into the rollups behind the admin analytics, so dashboards
+ * never aggregate raw messages. Counts are kept per hour in memory and added to the rollup
+ * tables on every flush; daily active users are HyperLogLog sketches, one row per day and
+ * process, that readers merge.
+ * <p>
+ * Response times pair a mentee's first unanswered message in a conversation with the next
+ * mentor message there. Both must be sent through the same node; with several nodes the
+ * figures are a sample of all replies.
+ */
+@Component
+public class ActivityRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityRollups.class);
+
+    public record ConversationHour(UUID conversationId, LocalDateTime hour) {
+    }
+
+    @Autowired
+    private ActivityRollupRepository rollupRepository;
+
+    // Each process writes its own sketch rows, so a flush never has to read and merge
+    private final UUID writerId = UUID.randomUUID();
+
+    private final ConcurrentHashMap<ConversationHour, HourlyActivity> activity = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LocalDateTime, ResponseStats> responses = new ConcurrentHashMap<>();
+    private final Map<LocalDate, DailySketch> activeUsers = new ConcurrentHashMap<>();
+
+    // When the oldest mentee message still waiting for a mentor was sent, per conversation
+    private final Cache<UUID, LocalDateTime> awaitingReply;
+
+    private final Counter flushFailures;
+
+    public ActivityRollups(MeterRegistry meterRegistry,
+                           @Value("${stackmentor.analytics.reply-window:P7D}") Duration replyWindow) {
+        this.awaitingReply = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(replyWindow)
+                .build();
+        this.flushFailures = Counter.builder("analytics.rollups.flush.failures")
+                .description("Rollup flushes that failed and were kept for the next attempt")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessageSent(MessageSentEvent event) {
+        MessageDto message = event.message();
+        if (message.getSentAt() == null) return;
+
+        activity.merge(new ConversationHour(message.getConversationId(), hourOf(message.getSentAt())),
+                new HourlyActivity(1, 0), HourlyActivity::plus);
+        markActive(message.getSenderId(), message.getSentAt());
+
+        if (event.senderRole() == RoleType.MENTEE) {
+            awaitingReply.asMap().putIfAbsent(message.getConversationId(), message.getSentAt());
+        } else if (event.senderRole() == RoleType.MENTOR) {
+            LocalDateTime askedAt = awaitingReply.asMap().remove(message.getConversationId());
+            if (askedAt != null) {
+                responses.merge(hourOf(message.getSentAt()),
+                        ResponseStats.of(Duration.between(askedAt, message.getSentAt())), ResponseStats::plus);
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessagesRead(MessagesReadEvent event) {
+        ReadReceiptDto receipt = event.receipt();
+        activity.merge(new ConversationHour(receipt.getConversationId(), hourOf(receipt.getReadAt())),
+                new HourlyActivity(0, receipt.getMessageIds().size()), HourlyActivity::plus);
+        markActive(receipt.getUserId(), receipt.getReadAt());
+    }
+
+    /**
+     * Writes everything gathered since the last flush. Counts are added, sketches replace
+     * this process's row for their day. Whatever fails to write is kept for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${stackmentor.analytics.flush-interval:PT1M}")
+    @PreDestroy
+    public void flush() {
+        Map<ConversationHour, HourlyActivity> counts = drain(activity);
+        if (!counts.isEmpty()) {
+            try {
+                rollupRepository.addGroupActivity(counts);
+            } catch (RuntimeException e) {
+                counts.forEach((key, value) -> activity.merge(key, value, HourlyActivity::plus));
+                failed("group activity", e);
+            }
+        }
+
+        Map<LocalDateTime, ResponseStats> replies = drain(responses);
+        if (!replies.isEmpty()) {
+            try {
+                rollupRepository.addMentorResponses(replies);
+            } catch (RuntimeException e) {
+                replies.forEach((hour, stats) -> responses.merge(hour, stats, ResponseStats::plus));
+                failed("mentor responses", e);
+            }
+        }
+
+        flushSketches();
+    }
+
+    private void flushSketches() {
+        Map<LocalDate, byte[]> changed = new HashMap<>();
+        activeUsers.forEach((day, sketch) -> {
+            byte[] bytes = sketch.takeIfDirty();
+            if (bytes != null) changed.put(day, bytes);
+        });
+
+        if (!changed.isEmpty()) {
+            try {
+                rollupRepository.saveActiveUserSketches(writerId, changed);
+            } catch (RuntimeException e) {
+                changed.keySet().forEach(day -> activeUsers.get(day).markDirty());
+                failed("active users", e);
+                return;
+            }
+        }
+
+        // Days before yesterday are complete; their rows are final
+        LocalDate oldestOpen = oldestOpenDay();
+        activeUsers.entrySet().removeIf(entry -> entry.getKey().isBefore(oldestOpen) && !entry.getValue().isDirty());
+    }
+
+    private void markActive(UUID userId, LocalDateTime at) {
+        // A closed day's sketch is gone from memory; a fresh one would overwrite its row
+        if (userId == null || at.toLocalDate().isBefore(oldestOpenDay())) return;
+        activeUsers.computeIfAbsent(at.toLocalDate(), day -> new DailySketch()).add(userId);
+    }
+
+    private static LocalDate oldestOpenDay() {
+        return LocalDate.now().minusDays(1);
+    }
+
+    private static LocalDateTime hourOf(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    // remove() per key is atomic, so a merge lands either in this flush or in the next
+    private static <K, V> Map<K, V> drain(ConcurrentHashMap<K, V> buffer) {
+        Map<K, V> drained = new HashMap<>();
+        for (K key : buffer.keySet()) {
+            V value = buffer.remove(key);
+            if (value != null) {
+                drained.put(key, value);
+            }
+        }
+        return drained;
+    }
+
+    private void failed(String what, RuntimeException e) {
+        flushFailures.increment();
+        log.warn("Flushing {} rollups failed; keeping them for the next flush", what, e);
+    }
+
+    // One day's sketch; dirty while it holds users the stored row does not
+    private static final class DailySketch {
+
+        private final HyperLogLog sketch = new HyperLogLog();
+        private boolean dirty;
+
+        synchronized void add(UUID userId) {
+            if (sketch.add(userId)) dirty = true;
+        }
+
+        synchronized byte[] takeIfDirty() {
+            if (!dirty) return null;
+            dirty = false;
+            return sketch.toBytes();
+        }
+
+        synchronized void markDirty() {
+            dirty = true;
+        }
+
+        synchronized boolean isDirty() {
+            return dirty;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package io.stackmentor.analytics;
+
+// Messages sent and messages read in one conversation during one hour
+public record HourlyActivity(int messages, int reads) {
+
+    public HourlyActivity plus(HourlyActivity other) {
+        return new HourlyActivity(messages + other.messages, reads + other.reads);
+    }
+}
@@ -0,0 +1,23 @@
+package io.stackmentor.analytics;
+
+import java.time.Duration;
+
+/**
+ * Mentor replies answered during one hour: how many, their total wait, and how many came
+ * within each threshold. Sums of these stay exact when hours or nodes are combined.
+ */
+public record ResponseStats(int responses, long totalSeconds, int within5m, int within1h, int within1d) {
+
+    public static ResponseStats of(Duration wait) {
+        long seconds = Math.max(0, wait.toSeconds());
+        return new ResponseStats(1, seconds,
+                seconds <= Duration.ofMinutes(5).toSeconds() ? 1 : 0,
+                seconds <= Duration.ofHours(1).toSeconds() ? 1 : 0,
+                seconds <= Duration.ofDays(1).toSeconds() ? 1 : 0);
+    }
+
+    public ResponseStats plus(ResponseStats other) {
+        return new ResponseStats(responses + other.responses, totalSeconds + other.totalSeconds,
+                within5m + other.within5m, within1h + other.within1h, within1d + other.within1d);
+    }
+}
@@ -0,0 +1,84 @@
+package io.stackmentor.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.stackmentor.dto.user.UserPageDto;
+import io.stackmentor.dto.user.UserSummaryDto;
+import io.stackmentor.event.UserProfileUpdatedEvent;
+import io.stackmentor.event.UserVerifiedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Result cache for the popular mentor-search filter combinations.
+// Exposes cache.gets/hit/miss/evictions under cache="userSearch", plus
+// user.search.load (time spent on misses) and user.search.cache.saved (estimated time saved by hits).
+@Component
+public class UserSearchCache {
+
+    private final Cache<UserSearchKey, UserPageDto> cache;
+    private final Timer loadTimer;
+
+    public UserSearchCache(MeterRegistry meterRegistry,
+                           @Value("${stackmentor.search-cache.max-rows:50000}") long maxRows,
+                           @Value("${stackmentor.search-cache.ttl:5m}") Duration ttl) {
+
+        // Weighted by row count so a few huge pages cannot crowd out memory
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxRows)
+                .weigher((UserSearchKey key, UserPageDto page) -> page.getResults().size() + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        Timer loadTimer = Timer.builder("user.search.load")
+                .description("Time spent running searches that missed the cache")
+                .register(meterRegistry);
+        this.loadTimer = loadTimer;
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userSearch");
+        // The gauge reads the cache and timer, not this half-built instance
+        Gauge.builder("user.search.cache.saved", cache, c -> estimatedSecondsSaved(c, loadTimer))
+                .description("Cache hits multiplied by the mean miss latency")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public UserPageDto get(UserSearchKey key, Supplier<UserPageDto> loader) {
+        return cache.get(key, k -> loadTimer.record(loader));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserVerified(UserVerifiedEvent event) {
+        invalidateFor(event.user());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserProfileUpdated(UserProfileUpdatedEvent event) {
+        // Drop pages the user may have left as well as pages they may have joined
+        invalidateFor(event.previous());
+        invalidateFor(event.current());
+    }
+
+    // Removes only entries whose filters the user could satisfy
+    public void invalidateFor(UserSummaryDto user) {
+        cache.asMap().keySet().removeIf(key -> key.couldContain(user));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static double estimatedSecondsSaved(Cache<?, ?> cache, Timer loadTimer) {
+        return cache.stats().hitCount() * loadTimer.mean(TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,70 @@
+package io.stackmentor.cache;
+
+import io.stackmentor.dto.user.UserSummaryDto;
+import io.stackmentor.specification.ExperienceRange;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+// Canonical form of a search request, so "Java ", "java" and reordered industries share one entry
+public record UserSearchKey(String text,
+                            String role,
+                            Integer minYears,
+                            Integer maxYears,
+                            List<String> industries,
+                            UUID cursor,
+                            int size) {
+
+    public static UserSearchKey of(String searchText, String role, ExperienceRange range,
+                                   List<String> industries, UUID cursor, int size) {
+        return new UserSearchKey(
+                normalize(searchText),
+                normalize(role),
+                range.min(),
+                range.max(),
+                industries == null ? List.of() : industries.stream()
+                        .map(UserSearchKey::normalize)
+                        .filter(industry -> industry != null)
+                        .distinct()
+                        .sorted()
+                        .toList(),
+                cursor,
+                size);
+    }
+
+    // Mirrors UserSpecificationBuilder.searchWithFilters; errs on the side of "could match"
+    public boolean couldContain(UserSummaryDto user) {
+        if (user == null) return true;
+
+        if (role != null && (user.getRole() == null
+                || !role.equals(user.getRole().name().toLowerCase(Locale.ROOT)))) {
+            return false;
+        }
+        if (!new ExperienceRange(minYears, maxYears).contains(user.getYearsOfExperience())) {
+            return false;
+        }
+        if (!industries.isEmpty() && (user.getIndustry() == null
+                || !industries.contains(user.getIndustry().toLowerCase(Locale.ROOT)))) {
+            return false;
+        }
+        return text == null || nameMatches(user);
+    }
+
+    private boolean nameMatches(UserSummaryDto user) {
+        String firstName = user.getFirstName() == null ? "" : user.getFirstName().toLowerCase(Locale.ROOT);
+        String lastName = user.getLastName() == null ? "" : user.getLastName().toLowerCase(Locale.ROOT);
+
+        if (text.contains(" ")) {
+            String[] parts = text.split("\\s+", 2);
+            return firstName.contains(parts[0]) && lastName.contains(parts[1]);
+        }
+        return firstName.contains(text) || lastName.contains(text);
+    }
+
+    private static String normalize(String value) {
+        if (value == null) return null;
+        String trimmed = value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
@@ -0,0 +1,203 @@
+package io.stackmentor.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.stackmentor.dto.message.CompactConversationDeltaDto;
+import io.stackmentor.dto.message.CompactMessageDto;
+import io.stackmentor.dto.message.CompactMessagesDto;
+import io.stackmentor.dto.message.CompactSenderDto;
+import io.stackmentor.dto.message.CompactSyncResponseDto;
+import io.stackmentor.dto.message.ConversationDeltaDto;
+import io.stackmentor.dto.message.MessageDto;
+import io.stackmentor.dto.message.SyncResponseDto;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Converts message payloads to and from the compact wire format clients get by asking for
+ * {@code application/cbor}: sender ids and names go into a per-payload dictionary, timestamps
+ * are delta-encoded microseconds and media URLs are a list instead of one joined string.
+ * Decoding restores the verbose DTOs exactly, apart from precision below a microsecond.
+ */
+@Component
+public class CompactMessageCodec {
+
+    private static final String MEDIA_SEPARATOR = ", ";
+
+    private final ObjectMapper cborMapper = new CBORMapper();
+
+    public CompactMessagesDto encode(UUID conversationId, List<MessageDto> messages) {
+        Encoder encoder = new Encoder(messages);
+        List<CompactMessageDto> compact = encoder.encodeAll(messages);
+        return new CompactMessagesDto(conversationId, encoder.base, encoder.senders, compact);
+    }
+
+    public CompactSyncResponseDto encode(SyncResponseDto response) {
+        Encoder encoder = new Encoder(response.getConversations().stream()
+                .flatMap(delta -> delta.getChanges().stream())
+                .toList());
+
+        List<CompactConversationDeltaDto> conversations = new ArrayList<>(response.getConversations().size());
+        for (ConversationDeltaDto delta : response.getConversations()) {
+            conversations.add(new CompactConversationDeltaDto(delta.getConversationId(), delta.getLastSeq(),
+                    encoder.encodeAll(delta.getChanges()), delta.isHasMore()));
+        }
+        return new CompactSyncResponseDto(encoder.base, encoder.senders, conversations,
+                response.getRemovedConversationIds());
+    }
+
+    public List<MessageDto> decode(CompactMessagesDto payload) {
+        return new Decoder(payload.getBase(), payload.getSenders())
+                .decodeAll(payload.getConversationId(), payload.getMessages());
+    }
+
+    public SyncResponseDto decode(CompactSyncResponseDto payload) {
+        Decoder decoder = new Decoder(payload.getBase(), payload.getSenders());
+
+        List<ConversationDeltaDto> conversations = new ArrayList<>(payload.getConversations().size());
+        for (CompactConversationDeltaDto delta : payload.getConversations()) {
+            conversations.add(new ConversationDeltaDto(delta.getConversationId(), delta.getLastSeq(),
+                    decoder.decodeAll(delta.getConversationId(), delta.getChanges()), delta.isHasMore()));
+        }
+        return new SyncResponseDto(conversations, payload.getRemovedConversationIds());
+    }
+
+    public byte[] toCbor(Object payload) {
+        try {
+            return cborMapper.writeValueAsBytes(payload);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Payload is not serializable as CBOR", e);
+        }
+    }
+
+    public <T> T fromCbor(byte[] cbor, Class<T> type) {
+        try {
+            return cborMapper.readValue(cbor, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed CBOR payload", e);
+        }
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    // Holds the dictionary and the timestamp chain for one payload
+    private static final class Encoder {
+
+        private final Map<UUID, Integer> senderIndex = new HashMap<>();
+        private final List<CompactSenderDto> senders = new ArrayList<>();
+        private final long base;
+        private long previous;
+
+        Encoder(List<MessageDto> messages) {
+            this.base = messages.stream()
+                    .filter(message -> message.getSentAt() != null)
+                    .findFirst()
+                    .map(message -> toMicros(message.getSentAt()))
+                    .orElse(0L);
+            this.previous = base;
+        }
+
+        List<CompactMessageDto> encodeAll(List<MessageDto> messages) {
+            List<CompactMessageDto> compact = new ArrayList<>(messages.size());
+            for (MessageDto message : messages) {
+                compact.add(encode(message));
+            }
+            return compact;
+        }
+
+        private CompactMessageDto encode(MessageDto message) {
+            Integer sender = null;
+            if (message.getSenderId() != null) {
+                sender = senderIndex.computeIfAbsent(message.getSenderId(), id -> {
+                    senders.add(new CompactSenderDto(id, message.getSenderName()));
+                    return senders.size() - 1;
+                });
+            }
+
+            Long sentAt = null;
+            long sent = previous;
+            if (message.getSentAt() != null) {
+                sent = toMicros(message.getSentAt());
+                sentAt = sent - previous;
+                previous = sent;
+            }
+
+            return CompactMessageDto.builder()
+                    .messageId(message.getMessageId())
+                    .seq(message.getSeq())
+                    .changeSeq(message.getChangeSeq())
+                    .sender(sender)
+                    .content(message.getContent())
+                    .media(message.getMediaUrl() != null
+                            ? Arrays.asList(message.getMediaUrl().split(MEDIA_SEPARATOR))
+                            : null)
+                    .sentAt(sentAt)
+                    .editedAt(message.getEditedAt() != null ? toMicros(message.getEditedAt()) - sent : null)
+                    .deletedAt(message.getDeletedAt() != null ? toMicros(message.getDeletedAt()) - sent : null)
+                    .flags((message.isDeleted() ? CompactMessageDto.DELETED : 0)
+                            | (message.isRead() ? CompactMessageDto.READ : 0))
+                    .build();
+        }
+    }
+
+    private static final class Decoder {
+
+        private final List<CompactSenderDto> senders;
+        private long previous;
+
+        Decoder(long base, List<CompactSenderDto> senders) {
+            this.senders = senders != null ? senders : List.of();
+            this.previous = base;
+        }
+
+        List<MessageDto> decodeAll(UUID conversationId, List<CompactMessageDto> messages) {
+            List<MessageDto> decoded = new ArrayList<>(messages.size());
+            for (CompactMessageDto message : messages) {
+                decoded.add(decode(conversationId, message));
+            }
+            return decoded;
+        }
+
+        private MessageDto decode(UUID conversationId, CompactMessageDto message) {
+            CompactSenderDto sender = message.getSender() != null ? senders.get(message.getSender()) : null;
+
+            LocalDateTime sentAt = null;
+            if (message.getSentAt() != null) {
+                previous += message.getSentAt();
+                sentAt = fromMicros(previous);
+            }
+
+            return MessageDto.builder()
+                    .messageId(message.getMessageId())
+                    .conversationId(conversationId)
+                    .seq(message.getSeq())
+                    .changeSeq(message.getChangeSeq())
+                    .senderId(sender != null ? sender.getId() : null)
+                    .senderName(sender != null ? sender.getName() : null)
+                    .content(message.getContent())
+                    .mediaUrl(message.getMedia() != null ? String.join(MEDIA_SEPARATOR, message.getMedia()) : null)
+                    .sentAt(sentAt)
+                    .editedAt(message.getEditedAt() != null ? fromMicros(previous + message.getEditedAt()) : null)
+                    .deletedAt(message.getDeletedAt() != null ? fromMicros(previous + message.getDeletedAt()) : null)
+                    .isDeleted((message.getFlags() & CompactMessageDto.DELETED) != 0)
+                    .isRead((message.getFlags() & CompactMessageDto.READ) != 0)
+                    .build();
+        }
+    }
+}
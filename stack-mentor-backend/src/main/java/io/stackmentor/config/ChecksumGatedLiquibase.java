@@ -0,0 +1,106 @@
+package io.stackmentor.config;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Runs Liquibase only when the changelog files differ from the set last applied to this
+ * database. A matching fingerprint means every changeset has already run, so startup skips the
+ * changelog lock, parsing every file under db/changelog and validating each changeset checksum.
+ */
+public class ChecksumGatedLiquibase extends SpringLiquibase {
+
+    private static final Logger log = LoggerFactory.getLogger(ChecksumGatedLiquibase.class);
+
+    static final String CHANGELOG_PATTERN = "classpath*:db/changelog/**/*.xml";
+
+    private static final String CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS schema_fingerprint (" +
+                    "id INT PRIMARY KEY, fingerprint VARCHAR(64) NOT NULL, applied_at TIMESTAMP NOT NULL)";
+
+    private static final String UPSERT =
+            "INSERT INTO schema_fingerprint (id, fingerprint, applied_at) VALUES (1, ?, now()) " +
+                    "ON CONFLICT (id) DO UPDATE SET fingerprint = EXCLUDED.fingerprint, applied_at = EXCLUDED.applied_at";
+
+    @Override
+    public void afterPropertiesSet() throws LiquibaseException {
+        if (!shouldRun) {
+            super.afterPropertiesSet();
+            return;
+        }
+
+        String fingerprint = changelogFingerprint();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(getDataSource());
+        if (fingerprint.equals(storedFingerprint(jdbcTemplate))) {
+            log.info("Changelog fingerprint {} unchanged, skipping Liquibase", fingerprint.substring(0, 12));
+            return;
+        }
+
+        super.afterPropertiesSet();
+        jdbcTemplate.execute(CREATE_TABLE);
+        jdbcTemplate.update(UPSERT, fingerprint);
+    }
+
+    /**
+     * SHA-256 over each changelog file's path and content, in path order, so renames, edits,
+     * additions and removals all change it.
+     */
+    String changelogFingerprint() {
+        try {
+            Resource[] resources = ResourcePatternUtils.getResourcePatternResolver(getResourceLoader())
+                    .getResources(CHANGELOG_PATTERN);
+            Arrays.sort(resources, Comparator.comparing(ChecksumGatedLiquibase::changelogPath));
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Resource resource : resources) {
+                digest.update(changelogPath(resource).getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = resource.getInputStream()) {
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read changelog files", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Path below db/changelog/, the same whether the files come from a directory or a jar
+    private static String changelogPath(Resource resource) {
+        try {
+            String uri = resource.getURI().toString();
+            return uri.substring(uri.lastIndexOf("db/changelog/"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String storedFingerprint(JdbcTemplate jdbcTemplate) {
+        try {
+            List<String> stored = jdbcTemplate.queryForList(
+                    "SELECT fingerprint FROM schema_fingerprint WHERE id = 1", String.class);
+            return stored.isEmpty() ? null : stored.get(0);
+        } catch (BadSqlGrammarException e) {
+            // First start with this profile, the table does not exist yet
+            return null;
+        }
+    }
+}
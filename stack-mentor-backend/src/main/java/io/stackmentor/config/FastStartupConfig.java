@@ -0,0 +1,30 @@
+package io.stackmentor.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+
+/**
+ * Beans for the fast-startup profile. Replacing the auto-configured SpringLiquibase also drops
+ * Boot's registration of LiquibaseProperties, hence the explicit enable.
+ */
+@Configuration
+@Profile("fast-startup")
+@EnableConfigurationProperties(LiquibaseProperties.class)
+public class FastStartupConfig {
+
+    @Bean
+    public SpringLiquibase liquibase(DataSource dataSource, LiquibaseProperties properties) {
+        ChecksumGatedLiquibase liquibase = new ChecksumGatedLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(properties.getChangeLog());
+        liquibase.setContexts(properties.getContexts());
+        liquibase.setShouldRun(properties.isEnabled());
+        return liquibase;
+    }
+}
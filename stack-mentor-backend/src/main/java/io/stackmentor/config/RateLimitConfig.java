@@ -0,0 +1,10 @@
+package io.stackmentor.config;
+
+import io.stackmentor.ratelimit.MessageRateLimitProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(MessageRateLimitProperties.class)
+public class RateLimitConfig {
+}
@@ -0,0 +1,79 @@
+package io.stackmentor.config;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.stackmentor.security.CachingJwtDecoder;
+import io.stackmentor.security.JwtKeys;
+import io.stackmentor.security.JwtProperties;
+import io.stackmentor.security.JwtTokenService;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Stateless bearer-token authentication: no HTTP session is created, so any node can serve
+ * any request, and verifying a token needs no database access.
+ */
+@Configuration
+@EnableConfigurationProperties(JwtProperties.class)
+public class SecurityConfig {
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtDecoder jwtDecoder) throws Exception {
+        return http
+                .csrf(AbstractHttpConfigurer::disable)
+                .httpBasic(AbstractHttpConfigurer::disable)
+                .formLogin(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(requests -> requests
+                        // Error pages render whatever status the original request ended with
+                        .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
+                        .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/email-available",
+                                "/api/auth/verify").permitAll()
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        // The handshake is open; the STOMP CONNECT frame carries the token
+                        .requestMatchers("/ws/**").permitAll()
+                        .requestMatchers("/api/admin/**", "/actuator/**").hasRole("ADMIN")
+                        .anyRequest().authenticated())
+                .oauth2ResourceServer(resourceServer -> resourceServer.jwt(jwt -> jwt
+                        .decoder(jwtDecoder)
+                        .jwtAuthenticationConverter(JwtTokenService::toAuthentication)))
+                .build();
+    }
+
+    @Bean
+    public JwtKeys jwtKeys(JwtProperties properties) {
+        return JwtKeys.from(properties);
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(JwtKeys jwtKeys) {
+        return new NimbusJwtEncoder(jwtKeys.source());
+    }
+
+    // The kid header picks the verification key, so tokens signed before a rotation stay valid
+    @Bean
+    public JwtDecoder jwtDecoder(JwtKeys jwtKeys, JwtProperties properties, MeterRegistry meterRegistry) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.HS256, jwtKeys.source()));
+        // Claims are checked by the validator below
+        processor.setJWTClaimsSetVerifier((claims, context) -> { });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(properties.issuer()));
+        return new CachingJwtDecoder(decoder, properties.cacheSize(), meterRegistry);
+    }
+}
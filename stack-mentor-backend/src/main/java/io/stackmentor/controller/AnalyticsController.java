@@ -0,0 +1,45 @@
+package io.stackmentor.controller;
+
+import io.stackmentor.dto.analytics.ActiveUsersDto;
+import io.stackmentor.dto.analytics.GroupActivityDto;
+import io.stackmentor.dto.analytics.MentorResponseDto;
+import io.stackmentor.service.AnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Admin dashboards over precomputed rollups; ranges are ISO dates or date-times, end exclusive for hours
+@RestController
+@RequestMapping("/api/admin/analytics")
+public class AnalyticsController {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @GetMapping("/group-activity")
+    public List<GroupActivityDto> groupActivity(@RequestParam(required = false) UUID groupId,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return analyticsService.getGroupActivity(groupId, from, to);
+    }
+
+    @GetMapping("/active-users")
+    public ActiveUsersDto activeUsers(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return analyticsService.getActiveUsers(from, to);
+    }
+
+    @GetMapping("/mentor-response-times")
+    public List<MentorResponseDto> mentorResponseTimes(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return analyticsService.getMentorResponses(from, to);
+    }
+}
@@ -0,0 +1,50 @@
+package io.stackmentor.controller;
+
+import io.stackmentor.dto.user.AccessTokenDto;
+import io.stackmentor.dto.user.EmailAvailabilityDto;
+import io.stackmentor.dto.user.LoginDto;
+import io.stackmentor.dto.user.RegisterUserDto;
+import io.stackmentor.dto.user.UserDto;
+import io.stackmentor.service.UserService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/auth")
+public class AuthController {
+
+    @Autowired
+    private UserService userService;
+
+    @PostMapping("/register")
+    @ResponseStatus(HttpStatus.CREATED)
+    public UserDto register(@Valid @RequestBody RegisterUserDto dto) {
+        return userService.registerUser(dto);
+    }
+
+    // Send the returned token as "Authorization: Bearer ..." on API requests and on STOMP CONNECT
+    @PostMapping("/login")
+    public AccessTokenDto login(@Valid @RequestBody LoginDto dto) {
+        return userService.login(dto);
+    }
+
+    // Called by the signup form as the user types; see EmailBloomFilter
+    @GetMapping("/email-available")
+    public EmailAvailabilityDto emailAvailable(@RequestParam String email) {
+        return new EmailAvailabilityDto(email, userService.isEmailAvailable(email));
+    }
+
+    // Target of the link sent by EmailService.sendVerificationEmail
+    @GetMapping("/verify")
+    public UserDto verify(@RequestParam String token) {
+        return userService.verifyUser(token);
+    }
+}
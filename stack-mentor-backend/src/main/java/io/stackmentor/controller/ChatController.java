@@ -0,0 +1,30 @@
+package io.stackmentor.controller;
+
+import io.stackmentor.dto.message.SendMessageDto;
+import io.stackmentor.security.AuthenticatedUser;
+import io.stackmentor.service.MessageService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.UUID;
+
+// STOMP counterpart of POST /api/conversations/{id}/messages; the stored message is broadcast
+// to /topic/conversations/{id}/messages
+@Controller
+public class ChatController {
+
+    @Autowired
+    private MessageService messageService;
+
+    @MessageMapping("/conversations/{conversationId}/send")
+    public void send(@DestinationVariable UUID conversationId,
+                     @Valid @Payload SendMessageDto dto,
+                     Principal principal) {
+        messageService.sendMessage(conversationId, AuthenticatedUser.id(principal), dto);
+    }
+}
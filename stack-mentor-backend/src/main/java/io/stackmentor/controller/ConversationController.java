@@ -0,0 +1,154 @@
+package io.stackmentor.controller;
+
+import io.stackmentor.codec.CompactMessageCodec;
+import io.stackmentor.dto.message.CompactMessagesDto;
+import io.stackmentor.dto.message.CompactSyncResponseDto;
+import io.stackmentor.dto.message.ConversationEventsDto;
+import io.stackmentor.dto.message.EditMessageDto;
+import io.stackmentor.dto.message.MarkReadDto;
+import io.stackmentor.dto.message.MessageDto;
+import io.stackmentor.dto.message.MessageSearchPageDto;
+import io.stackmentor.dto.message.ReadReceiptDto;
+import io.stackmentor.dto.message.SendMessageDto;
+import io.stackmentor.dto.message.SyncRequestDto;
+import io.stackmentor.dto.message.SyncResponseDto;
+import io.stackmentor.security.AuthenticatedUser;
+import io.stackmentor.service.MessageSearchService;
+import io.stackmentor.service.MessageService;
+import io.stackmentor.service.MessageSyncService;
+import io.stackmentor.stream.ConversationStreamHub;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/conversations")
+public class ConversationController {
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private MessageSearchService messageSearchService;
+
+    @Autowired
+    private MessageSyncService messageSyncService;
+
+    @Autowired
+    private ConversationStreamHub streamHub;
+
+    @Autowired
+    private CompactMessageCodec compactMessageCodec;
+
+    // Reconnect: everything after the client's last seen sequence number in each conversation
+    @PostMapping("/sync")
+    public SyncResponseDto sync(@AuthenticationPrincipal Jwt jwt,
+                                @Valid @RequestBody SyncRequestDto request) {
+        return messageSyncService.sync(AuthenticatedUser.id(jwt), request);
+    }
+
+    // Same payloads in the compact format for clients that send Accept: application/cbor
+    @PostMapping(value = "/sync", produces = MediaType.APPLICATION_CBOR_VALUE)
+    public CompactSyncResponseDto syncCompact(@AuthenticationPrincipal Jwt jwt,
+                                              @Valid @RequestBody SyncRequestDto request) {
+        return compactMessageCodec.encode(messageSyncService.sync(AuthenticatedUser.id(jwt), request));
+    }
+
+    @GetMapping("/search")
+    public MessageSearchPageDto searchMessages(@AuthenticationPrincipal Jwt jwt,
+                                               @RequestParam("q") String query,
+                                               @RequestParam(required = false) UUID conversationId,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size) {
+        return messageSearchService.search(AuthenticatedUser.id(jwt), query, conversationId, cursor, size);
+    }
+
+    // Next page: before and beforeId are the sentAt and messageId of the last message received
+    @GetMapping("/{conversationId}/messages")
+    public List<MessageDto> getHistory(@AuthenticationPrincipal Jwt jwt,
+                                       @PathVariable UUID conversationId,
+                                       @RequestParam(required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+                                       @RequestParam(required = false) UUID beforeId,
+                                       @RequestParam(required = false) Integer size) {
+        return messageService.getConversationHistory(conversationId, AuthenticatedUser.id(jwt), before, beforeId, size);
+    }
+
+    @GetMapping(value = "/{conversationId}/messages", produces = MediaType.APPLICATION_CBOR_VALUE)
+    public CompactMessagesDto getHistoryCompact(@AuthenticationPrincipal Jwt jwt,
+                                                @PathVariable UUID conversationId,
+                                                @RequestParam(required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+                                                @RequestParam(required = false) UUID beforeId,
+                                                @RequestParam(required = false) Integer size) {
+        return compactMessageCodec.encode(conversationId, messageService.getConversationHistory(
+                conversationId, AuthenticatedUser.id(jwt), before, beforeId, size));
+    }
+
+    @PostMapping("/{conversationId}/messages")
+    public MessageDto sendMessage(@AuthenticationPrincipal Jwt jwt,
+                                  @PathVariable UUID conversationId,
+                                  @Valid @RequestBody SendMessageDto dto) {
+        return messageService.sendMessage(conversationId, AuthenticatedUser.id(jwt), dto);
+    }
+
+    @PatchMapping("/{conversationId}/messages/{messageId}")
+    public MessageDto editMessage(@AuthenticationPrincipal Jwt jwt,
+                                  @PathVariable UUID conversationId,
+                                  @PathVariable UUID messageId,
+                                  @Valid @RequestBody EditMessageDto dto) {
+        return messageService.editMessage(conversationId, messageId, AuthenticatedUser.id(jwt), dto);
+    }
+
+    @DeleteMapping("/{conversationId}/messages/{messageId}")
+    public ResponseEntity<Void> deleteMessage(@AuthenticationPrincipal Jwt jwt,
+                                              @PathVariable UUID conversationId,
+                                              @PathVariable UUID messageId) {
+        messageService.deleteMessage(conversationId, messageId, AuthenticatedUser.id(jwt));
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/{conversationId}/read")
+    public ReadReceiptDto markRead(@AuthenticationPrincipal Jwt jwt,
+                                   @PathVariable UUID conversationId,
+                                   @Valid @RequestBody MarkReadDto dto) {
+        return messageService.markMessagesRead(conversationId, AuthenticatedUser.id(jwt), dto);
+    }
+
+    // Long-poll fallback: answers when something happens after the cursor or the poll times out
+    @GetMapping("/{conversationId}/events")
+    public DeferredResult<ConversationEventsDto> pollEvents(@AuthenticationPrincipal Jwt jwt,
+                                                           @PathVariable UUID conversationId,
+                                                           @RequestParam(required = false) String cursor) {
+        return streamHub.poll(conversationId, AuthenticatedUser.id(jwt), cursor);
+    }
+
+    // EventSource reconnects send the last event id back as Last-Event-ID
+    @GetMapping(value = "/{conversationId}/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@AuthenticationPrincipal Jwt jwt,
+                                   @PathVariable UUID conversationId,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                   @RequestParam(required = false) String cursor) {
+        return streamHub.stream(conversationId, AuthenticatedUser.id(jwt), lastEventId != null ? lastEventId : cursor);
+    }
+}
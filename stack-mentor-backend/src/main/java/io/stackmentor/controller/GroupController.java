@@ -0,0 +1,63 @@
+package io.stackmentor.controller;
+
+import io.stackmentor.dto.group.BulkMembershipRequestDto;
+import io.stackmentor.dto.group.BulkMembershipResultDto;
+import io.stackmentor.dto.group.GroupDto;
+import io.stackmentor.dto.group.GroupPageDto;
+import io.stackmentor.security.AuthenticatedUser;
+import io.stackmentor.service.GroupService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/groups")
+public class GroupController {
+
+    @Autowired
+    private GroupService groupService;
+
+    // Browse page: sort is "activity" (default) or "size"
+    @GetMapping
+    public GroupPageDto discoverGroups(@RequestParam(required = false) String q,
+                                       @RequestParam(required = false) String sort,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(required = false) Integer size) {
+        return groupService.discoverGroups(q, sort, cursor, size);
+    }
+
+    // Weak ETag from the group's version, checked before the roster is loaded; null means 304
+    @GetMapping("/{groupId}")
+    public GroupDto getGroup(@PathVariable UUID groupId, WebRequest request) {
+        if (request.checkNotModified("W/\"" + groupService.getGroupVersion(groupId) + "\"")) {
+            return null;
+        }
+        return groupService.getGroupWithMembers(groupId);
+    }
+
+    // Bulk changes are for the group's admins; anyone else gets 403
+    @PostMapping("/{groupId}/members/bulk-add")
+    public BulkMembershipResultDto bulkAdd(@AuthenticationPrincipal Jwt jwt,
+                                           @PathVariable UUID groupId,
+                                           @Valid @RequestBody BulkMembershipRequestDto dto) {
+        return groupService.addUsersToGroup(groupId, AuthenticatedUser.id(jwt), dto.getUserIds(), dto.getRole());
+    }
+
+    @PostMapping("/{groupId}/members/bulk-remove")
+    public BulkMembershipResultDto bulkRemove(@AuthenticationPrincipal Jwt jwt,
+                                              @PathVariable UUID groupId,
+                                              @Valid @RequestBody BulkMembershipRequestDto dto) {
+        return groupService.removeUsersFromGroup(groupId, AuthenticatedUser.id(jwt), dto.getUserIds());
+    }
+}
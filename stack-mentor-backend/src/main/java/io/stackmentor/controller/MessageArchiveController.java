@@ -0,0 +1,38 @@
+package io.stackmentor.controller;
+
+import io.stackmentor.service.MessageArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.SortedSet;
+
+@RestController
+@RequestMapping("/api/admin/messages/partitions")
+public class MessageArchiveController {
+
+    @Autowired
+    private MessageArchiveService messageArchiveService;
+
+    @GetMapping
+    public SortedSet<YearMonth> attachedMonths() {
+        return messageArchiveService.attachedMonths();
+    }
+
+    @PostMapping("/{month}/archive")
+    public ResponseEntity<Void> archive(@PathVariable YearMonth month) {
+        messageArchiveService.archiveMonth(month);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/{month}/rehydrate")
+    public ResponseEntity<Void> rehydrate(@PathVariable YearMonth month) {
+        messageArchiveService.rehydrateMonth(month);
+        return ResponseEntity.noContent().build();
+    }
+}
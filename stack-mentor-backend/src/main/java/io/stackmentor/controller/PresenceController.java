@@ -0,0 +1,61 @@
+package io.stackmentor.controller;
+
+import io.stackmentor.dto.presence.TypingDto;
+import io.stackmentor.presence.PresenceRegistry;
+import io.stackmentor.security.AuthenticatedUser;
+import io.stackmentor.security.ConversationAccess;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Controller
+public class PresenceController {
+
+    @Autowired
+    private PresenceRegistry presenceRegistry;
+
+    @Autowired
+    private ConversationAccess conversationAccess;
+
+    // A user may hold several sessions; they go offline when the last one closes
+    private final ConcurrentHashMap<String, UUID> sessionUsers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Integer> userSessionCounts = new ConcurrentHashMap<>();
+
+    @MessageMapping("/presence/heartbeat")
+    public void heartbeat(Principal principal, SimpMessageHeaderAccessor headers) {
+        UUID userId = AuthenticatedUser.id(principal);
+        String sessionId = headers.getSessionId();
+        if (sessionId != null && sessionUsers.putIfAbsent(sessionId, userId) == null) {
+            userSessionCounts.merge(userId, 1, Integer::sum);
+        }
+        presenceRegistry.heartbeat(userId);
+    }
+
+    @MessageMapping("/presence/typing")
+    public void typing(@Valid @Payload TypingDto dto, Principal principal) {
+        UUID userId = AuthenticatedUser.id(principal);
+        conversationAccess.requireParticipant(dto.getConversationId(), userId);
+        presenceRegistry.typing(userId, dto.getConversationId(), dto.isTyping());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        UUID userId = sessionUsers.remove(event.getSessionId());
+        if (userId == null) return;
+
+        // Returning null from the remapping function drops the count once it reaches zero
+        Integer remaining = userSessionCounts.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+        if (remaining == null) {
+            presenceRegistry.disconnect(userId);
+        }
+    }
+}
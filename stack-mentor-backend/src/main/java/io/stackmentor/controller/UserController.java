@@ -0,0 +1,90 @@
+package io.stackmentor.controller;
+
+import io.stackmentor.dto.user.NearbyUserDto;
+import io.stackmentor.dto.user.SuggestedMentorsDto;
+import io.stackmentor.dto.user.TypeaheadResultDto;
+import io.stackmentor.dto.user.UpdateProfileDto;
+import io.stackmentor.dto.user.UserDto;
+import io.stackmentor.dto.user.UserPageDto;
+import io.stackmentor.security.AuthenticatedUser;
+import io.stackmentor.service.MentorSuggestionService;
+import io.stackmentor.service.UserService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/users")
+public class UserController {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MentorSuggestionService mentorSuggestionService;
+
+    // Weak ETag from the user's version, checked before the profile is loaded; null means 304
+    @GetMapping("/{userId}")
+    public UserDto getProfile(@PathVariable UUID userId, WebRequest request) {
+        if (request.checkNotModified("W/\"" + userService.getUserVersion(userId) + "\"")) {
+            return null;
+        }
+        return userService.getUserProfile(userId);
+    }
+
+    // Home feed: precomputed by MentorSuggestionService, served from a single key lookup
+    @GetMapping("/{userId}/suggested-mentors")
+    public SuggestedMentorsDto suggestedMentors(@AuthenticationPrincipal Jwt jwt, @PathVariable UUID userId) {
+        return mentorSuggestionService.getSuggestedMentors(AuthenticatedUser.requireSelf(jwt, userId));
+    }
+
+    // Only the user themselves; a token for anyone else gets 403
+    @PutMapping("/{userId}/profile")
+    public UserDto updateProfile(@AuthenticationPrincipal Jwt jwt,
+                                 @PathVariable UUID userId,
+                                 @Valid @RequestBody UpdateProfileDto dto) {
+        return userService.updateUserProfile(AuthenticatedUser.requireSelf(jwt, userId), dto);
+    }
+
+    @GetMapping("/search")
+    public UserPageDto searchUsers(@RequestParam(required = false) String q,
+                                   @RequestParam(required = false) String role,
+                                   @RequestParam(required = false) String experience,
+                                   @RequestParam(required = false) List<String> industries,
+                                   @RequestParam(required = false) UUID cursor,
+                                   @RequestParam(required = false) Integer size) {
+
+        return userService.searchUserSummaries(q, role, experience, industries, cursor, size);
+    }
+
+    @GetMapping("/typeahead")
+    public List<TypeaheadResultDto> typeahead(@RequestParam String q,
+                                              @RequestParam(required = false) Integer limit) {
+        return userService.typeahead(q, limit);
+    }
+
+    @GetMapping("/nearby")
+    public List<NearbyUserDto> nearby(@RequestParam(required = false) String zip,
+                                      @RequestParam(required = false) Double lat,
+                                      @RequestParam(required = false) Double lon,
+                                      @RequestParam(required = false) Double radiusKm,
+                                      @RequestParam(required = false) Integer limit,
+                                      @RequestParam(required = false) String q,
+                                      @RequestParam(required = false) String role,
+                                      @RequestParam(required = false) String experience,
+                                      @RequestParam(required = false) List<String> industries) {
+        return userService.findUsersNearby(zip, lat, lon, radiusKm, limit, q, role, experience, industries);
+    }
+}
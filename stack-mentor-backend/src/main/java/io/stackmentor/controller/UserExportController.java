@@ -0,0 +1,79 @@
+package io.stackmentor.controller;
+
+import io.stackmentor.dto.user.UserSummaryDto;
+import io.stackmentor.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Bulk directory export; under /api/admin, so only admins can pull every matching profile
+@RestController
+@RequestMapping("/api/admin/users/export")
+public class UserExportController {
+
+    @Autowired
+    private UserService userService;
+
+    @GetMapping(produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(required = false) String q,
+                                                             @RequestParam(required = false) String role,
+                                                             @RequestParam(required = false) String experience,
+                                                             @RequestParam(required = false) List<String> industries) {
+
+        // Rows are written as they are read, so the response never sits in memory as a whole
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.write("user_id,first_name,last_name,role,job_title,industry,years_of_experience,city,state\n");
+            try {
+                userService.exportUsers(q, role, experience, industries, summary -> writeRow(writer, summary));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"")
+                .body(body);
+    }
+
+    private static void writeRow(Writer writer, UserSummaryDto summary) {
+        try {
+            writer.write(String.join(",",
+                    csv(summary.getUserId()),
+                    csv(summary.getFirstName()),
+                    csv(summary.getLastName()),
+                    csv(summary.getRole()),
+                    csv(summary.getJobTitle()),
+                    csv(summary.getIndustry()),
+                    csv(summary.getYearsOfExperience()),
+                    csv(summary.getCity()),
+                    csv(summary.getState())));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csv(Object value) {
+        if (value == null) return "";
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
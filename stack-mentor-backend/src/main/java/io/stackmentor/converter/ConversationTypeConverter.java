@@ -0,0 +1,12 @@
+package io.stackmentor.converter;
+
+import io.stackmentor.enums.ConversationType;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class ConversationTypeConverter extends EnumValueConverter<ConversationType> {
+
+    public ConversationTypeConverter() {
+        super(ConversationType.class, ConversationType::getValue);
+    }
+}
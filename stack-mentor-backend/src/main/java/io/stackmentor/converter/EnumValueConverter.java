@@ -0,0 +1,41 @@
+package io.stackmentor.converter;
+
+import jakarta.persistence.AttributeConverter;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stores an enum by its lowercase {@code value}, which is what the schema's CHECK constraints
+ * and the JDBC writers use, instead of the constant name {@code EnumType.STRING} would write.
+ */
+abstract class EnumValueConverter<E extends Enum<E>> implements AttributeConverter<E, String> {
+
+    private final Class<E> type;
+    private final Function<E, String> value;
+    private final Map<String, E> byValue;
+
+    EnumValueConverter(Class<E> type, Function<E, String> value) {
+        this.type = type;
+        this.value = value;
+        this.byValue = Arrays.stream(type.getEnumConstants())
+                .collect(Collectors.toUnmodifiableMap(value, Function.identity()));
+    }
+
+    @Override
+    public String convertToDatabaseColumn(E attribute) {
+        return attribute != null ? value.apply(attribute) : null;
+    }
+
+    @Override
+    public E convertToEntityAttribute(String column) {
+        if (column == null) return null;
+        E constant = byValue.get(column);
+        if (constant == null) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " value: " + column);
+        }
+        return constant;
+    }
+}
@@ -0,0 +1,12 @@
+package io.stackmentor.converter;
+
+import io.stackmentor.enums.GroupMemberType;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class GroupMemberTypeConverter extends EnumValueConverter<GroupMemberType> {
+
+    public GroupMemberTypeConverter() {
+        super(GroupMemberType.class, GroupMemberType::getValue);
+    }
+}
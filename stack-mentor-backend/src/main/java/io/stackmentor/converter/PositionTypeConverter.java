@@ -0,0 +1,12 @@
+package io.stackmentor.converter;
+
+import io.stackmentor.enums.PositionType;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class PositionTypeConverter extends EnumValueConverter<PositionType> {
+
+    public PositionTypeConverter() {
+        super(PositionType.class, PositionType::getValue);
+    }
+}
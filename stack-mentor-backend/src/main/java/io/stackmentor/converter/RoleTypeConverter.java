@@ -0,0 +1,12 @@
+package io.stackmentor.converter;
+
+import io.stackmentor.enums.RoleType;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class RoleTypeConverter extends EnumValueConverter<RoleType> {
+
+    public RoleTypeConverter() {
+        super(RoleType.class, RoleType::getValue);
+    }
+}
@@ -0,0 +1,144 @@
+package io.stackmentor.counter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.stackmentor.event.GroupMembershipChangedEvent;
+import io.stackmentor.event.MessageSentEvent;
+import io.stackmentor.repository.GroupDiscoveryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers changes to groups.member_count and groups.last_activity_at and applies them in one
+ * batch per flush. Joins, leaves and messages in a busy group then never queue on its row lock;
+ * they meet only on a map bin, and a thousand messages between flushes become one update.
+ * A change is counted only once its transaction commits.
+ */
+@Component
+public class GroupActivityCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupActivityCounters.class);
+
+    @Autowired
+    private GroupDiscoveryRepository groupDiscoveryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Net membership change per group since the last flush
+    private final ConcurrentHashMap<UUID, Integer> memberDeltas = new ConcurrentHashMap<>();
+
+    // Newest message per conversation since the last flush
+    private final ConcurrentHashMap<UUID, LocalDateTime> latestActivity = new ConcurrentHashMap<>();
+
+    private final Counter flushFailures;
+
+    public GroupActivityCounters(MeterRegistry meterRegistry) {
+        this.flushFailures = Counter.builder("group.counters.flush.failures")
+                .description("Counter flushes that failed and were kept for the next attempt")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMembershipChanged(GroupMembershipChangedEvent event) {
+        memberDeltas.merge(event.groupId(), event.delta(), Integer::sum);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessageSent(MessageSentEvent event) {
+        if (event.message().getSentAt() == null) return;
+        latestActivity.merge(event.message().getConversationId(), event.message().getSentAt(),
+                (current, sentAt) -> sentAt.isAfter(current) ? sentAt : current);
+    }
+
+    /**
+     * Applies everything buffered so far. A failed write puts its changes back, merged with
+     * whatever arrived meanwhile, so the next flush retries them.
+     */
+    @Scheduled(fixedDelayString = "${stackmentor.groups.counter-flush-interval:PT5S}")
+    @PreDestroy
+    public void flush() {
+        Map<UUID, Integer> deltas = drain(memberDeltas);
+        deltas.values().removeIf(delta -> delta == 0);
+        if (!deltas.isEmpty()) {
+            try {
+                groupDiscoveryRepository.addMemberCounts(deltas);
+            } catch (RuntimeException e) {
+                deltas.forEach((groupId, delta) -> memberDeltas.merge(groupId, delta, Integer::sum));
+                failed("member counts", e);
+            }
+        }
+
+        Map<UUID, LocalDateTime> activity = drain(latestActivity);
+        if (!activity.isEmpty()) {
+            try {
+                groupDiscoveryRepository.touchActivity(activity);
+            } catch (RuntimeException e) {
+                activity.forEach((conversationId, sentAt) -> latestActivity.merge(conversationId, sentAt,
+                        (current, restored) -> restored.isAfter(current) ? restored : current));
+                failed("activity", e);
+            }
+        }
+    }
+
+    /**
+     * Recounts rosters to repair drift the buffered deltas cannot see: deltas lost when a node
+     * stops abruptly, and members removed by cascade when a user is deleted. Every node flushes
+     * at this time, but only the one holding the reconcile lock recounts. It drops the deltas
+     * it buffered since its flush: their transactions committed before the recount reads the
+     * rosters, so applying them as well would count them twice. A delta another node buffers
+     * in the same moment can still land on top, leaving that group off until the next run.
+     */
+    @Scheduled(cron = "${stackmentor.groups.reconcile-cron:0 45 4 * * *}")
+    public void reconcile() {
+        flush();
+        Map<UUID, Integer> superseded = new HashMap<>();
+        Integer fixed;
+        try {
+            fixed = transactionTemplate.execute(status -> {
+                if (!groupDiscoveryRepository.tryReconcileLock()) return null;
+                superseded.putAll(drain(memberDeltas));
+                return groupDiscoveryRepository.reconcileMemberCounts();
+            });
+        } catch (RuntimeException e) {
+            superseded.forEach((groupId, delta) -> memberDeltas.merge(groupId, delta, Integer::sum));
+            throw e;
+        }
+
+        if (fixed == null) {
+            log.debug("Member counts are being reconciled on another node; skipped");
+        } else if (fixed > 0) {
+            log.info("Corrected member counts of {} groups", fixed);
+        }
+    }
+
+    // remove() per key is atomic, so a merge lands either in this flush or in the next
+    private static <V> Map<UUID, V> drain(ConcurrentHashMap<UUID, V> buffer) {
+        Map<UUID, V> drained = new HashMap<>();
+        for (UUID key : buffer.keySet()) {
+            V value = buffer.remove(key);
+            if (value != null) {
+                drained.put(key, value);
+            }
+        }
+        return drained;
+    }
+
+    private void failed(String what, RuntimeException e) {
+        flushFailures.increment();
+        log.warn("Flushing group {} failed; keeping changes for the next flush", what, e);
+    }
+}
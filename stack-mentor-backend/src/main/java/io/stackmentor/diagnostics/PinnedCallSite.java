@@ -0,0 +1,8 @@
+package io.stackmentor.diagnostics;
+
+/**
+ * Pinning seen at one call site since startup or the last reset. {@code callSite} is the
+ * innermost application frame, {@code pinnedAt} the frame that held the carrier.
+ */
+public record PinnedCallSite(String callSite, String pinnedAt, long count, double totalMillis, double maxMillis) {
+}
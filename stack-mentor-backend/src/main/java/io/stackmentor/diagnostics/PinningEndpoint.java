@@ -0,0 +1,33 @@
+package io.stackmentor.diagnostics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/pinning lists pinned call sites by total time pinned; DELETE clears them, e.g.
+ * before measuring a fix.
+ */
+@Component
+@Endpoint(id = "pinning")
+public class PinningEndpoint {
+
+    private final VirtualThreadPinningMonitor monitor;
+
+    public PinningEndpoint(VirtualThreadPinningMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @ReadOperation
+    public List<PinnedCallSite> callSites() {
+        return monitor.callSites();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        monitor.reset();
+    }
+}
@@ -0,0 +1,132 @@
+package io.stackmentor.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams JFR's jdk.VirtualThreadPinned events in-process and aggregates them by call site: the
+ * innermost io.stackmentor frame on the pinned stack, paired with the frame that actually
+ * blocked (usually a synchronized block in a driver or library). Served by the pinning actuator
+ * endpoint, so a pinning hot spot shows up without taking a recording off the box.
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String APPLICATION_PACKAGE = "io.stackmentor.";
+    static final String UNKNOWN = "unknown";
+
+    private final ConcurrentHashMap<CallSiteKey, Stats> callSites = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Duration threshold;
+    private final Counter pinned;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                       @Value("${stackmentor.virtual-threads.pinning.enabled:true}") boolean pinningEnabled,
+                                       @Value("${stackmentor.virtual-threads.pinning.threshold:20ms}") Duration threshold) {
+        this.enabled = virtualThreads && pinningEnabled;
+        this.threshold = threshold;
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier for longer than the threshold")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || stream != null) return;
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Recording virtual thread pinning longer than {}", threshold);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    public List<PinnedCallSite> callSites() {
+        return callSites.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingDouble(PinnedCallSite::totalMillis).reversed())
+                .toList();
+    }
+
+    public void reset() {
+        callSites.clear();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<String> frames = stackTrace == null ? List.of() : stackTrace.getFrames().stream()
+                .map(VirtualThreadPinningMonitor::describe)
+                .toList();
+        record(frames, event.getDuration());
+    }
+
+    /**
+     * Attributes one pinning event to its call site. Frames are innermost first, formatted as
+     * {@code class.method:line}.
+     */
+    void record(List<String> frames, Duration duration) {
+        String pinnedAt = frames.isEmpty() ? UNKNOWN : frames.get(0);
+        String callSite = frames.stream()
+                .filter(frame -> frame.startsWith(APPLICATION_PACKAGE))
+                .findFirst()
+                .orElse(pinnedAt);
+
+        callSites.computeIfAbsent(new CallSiteKey(callSite, pinnedAt), key -> new Stats()).add(duration.toNanos());
+        pinned.increment();
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private record CallSiteKey(String callSite, String pinnedAt) {
+    }
+
+    private static final class Stats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void add(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        PinnedCallSite snapshot(CallSiteKey key) {
+            return new PinnedCallSite(key.callSite(), key.pinnedAt(), count.sum(),
+                    totalNanos.sum() / 1_000_000.0, maxNanos.get() / 1_000_000.0);
+        }
+    }
+}
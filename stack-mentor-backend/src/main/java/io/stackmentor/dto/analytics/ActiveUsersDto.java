@@ -0,0 +1,16 @@
+package io.stackmentor.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActiveUsersDto {
+
+    private List<DailyActiveUsersDto> days;
+    private long distinctUsers;  // Across the whole range, not the sum of the days
+}
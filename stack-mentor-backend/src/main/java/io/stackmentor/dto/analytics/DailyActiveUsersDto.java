@@ -0,0 +1,16 @@
+package io.stackmentor.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyActiveUsersDto {
+
+    private LocalDate day;
+    private long activeUsers;  // Estimate, within about 2%
+}
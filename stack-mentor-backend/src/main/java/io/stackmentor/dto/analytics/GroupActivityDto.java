@@ -0,0 +1,21 @@
+package io.stackmentor.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupActivityDto {
+
+    private UUID groupId;
+    private LocalDateTime hour;
+    private int messages;
+    private int reads;      // Messages marked read, not distinct readers
+}
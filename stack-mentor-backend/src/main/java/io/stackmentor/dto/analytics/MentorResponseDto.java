@@ -0,0 +1,22 @@
+package io.stackmentor.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MentorResponseDto {
+
+    private LocalDateTime hour;      // When the replies were sent
+    private int responses;
+    private long averageSeconds;
+    private int within5Minutes;
+    private int within1Hour;
+    private int within1Day;
+}
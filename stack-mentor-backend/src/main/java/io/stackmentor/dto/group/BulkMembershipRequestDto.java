@@ -0,0 +1,23 @@
+package io.stackmentor.dto.group;
+
+import io.stackmentor.enums.GroupMemberType;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkMembershipRequestDto {
+
+    @NotEmpty(message = "At least one user is required")
+    @Size(max = 5000, message = "At most 5000 users per request")
+    private List<UUID> userIds;
+
+    private GroupMemberType role; // Defaults to MEMBER when adding; ignored when removing
+}
@@ -0,0 +1,21 @@
+package io.stackmentor.dto.group;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkMembershipResultDto {
+
+    private UUID groupId;
+    private int requested;
+    private int changed;  // Rows actually added or removed
+    private List<MemberOutcomeDto> outcomes;
+}
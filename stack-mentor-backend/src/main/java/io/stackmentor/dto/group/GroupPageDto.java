@@ -0,0 +1,15 @@
+package io.stackmentor.dto.group;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupPageDto {
+
+    private List<GroupSummaryDto> results;
+    private String nextCursor;  // Null on the last page
+}
@@ -0,0 +1,22 @@
+package io.stackmentor.dto.group;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupSummaryDto {
+
+    private UUID groupId;
+    private String groupName;
+    private String description;
+    private int memberCount;              // Trails membership changes by up to one counter flush
+    private LocalDateTime lastActivityAt; // Latest message, or creation for a quiet group
+}
@@ -0,0 +1,19 @@
+package io.stackmentor.dto.group;
+
+import io.stackmentor.enums.MembershipOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberOutcomeDto {
+
+    private UUID userId;
+    private MembershipOutcome outcome;
+}
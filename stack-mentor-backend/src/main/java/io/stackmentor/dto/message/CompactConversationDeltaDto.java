@@ -0,0 +1,18 @@
+package io.stackmentor.dto.message;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactConversationDeltaDto {
+
+    private UUID conversationId;
+    private long lastSeq;
+    private List<CompactMessageDto> changes;
+    private boolean hasMore;
+}
@@ -0,0 +1,39 @@
+package io.stackmentor.dto.message;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A {@link MessageDto} in the compact wire format, written as a positional array in the order
+ * below. Timestamps are microseconds: {@code sentAt} relative to the previous message's
+ * {@code sentAt} in the payload (the first one to the payload's {@code base}), {@code editedAt}
+ * and {@code deletedAt} relative to the message's own {@code sentAt}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonPropertyOrder({"messageId", "seq", "changeSeq", "sender", "content", "media",
+        "sentAt", "editedAt", "deletedAt", "flags"})
+public class CompactMessageDto {
+
+    public static final int DELETED = 1;
+    public static final int READ = 2;
+
+    private UUID messageId;
+    private Long seq;
+    private Long changeSeq;
+    private Integer sender;      // Index into the payload's senders
+    private String content;
+    private List<String> media;  // mediaUrl split into its URLs
+    private Long sentAt;
+    private Long editedAt;
+    private Long deletedAt;
+    private int flags;           // DELETED | READ
+}
@@ -0,0 +1,19 @@
+package io.stackmentor.dto.message;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+// History pages and WebSocket frames in the compact wire format
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactMessagesDto {
+
+    private UUID conversationId;
+    private long base;                      // Epoch microseconds (UTC) the first sentAt is relative to
+    private List<CompactSenderDto> senders;
+    private List<CompactMessageDto> messages;
+}
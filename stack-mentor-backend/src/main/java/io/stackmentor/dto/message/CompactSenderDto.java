@@ -0,0 +1,20 @@
+package io.stackmentor.dto.message;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.*;
+
+import java.util.UUID;
+
+// Written once per payload; messages refer to it by index
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonPropertyOrder({"id", "name"})
+public class CompactSenderDto {
+
+    private UUID id;
+    private String name;
+}
@@ -0,0 +1,19 @@
+package io.stackmentor.dto.message;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+// SyncResponseDto in the compact wire format; senders and the timestamp chain span all conversations
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactSyncResponseDto {
+
+    private long base;
+    private List<CompactSenderDto> senders;
+    private List<CompactConversationDeltaDto> conversations;
+    private List<UUID> removedConversationIds;
+}
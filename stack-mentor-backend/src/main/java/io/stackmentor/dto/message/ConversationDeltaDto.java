@@ -0,0 +1,18 @@
+package io.stackmentor.dto.message;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationDeltaDto {
+
+    private UUID conversationId;
+    private long lastSeq;               // Store as lastSeen once hasMore is false
+    private List<MessageDto> changes;   // Sends, edits and deletes in changeSeq order
+    private boolean hasMore;            // Sync again from the last change's changeSeq
+}
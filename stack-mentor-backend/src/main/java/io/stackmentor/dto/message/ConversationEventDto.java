@@ -0,0 +1,16 @@
+package io.stackmentor.dto.message;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationEventDto {
+
+    private String type;     // message, presence
+    private String cursor;   // Resume point just after this event
+    @JsonRawValue
+    private String payload;  // Same JSON the WebSocket subscribers receive
+}
@@ -0,0 +1,16 @@
+package io.stackmentor.dto.message;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationEventsDto {
+
+    private String cursor;   // Pass back on the next poll
+    private boolean reset;   // Events were missed; reload history before continuing from cursor
+    private List<ConversationEventDto> events;
+}
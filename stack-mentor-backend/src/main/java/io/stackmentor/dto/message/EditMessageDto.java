@@ -0,0 +1,17 @@
+package io.stackmentor.dto.message;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EditMessageDto {
+
+    @NotBlank(message = "Message content is required")
+    @Size(max = 4000, message = "Messages are limited to 4000 characters")
+    private String content;
+}
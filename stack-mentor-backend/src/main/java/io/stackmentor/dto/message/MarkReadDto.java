@@ -0,0 +1,20 @@
+package io.stackmentor.dto.message;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkReadDto {
+
+    @NotEmpty
+    @Size(max = 500, message = "At most 500 messages can be marked read at once")
+    private List<UUID> messageIds;
+}
@@ -15,6 +15,8 @@ public class MessageDto {
 
     private UUID messageId;
     private UUID conversationId;
+    private Long seq;         // Order within the conversation
+    private Long changeSeq;   // Bumped by edits and deletes; the delta-sync position
     private UUID senderId;
     private String senderName;  // Useful for display
     private String content;
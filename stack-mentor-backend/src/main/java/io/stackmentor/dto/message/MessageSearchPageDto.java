@@ -0,0 +1,15 @@
+package io.stackmentor.dto.message;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchPageDto {
+
+    private List<MessageSearchResultDto> results;
+    private String nextCursor;  // Null on the last page
+}
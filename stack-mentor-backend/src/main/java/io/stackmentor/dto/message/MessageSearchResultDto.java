@@ -0,0 +1,22 @@
+package io.stackmentor.dto.message;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageSearchResultDto {
+
+    private UUID messageId;
+    private UUID conversationId;
+    private UUID senderId;
+    private String senderName;
+    private LocalDateTime sentAt;
+    private String snippet;  // Matching fragments, terms wrapped in <mark></mark>
+    private float rank;
+}
@@ -0,0 +1,20 @@
+package io.stackmentor.dto.message;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Broadcast on /topic/conversations/{id}/receipts when a participant reads messages
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceiptDto {
+
+    private UUID conversationId;
+    private UUID userId;
+    private List<UUID> messageIds;  // Only the ones this call newly marked read
+    private LocalDateTime readAt;
+}
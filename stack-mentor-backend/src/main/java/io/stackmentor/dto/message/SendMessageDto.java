@@ -0,0 +1,20 @@
+package io.stackmentor.dto.message;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SendMessageDto {
+
+    @NotBlank(message = "Message content is required")
+    @Size(max = 4000, message = "Messages are limited to 4000 characters")
+    private String content;
+
+    @Size(max = 255)
+    private String mediaUrl;
+}
@@ -0,0 +1,18 @@
+package io.stackmentor.dto.message;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncRequestDto {
+
+    // Conversation id -> the lastSeq the client has fully applied
+    private Map<UUID, Long> lastSeen = new HashMap<>();
+}
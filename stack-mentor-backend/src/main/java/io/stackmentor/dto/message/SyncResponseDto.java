@@ -0,0 +1,19 @@
+package io.stackmentor.dto.message;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponseDto {
+
+    // Conversations with changes, plus ones the client does not know yet (no changes, load history)
+    private List<ConversationDeltaDto> conversations;
+
+    // Conversations the client sent but the user no longer belongs to
+    private List<UUID> removedConversationIds;
+}
@@ -0,0 +1,19 @@
+package io.stackmentor.dto.presence;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PresenceBatchDto {
+
+    private UUID conversationId;
+    private List<PresenceChangeDto> changes;
+}
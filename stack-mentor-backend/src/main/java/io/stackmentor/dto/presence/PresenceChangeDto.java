@@ -0,0 +1,26 @@
+package io.stackmentor.dto.presence;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// A null field means that state did not change in this batch
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PresenceChangeDto {
+
+    private UUID userId;
+    private Boolean online;
+    private Boolean typing;
+
+    public PresenceChangeDto mergedWith(PresenceChangeDto newer) {
+        return new PresenceChangeDto(userId,
+                newer.online != null ? newer.online : online,
+                newer.typing != null ? newer.typing : typing);
+    }
+}
@@ -0,0 +1,19 @@
+package io.stackmentor.dto.presence;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypingDto {
+
+    @NotNull
+    private UUID conversationId;
+
+    private boolean typing;
+}
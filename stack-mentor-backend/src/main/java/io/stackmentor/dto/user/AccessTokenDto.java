@@ -0,0 +1,15 @@
+package io.stackmentor.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccessTokenDto {
+
+    private String accessToken;
+    private String tokenType;
+    private long expiresIn; // seconds
+}
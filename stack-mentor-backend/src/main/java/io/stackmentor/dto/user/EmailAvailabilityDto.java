@@ -0,0 +1,14 @@
+package io.stackmentor.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailAvailabilityDto {
+
+    private String email;
+    private boolean available;
+}
@@ -0,0 +1,15 @@
+package io.stackmentor.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearbyUserDto {
+    private UserSummaryDto user;
+    private double distanceKm;
+}
@@ -43,5 +43,8 @@ public class RegisterUserDto {
     @Size(min = 2, max = 2, message = "State must be 2 characters")
     private String state;
 
+    @Pattern(regexp = "^\\d{5}(-\\d{4})?$", message = "Please provide a valid ZIP code")
+    private String zipCode;
+
     private String gender;
 }
@@ -0,0 +1,17 @@
+package io.stackmentor.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestedMentorsDto {
+
+    private UUID menteeId;
+    private List<UserSummaryDto> mentors;  // Best match first; empty until the first refresh
+}
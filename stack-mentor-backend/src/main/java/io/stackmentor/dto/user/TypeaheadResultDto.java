@@ -0,0 +1,18 @@
+package io.stackmentor.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TypeaheadResultDto {
+    private UUID userId;
+    private String firstName;
+    private String lastName;
+}
@@ -0,0 +1,41 @@
+package io.stackmentor.dto.user;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Null fields are left unchanged
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateProfileDto {
+
+    @Size(max = 100, message = "Job title must be at most 100 characters")
+    private String jobTitle;
+
+    @Size(max = 100, message = "Industry must be at most 100 characters")
+    private String industry;
+
+    @Min(value = 0, message = "Years of experience cannot be negative")
+    private Integer yearsOfExperience;
+
+    private List<String> skillsOrInterests;
+
+    private String bio;
+
+    @Size(max = 50, message = "City must be at most 50 characters")
+    private String city;
+
+    @Size(min = 2, max = 2, message = "State must be 2 characters")
+    private String state;
+
+    @Pattern(regexp = "^\\d{5}(-\\d{4})?$", message = "Please provide a valid ZIP code")
+    private String zipCode;
+
+    private String profilePictureUrl;
+}
@@ -0,0 +1,19 @@
+package io.stackmentor.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserPageDto {
+    private List<UserSummaryDto> results;
+    private UUID nextCursor;  // Pass back as "cursor" to fetch the following page
+    private boolean hasNext;
+}
@@ -0,0 +1,29 @@
+package io.stackmentor.dto.user;
+
+import io.stackmentor.enums.RoleType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// Lightweight projection used by search results -- never carries credentials or contact details
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserSummaryDto {
+    private UUID userId;
+    private String firstName;
+    private String lastName;
+    private RoleType role;
+    private String jobTitle;
+    private String industry;
+    private Integer yearsOfExperience;
+    private String city;
+    private String state;
+    private String profilePictureUrl;
+    private Double latitude;   // ZIP centroid, when known
+    private Double longitude;
+}
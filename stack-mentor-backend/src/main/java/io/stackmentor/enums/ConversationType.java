@@ -0,0 +1,14 @@
+package io.stackmentor.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum ConversationType {
+
+    GROUP("group"),
+    PRIVATE("private");
+
+    private final String value;
+
+    ConversationType(String value) {this.value = value;}
+}
@@ -0,0 +1,16 @@
+package io.stackmentor.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum GroupSortType {
+
+    SIZE("size"),
+    ACTIVITY("activity");
+
+    private final String value;
+
+    GroupSortType(String value) {
+        this.value = value;
+    }
+}
@@ -0,0 +1,17 @@
+package io.stackmentor.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum MembershipOutcome {
+
+    ADDED("added"),
+    REMOVED("removed"),
+    ALREADY_MEMBER("already_member"),
+    NOT_MEMBER("not_member"),
+    USER_NOT_FOUND("user_not_found");
+
+    private final String value;
+
+    MembershipOutcome(String value) {this.value = value;}
+}
@@ -0,0 +1,21 @@
+package io.stackmentor.event;
+
+import java.util.Set;
+import java.util.UUID;
+
+// Published when members join or leave a group
+public record GroupMembershipChangedEvent(UUID groupId, Set<UUID> added, Set<UUID> removed) {
+
+    public static GroupMembershipChangedEvent joined(UUID groupId, Set<UUID> userIds) {
+        return new GroupMembershipChangedEvent(groupId, userIds, Set.of());
+    }
+
+    public static GroupMembershipChangedEvent left(UUID groupId, Set<UUID> userIds) {
+        return new GroupMembershipChangedEvent(groupId, Set.of(), userIds);
+    }
+
+    // Net change in member count
+    public int delta() {
+        return added.size() - removed.size();
+    }
+}
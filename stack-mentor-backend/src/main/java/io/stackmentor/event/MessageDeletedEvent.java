@@ -0,0 +1,7 @@
+package io.stackmentor.event;
+
+import io.stackmentor.dto.message.MessageDto;
+
+// Published when a sender deletes a message; carries the tombstone without content
+public record MessageDeletedEvent(MessageDto tombstone) {
+}
@@ -0,0 +1,7 @@
+package io.stackmentor.event;
+
+import io.stackmentor.dto.message.MessageDto;
+
+// Published when a message's content changes; delivered to subscribers once the transaction commits
+public record MessageEditedEvent(MessageDto message) {
+}
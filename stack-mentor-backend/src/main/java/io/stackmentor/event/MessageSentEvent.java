@@ -0,0 +1,8 @@
+package io.stackmentor.event;
+
+import io.stackmentor.dto.message.MessageDto;
+import io.stackmentor.enums.RoleType;
+
+// Published when a message is stored; delivered to subscribers once the transaction commits
+public record MessageSentEvent(MessageDto message, RoleType senderRole) {
+}
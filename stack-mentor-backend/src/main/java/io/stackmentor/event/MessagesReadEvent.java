@@ -0,0 +1,7 @@
+package io.stackmentor.event;
+
+import io.stackmentor.dto.message.ReadReceiptDto;
+
+// Published when a participant marks messages read; receipts travel apart from the messages
+public record MessagesReadEvent(ReadReceiptDto receipt) {
+}
@@ -0,0 +1,7 @@
+package io.stackmentor.event;
+
+import io.stackmentor.dto.user.UserSummaryDto;
+
+// Carries the searchable fields before and after the change; unverified users are not searchable
+public record UserProfileUpdatedEvent(UserSummaryDto previous, UserSummaryDto current, boolean verified) {
+}
@@ -0,0 +1,7 @@
+package io.stackmentor.event;
+
+import java.util.UUID;
+
+// Published when an account is created, before its email is confirmed
+public record UserRegisteredEvent(UUID userId) {
+}
@@ -0,0 +1,7 @@
+package io.stackmentor.event;
+
+import io.stackmentor.dto.user.UserSummaryDto;
+
+// Published once a user confirms their email and becomes visible in search
+public record UserVerifiedEvent(UserSummaryDto user) {
+}
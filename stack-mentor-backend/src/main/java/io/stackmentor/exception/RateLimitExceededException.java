@@ -0,0 +1,14 @@
+package io.stackmentor.exception;
+
+import lombok.Getter;
+
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public RateLimitExceededException(long retryAfterMillis) {
+        super("Too many messages, retry in " + retryAfterMillis + "ms");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+}
@@ -0,0 +1,82 @@
+package io.stackmentor.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps in-flight HTTP requests once every request gets its own virtual thread. Without it a
+ * traffic spike turns into thousands of threads queued on the Hikari pool until they time out;
+ * with it the excess waits briefly here and is then turned away with a 503.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long maxQueueWaitNanos;
+    private final int maxConcurrentRequests;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  @Value("${stackmentor.virtual-threads.max-concurrent-requests:100}") int maxConcurrentRequests,
+                                  @Value("${stackmentor.virtual-threads.max-queue-wait:1s}") Duration maxQueueWait) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.rejected = Counter.builder("http.server.requests.rejected")
+                .description("Requests turned away by the concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("http.server.requests.in.flight", permits, p -> maxConcurrentRequests - p.availablePermits())
+                .description("Requests holding a concurrency permit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Health probes must answer even when the app is saturated
+        return request.getRequestURI().startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxQueueWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                    "Server is at its limit of " + maxConcurrentRequests + " concurrent requests");
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
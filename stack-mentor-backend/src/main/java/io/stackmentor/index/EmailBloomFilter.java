@@ -0,0 +1,169 @@
+package io.stackmentor.index;
+
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bloom filter over registered emails (lower-cased), so the signup form's availability check
+ * only reaches the database for addresses that are taken or collide. Bits are set with an
+ * atomic OR; until the initial load finishes every lookup answers "maybe".
+ * <p>
+ * "Not present" is only as fresh as this node's view. Registrations on this node are added
+ * at once, but one handled by another node is missing until the next rebuild, so for up to
+ * {@code rebuild-interval} the form can call such an address available. That is a hint only:
+ * registration relies on the unique index on {@code lower(email)}, never on this filter. The
+ * rebuild reads the table into fresh bits and swaps them in, which also drops deleted users.
+ */
+@Component
+public class EmailBloomFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+    private final int words;
+    private final long bitCount;
+    private final int hashCount;
+    private volatile AtomicLongArray bits;
+    private volatile boolean loaded;
+
+    // Set while a rebuild reads the table, so adds meanwhile also land in the bits it swaps in
+    private AtomicLongArray rebuilding;
+    private final ReentrantLock swapLock = new ReentrantLock();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public EmailBloomFilter(@Value("${stackmentor.email-filter.expected-emails:1000000}") long expectedEmails,
+                            @Value("${stackmentor.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        // Standard sizing: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long optimalBits = (long) Math.ceil(-expectedEmails * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = (int) Math.max(1, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEmails * Math.log(2)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void load() {
+        rebuild();
+    }
+
+    // Picks up registrations other nodes handled; a failed rebuild keeps the current bits
+    @Scheduled(fixedDelayString = "${stackmentor.email-filter.rebuild-interval:PT10M}",
+            initialDelayString = "${stackmentor.email-filter.rebuild-interval:PT10M}")
+    @Transactional
+    public void rebuild() {
+        AtomicLongArray fresh = new AtomicLongArray(words);
+        swapLock.lock();
+        try {
+            rebuilding = fresh;
+        } finally {
+            swapLock.unlock();
+        }
+
+        long[] count = {0};
+        boolean read = false;
+        try {
+            // Fetch size inside a transaction makes the driver stream with a cursor
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement("SELECT email FROM users");
+                statement.setFetchSize(5000);
+                return statement;
+            }, resultSet -> {
+                set(fresh, resultSet.getString(1));
+                count[0]++;
+            });
+            read = true;
+        } finally {
+            swapLock.lock();
+            try {
+                if (read) {
+                    bits = fresh;
+                    loaded = true;
+                }
+                rebuilding = null;
+            } finally {
+                swapLock.unlock();
+            }
+        }
+        log.info("Loaded {} emails into the availability filter", count[0]);
+    }
+
+    public void add(String email) {
+        swapLock.lock();
+        try {
+            set(bits, email);
+            if (rebuilding != null) {
+                set(rebuilding, email);
+            }
+        } finally {
+            swapLock.unlock();
+        }
+    }
+
+    public boolean mightContain(String email) {
+        if (!loaded) return true;
+
+        AtomicLongArray current = bits;
+        long[] hashes = hashes(email);
+        for (int i = 0; i < hashCount; i++) {
+            long index = bitIndex(hashes, i);
+            if ((current.get((int) (index >>> 6)) & (1L << (index & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void set(AtomicLongArray target, String email) {
+        long[] hashes = hashes(email);
+        for (int i = 0; i < hashCount; i++) {
+            long index = bitIndex(hashes, i);
+            long mask = 1L << (index & 63);
+            target.getAndAccumulate((int) (index >>> 6), mask, (current, bit) -> current | bit);
+        }
+    }
+
+    void markLoaded() {
+        loaded = true;
+    }
+
+    // Kirsch-Mitzenmacher: the i-th index is h1 + i * h2
+    private long bitIndex(long[] hashes, int i) {
+        return Math.floorMod(hashes[0] + i * hashes[1], bitCount);
+    }
+
+    private static long[] hashes(String email) {
+        byte[] bytes = email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        long h1 = 0xcbf29ce484222325L;
+        long h2 = 0x84222325cbf29ce4L;
+        for (byte b : bytes) {
+            h1 = (h1 ^ (b & 0xff)) * 0x100000001b3L;
+            h2 = (h2 + (b & 0xff)) * 0x9E3779B97F4A7C15L;
+        }
+        return new long[] {mix(h1), mix(h2) | 1};
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,225 @@
+package io.stackmentor.index;
+
+import io.stackmentor.dto.user.UserSummaryDto;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.event.UserProfileUpdatedEvent;
+import io.stackmentor.event.UserVerifiedEvent;
+import io.stackmentor.repository.UserRepository;
+import io.stackmentor.specification.ExperienceRange;
+import io.stackmentor.specification.UserSpecificationBuilder;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Uniform lat/lon grid over verified users with known coordinates.
+ *
+ * <p>Radius queries visit only the cells overlapping the search circle's bounding box;
+ * k-nearest queries walk outward ring by ring and stop once no unvisited cell can hold
+ * anything closer than the current k-th result. Role and experience are kept on each point
+ * so those filters are applied before distance ranking.
+ */
+@Component
+public class GeoGridIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoGridIndex.class);
+
+    // ~22 km tall cells: a 50 km radius touches about 25 of them
+    static final double CELL_DEGREES = 0.2;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final UserRepository userRepository;
+    private final UserSpecificationBuilder specBuilder;
+
+    private final Map<Long, Set<Point>> cells = new ConcurrentHashMap<>();
+    private final Map<UUID, Point> points = new ConcurrentHashMap<>();
+
+    public record Point(UUID userId, double latitude, double longitude, RoleType role, Integer yearsOfExperience) {
+    }
+
+    public record Neighbor(UUID userId, double distanceKm) {
+    }
+
+    @Autowired
+    public GeoGridIndex(UserRepository userRepository, UserSpecificationBuilder specBuilder) {
+        this.userRepository = userRepository;
+        this.specBuilder = specBuilder;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void load() {
+        cells.clear();
+        points.clear();
+        try (Stream<UserSummaryDto> verified = userRepository.streamSummaries(specBuilder.isVerified())) {
+            verified.forEach(this::put);
+        }
+        log.info("Indexed {} user locations in {} grid cells", points.size(), cells.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserVerified(UserVerifiedEvent event) {
+        put(event.user());
+    }
+
+    // Same rule as load(): only verified users are indexed, so an unverified profile leaves the grid
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserProfileUpdated(UserProfileUpdatedEvent event) {
+        if (event.verified()) {
+            put(event.current());
+        } else {
+            remove(event.current().getUserId());
+        }
+    }
+
+    // Adds, moves or removes (when coordinates are missing) the user's point
+    public void put(UserSummaryDto user) {
+        Point point = null;
+        Point replaced;
+        if (user.getLatitude() == null || user.getLongitude() == null) {
+            replaced = points.remove(user.getUserId());
+        } else {
+            Point added = new Point(user.getUserId(), user.getLatitude(), user.getLongitude(),
+                    user.getRole(), user.getYearsOfExperience());
+            point = added;
+            replaced = points.put(added.userId(), added);
+            // Mutate inside compute so a concurrent removal of an emptied cell cannot orphan the point
+            cells.compute(cellKey(added.latitude(), added.longitude()), (key, cell) -> {
+                Set<Point> target = cell != null ? cell : ConcurrentHashMap.newKeySet();
+                target.add(added);
+                return target;
+            });
+        }
+
+        if (replaced != null && !replaced.equals(point)) {
+            removeFromCell(replaced);
+        }
+    }
+
+    public void remove(UUID userId) {
+        Point removed = points.remove(userId);
+        if (removed != null) {
+            removeFromCell(removed);
+        }
+    }
+
+    private void removeFromCell(Point point) {
+        cells.computeIfPresent(cellKey(point.latitude(), point.longitude()), (key, cell) -> {
+            cell.remove(point);
+            return cell.isEmpty() ? null : cell;
+        });
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    // Users within radiusKm, nearest first
+    public List<Neighbor> withinRadius(GeoPoint origin, double radiusKm, RoleType role,
+                                       ExperienceRange experience, int limit) {
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lonSpan = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(origin.latitude())), 0.01));
+
+        int minRow = row(origin.latitude() - latSpan);
+        int maxRow = row(origin.latitude() + latSpan);
+        int minColumn = column(origin.longitude() - lonSpan);
+        int maxColumn = column(origin.longitude() + lonSpan);
+
+        PriorityQueue<Neighbor> nearest = new PriorityQueue<>(
+                Comparator.comparingDouble(Neighbor::distanceKm).reversed());
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                scanCell(key(row, column), origin, radiusKm, role, experience, limit, nearest);
+            }
+        }
+        return sorted(nearest);
+    }
+
+    // The k closest users, looking no further than maxRadiusKm
+    public List<Neighbor> nearest(GeoPoint origin, int k, double maxRadiusKm, RoleType role,
+                                  ExperienceRange experience) {
+        int originRow = row(origin.latitude());
+        int originColumn = column(origin.longitude());
+        double cellHeightKm = CELL_DEGREES * KM_PER_DEGREE;
+        double cellWidthKm = cellHeightKm * Math.max(Math.cos(Math.toRadians(origin.latitude())), 0.01);
+        int maxRing = (int) Math.ceil(maxRadiusKm / Math.min(cellHeightKm, cellWidthKm)) + 1;
+
+        PriorityQueue<Neighbor> nearest = new PriorityQueue<>(
+                Comparator.comparingDouble(Neighbor::distanceKm).reversed());
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Anything in ring r or beyond is at least (r - 1) cells away from the origin
+            double unvisitedFloorKm = Math.max(ring - 1, 0) * Math.min(cellHeightKm, cellWidthKm);
+            if (nearest.size() == k && nearest.peek().distanceKm() <= unvisitedFloorKm) break;
+            if (unvisitedFloorKm > maxRadiusKm) break;
+
+            for (int row = originRow - ring; row <= originRow + ring; row++) {
+                for (int column = originColumn - ring; column <= originColumn + ring; column++) {
+                    boolean onRing = Math.abs(row - originRow) == ring || Math.abs(column - originColumn) == ring;
+                    if (onRing) {
+                        scanCell(key(row, column), origin, maxRadiusKm, role, experience, k, nearest);
+                    }
+                }
+            }
+        }
+        return sorted(nearest);
+    }
+
+    private void scanCell(long key, GeoPoint origin, double radiusKm, RoleType role,
+                          ExperienceRange experience, int limit, PriorityQueue<Neighbor> nearest) {
+        Set<Point> cell = cells.get(key);
+        if (cell == null) return;
+
+        for (Point point : cell) {
+            if (role != null && point.role() != role) continue;
+            if (!experience.contains(point.yearsOfExperience())) continue;
+
+            double distance = origin.distanceKm(point.latitude(), point.longitude());
+            if (distance > radiusKm) continue;
+
+            if (nearest.size() < limit) {
+                nearest.add(new Neighbor(point.userId(), distance));
+            } else if (nearest.peek().distanceKm() > distance) {
+                nearest.poll();
+                nearest.add(new Neighbor(point.userId(), distance));
+            }
+        }
+    }
+
+    private static List<Neighbor> sorted(PriorityQueue<Neighbor> nearest) {
+        List<Neighbor> result = new ArrayList<>(nearest);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceKm));
+        return result;
+    }
+
+    private static int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / CELL_DEGREES);
+    }
+
+    private static int column(double longitude) {
+        return (int) Math.floor((longitude + 180) / CELL_DEGREES);
+    }
+
+    private static long cellKey(double latitude, double longitude) {
+        return key(row(latitude), column(longitude));
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
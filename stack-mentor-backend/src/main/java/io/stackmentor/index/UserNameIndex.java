@@ -0,0 +1,476 @@
+package io.stackmentor.index;
+
+import io.stackmentor.dto.user.TypeaheadResultDto;
+import io.stackmentor.dto.user.UserSummaryDto;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.event.UserVerifiedEvent;
+import io.stackmentor.repository.UserRepository;
+import io.stackmentor.specification.UserSpecificationBuilder;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Prefix index over verified users' first and last names for search-as-you-type.
+ *
+ * <p>Names live in one shared {@code char[]} pool and are addressed by offset, with a sorted
+ * {@code int[]} of name ids answering prefix lookups by binary search. Newly verified users go
+ * to a small pending list that queries also scan, and are merged into a fresh snapshot in the
+ * background once it grows past {@link #MERGE_THRESHOLD}.
+ *
+ * <p>Every match is ranked, not just the first ones alphabetically. A prefix matching more
+ * than {@link #SCAN_LIMIT} names, which only short prefixes do, is answered from its top
+ * {@link #MAX_RESULTS} computed when the snapshot is built; any other prefix is ranked with a
+ * bounded heap over its whole range.
+ *
+ * <p>Memory for 1M users (average name length 7): pool ~28 MB, offsets ~8 MB, sorted name ids
+ * ~8 MB, user ids ~16 MB, relevance ~2 MB -- roughly 62 MB, about half of what a
+ * {@code String}-per-name structure costs. Precomputed tops add well under 1 MB: each level
+ * of prefix length has at most 2M / {@value #SCAN_LIMIT} prefixes that large. A merge briefly
+ * holds two snapshots.
+ */
+@Component
+public class UserNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserNameIndex.class);
+
+    static final int MERGE_THRESHOLD = 4096;
+
+    // Most results a search can ask for; the precomputed tops hold this many users
+    public static final int MAX_RESULTS = 20;
+
+    // Prefixes matching more names than this are served from their precomputed top
+    static final int SCAN_LIMIT = 2048;
+
+    private final UserRepository userRepository;
+    private final UserSpecificationBuilder specBuilder;
+
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+    private final List<Entry> pending = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean merging = new AtomicBoolean();
+
+    @Autowired
+    public UserNameIndex(UserRepository userRepository, UserSpecificationBuilder specBuilder) {
+        this.userRepository = userRepository;
+        this.specBuilder = specBuilder;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void load() {
+        long start = System.nanoTime();
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<UserSummaryDto> verified = userRepository.streamSummaries(specBuilder.isVerified())) {
+            verified.forEach(user -> entries.add(Entry.of(user)));
+        }
+        snapshot = Snapshot.build(entries);
+        pending.clear();
+        log.info("Indexed {} verified user names in {} ms", entries.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserVerified(UserVerifiedEvent event) {
+        add(event.user());
+    }
+
+    public void add(UserSummaryDto user) {
+        pending.add(Entry.of(user));
+        if (pending.size() >= MERGE_THRESHOLD && merging.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(this::merge);
+        }
+    }
+
+    // Top matches for a name prefix, or for "first last-prefix" when the query contains a space
+    public List<TypeaheadResultDto> search(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) return List.of();
+
+        String trimmed = query.trim();
+        String firstPart = trimmed;
+        String lastPart = null;
+        int space = trimmed.indexOf(' ');
+        if (space > 0) {
+            firstPart = trimmed.substring(0, space);
+            lastPart = trimmed.substring(space + 1).trim();
+        }
+
+        PriorityQueue<Match> top = new PriorityQueue<>(Comparator.comparingInt(Match::score));
+        Set<UUID> seen = new HashSet<>();
+
+        snapshot.collect(firstPart, lastPart, limit, top, seen);
+        for (Entry entry : pending) {
+            int score = entry.matchScore(firstPart, lastPart);
+            if (score >= 0 && seen.add(entry.userId())) {
+                offer(top, new Match(score, entry.userId(), entry.firstName(), entry.lastName()), limit);
+            }
+        }
+
+        List<Match> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingInt(Match::score).reversed());
+        return ranked.stream()
+                .map(match -> TypeaheadResultDto.builder()
+                        .userId(match.userId())
+                        .firstName(match.firstName())
+                        .lastName(match.lastName())
+                        .build())
+                .toList();
+    }
+
+    public int size() {
+        return snapshot.userCount() + pending.size();
+    }
+
+    private void merge() {
+        try {
+            List<Entry> drained = List.copyOf(pending);
+            List<Entry> entries = snapshot.entries();
+            entries.addAll(drained);
+            snapshot = Snapshot.build(entries);
+            pending.removeAll(drained);
+        } catch (RuntimeException e) {
+            log.warn("Name index merge failed; pending entries stay queryable", e);
+        } finally {
+            merging.set(false);
+        }
+    }
+
+    private static void offer(PriorityQueue<Match> top, Match match, int limit) {
+        if (top.size() < limit) {
+            top.add(match);
+        } else if (top.peek().score() < match.score()) {
+            top.poll();
+            top.add(match);
+        }
+    }
+
+    // Mentors first, then by experience; matches on the first name and exact matches rank higher
+    static short relevanceOf(RoleType role, Integer yearsOfExperience) {
+        int years = yearsOfExperience == null ? 0 : Math.min(Math.max(yearsOfExperience, 0), 40);
+        return (short) ((role == RoleType.MENTOR ? 100 : 0) + years);
+    }
+
+    private static int boost(boolean firstName, boolean exact) {
+        return (firstName ? 1000 : 0) + (exact ? 2000 : 0);
+    }
+
+    private record Match(int score, UUID userId, String firstName, String lastName) {
+    }
+
+    private record Entry(UUID userId, String firstName, String lastName, short relevance) {
+
+        static Entry of(UserSummaryDto user) {
+            return new Entry(user.getUserId(),
+                    user.getFirstName() == null ? "" : user.getFirstName(),
+                    user.getLastName() == null ? "" : user.getLastName(),
+                    relevanceOf(user.getRole(), user.getYearsOfExperience()));
+        }
+
+        int matchScore(String firstPart, String lastPart) {
+            if (lastPart != null) {
+                if (!startsWithIgnoreCase(firstName, firstPart) || !startsWithIgnoreCase(lastName, lastPart)) return -1;
+                return relevance + boost(true, firstName.length() == firstPart.length());
+            }
+            if (startsWithIgnoreCase(firstName, firstPart)) {
+                return relevance + boost(true, firstName.length() == firstPart.length());
+            }
+            if (startsWithIgnoreCase(lastName, firstPart)) {
+                return relevance + boost(false, lastName.length() == firstPart.length());
+            }
+            return -1;
+        }
+
+        private static boolean startsWithIgnoreCase(String value, String prefix) {
+            return value.regionMatches(true, 0, prefix, 0, prefix.length());
+        }
+    }
+
+    /**
+     * Immutable, array-backed view. Name id {@code 2 * slot} is the first name of the user in
+     * {@code slot}, {@code 2 * slot + 1} their last name.
+     */
+    private static final class Snapshot {
+
+        private final char[] pool;
+        private final int[] offsets;       // name id -> start in pool, with a trailing end marker
+        private final int[] sortedNames;   // name ids ordered case-insensitively
+        private final long[] idBits;       // slot -> UUID as (most, least) pairs
+        private final short[] relevance;   // slot -> static relevance
+        private final Map<String, int[]> tops = new HashMap<>();  // folded prefix -> best name ids
+
+        private Snapshot(char[] pool, int[] offsets, int[] sortedNames, long[] idBits, short[] relevance) {
+            this.pool = pool;
+            this.offsets = offsets;
+            this.sortedNames = sortedNames;
+            this.idBits = idBits;
+            this.relevance = relevance;
+            if (sortedNames != null) {
+                precompute(0, sortedNames.length, 1, tops);
+            }
+        }
+
+        static Snapshot build(List<Entry> entries) {
+            int users = entries.size();
+            int poolSize = 0;
+            for (Entry entry : entries) {
+                poolSize += entry.firstName().length() + entry.lastName().length();
+            }
+
+            char[] pool = new char[poolSize];
+            int[] offsets = new int[users * 2 + 1];
+            long[] idBits = new long[users * 2];
+            short[] relevance = new short[users];
+
+            int cursor = 0;
+            for (int slot = 0; slot < users; slot++) {
+                Entry entry = entries.get(slot);
+                offsets[slot * 2] = cursor;
+                entry.firstName().getChars(0, entry.firstName().length(), pool, cursor);
+                cursor += entry.firstName().length();
+                offsets[slot * 2 + 1] = cursor;
+                entry.lastName().getChars(0, entry.lastName().length(), pool, cursor);
+                cursor += entry.lastName().length();
+
+                idBits[slot * 2] = entry.userId().getMostSignificantBits();
+                idBits[slot * 2 + 1] = entry.userId().getLeastSignificantBits();
+                relevance[slot] = entry.relevance();
+            }
+            offsets[users * 2] = cursor;
+
+            Snapshot unsorted = new Snapshot(pool, offsets, null, idBits, relevance);
+            int[] sortedNames = IntStream.range(0, users * 2)
+                    .boxed()
+                    .sorted(unsorted::compareNames)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            return new Snapshot(pool, offsets, sortedNames, idBits, relevance);
+        }
+
+        int userCount() {
+            return relevance.length;
+        }
+
+        List<Entry> entries() {
+            List<Entry> entries = new ArrayList<>(userCount());
+            for (int slot = 0; slot < userCount(); slot++) {
+                entries.add(new Entry(userId(slot), name(slot * 2), name(slot * 2 + 1), relevance[slot]));
+            }
+            return entries;
+        }
+
+        void collect(String firstPart, String lastPart, int limit, PriorityQueue<Match> top, Set<UUID> seen) {
+            if (lastPart != null) {
+                collectFullName(firstPart, lastPart, limit, top, seen);
+                return;
+            }
+
+            int[] precomputed = limit <= MAX_RESULTS ? tops.get(folded(firstPart)) : null;
+            if (precomputed != null) {
+                for (int nameId : precomputed) {
+                    offerName(nameId, nameId % 2 == 0, length(nameId) == firstPart.length(), limit, top, seen);
+                }
+                return;
+            }
+
+            for (int position = lowerBound(firstPart), end = upperBound(firstPart); position < end; position++) {
+                int nameId = sortedNames[position];
+                offerName(nameId, nameId % 2 == 0, length(nameId) == firstPart.length(), limit, top, seen);
+            }
+        }
+
+        // Walks whichever of the two prefixes matches fewer names and checks the other on each user
+        private void collectFullName(String firstPart, String lastPart, int limit,
+                                     PriorityQueue<Match> top, Set<UUID> seen) {
+            int firstFrom = lowerBound(firstPart);
+            int firstTo = upperBound(firstPart);
+            int lastFrom = lowerBound(lastPart);
+            int lastTo = upperBound(lastPart);
+            boolean byFirstName = firstTo - firstFrom <= lastTo - lastFrom;
+            int from = byFirstName ? firstFrom : lastFrom;
+            int to = byFirstName ? firstTo : lastTo;
+
+            for (int position = from; position < to; position++) {
+                int nameId = sortedNames[position];
+                boolean isFirstName = nameId % 2 == 0;
+                if (isFirstName != byFirstName) continue;
+
+                int slot = nameId / 2;
+                if (!startsWith(slot * 2, firstPart) || !startsWith(slot * 2 + 1, lastPart)) continue;
+                offerName(slot * 2, true, length(slot * 2) == firstPart.length(), limit, top, seen);
+            }
+        }
+
+        private void offerName(int nameId, boolean isFirstName, boolean exact, int limit,
+                               PriorityQueue<Match> top, Set<UUID> seen) {
+            int slot = nameId / 2;
+            int score = relevance[slot] + boost(isFirstName, exact);
+            if (top.size() >= limit && top.peek().score() >= score) return;
+
+            // A user matching on both names is offered twice; the better one is kept
+            UUID userId = userId(slot);
+            if (!seen.add(userId)) {
+                if (top.stream().anyMatch(match -> match.userId().equals(userId) && match.score() >= score)) return;
+                top.removeIf(match -> match.userId().equals(userId));
+            }
+            offer(top, new Match(score, userId, name(slot * 2), name(slot * 2 + 1)), limit);
+        }
+
+        /**
+         * Top users for every prefix matching more than SCAN_LIMIT names. Names sharing a prefix
+         * are contiguous in sortedNames, so each level splits its parent's range by the next
+         * character and only descends into parts that are still too large to scan.
+         */
+        private void precompute(int from, int to, int length, Map<String, int[]> tops) {
+            int start = from;
+            // Names no longer than the parent prefix sort first
+            while (start < to && length(sortedNames[start]) < length) start++;
+            while (start < to) {
+                char next = fold(pool[offsets[sortedNames[start]] + length - 1]);
+                int end = start + 1;
+                while (end < to && fold(pool[offsets[sortedNames[end]] + length - 1]) == next) end++;
+                if (end - start > SCAN_LIMIT) {
+                    tops.put(new String(foldedChars(sortedNames[start], length)), topOf(start, end, length));
+                    precompute(start, end, length + 1, tops);
+                }
+                start = end;
+            }
+        }
+
+        // Best MAX_RESULTS users in the range; twice as many names always hold that many users
+        private int[] topOf(int from, int to, int prefixLength) {
+            Comparator<Integer> byScore = Comparator.comparingInt(nameId -> scoreOf(nameId, prefixLength));
+            PriorityQueue<Integer> best = new PriorityQueue<>(byScore);
+            for (int position = from; position < to; position++) {
+                best.add(sortedNames[position]);
+                if (best.size() > MAX_RESULTS * 2) best.poll();
+            }
+
+            List<Integer> ranked = new ArrayList<>(best);
+            ranked.sort(byScore.reversed());
+            Set<Integer> slots = new HashSet<>();
+            return ranked.stream()
+                    .filter(nameId -> slots.add(nameId / 2))
+                    .limit(MAX_RESULTS)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        private int scoreOf(int nameId, int prefixLength) {
+            return relevance[nameId / 2] + boost(nameId % 2 == 0, length(nameId) == prefixLength);
+        }
+
+        // First position whose name sorts at or after the prefix
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = sortedNames.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareToPrefix(sortedNames[mid], prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First position whose name sorts after every name starting with the prefix
+        private int upperBound(String prefix) {
+            int low = lowerBound(prefix);
+            int high = sortedNames.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (startsWith(sortedNames[mid], prefix)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int compareNames(int left, int right) {
+            int leftStart = offsets[left];
+            int rightStart = offsets[right];
+            int leftLength = length(left);
+            int rightLength = length(right);
+            for (int i = 0; i < Math.min(leftLength, rightLength); i++) {
+                int diff = fold(pool[leftStart + i]) - fold(pool[rightStart + i]);
+                if (diff != 0) return diff;
+            }
+            return leftLength - rightLength;
+        }
+
+        private int compareToPrefix(int nameId, String prefix) {
+            int start = offsets[nameId];
+            int length = length(nameId);
+            for (int i = 0; i < Math.min(length, prefix.length()); i++) {
+                int diff = fold(pool[start + i]) - fold(prefix.charAt(i));
+                if (diff != 0) return diff;
+            }
+            return length - prefix.length();
+        }
+
+        private boolean startsWith(int nameId, String prefix) {
+            if (length(nameId) < prefix.length()) return false;
+            int start = offsets[nameId];
+            for (int i = 0; i < prefix.length(); i++) {
+                if (fold(pool[start + i]) != fold(prefix.charAt(i))) return false;
+            }
+            return true;
+        }
+
+        private int length(int nameId) {
+            return offsets[nameId + 1] - offsets[nameId];
+        }
+
+        private String name(int nameId) {
+            return new String(pool, offsets[nameId], length(nameId));
+        }
+
+        private UUID userId(int slot) {
+            return new UUID(idBits[slot * 2], idBits[slot * 2 + 1]);
+        }
+
+        private char[] foldedChars(int nameId, int length) {
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = fold(pool[offsets[nameId] + i]);
+            }
+            return chars;
+        }
+
+        private static String folded(String prefix) {
+            char[] chars = prefix.toCharArray();
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = fold(chars[i]);
+            }
+            return new String(chars);
+        }
+
+        // Same folding as String.CASE_INSENSITIVE_ORDER
+        private static char fold(char c) {
+            return Character.toLowerCase(Character.toUpperCase(c));
+        }
+    }
+}
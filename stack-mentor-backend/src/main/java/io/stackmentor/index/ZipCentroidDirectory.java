@@ -0,0 +1,69 @@
+package io.stackmentor.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+// Offline ZIP -> coordinates lookup, held as sorted primitive arrays (~12 bytes per ZIP)
+@Component
+public class ZipCentroidDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(ZipCentroidDirectory.class);
+
+    private final int[] zips;
+    private final float[] latitudes;
+    private final float[] longitudes;
+
+    public ZipCentroidDirectory(@Value("${stackmentor.geo.zip-centroids:classpath:geo/zip-centroids.csv}") Resource resource) {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#") || line.startsWith("zip")) continue;
+                rows.add(line.split(","));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read ZIP centroids from " + resource, e);
+        }
+
+        rows.sort(Comparator.comparingInt(row -> Integer.parseInt(row[0].trim())));
+        zips = new int[rows.size()];
+        latitudes = new float[rows.size()];
+        longitudes = new float[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            zips[i] = Integer.parseInt(rows.get(i)[0].trim());
+            latitudes[i] = Float.parseFloat(rows.get(i)[1].trim());
+            longitudes[i] = Float.parseFloat(rows.get(i)[2].trim());
+        }
+        log.info("Loaded {} ZIP centroids", zips.length);
+    }
+
+    // Accepts "43215" or ZIP+4 "43215-1234"
+    public Optional<GeoPoint> lookup(String zipCode) {
+        if (zipCode == null || zipCode.length() < 5) return Optional.empty();
+        int zip;
+        try {
+            zip = Integer.parseInt(zipCode.substring(0, 5));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+
+        int position = Arrays.binarySearch(zips, zip);
+        if (position < 0) return Optional.empty();
+        return Optional.of(new GeoPoint(latitudes[position], longitudes[position]));
+    }
+}
@@ -0,0 +1,252 @@
+package io.stackmentor.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of committed domain events, kept in memory-mapped segment files so
+ * in-memory structures can rebuild by replay instead of scanning tables. Appends are a copy
+ * into the mapped page cache under a short lock; the pages are forced to disk every
+ * {@code force-interval}, so a process crash loses nothing and a machine crash at most that
+ * window. A full segment is closed and a new one started.
+ * <p>
+ * This is a best-effort local log, not a source of truth. It holds only what this node
+ * committed, and records are appended after the commit rather than with it, so a process that
+ * dies in between commits a change the journal never sees. Projections built from it are
+ * caches: they seed from the database when they have no snapshot, and anything that must be
+ * exact across nodes reads the database.
+ */
+@Component
+public class EventJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(EventJournal.class);
+
+    private final Path directory;
+    private final int segmentBytes;
+
+    // Not synchronized: virtual threads would pin while holding a monitor
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    // First sequence of each closed segment, oldest first
+    private final NavigableMap<Long, Path> closedSegments = new ConcurrentSkipListMap<>();
+    private final List<Consumer<JournalRecord>> subscribers = new CopyOnWriteArrayList<>();
+
+    private volatile JournalSegment active;
+    private volatile long lastSequence;
+
+    private final Counter appended;
+    private final Counter rotations;
+
+    public EventJournal(@Value("${stackmentor.journal.directory:journal}") Path directory,
+                        @Value("${stackmentor.journal.segment-size:64MB}") DataSize segmentSize,
+                        MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.segmentBytes = (int) Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+        if (segmentBytes < JournalSegment.RECORD_SIZE) {
+            throw new IllegalArgumentException("Journal segment size must hold at least one record");
+        }
+        this.appended = Counter.builder("journal.records.appended")
+                .description("Domain events appended to the journal")
+                .register(meterRegistry);
+        this.rotations = Counter.builder("journal.segments.rotated")
+                .description("Journal segments closed because they were full")
+                .register(meterRegistry);
+        Gauge.builder("journal.segments", closedSegments, segments -> segments.size() + 1)
+                .description("Journal segment files on disk")
+                .register(meterRegistry);
+    }
+
+    // Reopens the newest segment and continues after its last intact record
+    @PostConstruct
+    public void open() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments;
+            try (Stream<Path> files = Files.list(directory)) {
+                segments = files.filter(path -> path.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                        .sorted()
+                        .toList();
+            }
+
+            if (segments.isEmpty()) {
+                active = JournalSegment.create(directory, 1, segmentBytes);
+            } else {
+                for (Path path : segments.subList(0, segments.size() - 1)) {
+                    closedSegments.put(JournalSegment.firstSequenceOf(path), path);
+                }
+                active = JournalSegment.open(segments.get(segments.size() - 1), true);
+            }
+            lastSequence = active.lastSequence();
+            log.info("Event journal at {}: {} segments, last sequence {}", directory,
+                    closedSegments.size() + 1, lastSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open event journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends one record and hands it to every subscriber before returning. Returns its sequence.
+     */
+    public long append(JournalRecordType type, UUID scopeId, UUID subjectId, UUID actorId) {
+        appendLock.lock();
+        try {
+            if (active.isFull()) {
+                rotate();
+            }
+            long sequence = lastSequence + 1;
+            long recordedAt = System.currentTimeMillis();
+            active.append(sequence, type, recordedAt, scopeId, subjectId, actorId);
+            lastSequence = sequence;
+            appended.increment();
+
+            if (!subscribers.isEmpty()) {
+                JournalRecord record = new JournalRecord(sequence, type, recordedAt, scopeId, subjectId, actorId);
+                for (Consumer<JournalRecord> subscriber : subscribers) {
+                    deliver(subscriber, record);
+                }
+            }
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    // Oldest sequence still on disk; replay can start no earlier
+    public long firstSequence() {
+        Map.Entry<Long, Path> oldest = closedSegments.firstEntry();
+        return oldest != null ? oldest.getKey() : active.firstSequence();
+    }
+
+    /**
+     * Passes every record after {@code afterSequence}, in order, up to the end of the journal
+     * at the time each segment is reached. Runs alongside appends.
+     */
+    public void replay(long afterSequence, Consumer<JournalRecord> consumer) {
+        // Taken first: if it rotates meanwhile it is still read to its end, so nothing is skipped
+        JournalSegment current = active;
+
+        // The segment holding afterSequence + 1 and every later closed one
+        Long from = closedSegments.floorKey(afterSequence + 1);
+        for (Path path : closedSegments.subMap(from != null ? from : Long.MIN_VALUE, true,
+                current.firstSequence(), false).values()) {
+            JournalSegment segment;
+            try {
+                segment = JournalSegment.open(path, false);
+            } catch (UncheckedIOException e) {
+                // Deleted by retention after the map was read: everything in it was covered
+                if (Files.notExists(path)) continue;
+                throw e;
+            }
+            segment.read(afterSequence, consumer);
+        }
+        current.read(afterSequence, consumer);
+    }
+
+    /**
+     * Replays everything after {@code afterSequence}, then delivers each new record as it is
+     * appended, with no gap or repeat between the two.
+     */
+    public void subscribe(long afterSequence, Consumer<JournalRecord> consumer) {
+        // Catch up without blocking appends, then take the lock for the last few records
+        long[] seen = {afterSequence};
+        replay(afterSequence, record -> {
+            consumer.accept(record);
+            seen[0] = record.sequence();
+        });
+
+        appendLock.lock();
+        try {
+            replay(seen[0], consumer);
+            subscribers.add(consumer);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes closed segments whose records are all at or before {@code coveredSequence},
+     * always keeping the newest {@code keep} closed segments.
+     */
+    public int deleteSegmentsThrough(long coveredSequence, int keep) {
+        List<Long> starts = new ArrayList<>(closedSegments.keySet());
+        int deleted = 0;
+        for (int i = 0; i < starts.size() - keep; i++) {
+            // A closed segment ends just before the next one starts
+            long segmentLast = (i + 1 < starts.size() ? starts.get(i + 1) : active.firstSequence()) - 1;
+            if (segmentLast > coveredSequence) break;
+
+            Path path = closedSegments.remove(starts.get(i));
+            try {
+                Files.deleteIfExists(path);
+                deleted++;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot delete journal segment " + path, e);
+            }
+        }
+        return deleted;
+    }
+
+    @Scheduled(fixedDelayString = "${stackmentor.journal.force-interval:PT1S}")
+    public void force() {
+        active.force();
+    }
+
+    @PreDestroy
+    public void close() {
+        appendLock.lock();
+        try {
+            active.force();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    // One failing subscriber must not fail the append or starve the others
+    private static void deliver(Consumer<JournalRecord> subscriber, JournalRecord record) {
+        try {
+            subscriber.accept(record);
+        } catch (RuntimeException e) {
+            log.warn("Journal subscriber failed on record {}", record.sequence(), e);
+        }
+    }
+
+    private void rotate() {
+        JournalSegment full = active;
+        full.force();
+        active = JournalSegment.create(directory, lastSequence + 1, segmentBytes);
+        closedSegments.put(full.firstSequence(), full.path());
+        rotations.increment();
+    }
+}
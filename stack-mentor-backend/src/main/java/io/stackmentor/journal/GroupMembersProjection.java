@@ -0,0 +1,149 @@
+package io.stackmentor.journal;
+
+import io.stackmentor.repository.GroupMemberBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Member ids per group, for fan-out and counts that would otherwise load a roster. Seeded from
+ * {@code group_members} on a node without a snapshot and kept current from the journal after
+ * that, so like the journal it only sees this node's changes: with several nodes it is a
+ * cache that can miss a join or leave, and membership checks that guard access still go to
+ * the database.
+ */
+@Component
+public class GroupMembersProjection implements JournalProjection {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupMembersProjection.class);
+
+    @Autowired
+    private GroupMemberBulkRepository groupMemberBulkRepository;
+
+    private final Map<UUID, Set<UUID>> members = new ConcurrentHashMap<>();
+
+    // Orders applies against the copy a snapshot takes; readers go straight to the map
+    private final ReentrantLock lock = new ReentrantLock();
+    private long applied;
+
+    public Set<UUID> members(UUID groupId) {
+        Set<UUID> group = members.get(groupId);
+        return group != null ? Set.copyOf(group) : Set.of();
+    }
+
+    public int memberCount(UUID groupId) {
+        Set<UUID> group = members.get(groupId);
+        return group != null ? group.size() : 0;
+    }
+
+    @Override
+    public String name() {
+        return "group-members";
+    }
+
+    @Override
+    public void apply(JournalRecord record) {
+        lock.lock();
+        try {
+            switch (record.type()) {
+                case MEMBER_ADDED -> add(record.scopeId(), record.subjectId());
+                case MEMBER_REMOVED -> remove(record.scopeId(), record.subjectId());
+                default -> {
+                }
+            }
+            applied = record.sequence();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Copies under the lock and writes outside it: apply runs on the appending thread
+    @Override
+    public long writeSnapshot(DataOutput out) throws IOException {
+        Map<UUID, Set<UUID>> copy = new HashMap<>();
+        long sequence;
+        lock.lock();
+        try {
+            members.forEach((groupId, group) -> copy.put(groupId, new HashSet<>(group)));
+            sequence = applied;
+        } finally {
+            lock.unlock();
+        }
+
+        out.writeLong(sequence);
+        out.writeInt(copy.size());
+        for (Map.Entry<UUID, Set<UUID>> group : copy.entrySet()) {
+            writeUuid(out, group.getKey());
+            out.writeInt(group.getValue().size());
+            for (UUID userId : group.getValue()) {
+                writeUuid(out, userId);
+            }
+        }
+        return sequence;
+    }
+
+    @Override
+    public long readSnapshot(DataInput in) throws IOException {
+        lock.lock();
+        try {
+            members.clear();
+            applied = in.readLong();
+            for (int groups = in.readInt(); groups > 0; groups--) {
+                UUID groupId = readUuid(in);
+                for (int count = in.readInt(); count > 0; count--) {
+                    add(groupId, readUuid(in));
+                }
+            }
+            return applied;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Adds and removes are idempotent, so records that repeat a seeded row do no harm
+    @Override
+    public boolean seed(long journaledSequence) {
+        lock.lock();
+        try {
+            members.clear();
+            groupMemberBulkRepository.forEachMember(this::add);
+            applied = journaledSequence;
+            log.info("Seeded group members for {} groups from the database", members.size());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(UUID groupId, UUID userId) {
+        members.computeIfAbsent(groupId, id -> ConcurrentHashMap.newKeySet()).add(userId);
+    }
+
+    private void remove(UUID groupId, UUID userId) {
+        members.computeIfPresent(groupId, (id, group) -> {
+            group.remove(userId);
+            return group.isEmpty() ? null : group;
+        });
+    }
+
+    private static void writeUuid(DataOutput out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
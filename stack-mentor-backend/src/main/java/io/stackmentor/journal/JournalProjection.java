@@ -0,0 +1,34 @@
+package io.stackmentor.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * An in-memory structure built from the journal. Register one as a bean and
+ * {@link JournalProjections} warms it at startup from its latest snapshot plus the records
+ * after it, then keeps it current.
+ */
+public interface JournalProjection {
+
+    // Names the snapshot file; must stay stable across releases
+    String name();
+
+    // Records arrive one at a time in sequence order; live records on the appending thread
+    void apply(JournalRecord record);
+
+    // Writes the current state and returns the sequence of the last record it reflects. Runs
+    // on the snapshot thread while records keep arriving, so it must see a consistent state.
+    long writeSnapshot(DataOutput out) throws IOException;
+
+    // Restores a snapshot from writeSnapshot and returns the sequence replay continues after
+    long readSnapshot(DataInput in) throws IOException;
+
+    // Builds the state from the database when there is no snapshot, so a new node or a lost
+    // snapshot does not depend on segments retention may have deleted. The state then reflects
+    // every record through journaledSequence; records appended while it runs are applied
+    // afterwards and may repeat what it read. False replays the journal instead.
+    default boolean seed(long journaledSequence) {
+        return false;
+    }
+}
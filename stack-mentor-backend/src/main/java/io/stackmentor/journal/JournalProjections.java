@@ -0,0 +1,109 @@
+package io.stackmentor.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Warms every {@link JournalProjection} at startup, from its snapshot or else from the
+ * database, and snapshots them periodically. Once all projections have a snapshot past a
+ * segment, the segment is no longer needed and is deleted.
+ */
+@Component
+public class JournalProjections {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalProjections.class);
+
+    @Autowired
+    private EventJournal journal;
+
+    @Autowired(required = false)
+    private List<JournalProjection> projections = List.of();
+
+    // Closed segments kept even when every snapshot covers them
+    @Value("${stackmentor.journal.retained-segments:4}")
+    private int retainedSegments;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        for (JournalProjection projection : projections) {
+            long start = System.nanoTime();
+            long after = restore(projection);
+            if (after + 1 < journal.firstSequence()) {
+                log.warn("Journal no longer holds records {}..{} for projection {}; it will be incomplete",
+                        after + 1, journal.firstSequence() - 1, projection.name());
+            }
+            journal.subscribe(after, projection::apply);
+            log.info("Projection {} warmed from sequence {} to {} in {} ms", projection.name(), after,
+                    journal.lastSequence(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Writes each projection's snapshot, replacing the previous one atomically, then deletes
+     * segments every snapshot covers. Without projections, only the retained segments are kept.
+     */
+    @Scheduled(fixedDelayString = "${stackmentor.journal.snapshot-interval:PT10M}")
+    public void snapshot() {
+        long covered = Long.MAX_VALUE;
+        for (JournalProjection projection : projections) {
+            covered = Math.min(covered, write(projection));
+        }
+        int deleted = journal.deleteSegmentsThrough(covered, retainedSegments);
+        if (deleted > 0) {
+            log.info("Deleted {} journal segments covered by snapshots", deleted);
+        }
+    }
+
+    Path snapshotPath(JournalProjection projection) {
+        return journal.directory().resolve("snapshots").resolve(projection.name() + ".snapshot");
+    }
+
+    private long restore(JournalProjection projection) {
+        Path path = snapshotPath(projection);
+        if (Files.notExists(path)) {
+            // Everything journaled so far was committed before the seed reads the database
+            long journaled = journal.lastSequence();
+            return projection.seed(journaled) ? journaled : 0;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return projection.readSnapshot(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read snapshot " + path, e);
+        }
+    }
+
+    private long write(JournalProjection projection) {
+        Path path = snapshotPath(projection);
+        Path partial = path.resolveSibling(path.getFileName() + ".partial");
+        try {
+            Files.createDirectories(path.getParent());
+            long sequence;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+                sequence = projection.writeSnapshot(out);
+            }
+            // Readers see the old snapshot or the new one, never half of one
+            Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write snapshot " + path, e);
+        }
+    }
+}
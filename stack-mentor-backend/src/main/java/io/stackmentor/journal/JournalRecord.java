@@ -0,0 +1,11 @@
+package io.stackmentor.journal;
+
+import java.util.UUID;
+
+/**
+ * One journaled domain event. Which of the three ids are set depends on the type; unused ones
+ * are null. {@code recordedAt} is when the event was appended, in epoch milliseconds.
+ */
+public record JournalRecord(long sequence, JournalRecordType type, long recordedAt,
+                            UUID scopeId, UUID subjectId, UUID actorId) {
+}
@@ -0,0 +1,39 @@
+package io.stackmentor.journal;
+
+import lombok.Getter;
+
+/**
+ * What a journal record says happened. The code is what is stored, so existing codes must
+ * never change meaning; add new types with new codes.
+ */
+@Getter
+public enum JournalRecordType {
+
+    USER_REGISTERED(1),   // subject: user
+    USER_VERIFIED(2),     // subject: user
+    MEMBER_ADDED(3),      // scope: group, subject: user
+    MEMBER_REMOVED(4),    // scope: group, subject: user
+    MESSAGE_SENT(5),      // scope: conversation, subject: message, actor: sender
+    MESSAGE_READ(6);      // scope: conversation, subject: message, actor: reader
+
+    private static final JournalRecordType[] BY_CODE = new JournalRecordType[7];
+
+    static {
+        for (JournalRecordType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+
+    JournalRecordType(int code) {
+        this.code = (byte) code;
+    }
+
+    public static JournalRecordType fromCode(byte code) {
+        if (code <= 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Unknown journal record type " + code);
+        }
+        return BY_CODE[code];
+    }
+}
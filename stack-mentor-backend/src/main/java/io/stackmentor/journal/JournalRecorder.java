@@ -0,0 +1,56 @@
+package io.stackmentor.journal;
+
+import io.stackmentor.event.GroupMembershipChangedEvent;
+import io.stackmentor.event.MessageSentEvent;
+import io.stackmentor.event.MessagesReadEvent;
+import io.stackmentor.event.UserRegisteredEvent;
+import io.stackmentor.event.UserVerifiedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+// Journals domain events once their transaction commits, so the journal never holds a rolled-back
+// change; a crash before the append loses the record, which EventJournal accepts as best effort
+@Component
+public class JournalRecorder {
+
+    @Autowired
+    private EventJournal journal;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        journal.append(JournalRecordType.USER_REGISTERED, null, event.userId(), null);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserVerified(UserVerifiedEvent event) {
+        journal.append(JournalRecordType.USER_VERIFIED, null, event.user().getUserId(), null);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMembershipChanged(GroupMembershipChangedEvent event) {
+        for (UUID userId : event.added()) {
+            journal.append(JournalRecordType.MEMBER_ADDED, event.groupId(), userId, null);
+        }
+        for (UUID userId : event.removed()) {
+            journal.append(JournalRecordType.MEMBER_REMOVED, event.groupId(), userId, null);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessageSent(MessageSentEvent event) {
+        journal.append(JournalRecordType.MESSAGE_SENT, event.message().getConversationId(),
+                event.message().getMessageId(), event.message().getSenderId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessagesRead(MessagesReadEvent event) {
+        for (UUID messageId : event.receipt().getMessageIds()) {
+            journal.append(JournalRecordType.MESSAGE_READ, event.receipt().getConversationId(),
+                    messageId, event.receipt().getUserId());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package io.stackmentor.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * One memory-mapped journal file of fixed-size records, named after its first sequence.
+ * A record is {@code crc32c | sequence | recordedAt | type | 3 reserved | scope | subject | actor};
+ * the checksum covers everything after itself. New files are zero-filled, so the first slot
+ * whose checksum does not match marks the end, including a record torn by a crash.
+ */
+final class JournalSegment {
+
+    static final int RECORD_SIZE = 72;
+    static final String SUFFIX = ".journal";
+
+    private static final int CHECKED_OFFSET = 4;
+
+    private final Path path;
+    private final long firstSequence;
+    private final MappedByteBuffer buffer;
+    private final CRC32C crc = new CRC32C();
+
+    // Bytes holding complete records; published after each append for concurrent readers
+    private volatile int end;
+
+    private JournalSegment(Path path, long firstSequence, MappedByteBuffer buffer, int end) {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.buffer = buffer;
+        this.end = end;
+    }
+
+    static Path pathFor(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%019d%s", firstSequence, SUFFIX));
+    }
+
+    static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, int capacityBytes) {
+        int capacity = capacityBytes / RECORD_SIZE * RECORD_SIZE;
+        Path path = pathFor(directory, firstSequence);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new JournalSegment(path, firstSequence, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal segment " + path, e);
+        }
+    }
+
+    // Maps an existing file and finds where its valid records end
+    static JournalSegment open(Path path, boolean writable) {
+        try (FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            int size = (int) (channel.size() / RECORD_SIZE * RECORD_SIZE);
+            MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    0, size);
+            JournalSegment segment = new JournalSegment(path, firstSequenceOf(path), buffer, 0);
+            segment.end = segment.scanEnd(size);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal segment " + path, e);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    // Sequences within a segment are contiguous
+    long lastSequence() {
+        return firstSequence + end / RECORD_SIZE - 1;
+    }
+
+    boolean isFull() {
+        return end + RECORD_SIZE > buffer.capacity();
+    }
+
+    // Single writer: callers hold the journal's append lock
+    void append(long sequence, JournalRecordType type, long recordedAt, UUID scopeId, UUID subjectId, UUID actorId) {
+        int offset = end;
+        buffer.putLong(offset + 4, sequence);
+        buffer.putLong(offset + 12, recordedAt);
+        buffer.put(offset + 20, type.getCode());
+        putUuid(offset + 24, scopeId);
+        putUuid(offset + 40, subjectId);
+        putUuid(offset + 56, actorId);
+        buffer.putInt(offset, checksum(buffer, offset));
+        end = offset + RECORD_SIZE;
+    }
+
+    /**
+     * Passes every record after {@code afterSequence} to the consumer, up to what was appended
+     * when the call started. Reads a view of its own, so it can run alongside appends.
+     */
+    void read(long afterSequence, Consumer<JournalRecord> consumer) {
+        ByteBuffer view = buffer.duplicate();
+        int limit = end;
+        long skip = Math.max(0, afterSequence - firstSequence + 1);
+        for (long offset = skip * RECORD_SIZE; offset < limit; offset += RECORD_SIZE) {
+            consumer.accept(decode(view, (int) offset));
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    private int scanEnd(int size) {
+        int offset = 0;
+        long expected = firstSequence;
+        while (offset + RECORD_SIZE <= size
+                && buffer.getInt(offset) == checksum(buffer, offset)
+                && buffer.getLong(offset + 4) == expected) {
+            offset += RECORD_SIZE;
+            expected++;
+        }
+        return offset;
+    }
+
+    private int checksum(ByteBuffer source, int offset) {
+        crc.reset();
+        crc.update(source.slice(offset + CHECKED_OFFSET, RECORD_SIZE - CHECKED_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private static JournalRecord decode(ByteBuffer view, int offset) {
+        return new JournalRecord(
+                view.getLong(offset + 4),
+                JournalRecordType.fromCode(view.get(offset + 20)),
+                view.getLong(offset + 12),
+                getUuid(view, offset + 24),
+                getUuid(view, offset + 40),
+                getUuid(view, offset + 56));
+    }
+
+    private void putUuid(int offset, UUID id) {
+        buffer.putLong(offset, id != null ? id.getMostSignificantBits() : 0);
+        buffer.putLong(offset + 8, id != null ? id.getLeastSignificantBits() : 0);
+    }
+
+    private static UUID getUuid(ByteBuffer view, int offset) {
+        long most = view.getLong(offset);
+        long least = view.getLong(offset + 8);
+        return most == 0 && least == 0 ? null : new UUID(most, least);
+    }
+}
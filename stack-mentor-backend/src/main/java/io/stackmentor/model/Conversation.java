@@ -0,0 +1,40 @@
+package io.stackmentor.model;
+
+import io.stackmentor.enums.ConversationType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "conversations")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Conversation {
+
+    // Primary Key
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "conversation_id", updatable = false, nullable = false)
+    private UUID conversationId;
+
+    @Column(name = "type", length = 10, nullable = false) // e.g., "group", "private"
+    private ConversationType type;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id") // Only set for group conversations
+    private Group group;
+
+    // Last sequence number handed out; only ever advanced by MessageSyncRepository.nextSeq
+    @Column(name = "last_seq", nullable = false, insertable = false, updatable = false)
+    private long lastSeq;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -34,4 +34,19 @@ public class Group {
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    // Bumped on every update and membership change; the roster ETag
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Maintained in batches by GroupActivityCounters, never written through the entity
+    @Column(name = "member_count", nullable = false, insertable = false, updatable = false)
+    private int memberCount;
+
+    @Column(name = "last_activity_at", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime lastActivityAt;
+
+    @OneToOne(mappedBy = "group", fetch = FetchType.LAZY)
+    private Conversation conversation;
 }
@@ -27,7 +27,6 @@ public class GroupMember {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Enumerated(EnumType.STRING)
     @Column(name = "role", length = 15, nullable = false) // e.g., "admin", "member"
     private GroupMemberType role;
 
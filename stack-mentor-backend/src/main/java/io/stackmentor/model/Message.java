@@ -3,6 +3,7 @@ package io.stackmentor.model;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -10,6 +11,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "messages")
+@SQLRestriction("is_deleted = false") // Deleted messages are never read back; see MessageCompactionService
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,6 +25,10 @@ public class Message {
     @Column(name = "message_id", updatable = false, nullable = false)
     private UUID messageId;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conversation_id", nullable = false)
+    private Conversation conversation;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sender_id", nullable = false) // This could be a foreign key to User
     private User sender;
@@ -33,10 +39,19 @@ public class Message {
     @Column(name = "media_url", length = 255) // URL to media if any
     private List<String> mediaUrl;
 
+    // Partition key of the messages table; queries should always bound it
     @CreationTimestamp
     @Column(name = "sent_at", nullable = false, updatable = false)
     private LocalDateTime sentAt;
 
+    // Position in the conversation, from conversations.last_seq
+    @Column(name = "seq", nullable = false, updatable = false)
+    private Long seq;
+
+    // Sequence value of the latest send, edit or delete of this message
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
+
     @Column(name = "edited_at")
     private LocalDateTime editedAt;
 
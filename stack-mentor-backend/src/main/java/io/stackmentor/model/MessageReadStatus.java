@@ -24,6 +24,10 @@ public class MessageReadStatus {
     @JoinColumn(name = "user_id", updatable = false, nullable = false)
     private User user; // Foreign key to User
 
+    // Copy of the message's sent_at; partitions read receipts alongside their messages
+    @Column(name = "message_sent_at", updatable = false, nullable = false)
+    private LocalDateTime messageSentAt;
+
     @Column(name = "read_at", nullable = false)
     private LocalDateTime readAt; // Timestamp when the message was read
 }
@@ -9,6 +9,7 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -62,6 +63,13 @@ public class User {
     @Column(name = "zip_code", length = 10)
     private String zipCode;
 
+    // Centroid of zipCode, resolved from the bundled ZIP dataset
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     @Column(name = "gender", length = 11)
     private String gender;
 
@@ -74,7 +82,6 @@ public class User {
     @Column(name = "bio", columnDefinition = "TEXT")
     private String bio;
 
-    @Enumerated(EnumType.STRING)
     @Column(name = "role")
     private RoleType role;
 
@@ -97,13 +104,22 @@ public class User {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
-    @Enumerated(EnumType.STRING)
     @Column(name = "position", nullable = false)
     private PositionType position;
 
     @Column(name = "is_verified", nullable = false)
     private boolean isVerified;
 
+    // Lets the suggestion refresh pick up only profiles changed since its last run
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Bumped on every update; the profile ETag
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     // Method to calculate age from dateOfBirth
     public int calculateAge() {
         return Period.between(dateOfBirth, LocalDate.now()).getYears();
@@ -0,0 +1,254 @@
+package io.stackmentor.presence;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.stackmentor.dto.presence.PresenceBatchDto;
+import io.stackmentor.dto.presence.PresenceChangeDto;
+import io.stackmentor.relay.MessageBroadcaster;
+import io.stackmentor.repository.ConversationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory online and typing state. Nothing here is persisted: a heartbeat refreshes a
+ * deadline with a CAS, a timing wheel expires entries that stop refreshing, and only
+ * transitions (online/offline, typing started/stopped) are published, batched per
+ * conversation to /topic/conversations/{id}/presence.
+ */
+@Component
+public class PresenceRegistry {
+
+    static final long TICK_MILLIS = 1000;
+    static final int WHEEL_SLOTS = 64;
+
+    private static final long DEAD = -1;
+    private static final UUID[] NO_CONVERSATIONS = new UUID[0];
+
+    private final MessageBroadcaster broadcaster;
+    private final ConversationRepository conversationRepository;
+    private final LongSupplier clock;
+    private final long presenceTtlTicks;
+    private final long typingTtlTicks;
+
+    private final ConcurrentHashMap<UUID, Entry> online = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TypingKey, Entry> typing = new ConcurrentHashMap<>();
+    private final TimingWheel<Entry> wheel;
+
+    // Latest unpublished change per user, per conversation; drained by flush()
+    private final ConcurrentHashMap<UUID, Map<UUID, PresenceChangeDto>> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PresenceRegistry(MessageBroadcaster broadcaster,
+                            ConversationRepository conversationRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${stackmentor.presence.ttl:30s}") Duration presenceTtl,
+                            @Value("${stackmentor.presence.typing-ttl:6s}") Duration typingTtl) {
+        this(broadcaster, conversationRepository, System::currentTimeMillis, presenceTtl, typingTtl);
+
+        Gauge.builder("presence.online", online, Map::size)
+                .description("Users with a live heartbeat on this node")
+                .register(meterRegistry);
+    }
+
+    PresenceRegistry(MessageBroadcaster broadcaster,
+                     ConversationRepository conversationRepository,
+                     LongSupplier clock,
+                     Duration presenceTtl,
+                     Duration typingTtl) {
+
+        if (presenceTtl.toMillis() >= WHEEL_SLOTS * TICK_MILLIS || typingTtl.toMillis() >= WHEEL_SLOTS * TICK_MILLIS) {
+            throw new IllegalArgumentException("Presence TTLs must be shorter than " + WHEEL_SLOTS + " seconds");
+        }
+        this.broadcaster = broadcaster;
+        this.conversationRepository = conversationRepository;
+        this.clock = clock;
+        this.presenceTtlTicks = Math.max(1, presenceTtl.toMillis() / TICK_MILLIS);
+        this.typingTtlTicks = Math.max(1, typingTtl.toMillis() / TICK_MILLIS);
+        this.wheel = new TimingWheel<>(WHEEL_SLOTS, currentTick());
+    }
+
+    /**
+     * Refreshes the user's deadline. Returns true if this heartbeat brought the user online.
+     */
+    public boolean heartbeat(UUID userId) {
+        long deadline = currentTick() + presenceTtlTicks;
+        while (true) {
+            Entry entry = online.get(userId);
+            if (entry != null) {
+                if (entry.extend(deadline)) return false;
+                // Expired concurrently; replace it with a fresh entry
+                online.remove(userId, entry);
+                continue;
+            }
+
+            UUID[] conversations = conversationRepository.findConversationIdsByUserId(userId)
+                    .toArray(NO_CONVERSATIONS);
+            Entry created = new Entry(userId, null, conversations, deadline);
+            if (online.putIfAbsent(userId, created) == null) {
+                wheel.schedule(created);
+                for (UUID conversationId : conversations) {
+                    record(conversationId, new PresenceChangeDto(userId, true, null));
+                }
+                return true;
+            }
+        }
+    }
+
+    public void disconnect(UUID userId) {
+        Entry entry = online.get(userId);
+        if (entry != null && entry.kill()) {
+            online.remove(userId, entry);
+            wentOffline(entry);
+        }
+    }
+
+    public void typing(UUID userId, UUID conversationId, boolean isTyping) {
+        TypingKey key = new TypingKey(userId, conversationId);
+        if (!isTyping) {
+            Entry entry = typing.get(key);
+            if (entry != null && entry.kill()) {
+                typing.remove(key, entry);
+                record(conversationId, new PresenceChangeDto(userId, null, false));
+            }
+            return;
+        }
+
+        long deadline = currentTick() + typingTtlTicks;
+        while (true) {
+            Entry entry = typing.get(key);
+            if (entry != null) {
+                if (entry.extend(deadline)) return;
+                typing.remove(key, entry);
+                continue;
+            }
+
+            Entry created = new Entry(userId, conversationId, NO_CONVERSATIONS, deadline);
+            if (typing.putIfAbsent(key, created) == null) {
+                wheel.schedule(created);
+                record(conversationId, new PresenceChangeDto(userId, null, true));
+                return;
+            }
+        }
+    }
+
+    public boolean isOnline(UUID userId) {
+        return online.containsKey(userId);
+    }
+
+    public int onlineCount() {
+        return online.size();
+    }
+
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void advanceWheel() {
+        wheel.advance(currentTick(), this::expire);
+    }
+
+    @Scheduled(fixedDelayString = "${stackmentor.presence.flush-interval:PT0.25S}")
+    public void flush() {
+        for (UUID conversationId : pending.keySet()) {
+            Map<UUID, PresenceChangeDto> changes = pending.remove(conversationId);
+            if (changes == null || changes.isEmpty()) continue;
+
+            broadcaster.broadcast("/topic/conversations/" + conversationId + "/presence",
+                    new PresenceBatchDto(conversationId, new ArrayList<>(changes.values())));
+        }
+    }
+
+    private boolean expire(Entry entry) {
+        if (!entry.expireAt(currentTick())) return false;
+
+        if (entry.conversationId == null) {
+            online.remove(entry.userId, entry);
+            wentOffline(entry);
+        } else {
+            typing.remove(new TypingKey(entry.userId, entry.conversationId), entry);
+            record(entry.conversationId, new PresenceChangeDto(entry.userId, null, false));
+        }
+        return true;
+    }
+
+    private void wentOffline(Entry entry) {
+        for (UUID conversationId : entry.conversations) {
+            record(conversationId, new PresenceChangeDto(entry.userId, false, null));
+        }
+    }
+
+    // compute() keeps a merge from landing in a map flush() has already taken
+    private void record(UUID conversationId, PresenceChangeDto change) {
+        pending.compute(conversationId, (id, changes) -> {
+            Map<UUID, PresenceChangeDto> merged = changes != null ? changes : new HashMap<>();
+            merged.merge(change.getUserId(), change, PresenceChangeDto::mergedWith);
+            return merged;
+        });
+    }
+
+    private long currentTick() {
+        return clock.getAsLong() / TICK_MILLIS;
+    }
+
+    List<PresenceChangeDto> pendingChanges(UUID conversationId) {
+        Map<UUID, PresenceChangeDto> changes = pending.get(conversationId);
+        return changes == null ? List.of() : List.copyOf(changes.values());
+    }
+
+    private record TypingKey(UUID userId, UUID conversationId) {
+    }
+
+    private static final class Entry implements TimingWheel.Timed {
+
+        final UUID userId;
+        final UUID conversationId; // null for an online entry
+        final UUID[] conversations;
+        final AtomicLong deadline;
+
+        Entry(UUID userId, UUID conversationId, UUID[] conversations, long deadline) {
+            this.userId = userId;
+            this.conversationId = conversationId;
+            this.conversations = conversations;
+            this.deadline = new AtomicLong(deadline);
+        }
+
+        @Override
+        public long deadline() {
+            return deadline.get();
+        }
+
+        // False if the entry already died and must be replaced
+        boolean extend(long newDeadline) {
+            while (true) {
+                long current = deadline.get();
+                if (current == DEAD) return false;
+                if (current >= newDeadline || deadline.compareAndSet(current, newDeadline)) return true;
+            }
+        }
+
+        boolean expireAt(long now) {
+            while (true) {
+                long current = deadline.get();
+                if (current == DEAD || current > now) return false;
+                if (deadline.compareAndSet(current, DEAD)) return true;
+            }
+        }
+
+        boolean kill() {
+            while (true) {
+                long current = deadline.get();
+                if (current == DEAD) return false;
+                if (deadline.compareAndSet(current, DEAD)) return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.stackmentor.presence;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+
+/**
+ * Hashed timing wheel: one queue per tick slot instead of one timer per entry. An entry sits
+ * in the slot of its deadline; when the slot comes round, entries whose deadline has moved on
+ * (because they were refreshed meanwhile) are re-slotted rather than expired, so a refresh
+ * costs one CAS and never touches the wheel.
+ */
+class TimingWheel<E extends TimingWheel.Timed> {
+
+    interface Timed {
+
+        // Current deadline tick, or a negative value once the entry is dead
+        long deadline();
+    }
+
+    private final Queue<E>[] slots;
+    private long processedTick;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(int slotCount, long startTick) {
+        this.slots = (Queue<E>[]) new Queue<?>[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.processedTick = startTick;
+    }
+
+    void schedule(E entry) {
+        long deadline = entry.deadline();
+        if (deadline >= 0) {
+            slots[(int) (deadline % slots.length)].add(entry);
+        }
+    }
+
+    /**
+     * Processes every slot up to {@code now}. {@code expire} is called for each entry whose
+     * deadline has passed and returns whether it actually expired; entries that lost the race
+     * to a refresh are re-slotted. Only one thread may advance the wheel.
+     */
+    void advance(long now, Predicate<E> expire) {
+        long from = Math.max(processedTick + 1, now - slots.length + 1);
+        for (long tick = from; tick <= now; tick++) {
+            Queue<E> slot = slots[(int) (tick % slots.length)];
+            // Bounded by the size on entry so entries re-slotted here wait for the next revolution
+            for (int remaining = slot.size(); remaining > 0; remaining--) {
+                E entry = slot.poll();
+                if (entry == null) break;
+
+                long deadline = entry.deadline();
+                if (deadline < 0) continue;
+                if (deadline > now || !expire.test(entry)) {
+                    schedule(entry);
+                }
+            }
+        }
+        processedTick = Math.max(processedTick, now);
+    }
+
+    int size() {
+        int size = 0;
+        for (Queue<E> slot : slots) {
+            size += slot.size();
+        }
+        return size;
+    }
+}
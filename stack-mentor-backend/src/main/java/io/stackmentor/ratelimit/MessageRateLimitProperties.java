@@ -0,0 +1,55 @@
+package io.stackmentor.ratelimit;
+
+import io.stackmentor.enums.PositionType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Message-send limits per {@link PositionType}. A position without its own entry uses the
+ * MEMBER limit.
+ */
+@ConfigurationProperties(prefix = "stackmentor.rate-limit.messages")
+public record MessageRateLimitProperties(Map<PositionType, Limit> perConversation,
+                                         Map<PositionType, Limit> perUser,
+                                         Duration idleEviction) {
+
+    static final Limit DEFAULT_PER_CONVERSATION = new Limit(10, 1);
+    static final Limit DEFAULT_PER_USER = new Limit(30, 3);
+
+    public MessageRateLimitProperties {
+        perConversation = withDefault(perConversation, DEFAULT_PER_CONVERSATION);
+        perUser = withDefault(perUser, DEFAULT_PER_USER);
+        if (idleEviction == null) idleEviction = Duration.ofMinutes(10);
+    }
+
+    public Limit perConversation(PositionType position) {
+        return perConversation.getOrDefault(position, perConversation.get(PositionType.MEMBER));
+    }
+
+    public Limit perUser(PositionType position) {
+        return perUser.getOrDefault(position, perUser.get(PositionType.MEMBER));
+    }
+
+    private static Map<PositionType, Limit> withDefault(Map<PositionType, Limit> limits, Limit fallback) {
+        Map<PositionType, Limit> result = new EnumMap<>(PositionType.class);
+        if (limits != null) result.putAll(limits);
+        result.putIfAbsent(PositionType.MEMBER, fallback);
+        return result;
+    }
+
+    // Burst of up to capacity messages, refilled continuously at refillPerSecond
+    public record Limit(int capacity, double refillPerSecond) {
+
+        public Limit {
+            if (capacity < 1 || capacity > TokenBucket.MAX_CAPACITY) {
+                throw new IllegalArgumentException("Rate limit capacity must be between 1 and " + TokenBucket.MAX_CAPACITY);
+            }
+            if (refillPerSecond <= 0) {
+                throw new IllegalArgumentException("Rate limit refill must be positive");
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.stackmentor.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.stackmentor.enums.PositionType;
+import io.stackmentor.exception.RateLimitExceededException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for message sends: one per (user, conversation) and one per user across all
+ * conversations. Both must have a token for a send to go through. Buckets idle for longer than
+ * the eviction window are dropped; a recreated bucket starts full, which is what an idle bucket
+ * would have refilled to anyway.
+ */
+@Component
+public class MessageRateLimiter {
+
+    static final String SCOPE_CONVERSATION = "conversation";
+    static final String SCOPE_USER = "user";
+
+    private final MessageRateLimitProperties properties;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<ConversationKey, TokenBucket> conversationBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    private final Map<PositionType, Counter> conversationThrottles = new EnumMap<>(PositionType.class);
+    private final Map<PositionType, Counter> userThrottles = new EnumMap<>(PositionType.class);
+
+    @Autowired
+    public MessageRateLimiter(MessageRateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    MessageRateLimiter(MessageRateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties;
+        this.clock = clock;
+
+        for (PositionType position : PositionType.values()) {
+            conversationThrottles.put(position, throttleCounter(meterRegistry, SCOPE_CONVERSATION, position));
+            userThrottles.put(position, throttleCounter(meterRegistry, SCOPE_USER, position));
+        }
+        // Gauges the bucket maps rather than the limiter, which is not fully built yet
+        Gauge.builder("message.rate.buckets", List.of(conversationBuckets, userBuckets),
+                        buckets -> buckets.stream().mapToInt(Map::size).sum())
+                .description("Live message rate-limit buckets")
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Consumes one send for the user in the conversation, or throws if either the conversation
+     * or the user-wide limit is exhausted. {@code userId} must be the authenticated caller, never
+     * an id taken from the request, or a client could spread its sends over other users' buckets.
+     */
+    public void acquire(UUID userId, UUID conversationId, PositionType position) {
+        PositionType effective = position != null ? position : PositionType.MEMBER;
+        MessageRateLimitProperties.Limit userLimit = properties.perUser(effective);
+        MessageRateLimitProperties.Limit conversationLimit = properties.perConversation(effective);
+        long now = clock.getAsLong();
+
+        TokenBucket userBucket = userBuckets.computeIfAbsent(userId, id -> new TokenBucket(userLimit, now));
+        long userWait = userBucket.tryAcquire(userLimit, now);
+        if (userWait > 0) {
+            userThrottles.get(effective).increment();
+            throw new RateLimitExceededException(userWait);
+        }
+
+        TokenBucket conversationBucket = conversationBuckets.computeIfAbsent(
+                new ConversationKey(userId, conversationId), key -> new TokenBucket(conversationLimit, now));
+        long conversationWait = conversationBucket.tryAcquire(conversationLimit, now);
+        if (conversationWait > 0) {
+            userBucket.refund(userLimit);
+            conversationThrottles.get(effective).increment();
+            throw new RateLimitExceededException(conversationWait);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stackmentor.rate-limit.messages.eviction-interval:PT1M}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        long idleMillis = properties.idleEviction().toMillis();
+        conversationBuckets.values().removeIf(bucket -> bucket.idleMillis(now) > idleMillis);
+        userBuckets.values().removeIf(bucket -> bucket.idleMillis(now) > idleMillis);
+    }
+
+    int bucketCount() {
+        return conversationBuckets.size() + userBuckets.size();
+    }
+
+    private static Counter throttleCounter(MeterRegistry meterRegistry, String scope, PositionType position) {
+        return Counter.builder("message.send.throttled")
+                .description("Message sends rejected by the rate limiter")
+                .tag("scope", scope)
+                .tag("position", position.getValue())
+                .register(meterRegistry);
+    }
+
+    private record ConversationKey(UUID userId, UUID conversationId) {
+    }
+}
@@ -0,0 +1,64 @@
+package io.stackmentor.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket packed into one AtomicLong: the high 32 bits hold micro-tokens, the low 32 bits
+ * the millisecond clock (mod 2^32) of the last refill. Every update is a single CAS. Buckets
+ * are evicted long before the clock field can wrap.
+ */
+final class TokenBucket {
+
+    static final int MAX_CAPACITY = 4000;
+
+    private static final long MICROS_PER_TOKEN = 1_000_000;
+    private static final long CLOCK_MASK = 0xFFFF_FFFFL;
+
+    private final AtomicLong state;
+
+    TokenBucket(MessageRateLimitProperties.Limit limit, long nowMillis) {
+        this.state = new AtomicLong(pack(limit.capacity() * MICROS_PER_TOKEN, nowMillis));
+    }
+
+    /**
+     * Takes one token. Returns 0 on success, otherwise the milliseconds until a token is available.
+     */
+    long tryAcquire(MessageRateLimitProperties.Limit limit, long nowMillis) {
+        while (true) {
+            long current = state.get();
+            long available = refilled(current, limit, nowMillis);
+
+            if (available >= MICROS_PER_TOKEN) {
+                if (state.compareAndSet(current, pack(available - MICROS_PER_TOKEN, nowMillis))) return 0;
+            } else {
+                double microsPerMilli = limit.refillPerSecond() * 1000;
+                return Math.max(1, (long) Math.ceil((MICROS_PER_TOKEN - available) / microsPerMilli));
+            }
+        }
+    }
+
+    // Gives back a token taken by tryAcquire when a later check rejected the send
+    void refund(MessageRateLimitProperties.Limit limit) {
+        long capacity = limit.capacity() * MICROS_PER_TOKEN;
+        while (true) {
+            long current = state.get();
+            long tokens = Math.min(capacity, (current >>> 32) + MICROS_PER_TOKEN);
+            if (state.compareAndSet(current, (tokens << 32) | (current & CLOCK_MASK))) return;
+        }
+    }
+
+    long idleMillis(long nowMillis) {
+        return (nowMillis - state.get()) & CLOCK_MASK;
+    }
+
+    private static long refilled(long current, MessageRateLimitProperties.Limit limit, long nowMillis) {
+        long tokens = current >>> 32;
+        long elapsed = (nowMillis - current) & CLOCK_MASK;
+        long refill = (long) (elapsed * limit.refillPerSecond() * 1000);
+        return Math.min(limit.capacity() * MICROS_PER_TOKEN, tokens + refill);
+    }
+
+    private static long pack(long microTokens, long nowMillis) {
+        return (microTokens << 32) | (nowMillis & CLOCK_MASK);
+    }
+}
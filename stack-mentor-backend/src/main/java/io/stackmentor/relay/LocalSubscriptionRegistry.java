@@ -0,0 +1,70 @@
+package io.stackmentor.relay;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Destinations that have at least one subscriber connected to this node
+@Component
+public class LocalSubscriptionRegistry {
+
+    private final ConcurrentHashMap<String, Map<String, String>> sessionSubscriptions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> destinationCounts = new ConcurrentHashMap<>();
+
+    public boolean hasSubscribers(String destination) {
+        return destinationCounts.containsKey(destination);
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        subscribe(headers.getSessionId(), headers.getSubscriptionId(), headers.getDestination());
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        unsubscribe(headers.getSessionId(), headers.getSubscriptionId());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessionSubscriptions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    public void subscribe(String sessionId, String subscriptionId, String destination) {
+        if (sessionId == null || subscriptionId == null || destination == null) return;
+
+        String previous = sessionSubscriptions
+                .computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, destination);
+        destinationCounts.merge(destination, 1, Integer::sum);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        if (sessionId == null || subscriptionId == null) return;
+
+        Map<String, String> subscriptions = sessionSubscriptions.get(sessionId);
+        String destination = subscriptions != null ? subscriptions.remove(subscriptionId) : null;
+        if (destination != null) {
+            release(destination);
+        }
+    }
+
+    // Returning null drops the destination once its last subscriber is gone
+    private void release(String destination) {
+        destinationCounts.computeIfPresent(destination, (d, count) -> count > 1 ? count - 1 : null);
+    }
+}
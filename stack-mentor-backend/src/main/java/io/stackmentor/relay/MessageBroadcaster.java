@@ -0,0 +1,236 @@
+package io.stackmentor.relay;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.stackmentor.codec.CompactMessageCodec;
+import io.stackmentor.dto.message.CompactMessageDto;
+import io.stackmentor.dto.message.CompactMessagesDto;
+import io.stackmentor.dto.message.MessageDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.stackmentor.event.MessageDeletedEvent;
+import io.stackmentor.event.MessageEditedEvent;
+import io.stackmentor.event.MessageSentEvent;
+import io.stackmentor.event.MessagesReadEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.MimeTypeUtils;
+
+import jakarta.annotation.PreDestroy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Single entry point for pushing payloads to STOMP destinations. Delivers to this node's
+ * sessions immediately and queues the payload for the other nodes; relayed payloads from other
+ * nodes are delivered only where this node has a subscriber for the destination.
+ * <p>
+ * A payload is serialized once per broadcast, never per recipient: the broker hands the same
+ * byte array to every subscribed session, so the cost does not grow with the audience. That
+ * only holds for state all recipients share, so per-recipient fields such as
+ * {@link MessageDto#isRead()} are left out and read state goes out as separate receipts.
+ * <p>
+ * Conversation message topics also have a compact twin, the same destination with
+ * {@value #COMPACT_SUFFIX} appended, carrying {@link CompactMessageCodec} frames. Only the JSON
+ * is relayed; each node encodes the compact frame itself when it has subscribers for it.
+ * Those frames go out as {@code application/octet-stream}, the only content type the STOMP
+ * handler writes as a binary WebSocket message; anything else is sent as text, which mangles
+ * CBOR. The {@value #WIRE_FORMAT_HEADER} header names the actual format.
+ */
+@Component
+public class MessageBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageBroadcaster.class);
+
+    static final String COMPACT_SUFFIX = ".cbor";
+    static final String WIRE_FORMAT_HEADER = "wire-format";
+    private static final String MESSAGES_TOPIC = "/messages";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter sharedWriter;
+    private final CompactMessageCodec compactMessageCodec;
+    private final LocalSubscriptionRegistry localSubscriptions;
+    private final RelayTransport transport; // null when running as a single node
+    private final String nodeId;
+    private final int batchSize;
+    private final BlockingQueue<RelayEnvelope> outbound;
+    private final Counter dropped;
+    private final Counter relayed;
+
+    @Autowired
+    public MessageBroadcaster(SimpMessagingTemplate messagingTemplate,
+                              ObjectMapper objectMapper,
+                              CompactMessageCodec compactMessageCodec,
+                              LocalSubscriptionRegistry localSubscriptions,
+                              @Autowired(required = false) RelayTransport transport,
+                              MeterRegistry meterRegistry,
+                              @Value("${stackmentor.relay.node-id:}") String nodeId,
+                              @Value("${stackmentor.relay.batch-size:256}") int batchSize,
+                              @Value("${stackmentor.relay.queue-capacity:100000}") int queueCapacity) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.sharedWriter = objectMapper.copy().addMixIn(MessageDto.class, SharedMessageDto.class).writer();
+        this.compactMessageCodec = compactMessageCodec;
+        this.localSubscriptions = localSubscriptions;
+        this.transport = transport;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.batchSize = batchSize;
+        this.outbound = new ArrayBlockingQueue<>(queueCapacity);
+        this.dropped = Counter.builder("relay.outbound.dropped")
+                .description("Broadcasts that could not be relayed to other nodes")
+                .register(meterRegistry);
+        this.relayed = Counter.builder("relay.inbound.delivered")
+                .description("Broadcasts from other nodes delivered to local subscribers")
+                .register(meterRegistry);
+    }
+
+    public void broadcast(String destination, Object payload) {
+        byte[] json;
+        try {
+            json = sharedWriter.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Payload for " + destination + " is not serializable", e);
+        }
+
+        deliverLocally(destination, json);
+        if (transport != null
+                && !outbound.offer(new RelayEnvelope(0, nodeId, destination, new String(json, StandardCharsets.UTF_8)))) {
+            dropped.increment();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessageSent(MessageSentEvent event) {
+        broadcastMessage(event.message());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessageEdited(MessageEditedEvent event) {
+        broadcastMessage(event.message());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessageDeleted(MessageDeletedEvent event) {
+        broadcastMessage(event.tombstone());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessagesRead(MessagesReadEvent event) {
+        broadcast("/topic/conversations/" + event.receipt().getConversationId() + "/receipts", event.receipt());
+    }
+
+    private void broadcastMessage(MessageDto message) {
+        String destination = "/topic/conversations/" + message.getConversationId() + MESSAGES_TOPIC;
+        broadcast(destination, message);
+        if (hasCompactSubscribers(destination)) {
+            deliverCompact(destination, message);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (transport != null) {
+            transport.start(this::receive);
+            log.info("Cluster relay started as node {}", nodeId);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (transport != null) {
+            flush();
+            transport.stop();
+        }
+    }
+
+    // One transport round trip per batch rather than per broadcast
+    @Scheduled(fixedDelayString = "${stackmentor.relay.flush-interval:PT0.02S}")
+    public void flush() {
+        if (transport == null) return;
+
+        while (!outbound.isEmpty()) {
+            List<RelayEnvelope> batch = new ArrayList<>(batchSize);
+            if (outbound.drainTo(batch, batchSize) == 0) return;
+            try {
+                transport.publish(batch);
+            } catch (RuntimeException e) {
+                // Local subscribers already have these; other nodes miss them
+                log.warn("Failed to relay {} broadcasts", batch.size(), e);
+                dropped.increment(batch.size());
+            }
+        }
+    }
+
+    void receive(List<RelayEnvelope> batch) {
+        for (RelayEnvelope envelope : batch) {
+            if (nodeId.equals(envelope.nodeId())) continue;
+
+            String destination = envelope.destination();
+            boolean json = localSubscriptions.hasSubscribers(destination);
+            boolean compact = hasCompactSubscribers(destination);
+            if (!json && !compact) continue;
+
+            if (json) {
+                deliverLocally(destination, envelope.payload().getBytes(StandardCharsets.UTF_8));
+            }
+            if (compact) {
+                try {
+                    deliverCompact(destination, objectMapper.readValue(envelope.payload(), MessageDto.class));
+                } catch (JsonProcessingException e) {
+                    log.warn("Relayed payload for {} is not a message", destination, e);
+                }
+            }
+            relayed.increment();
+        }
+    }
+
+    private boolean hasCompactSubscribers(String destination) {
+        return destination.endsWith(MESSAGES_TOPIC) && localSubscriptions.hasSubscribers(destination + COMPACT_SUFFIX);
+    }
+
+    private void deliverCompact(String destination, MessageDto message) {
+        CompactMessagesDto frame = compactMessageCodec.encode(message.getConversationId(), List.of(message));
+        // Shared by every subscriber, like the JSON frame, so no read state
+        frame.getMessages().forEach(compact -> compact.setFlags(compact.getFlags() & ~CompactMessageDto.READ));
+        byte[] cbor = compactMessageCodec.toCbor(frame);
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        headers.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        headers.setNativeHeader(WIRE_FORMAT_HEADER, MediaType.APPLICATION_CBOR_VALUE);
+        headers.setLeaveMutable(true);
+        messagingTemplate.send(destination + COMPACT_SUFFIX,
+                MessageBuilder.createMessage(cbor, headers.getMessageHeaders()));
+    }
+
+    // The broker fans this one message out; every session's frame wraps the same payload array
+    private void deliverLocally(String destination, byte[] json) {
+        messagingTemplate.send(destination, MessageBuilder.withPayload(json)
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                .build());
+    }
+
+    // Read state differs per recipient; it is sent as receipts instead
+    @JsonIgnoreProperties("read")
+    private abstract static class SharedMessageDto {
+    }
+}
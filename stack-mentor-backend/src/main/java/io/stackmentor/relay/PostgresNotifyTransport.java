@@ -0,0 +1,172 @@
+package io.stackmentor.relay;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Relay over the relay_events table (changeset 011). Publishing inserts the batch and issues
+ * one NOTIFY in the same transaction; listeners hold a dedicated connection, wake on NOTIFY and
+ * read every row past the last sequence they delivered. After a reconnect they simply read from
+ * that sequence again, so events published while disconnected are not lost as long as they are
+ * younger than the retention window.
+ */
+@Component
+@ConditionalOnProperty(name = "stackmentor.relay.transport", havingValue = "postgres", matchIfMissing = true)
+public class PostgresNotifyTransport implements RelayTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresNotifyTransport.class);
+
+    static final String CHANNEL = "stackmentor_relay";
+
+    // Serializes publishers so sequences commit in order and a reader never skips a late commit
+    private static final long PUBLISH_LOCK = 0x5EED_0033L;
+    private static final int READ_BATCH = 1000;
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcConnectionDetails connectionDetails;
+    private final Duration retention;
+
+    private volatile boolean running;
+    private volatile long lastSequence;
+    private Thread listener;
+
+    public PostgresNotifyTransport(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   JdbcConnectionDetails connectionDetails,
+                                   @Value("${stackmentor.relay.retention:10m}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.connectionDetails = connectionDetails;
+        this.retention = retention;
+    }
+
+    @Override
+    public void publish(List<RelayEnvelope> batch) {
+        if (batch.isEmpty()) return;
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, PUBLISH_LOCK);
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO relay_events (node_id, destination, payload) VALUES (?, ?, ?)",
+                    batch, batch.size(),
+                    (ps, envelope) -> {
+                        ps.setString(1, envelope.nodeId());
+                        ps.setString(2, envelope.destination());
+                        ps.setString(3, envelope.payload());
+                    });
+            // Delivered at commit, after the rows are visible
+            jdbcTemplate.execute("NOTIFY " + CHANNEL);
+        });
+    }
+
+    @Override
+    public synchronized void start(Consumer<List<RelayEnvelope>> handler) {
+        if (running) return;
+
+        Long current = jdbcTemplate.queryForObject("SELECT COALESCE(max(seq), 0) FROM relay_events", Long.class);
+        lastSequence = current != null ? current : 0;
+        running = true;
+
+        listener = new Thread(() -> listen(handler), "relay-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener = null;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stackmentor.relay.purge-interval:PT1M}")
+    public void purgeExpired() {
+        jdbcTemplate.update("DELETE FROM relay_events WHERE created_at < now() - make_interval(secs => ?)",
+                retention.toSeconds());
+    }
+
+    private void listen(Consumer<List<RelayEnvelope>> handler) {
+        long backoffMillis = 250;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(connectionDetails.getJdbcUrl(),
+                    connectionDetails.getUsername(), connectionDetails.getPassword())) {
+
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                backoffMillis = 250;
+
+                // Anything published while we were not listening
+                catchUp(connection, handler);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(500);
+                    if (notifications != null && notifications.length > 0) {
+                        catchUp(connection, handler);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("Relay listener lost its connection, retrying in {}ms", backoffMillis, e);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF.toMillis());
+            }
+        }
+    }
+
+    private void catchUp(Connection connection, Consumer<List<RelayEnvelope>> handler) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT seq, node_id, destination, payload FROM relay_events " +
+                        "WHERE seq > ? ORDER BY seq LIMIT " + READ_BATCH)) {
+
+            while (true) {
+                statement.setLong(1, lastSequence);
+                List<RelayEnvelope> batch = new ArrayList<>();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        batch.add(new RelayEnvelope(rows.getLong(1), rows.getString(2),
+                                rows.getString(3), rows.getString(4)));
+                    }
+                }
+                if (batch.isEmpty()) return;
+
+                try {
+                    handler.accept(batch);
+                } catch (RuntimeException e) {
+                    log.error("Relay handler failed for {} events", batch.size(), e);
+                }
+                lastSequence = batch.get(batch.size() - 1).sequence();
+                if (batch.size() < READ_BATCH) return;
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package io.stackmentor.relay;
+
+// One broadcast as it travels between nodes; payload is the already-serialized JSON body
+public record RelayEnvelope(long sequence, String nodeId, String destination, String payload) {
+}
@@ -0,0 +1,18 @@
+package io.stackmentor.relay;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Moves broadcasts between backend nodes. Implementations deliver every envelope published by
+ * any node (including this one) to the handler, in publish order, and resume where they left
+ * off after losing their connection.
+ */
+public interface RelayTransport {
+
+    void publish(List<RelayEnvelope> batch);
+
+    void start(Consumer<List<RelayEnvelope>> handler);
+
+    void stop();
+}
@@ -0,0 +1,117 @@
+package io.stackmentor.repository;
+
+import io.stackmentor.analytics.ActivityRollups.ConversationHour;
+import io.stackmentor.analytics.HourlyActivity;
+import io.stackmentor.analytics.ResponseStats;
+import io.stackmentor.dto.analytics.GroupActivityDto;
+import io.stackmentor.dto.analytics.MentorResponseDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Writes and reads of the analytics rollups; nothing here touches the messages table
+@Repository
+public class ActivityRollupRepository {
+
+    // Counted per conversation; only group conversations have a row to add to
+    private static final String ADD_GROUP_ACTIVITY =
+            "INSERT INTO group_activity_hourly (group_id, hour, messages, reads) " +
+            "SELECT c.group_id, ?, ?, ? FROM conversations c " +
+            "WHERE c.conversation_id = ? AND c.group_id IS NOT NULL " +
+            "ON CONFLICT (group_id, hour) DO UPDATE SET " +
+            "messages = group_activity_hourly.messages + EXCLUDED.messages, " +
+            "reads = group_activity_hourly.reads + EXCLUDED.reads";
+
+    private static final String ADD_MENTOR_RESPONSES =
+            "INSERT INTO mentor_response_hourly (hour, responses, total_seconds, within_5m, within_1h, within_1d) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (hour) DO UPDATE SET " +
+            "responses = mentor_response_hourly.responses + EXCLUDED.responses, " +
+            "total_seconds = mentor_response_hourly.total_seconds + EXCLUDED.total_seconds, " +
+            "within_5m = mentor_response_hourly.within_5m + EXCLUDED.within_5m, " +
+            "within_1h = mentor_response_hourly.within_1h + EXCLUDED.within_1h, " +
+            "within_1d = mentor_response_hourly.within_1d + EXCLUDED.within_1d";
+
+    private static final String SAVE_SKETCH =
+            "INSERT INTO active_user_sketches (day, writer_id, sketch, updated_at) VALUES (?, ?, ?, now()) " +
+            "ON CONFLICT (day, writer_id) DO UPDATE SET sketch = EXCLUDED.sketch, updated_at = now()";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void addGroupActivity(Map<ConversationHour, HourlyActivity> counts) {
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> rows.add(new Object[]{
+                Timestamp.valueOf(key.hour()), count.messages(), count.reads(), key.conversationId()}));
+        jdbcTemplate.batchUpdate(ADD_GROUP_ACTIVITY, rows);
+    }
+
+    public void addMentorResponses(Map<LocalDateTime, ResponseStats> stats) {
+        List<Object[]> rows = new ArrayList<>(stats.size());
+        stats.forEach((hour, s) -> rows.add(new Object[]{
+                Timestamp.valueOf(hour), s.responses(), s.totalSeconds(), s.within5m(), s.within1h(), s.within1d()}));
+        jdbcTemplate.batchUpdate(ADD_MENTOR_RESPONSES, rows);
+    }
+
+    public void saveActiveUserSketches(UUID writerId, Map<LocalDate, byte[]> sketches) {
+        List<Object[]> rows = new ArrayList<>(sketches.size());
+        sketches.forEach((day, sketch) -> rows.add(new Object[]{Date.valueOf(day), writerId, sketch}));
+        jdbcTemplate.batchUpdate(SAVE_SKETCH, rows);
+    }
+
+    // Hours in [from, to), for one group or all of them when groupId is null
+    public List<GroupActivityDto> findGroupActivity(UUID groupId, LocalDateTime from, LocalDateTime to) {
+        String sql = "SELECT group_id, hour, messages, reads FROM group_activity_hourly WHERE hour >= ? AND hour < ? " +
+                (groupId != null ? "AND group_id = ? " : "") + "ORDER BY hour, group_id";
+        Object[] args = groupId != null
+                ? new Object[]{Timestamp.valueOf(from), Timestamp.valueOf(to), groupId}
+                : new Object[]{Timestamp.valueOf(from), Timestamp.valueOf(to)};
+
+        return jdbcTemplate.query(sql, (resultSet, rowNum) -> GroupActivityDto.builder()
+                .groupId(resultSet.getObject("group_id", UUID.class))
+                .hour(resultSet.getTimestamp("hour").toLocalDateTime())
+                .messages(resultSet.getInt("messages"))
+                .reads(resultSet.getInt("reads"))
+                .build(), args);
+    }
+
+    public List<MentorResponseDto> findMentorResponses(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(
+                "SELECT hour, responses, total_seconds, within_5m, within_1h, within_1d FROM mentor_response_hourly " +
+                "WHERE hour >= ? AND hour < ? ORDER BY hour",
+                (resultSet, rowNum) -> {
+                    int responses = resultSet.getInt("responses");
+                    return MentorResponseDto.builder()
+                            .hour(resultSet.getTimestamp("hour").toLocalDateTime())
+                            .responses(responses)
+                            .averageSeconds(responses > 0 ? resultSet.getLong("total_seconds") / responses : 0)
+                            .within5Minutes(resultSet.getInt("within_5m"))
+                            .within1Hour(resultSet.getInt("within_1h"))
+                            .within1Day(resultSet.getInt("within_1d"))
+                            .build();
+                },
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    // Every writer's sketch for each day in [from, to]
+    public Map<LocalDate, List<byte[]>> findActiveUserSketches(LocalDate from, LocalDate to) {
+        Map<LocalDate, List<byte[]>> sketches = new TreeMap<>();
+        jdbcTemplate.query("SELECT day, sketch FROM active_user_sketches WHERE day BETWEEN ? AND ?",
+                (RowCallbackHandler) resultSet -> sketches
+                        .computeIfAbsent(resultSet.getDate("day").toLocalDate(), day -> new ArrayList<>())
+                        .add(resultSet.getBytes("sketch")),
+                Date.valueOf(from), Date.valueOf(to));
+        return sketches;
+    }
+}
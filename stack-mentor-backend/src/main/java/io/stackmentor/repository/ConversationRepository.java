@@ -0,0 +1,35 @@
+package io.stackmentor.repository;
+
+import io.stackmentor.model.Conversation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, UUID> {
+    //Repository methods can be defined here if needed
+
+    // Group conversations the user is a member of plus their direct conversations
+    @Query(value = "SELECT c.conversation_id FROM conversations c " +
+            "JOIN group_members gm ON gm.group_id = c.group_id " +
+            "WHERE gm.user_id = :userId " +
+            "UNION ALL " +
+            "SELECT dcp.conversation_id FROM direct_conversation_participants dcp " +
+            "WHERE dcp.user_id = :userId",
+            nativeQuery = true)
+    List<UUID> findConversationIdsByUserId(@Param("userId") UUID userId);
+
+    @Query(value = "SELECT EXISTS (" +
+            "SELECT 1 FROM conversations c " +
+            "JOIN group_members gm ON gm.group_id = c.group_id " +
+            "WHERE c.conversation_id = :conversationId AND gm.user_id = :userId " +
+            "UNION ALL " +
+            "SELECT 1 FROM direct_conversation_participants dcp " +
+            "WHERE dcp.conversation_id = :conversationId AND dcp.user_id = :userId)",
+            nativeQuery = true)
+    boolean isParticipant(@Param("conversationId") UUID conversationId, @Param("userId") UUID userId);
+}
@@ -0,0 +1,116 @@
+package io.stackmentor.repository;
+
+import io.stackmentor.dto.group.GroupSummaryDto;
+import io.stackmentor.enums.GroupSortType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Group listings over the denormalized counters, and the writes that maintain them
+@Repository
+public class GroupDiscoveryRepository {
+
+    /**
+     * Where the previous page ended: the sort key of its last row, then its id. Only the field
+     * for the listing's sort is read.
+     */
+    public record Position(int memberCount, LocalDateTime lastActivityAt, UUID groupId) {
+    }
+
+    private static final String SELECT_SUMMARIES =
+            "SELECT group_id, group_name, description, member_count, last_activity_at FROM groups ";
+
+    private static final String ADD_MEMBERS =
+            "UPDATE groups SET member_count = member_count + ? WHERE group_id = ?";
+
+    // Messages are recorded per conversation; direct conversations have no group and match nothing
+    private static final String TOUCH_ACTIVITY =
+            "UPDATE groups g SET last_activity_at = GREATEST(g.last_activity_at, ?) " +
+            "FROM conversations c WHERE c.conversation_id = ? AND g.group_id = c.group_id";
+
+    // Held for the recount's transaction so one node recounts at a time
+    public static final long RECONCILE_LOCK = 0x67726f75705f6374L;
+
+    private static final String RECONCILE_MEMBER_COUNTS =
+            "UPDATE groups g SET member_count = counted.members FROM (" +
+            "SELECT g2.group_id, count(gm.user_id) AS members FROM groups g2 " +
+            "LEFT JOIN group_members gm ON gm.group_id = g2.group_id GROUP BY g2.group_id) counted " +
+            "WHERE counted.group_id = g.group_id AND g.member_count <> counted.members";
+
+    private static final RowMapper<GroupSummaryDto> SUMMARY_MAPPER = (resultSet, rowNum) ->
+            GroupSummaryDto.builder()
+                    .groupId(resultSet.getObject("group_id", UUID.class))
+                    .groupName(resultSet.getString("group_name"))
+                    .description(resultSet.getString("description"))
+                    .memberCount(resultSet.getInt("member_count"))
+                    .lastActivityAt(resultSet.getTimestamp("last_activity_at").toLocalDateTime())
+                    .build();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Groups whose name contains {@code nameQuery} (all groups when null), largest or most
+     * recently active first. {@code after} is null for the first page.
+     */
+    public List<GroupSummaryDto> findGroups(String nameQuery, GroupSortType sort, Position after, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_SUMMARIES);
+        List<Object> args = new ArrayList<>();
+        String glue = "WHERE ";
+
+        if (nameQuery != null) {
+            sql.append(glue).append("lower(group_name) LIKE ? ESCAPE '\\' ");
+            args.add("%" + escapeLike(nameQuery.toLowerCase()) + "%");
+            glue = "AND ";
+        }
+
+        String sortColumn = sort == GroupSortType.SIZE ? "member_count" : "last_activity_at";
+        if (after != null) {
+            sql.append(glue).append("(").append(sortColumn).append(", group_id) < (?, ?) ");
+            args.add(sort == GroupSortType.SIZE ? after.memberCount() : Timestamp.valueOf(after.lastActivityAt()));
+            args.add(after.groupId());
+        }
+
+        sql.append("ORDER BY ").append(sortColumn).append(" DESC, group_id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), SUMMARY_MAPPER, args.toArray());
+    }
+
+    // Sorted by id so concurrent flushes from several nodes lock rows in the same order
+    public void addMemberCounts(Map<UUID, Integer> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas).forEach((groupId, delta) -> rows.add(new Object[]{delta, groupId}));
+        jdbcTemplate.batchUpdate(ADD_MEMBERS, rows);
+    }
+
+    public void touchActivity(Map<UUID, LocalDateTime> latestByConversation) {
+        List<Object[]> rows = new ArrayList<>(latestByConversation.size());
+        new TreeMap<>(latestByConversation).forEach((conversationId, sentAt) ->
+                rows.add(new Object[]{Timestamp.valueOf(sentAt), conversationId}));
+        jdbcTemplate.batchUpdate(TOUCH_ACTIVITY, rows);
+    }
+
+    // Recounts every roster and fixes the groups that drifted; returns how many did
+    // Must run in the transaction that recounts; false when another node is recounting
+    public boolean tryReconcileLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RECONCILE_LOCK));
+    }
+
+    public int reconcileMemberCounts() {
+        return jdbcTemplate.update(RECONCILE_MEMBER_COUNTS);
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
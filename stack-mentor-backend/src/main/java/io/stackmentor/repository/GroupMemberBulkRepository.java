@@ -0,0 +1,62 @@
+package io.stackmentor.repository;
+
+import io.stackmentor.enums.GroupMemberType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+// Set-based membership writes: one statement per call regardless of how many users are involved
+@Repository
+public class GroupMemberBulkRepository {
+
+    private static final String INSERT_MEMBERS =
+            "INSERT INTO group_members (group_id, user_id, role, joined_at) " +
+            "SELECT ?, member_id, ?, ? FROM unnest(?) AS member_id " +
+            "ON CONFLICT (group_id, user_id) DO NOTHING " +
+            "RETURNING user_id";
+
+    private static final String DELETE_MEMBERS =
+            "DELETE FROM group_members WHERE group_id = ? AND user_id = ANY(?) " +
+            "RETURNING user_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Returns the users that were inserted; existing members are skipped by the primary key
+    public Set<UUID> insertMembers(UUID groupId, Collection<UUID> userIds,
+                                   GroupMemberType role, LocalDateTime joinedAt) {
+        return new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_MEMBERS);
+            statement.setObject(1, groupId);
+            statement.setString(2, role.getValue());
+            statement.setObject(3, joinedAt);
+            statement.setArray(4, connection.createArrayOf("uuid", userIds.toArray()));
+            return statement;
+        }, (resultSet, rowNum) -> resultSet.getObject(1, UUID.class)));
+    }
+
+    // Every membership row, streamed rather than collected
+    public void forEachMember(BiConsumer<UUID, UUID> groupAndUser) {
+        jdbcTemplate.query("SELECT group_id, user_id FROM group_members", resultSet -> {
+            groupAndUser.accept(resultSet.getObject(1, UUID.class), resultSet.getObject(2, UUID.class));
+        });
+    }
+
+    // Returns the users that were actually members and have been removed
+    public Set<UUID> deleteMembers(UUID groupId, Collection<UUID> userIds) {
+        return new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DELETE_MEMBERS);
+            statement.setObject(1, groupId);
+            statement.setArray(2, connection.createArrayOf("uuid", userIds.toArray()));
+            return statement;
+        }, (resultSet, rowNum) -> resultSet.getObject(1, UUID.class)));
+    }
+}
@@ -1,5 +1,6 @@
 package io.stackmentor.repository;
 
+import io.stackmentor.enums.GroupMemberType;
 import io.stackmentor.model.GroupMember;
 import io.stackmentor.model.GroupMemberId;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -16,6 +17,7 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, GroupM
     List<GroupMember> findByGroup_GroupId(UUID groupId);
     void deleteByGroup_GroupIdAndUser_UserId(UUID groupId, UUID userId);
     boolean existsByGroup_GroupIdAndUser_UserId(UUID groupId, UUID userId);
+    boolean existsByGroup_GroupIdAndUser_UserIdAndRole(UUID groupId, UUID userId, GroupMemberType role);
 
     @Query("SELECT g.conversation.conversationId " +
             "FROM GroupMember gm " +
@@ -2,11 +2,22 @@ package io.stackmentor.repository;
 
 import io.stackmentor.model.Group;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface GroupRepository extends JpaRepository<Group, UUID> {
     //Repository methods can be defined here if needed
+    @Query("SELECT g.version FROM Group g WHERE g.groupId = :groupId")
+    Optional<Long> findVersionById(@Param("groupId") UUID groupId);
+
+    // Membership rows live in group_members, so roster changes bump the group's version explicitly
+    @Modifying
+    @Query("UPDATE Group g SET g.version = g.version + 1 WHERE g.groupId = :groupId")
+    int incrementVersion(@Param("groupId") UUID groupId);
 }
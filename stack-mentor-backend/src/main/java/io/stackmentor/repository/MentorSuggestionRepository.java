@@ -0,0 +1,196 @@
+package io.stackmentor.repository;
+
+import io.stackmentor.dto.user.UserSummaryDto;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.suggestion.MatchProfile;
+import io.stackmentor.suggestion.ScoredMentor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Precomputed suggested mentors and the bookkeeping of the job that refreshes them
+@Repository
+public class MentorSuggestionRepository {
+
+    private static final String PROFILE_COLUMNS =
+            "SELECT user_id, skills, interests, industry, years_of_experience, latitude, longitude FROM users ";
+
+    // The stored order is the ranking; users that are gone or unverified drop out here
+    private static final String FIND_SUGGESTED =
+            "SELECT u.user_id, u.first_name, u.last_name, u.job_title, u.industry, u.years_of_experience, " +
+            "u.city, u.state, u.profile_picture_url, u.latitude, u.longitude " +
+            "FROM mentor_suggestions s " +
+            "CROSS JOIN LATERAL unnest(s.mentor_ids) WITH ORDINALITY AS m(mentor_id, position) " +
+            "JOIN users u ON u.user_id = m.mentor_id AND u.is_verified " +
+            "WHERE s.mentee_id = ? ORDER BY m.position";
+
+    private static final String UPSERT =
+            "INSERT INTO mentor_suggestions (mentee_id, mentor_ids, scores, computed_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (mentee_id) DO UPDATE SET mentor_ids = EXCLUDED.mentor_ids, scores = EXCLUDED.scores, " +
+            "computed_at = EXCLUDED.computed_at";
+
+    private static final String CLAIM_RUN =
+            "UPDATE suggestion_refresh_state SET lease_until = now() + make_interval(secs => ?) " +
+            "WHERE id = 1 AND (lease_until IS NULL OR lease_until < now()) " +
+            "RETURNING last_run_at, now() AS started_at";
+
+    public record RunClaim(LocalDateTime watermark, LocalDateTime startedAt) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes the refresh lease unless another node holds it. The claim carries the previous
+     * run's start (null before the first run) and this run's start, both on the database clock.
+     */
+    public RunClaim claimRun(Duration lease) {
+        List<RunClaim> claims = jdbcTemplate.query(CLAIM_RUN, (resultSet, rowNum) -> new RunClaim(
+                toLocalDateTime(resultSet.getTimestamp("last_run_at")),
+                resultSet.getTimestamp("started_at").toLocalDateTime()), lease.toSeconds());
+        return claims.isEmpty() ? null : claims.get(0);
+    }
+
+    public void completeRun(LocalDateTime startedAt) {
+        jdbcTemplate.update("UPDATE suggestion_refresh_state SET last_run_at = ?, lease_until = NULL WHERE id = 1",
+                Timestamp.valueOf(startedAt));
+    }
+
+    // A failed run gives the lease back without moving the watermark, so nothing is skipped
+    public void releaseRun() {
+        jdbcTemplate.update("UPDATE suggestion_refresh_state SET lease_until = NULL WHERE id = 1");
+    }
+
+    public List<MatchProfile> findVerifiedProfiles(RoleType role) {
+        return jdbcTemplate.query(PROFILE_COLUMNS + "WHERE is_verified AND role = ?",
+                profileMapper(role), role.getValue());
+    }
+
+    // Keyset pages of verified profiles in user id order
+    public List<MatchProfile> findVerifiedProfilesAfter(RoleType role, UUID afterUserId, int limit) {
+        return afterUserId == null
+                ? jdbcTemplate.query(PROFILE_COLUMNS + "WHERE is_verified AND role = ? ORDER BY user_id LIMIT ?",
+                        profileMapper(role), role.getValue(), limit)
+                : jdbcTemplate.query(PROFILE_COLUMNS + "WHERE is_verified AND role = ? AND user_id > ? " +
+                        "ORDER BY user_id LIMIT ?", profileMapper(role), role.getValue(), afterUserId, limit);
+    }
+
+    public List<MatchProfile> findVerifiedProfilesChangedAfter(RoleType role, LocalDateTime after) {
+        return jdbcTemplate.query(PROFILE_COLUMNS + "WHERE is_verified AND role = ? AND updated_at > ?",
+                profileMapper(role), role.getValue(), Timestamp.valueOf(after));
+    }
+
+    public Map<UUID, List<ScoredMentor>> findSuggestions(Collection<UUID> menteeIds) {
+        Map<UUID, List<ScoredMentor>> suggestions = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT mentee_id, mentor_ids, scores FROM mentor_suggestions WHERE mentee_id = ANY (?)");
+            statement.setArray(1, connection.createArrayOf("uuid", menteeIds.toArray()));
+            return statement;
+        }, (RowCallbackHandler) resultSet -> suggestions.put(
+                resultSet.getObject("mentee_id", UUID.class), scoredMentors(resultSet)));
+        return suggestions;
+    }
+
+    // Mentees whose stored list includes any of the mentors
+    public Set<UUID> findMenteesSuggesting(Collection<UUID> mentorIds) {
+        Set<UUID> mentees = new HashSet<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT mentee_id FROM mentor_suggestions WHERE mentor_ids && ?");
+            statement.setArray(1, connection.createArrayOf("uuid", mentorIds.toArray()));
+            return statement;
+        }, (RowCallbackHandler) resultSet -> mentees.add(resultSet.getObject(1, UUID.class)));
+        return mentees;
+    }
+
+    public void saveSuggestions(Map<UUID, List<ScoredMentor>> suggestions, LocalDateTime computedAt) {
+        List<Map.Entry<UUID, List<ScoredMentor>>> rows = new ArrayList<>(suggestions.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                List<ScoredMentor> mentors = rows.get(i).getValue();
+                statement.setObject(1, rows.get(i).getKey());
+                statement.setArray(2, statement.getConnection().createArrayOf("uuid",
+                        mentors.stream().map(ScoredMentor::mentorId).toArray()));
+                statement.setArray(3, statement.getConnection().createArrayOf("real",
+                        mentors.stream().map(ScoredMentor::score).toArray()));
+                statement.setTimestamp(4, Timestamp.valueOf(computedAt));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    /**
+     * The mentee's suggested mentors in ranked order, read by primary key. Empty until the
+     * refresh job has computed the mentee's list.
+     */
+    public List<UserSummaryDto> findSuggestedMentors(UUID menteeId) {
+        return jdbcTemplate.query(FIND_SUGGESTED, (resultSet, rowNum) -> UserSummaryDto.builder()
+                .userId(resultSet.getObject("user_id", UUID.class))
+                .firstName(resultSet.getString("first_name"))
+                .lastName(resultSet.getString("last_name"))
+                .role(RoleType.MENTOR)
+                .jobTitle(resultSet.getString("job_title"))
+                .industry(resultSet.getString("industry"))
+                .yearsOfExperience(resultSet.getObject("years_of_experience", Integer.class))
+                .city(resultSet.getString("city"))
+                .state(resultSet.getString("state"))
+                .profilePictureUrl(resultSet.getString("profile_picture_url"))
+                .latitude(resultSet.getObject("latitude", Double.class))
+                .longitude(resultSet.getObject("longitude", Double.class))
+                .build(), menteeId);
+    }
+
+    private static RowMapper<MatchProfile> profileMapper(RoleType role) {
+        // Mentors are matched on what they teach, mentees on what they want to learn
+        String topicsColumn = role == RoleType.MENTOR ? "skills" : "interests";
+        return (resultSet, rowNum) -> new MatchProfile(
+                resultSet.getObject("user_id", UUID.class),
+                MatchProfile.topics(resultSet.getString(topicsColumn)),
+                resultSet.getString("industry"),
+                resultSet.getObject("years_of_experience", Integer.class),
+                resultSet.getObject("latitude", Double.class),
+                resultSet.getObject("longitude", Double.class));
+    }
+
+    private static List<ScoredMentor> scoredMentors(ResultSet resultSet) throws SQLException {
+        Array idsArray = resultSet.getArray("mentor_ids");
+        Array scoresArray = resultSet.getArray("scores");
+        UUID[] ids = (UUID[]) idsArray.getArray();
+        Float[] scores = (Float[]) scoresArray.getArray();
+
+        List<ScoredMentor> mentors = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            mentors.add(new ScoredMentor(ids[i], scores[i]));
+        }
+        return mentors;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
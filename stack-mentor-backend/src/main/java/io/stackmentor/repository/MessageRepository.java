@@ -1,9 +1,13 @@
 package io.stackmentor.repository;
 
 import io.stackmentor.model.Message;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,4 +15,26 @@ import java.util.UUID;
 public interface MessageRepository extends JpaRepository<Message, UUID> {
     //Repository methods can be defined here if needed
     List<Message> findByConversation_ConversationIdIn(List<UUID> conversationIds);
+
+    // Both sent_at bounds are required so Postgres only touches the partitions in range
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender " +
+            "WHERE m.conversation.conversationId = :conversationId " +
+            "AND m.sentAt >= :from AND m.sentAt < :to " +
+            "ORDER BY m.sentAt DESC, m.messageId DESC")
+    List<Message> findConversationWindow(@Param("conversationId") UUID conversationId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         Limit limit);
+
+    // Keyset step from (to, beforeId): the sent_at <= :to bound keeps partition pruning intact
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender " +
+            "WHERE m.conversation.conversationId = :conversationId " +
+            "AND m.sentAt >= :from AND m.sentAt <= :to " +
+            "AND (m.sentAt < :to OR m.messageId < :beforeId) " +
+            "ORDER BY m.sentAt DESC, m.messageId DESC")
+    List<Message> findConversationWindowBefore(@Param("conversationId") UUID conversationId,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to,
+                                               @Param("beforeId") UUID beforeId,
+                                               Limit limit);
 }
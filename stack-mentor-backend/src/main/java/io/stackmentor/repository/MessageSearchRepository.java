@@ -0,0 +1,85 @@
+package io.stackmentor.repository;
+
+import io.stackmentor.dto.message.MessageSearchResultDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Ranked full-text search over idx_messages_live_search
+@Repository
+public class MessageSearchRepository {
+
+    /**
+     * Where the previous page ended, in result order: rank, then newest first, then id.
+     */
+    public record Position(float rank, LocalDateTime sentAt, UUID messageId) {
+    }
+
+    // Every match in the caller's conversations is ranked, so a page never misses an older
+    // message that outranks the newest ones; snippets are built for the returned page only
+    private static final String SEARCH_HEAD =
+            "WITH q AS (SELECT websearch_to_tsquery('english', ?) AS query), " +
+            "candidates AS (" +
+            "SELECT m.message_id, m.conversation_id, m.sender_id, m.sent_at, m.content, " +
+            "ts_rank_cd(m.content_tsv, q.query) AS rank " +
+            "FROM messages m, q " +
+            "WHERE m.conversation_id = ANY (?) AND m.is_deleted = false AND m.content_tsv @@ q.query), " +
+            "page AS (SELECT * FROM candidates ";
+
+    private static final String AFTER_POSITION = "WHERE (rank, sent_at, message_id) < (?, ?, ?) ";
+
+    private static final String SEARCH_TAIL =
+            "ORDER BY rank DESC, sent_at DESC, message_id DESC LIMIT ?) " +
+            "SELECT p.message_id, p.conversation_id, p.sender_id, u.first_name, u.last_name, p.sent_at, p.rank, " +
+            "ts_headline('english', p.content, q.query, " +
+            "'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=20, MinWords=5') AS snippet " +
+            "FROM page p CROSS JOIN q LEFT JOIN users u ON u.user_id = p.sender_id " +
+            "ORDER BY p.rank DESC, p.sent_at DESC, p.message_id DESC";
+
+    private static final RowMapper<MessageSearchResultDto> RESULT_MAPPER = (resultSet, rowNum) ->
+            MessageSearchResultDto.builder()
+                    .messageId(resultSet.getObject("message_id", UUID.class))
+                    .conversationId(resultSet.getObject("conversation_id", UUID.class))
+                    .senderId(resultSet.getObject("sender_id", UUID.class))
+                    .senderName(resultSet.getString("first_name") + " " + resultSet.getString("last_name"))
+                    .sentAt(resultSet.getTimestamp("sent_at").toLocalDateTime())
+                    .snippet(resultSet.getString("snippet"))
+                    .rank(resultSet.getFloat("rank"))
+                    .build();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Matches for {@code query} (web search syntax: quoted phrases, OR, -exclusions) in the given
+     * conversations, best first. {@code after} is null for the first page.
+     */
+    public List<MessageSearchResultDto> search(String query,
+                                               Collection<UUID> conversationIds,
+                                               Position after,
+                                               int limit) {
+        String sql = SEARCH_HEAD + (after != null ? AFTER_POSITION : "") + SEARCH_TAIL;
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            int index = 1;
+            statement.setString(index++, query);
+            statement.setArray(index++, connection.createArrayOf("uuid", conversationIds.toArray()));
+            if (after != null) {
+                statement.setFloat(index++, after.rank());
+                statement.setTimestamp(index++, Timestamp.valueOf(after.sentAt()));
+                statement.setObject(index++, after.messageId());
+            }
+            statement.setInt(index, limit);
+            return statement;
+        }, RESULT_MAPPER);
+    }
+}
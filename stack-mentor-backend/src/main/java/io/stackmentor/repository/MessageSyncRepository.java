@@ -0,0 +1,105 @@
+package io.stackmentor.repository;
+
+import io.stackmentor.dto.message.MessageDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Sequence allocation and change feeds for delta sync
+@Repository
+public class MessageSyncRepository {
+
+    private static final String CHANGES_AFTER =
+            "SELECT m.message_id, m.conversation_id, m.seq, m.change_seq, m.sender_id, u.first_name, u.last_name, " +
+            "m.content, m.media_url, m.sent_at, m.edited_at, m.is_deleted, m.deleted_at " +
+            "FROM unnest(?::uuid[], ?::bigint[]) AS s(conversation_id, after_seq) " +
+            "CROSS JOIN LATERAL (" +
+            "SELECT * FROM messages WHERE conversation_id = s.conversation_id AND change_seq > s.after_seq " +
+            "ORDER BY change_seq LIMIT ?) m " +
+            "LEFT JOIN users u ON u.user_id = m.sender_id " +
+            "ORDER BY m.conversation_id, m.change_seq";
+
+    private static final RowMapper<MessageDto> CHANGE_MAPPER = (resultSet, rowNum) -> {
+        boolean deleted = resultSet.getBoolean("is_deleted");
+        return MessageDto.builder()
+                .messageId(resultSet.getObject("message_id", UUID.class))
+                .conversationId(resultSet.getObject("conversation_id", UUID.class))
+                .seq(resultSet.getLong("seq"))
+                .changeSeq(resultSet.getLong("change_seq"))
+                .senderId(resultSet.getObject("sender_id", UUID.class))
+                .senderName(resultSet.getString("first_name") + " " + resultSet.getString("last_name"))
+                // A delete only needs the tombstone, never the old content
+                .content(deleted ? null : resultSet.getString("content"))
+                .mediaUrl(deleted ? null : resultSet.getString("media_url"))
+                .sentAt(toLocalDateTime(resultSet.getTimestamp("sent_at")))
+                .editedAt(toLocalDateTime(resultSet.getTimestamp("edited_at")))
+                .isDeleted(deleted)
+                .deletedAt(toLocalDateTime(resultSet.getTimestamp("deleted_at")))
+                .build();
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Advances the conversation's counter and returns the new value. The row lock is held until
+     * the caller's transaction ends, so writers to one conversation commit in sequence order and
+     * a reader never sees seq N+1 before N; other conversations are not affected.
+     */
+    public long nextSeq(UUID conversationId) {
+        List<Long> seq = jdbcTemplate.queryForList(
+                "UPDATE conversations SET last_seq = last_seq + 1 WHERE conversation_id = ? RETURNING last_seq",
+                Long.class, conversationId);
+        if (seq.isEmpty()) {
+            throw new RuntimeException("Conversation not found");
+        }
+        return seq.get(0);
+    }
+
+    public Map<UUID, Long> lastSeqs(Collection<UUID> conversationIds) {
+        Map<UUID, Long> lastSeqs = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT conversation_id, last_seq FROM conversations WHERE conversation_id = ANY (?)");
+            statement.setArray(1, connection.createArrayOf("uuid", conversationIds.toArray()));
+            return statement;
+        }, (RowCallbackHandler) resultSet -> lastSeqs.put(resultSet.getObject(1, UUID.class), resultSet.getLong(2)));
+        return lastSeqs;
+    }
+
+    /**
+     * Sends, edits and deletes after each conversation's sequence number, oldest change first,
+     * at most {@code limitPerConversation} per conversation. Deleted messages come back as
+     * tombstones.
+     */
+    public List<MessageDto> changesAfter(Map<UUID, Long> afterSeqs, int limitPerConversation) {
+        UUID[] conversationIds = afterSeqs.keySet().toArray(UUID[]::new);
+        Long[] seqs = new Long[conversationIds.length];
+        for (int i = 0; i < conversationIds.length; i++) {
+            seqs[i] = afterSeqs.get(conversationIds[i]);
+        }
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(CHANGES_AFTER);
+            statement.setArray(1, connection.createArrayOf("uuid", conversationIds));
+            statement.setArray(2, connection.createArrayOf("bigint", seqs));
+            statement.setInt(3, limitPerConversation);
+            return statement;
+        }, CHANGE_MAPPER);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
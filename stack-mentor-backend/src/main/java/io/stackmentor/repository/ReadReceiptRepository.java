@@ -0,0 +1,45 @@
+package io.stackmentor.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Bulk read receipts; one statement however many messages are marked
+@Repository
+public class ReadReceiptRepository {
+
+    // message_sent_at comes from the message itself, which routes the row to its partition
+    private static final String MARK_READ =
+            "INSERT INTO message_read_status (message_id, user_id, message_sent_at, read_at) " +
+            "SELECT m.message_id, ?, m.sent_at, ? FROM messages m " +
+            "WHERE m.message_id = ANY (?) AND m.conversation_id = ? AND m.sender_id <> ? AND m.is_deleted = false " +
+            "ON CONFLICT (message_id, user_id, message_sent_at) DO NOTHING " +
+            "RETURNING message_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Marks the user's own view of messages in the conversation as read and returns the ids
+     * that were not read before. Messages the user sent, deleted messages and ids from other
+     * conversations are skipped.
+     */
+    public List<UUID> markRead(UUID conversationId, UUID userId, Collection<UUID> messageIds, LocalDateTime readAt) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(MARK_READ);
+            statement.setObject(1, userId);
+            statement.setTimestamp(2, Timestamp.valueOf(readAt));
+            statement.setArray(3, connection.createArrayOf("uuid", messageIds.toArray()));
+            statement.setObject(4, conversationId);
+            statement.setObject(5, userId);
+            return statement;
+        }, (resultSet, rowNum) -> resultSet.getObject(1, UUID.class));
+    }
+}
@@ -0,0 +1,63 @@
+package io.stackmentor.repository;
+
+import io.stackmentor.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Registration as a single statement: the lower(email) unique index decides who gets an address
+@Repository
+public class UserRegistrationRepository {
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (user_id, email, phone_number, password_hash, first_name, last_name, " +
+            "date_of_birth, city, state, zip_code, latitude, longitude, gender, age, profile_picture_url, " +
+            "bio, role, job_title, years_of_experience, industry, skills, interests, created_at, position, " +
+            "is_verified) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT ((lower(email))) DO NOTHING " +
+            "RETURNING user_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the user unless the email (ignoring case) is taken, in which case nothing is
+     * written and the result is empty. A concurrent signup for the same address waits on the
+     * index and then sees the conflict, so exactly one of them succeeds.
+     */
+    public Optional<UUID> insertIfEmailAvailable(User user) {
+        List<UUID> inserted = jdbcTemplate.query(INSERT_USER,
+                (resultSet, rowNum) -> resultSet.getObject(1, UUID.class),
+                user.getUserId(),
+                user.getEmail(),
+                user.getPhoneNumber(),
+                user.getPasswordHash(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getDateOfBirth(),
+                user.getCity(),
+                user.getState(),
+                user.getZipCode(),
+                user.getLatitude(),
+                user.getLongitude(),
+                user.getGender(),
+                user.getAge(),
+                user.getProfilePictureUrl(),
+                user.getBio(),
+                user.getRole() != null ? user.getRole().getValue() : null,
+                user.getJobTitle(),
+                user.getYearsOfExperience(),
+                user.getIndustry(),
+                user.getSkills(),
+                user.getInterests(),
+                user.getCreatedAt(),
+                user.getPosition().getValue(),
+                user.isVerified());
+        return inserted.stream().findFirst();
+    }
+}
@@ -3,13 +3,30 @@ package io.stackmentor.repository;
 import io.stackmentor.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificationExecutor<User>,
+        UserSearchRepository {
     //Repository methods can be defined here if needed
-    boolean existsByEmail(String email);
+    // Matches the lower(email) unique index
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE lower(u.email) = lower(:email)")
+    boolean existsByEmailIgnoringCase(@Param("email") String email);
+
+    @Query("SELECT u FROM User u WHERE lower(u.email) = lower(:email)")
+    Optional<User> findByEmailIgnoringCase(@Param("email") String email);
+
+    @Query("SELECT u.version FROM User u WHERE u.userId = :userId")
+    Optional<Long> findVersionById(@Param("userId") UUID userId);
+
+    @Query("SELECT u.userId FROM User u WHERE u.userId IN :userIds")
+    Set<UUID> findExistingUserIds(@Param("userIds") Collection<UUID> userIds);
 }
@@ -0,0 +1,17 @@
+package io.stackmentor.repository;
+
+import io.stackmentor.dto.user.UserSummaryDto;
+import io.stackmentor.model.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface UserSearchRepository {
+
+    // Summaries ordered by userId, at most limit rows
+    List<UserSummaryDto> findSummaries(Specification<User> specification, int limit);
+
+    // Summaries ordered by userId, read from a server-side cursor -- must be consumed inside a transaction
+    Stream<UserSummaryDto> streamSummaries(Specification<User> specification);
+}
@@ -0,0 +1,71 @@
+package io.stackmentor.repository;
+
+import io.stackmentor.dto.user.UserSummaryDto;
+import io.stackmentor.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    // Rows pulled per round trip while exporting
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserSummaryDto> findSummaries(Specification<User> specification, int limit) {
+        return summaryQuery(specification)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<UserSummaryDto> streamSummaries(Specification<User> specification) {
+        return summaryQuery(specification)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    // Selects only the summary columns, so no User entities end up in the persistence context
+    private TypedQuery<UserSummaryDto> summaryQuery(Specification<User> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserSummaryDto> query = criteriaBuilder.createQuery(UserSummaryDto.class);
+        Root<User> root = query.from(User.class);
+
+        query.select(criteriaBuilder.construct(UserSummaryDto.class,
+                root.get("userId"),
+                root.get("firstName"),
+                root.get("lastName"),
+                root.get("role"),
+                root.get("jobTitle"),
+                root.get("industry"),
+                root.get("yearsOfExperience"),
+                root.get("city"),
+                root.get("state"),
+                root.get("profilePictureUrl"),
+                root.get("latitude"),
+                root.get("longitude")));
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        // Stable order required for keyset pagination
+        query.orderBy(criteriaBuilder.asc(root.get("userId")));
+
+        return entityManager.createQuery(query);
+    }
+}
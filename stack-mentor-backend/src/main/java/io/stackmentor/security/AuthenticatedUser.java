@@ -0,0 +1,38 @@
+package io.stackmentor.security;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.security.Principal;
+import java.util.UUID;
+
+/**
+ * The caller's user id, taken from the verified token's subject. Controllers act on behalf of
+ * this id only; request bodies and parameters never name the acting user.
+ */
+public final class AuthenticatedUser {
+
+    private AuthenticatedUser() {
+    }
+
+    public static UUID id(Jwt jwt) {
+        if (jwt == null) throw new AuthenticationCredentialsNotFoundException("No authenticated user");
+        return UUID.fromString(jwt.getSubject());
+    }
+
+    // STOMP sessions carry the JwtAuthenticationToken set at CONNECT, whose name is the subject
+    public static UUID id(Principal principal) {
+        if (principal == null) throw new AuthenticationCredentialsNotFoundException("No authenticated user");
+        return UUID.fromString(principal.getName());
+    }
+
+    // For /{userId} paths that only the user themselves may change
+    public static UUID requireSelf(Jwt jwt, UUID userId) {
+        UUID caller = id(jwt);
+        if (!caller.equals(userId)) {
+            throw new AccessDeniedException("Cannot act on behalf of another user");
+        }
+        return caller;
+    }
+}
@@ -0,0 +1,61 @@
+package io.stackmentor.security;
+
+import io.stackmentor.repository.ConversationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Participation checks for STOMP frames that name a conversation. A passed check is reused for
+ * the recheck window so a chatty session does not query on every frame; a user removed from a
+ * conversation loses access once the window runs out.
+ */
+@Component
+public class ConversationAccess {
+
+    private final ConversationRepository conversationRepository;
+    private final LongSupplier clock;
+    private final long recheckMillis;
+    private final ConcurrentHashMap<ParticipantKey, Long> verifiedParticipants = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConversationAccess(ConversationRepository conversationRepository,
+                              @Value("${stackmentor.stream.participant-recheck:1m}") Duration participantRecheck) {
+        this(conversationRepository, System::currentTimeMillis, participantRecheck);
+    }
+
+    ConversationAccess(ConversationRepository conversationRepository, LongSupplier clock, Duration participantRecheck) {
+        this.conversationRepository = conversationRepository;
+        this.clock = clock;
+        this.recheckMillis = participantRecheck.toMillis();
+    }
+
+    public void requireParticipant(UUID conversationId, UUID userId) {
+        ParticipantKey key = new ParticipantKey(conversationId, userId);
+        Long verifiedAt = verifiedParticipants.get(key);
+        long now = clock.getAsLong();
+        if (verifiedAt != null && now - verifiedAt <= recheckMillis) return;
+
+        if (userId == null || !conversationRepository.isParticipant(conversationId, userId)) {
+            verifiedParticipants.remove(key);
+            throw new AccessDeniedException("User is not a participant in this conversation");
+        }
+        verifiedParticipants.put(key, now);
+    }
+
+    @Scheduled(fixedDelayString = "PT1M")
+    public void evictExpired() {
+        long now = clock.getAsLong();
+        verifiedParticipants.values().removeIf(verifiedAt -> now - verifiedAt > recheckMillis);
+    }
+
+    private record ParticipantKey(UUID conversationId, UUID userId) {
+    }
+}
@@ -0,0 +1,69 @@
+package io.stackmentor.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The HMAC keys tokens are signed and verified with, each under its own key id. Every node
+ * must be configured with the same keys, since any node may verify a token another issued.
+ */
+public record JwtKeys(List<OctetSequenceKey> keys, String signingKeyId) {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeys.class);
+
+    // HS256 needs a key at least as long as its output
+    static final int MIN_KEY_BYTES = 32;
+
+    public static JwtKeys from(JwtProperties properties) {
+        if (properties.keys().isEmpty()) {
+            log.warn("No stackmentor.auth.jwt.keys configured; using a random key, so tokens are valid on this node "
+                    + "only and until it restarts");
+            byte[] secret = new byte[MIN_KEY_BYTES];
+            new SecureRandom().nextBytes(secret);
+            String keyId = "ephemeral-" + UUID.randomUUID();
+            return new JwtKeys(List.of(key(keyId, secret)), keyId);
+        }
+
+        List<OctetSequenceKey> keys = new ArrayList<>();
+        for (Map.Entry<String, String> entry : properties.keys().entrySet()) {
+            byte[] secret = Base64.getDecoder().decode(entry.getValue());
+            if (secret.length < MIN_KEY_BYTES) {
+                throw new IllegalArgumentException("JWT key '" + entry.getKey() + "' must be at least "
+                        + MIN_KEY_BYTES + " bytes");
+            }
+            keys.add(key(entry.getKey(), secret));
+        }
+        // With a single key there is nothing to choose between
+        String signingKeyId = properties.signingKey() != null ? properties.signingKey() : keys.get(0).getKeyID();
+        if (properties.signingKey() == null && keys.size() > 1) {
+            throw new IllegalArgumentException("stackmentor.auth.jwt.signing-key must name one of the configured keys");
+        }
+        return new JwtKeys(List.copyOf(keys), signingKeyId);
+    }
+
+    public JWKSource<SecurityContext> source() {
+        return new ImmutableJWKSet<>(new JWKSet(List.copyOf(keys)));
+    }
+
+    private static OctetSequenceKey key(String keyId, byte[] secret) {
+        return new OctetSequenceKey.Builder(secret)
+                .keyID(keyId)
+                .algorithm(JWSAlgorithm.HS256)
+                .keyUse(KeyUse.SIGNATURE)
+                .build();
+    }
+}
@@ -0,0 +1,28 @@
+package io.stackmentor.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Access-token settings. {@code keys} maps key ids to base64 HMAC secrets of at least 256
+ * bits; tokens are signed with {@code signingKey} and verified with whichever key their
+ * {@code kid} header names. To rotate, add the new key on every node, switch
+ * {@code signingKey} to it, and remove the old key once {@code ttl} has passed.
+ */
+@ConfigurationProperties(prefix = "stackmentor.auth.jwt")
+public record JwtProperties(String issuer, Duration ttl, String signingKey, Map<String, String> keys,
+                           int cacheSize) {
+
+    public JwtProperties {
+        if (issuer == null) issuer = "stackmentor";
+        if (ttl == null) ttl = Duration.ofHours(1);
+        keys = keys != null ? new LinkedHashMap<>(keys) : new LinkedHashMap<>();
+        if (cacheSize <= 0) cacheSize = 10_000;
+        if (signingKey != null && !keys.containsKey(signingKey)) {
+            throw new IllegalArgumentException("Signing key '" + signingKey + "' is not among the configured keys");
+        }
+    }
+}
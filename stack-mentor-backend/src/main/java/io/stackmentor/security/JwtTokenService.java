@@ -0,0 +1,69 @@
+package io.stackmentor.security;
+
+import io.stackmentor.dto.user.AccessTokenDto;
+import io.stackmentor.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Issues access tokens at login and turns verified tokens back into an authentication. The
+ * token carries everything a request needs to be authorized, so no user is loaded per request;
+ * a changed role or position takes effect with the user's next token.
+ */
+@Service
+public class JwtTokenService {
+
+    static final String ROLE_CLAIM = "role";
+    static final String POSITION_CLAIM = "position";
+
+    @Autowired
+    private JwtEncoder jwtEncoder;
+
+    @Autowired
+    private JwtKeys jwtKeys;
+
+    @Autowired
+    private JwtProperties properties;
+
+    public AccessTokenDto issue(User user) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(properties.issuer())
+                .subject(user.getUserId().toString())
+                .issuedAt(now)
+                .expiresAt(now.plus(properties.ttl()))
+                .claim(ROLE_CLAIM, user.getRole().getValue())
+                .claim(POSITION_CLAIM, user.getPosition().getValue())
+                .build();
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).keyId(jwtKeys.signingKeyId()).build();
+
+        String token = jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+        return new AccessTokenDto(token, "Bearer", properties.ttl().toSeconds());
+    }
+
+    // ROLE_MENTOR or ROLE_MENTEE, plus ROLE_ADMIN, ROLE_MODERATOR or ROLE_MEMBER for the position
+    public static JwtAuthenticationToken toAuthentication(Jwt jwt) {
+        List<GrantedAuthority> authorities = new ArrayList<>(2);
+        for (String claim : List.of(ROLE_CLAIM, POSITION_CLAIM)) {
+            String value = jwt.getClaimAsString(claim);
+            if (value != null) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + value.toUpperCase(Locale.ROOT)));
+            }
+        }
+        return new JwtAuthenticationToken(jwt, authorities, jwt.getSubject());
+    }
+}
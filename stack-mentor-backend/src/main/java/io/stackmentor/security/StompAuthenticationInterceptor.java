@@ -0,0 +1,77 @@
+package io.stackmentor.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Authenticates a STOMP session once, at CONNECT, from the same bearer token the HTTP API
+ * takes. Browsers cannot set headers on the WebSocket handshake, so the token travels as the
+ * CONNECT frame's Authorization header; the session's user then applies to every later frame.
+ * Subscriptions to a conversation's topics are limited to its participants.
+ */
+@Component
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private static final String AUTHORIZATION = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String CONVERSATION_PREFIX = "/topic/conversations/";
+
+    @Autowired
+    private JwtDecoder jwtDecoder;
+
+    @Autowired
+    private ConversationAccess conversationAccess;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) return message;
+        if (accessor.getCommand() == StompCommand.SUBSCRIBE) {
+            authorizeSubscription(accessor);
+            return message;
+        }
+        if (accessor.getCommand() != StompCommand.CONNECT) return message;
+
+        String authorization = accessor.getFirstNativeHeader(AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            throw new AuthenticationCredentialsNotFoundException("CONNECT requires a bearer token");
+        }
+
+        try {
+            accessor.setUser(JwtTokenService.toAuthentication(
+                    jwtDecoder.decode(authorization.substring(BEARER_PREFIX.length()).trim())));
+        } catch (JwtException e) {
+            throw new BadCredentialsException("Invalid bearer token", e);
+        }
+        return message;
+    }
+
+    // Covers messages, receipts and presence, in both the JSON and the compact variant
+    private void authorizeSubscription(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(CONVERSATION_PREFIX)) return;
+
+        int slash = destination.indexOf('/', CONVERSATION_PREFIX.length());
+        UUID conversationId;
+        try {
+            conversationId = UUID.fromString(destination.substring(CONVERSATION_PREFIX.length(),
+                    slash < 0 ? destination.length() : slash));
+        } catch (IllegalArgumentException e) {
+            throw new AccessDeniedException("Unknown conversation destination");
+        }
+        conversationAccess.requireParticipant(conversationId, AuthenticatedUser.id(accessor.getUser()));
+    }
+}
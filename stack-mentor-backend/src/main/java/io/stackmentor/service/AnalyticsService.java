@@ -0,0 +1,73 @@
+package io.stackmentor.service;
+
+import io.stackmentor.analytics.HyperLogLog;
+import io.stackmentor.dto.analytics.ActiveUsersDto;
+import io.stackmentor.dto.analytics.DailyActiveUsersDto;
+import io.stackmentor.dto.analytics.GroupActivityDto;
+import io.stackmentor.dto.analytics.MentorResponseDto;
+import io.stackmentor.repository.ActivityRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Admin dashboards; every figure comes from the rollups written by ActivityRollups
+@Service
+public class AnalyticsService {
+
+    static final Duration MAX_HOURLY_RANGE = Duration.ofDays(31);
+    static final int MAX_DAILY_RANGE_DAYS = 366;
+
+    @Autowired
+    private ActivityRollupRepository rollupRepository;
+
+    // Messages and reads per group per hour; all groups when groupId is null
+    public List<GroupActivityDto> getGroupActivity(UUID groupId, LocalDateTime from, LocalDateTime to) {
+        checkHourlyRange(from, to);
+        return rollupRepository.findGroupActivity(groupId, from, to);
+    }
+
+    public List<MentorResponseDto> getMentorResponses(LocalDateTime from, LocalDateTime to) {
+        checkHourlyRange(from, to);
+        return rollupRepository.findMentorResponses(from, to);
+    }
+
+    /**
+     * Active users for each day from {@code from} to {@code to} inclusive, and how many distinct
+     * users were active over the whole range, by merging the days' sketches.
+     */
+    public ActiveUsersDto getActiveUsers(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAILY_RANGE_DAYS) {
+            throw new IllegalArgumentException("Range must be at most " + MAX_DAILY_RANGE_DAYS + " days");
+        }
+
+        HyperLogLog range = new HyperLogLog();
+        List<DailyActiveUsersDto> days = new ArrayList<>();
+        for (Map.Entry<LocalDate, List<byte[]>> day : rollupRepository.findActiveUserSketches(from, to).entrySet()) {
+            HyperLogLog daily = new HyperLogLog();
+            day.getValue().forEach(sketch -> daily.merge(HyperLogLog.fromBytes(sketch)));
+            days.add(new DailyActiveUsersDto(day.getKey(), daily.estimate()));
+            range.merge(daily);
+        }
+        return new ActiveUsersDto(days, range.estimate());
+    }
+
+    private static void checkHourlyRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(from, to).compareTo(MAX_HOURLY_RANGE) > 0) {
+            throw new IllegalArgumentException("Range must be at most " + MAX_HOURLY_RANGE.toDays() + " days");
+        }
+    }
+}
@@ -1,25 +1,51 @@
 package io.stackmentor.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.stackmentor.dto.group.BulkMembershipResultDto;
 import io.stackmentor.dto.group.GroupDto;
 import io.stackmentor.dto.group.GroupMemberDto;
+import io.stackmentor.dto.group.GroupPageDto;
+import io.stackmentor.dto.group.GroupSummaryDto;
+import io.stackmentor.dto.group.MemberOutcomeDto;
 import io.stackmentor.enums.GroupMemberType;
+import io.stackmentor.enums.GroupSortType;
+import io.stackmentor.enums.MembershipOutcome;
+import io.stackmentor.event.GroupMembershipChangedEvent;
 import io.stackmentor.model.Group;
 import io.stackmentor.model.GroupMember;
 import io.stackmentor.model.User;
+import io.stackmentor.repository.GroupDiscoveryRepository;
+import io.stackmentor.repository.GroupMemberBulkRepository;
 import io.stackmentor.repository.GroupMemberRepository;
 import io.stackmentor.repository.GroupRepository;
 import io.stackmentor.repository.UserRepository;
 import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class GroupService {
 
+    private static final Logger log = LoggerFactory.getLogger(GroupService.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
 
     @Autowired
     private GroupRepository groupRepository;
@@ -30,6 +56,18 @@ public class GroupService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private GroupMemberBulkRepository groupMemberBulkRepository;
+
+    @Autowired
+    private GroupDiscoveryRepository groupDiscoveryRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
 
     @Transactional
     public GroupDto createGroup(GroupDto dto,
@@ -53,6 +91,7 @@ public class GroupService {
                 .build();
 
         groupMemberRepository.save(creator);
+        eventPublisher.publishEvent(GroupMembershipChangedEvent.joined(group.getGroupId(), Set.of(creatingUser.getUserId())));
 
         return buildGroupDto(group);
     }
@@ -78,6 +117,8 @@ public class GroupService {
                 .build();
 
         groupMemberRepository.save(groupMember);
+        groupRepository.incrementVersion(groupId);
+        eventPublisher.publishEvent(GroupMembershipChangedEvent.joined(groupId, Set.of(userId)));
 
         return buildGroupDto(group);
     }
@@ -92,9 +133,154 @@ public class GroupService {
         }
 
         groupMemberRepository.deleteByGroup_GroupIdAndUser_UserId(groupId, userId);
+        groupRepository.incrementVersion(groupId);
+        eventPublisher.publishEvent(GroupMembershipChangedEvent.left(groupId, Set.of(userId)));
         return buildGroupDto(group);
     }
 
+    // Enrolls a whole cohort in one transaction: one IN query to validate users, one insert for all rows
+    @Transactional
+    public BulkMembershipResultDto addUsersToGroup(UUID groupId, UUID actingUserId, List<UUID> userIds,
+                                                   GroupMemberType role) {
+        long start = System.nanoTime();
+
+        if (!groupRepository.existsById(groupId)) {
+            throw new RuntimeException("Group not found");
+        }
+        requireGroupAdmin(groupId, actingUserId);
+
+        Set<UUID> requested = new LinkedHashSet<>(userIds);
+        Set<UUID> existingUsers = userRepository.findExistingUserIds(requested);
+        Set<UUID> added = existingUsers.isEmpty() ? Set.of()
+                : groupMemberBulkRepository.insertMembers(groupId, existingUsers,
+                        role != null ? role : GroupMemberType.MEMBER, LocalDateTime.now());
+        if (!added.isEmpty()) {
+            groupRepository.incrementVersion(groupId);
+            eventPublisher.publishEvent(GroupMembershipChangedEvent.joined(groupId, added));
+        }
+
+        List<MemberOutcomeDto> outcomes = requested.stream()
+                .map(userId -> new MemberOutcomeDto(userId,
+                        !existingUsers.contains(userId) ? MembershipOutcome.USER_NOT_FOUND
+                                : added.contains(userId) ? MembershipOutcome.ADDED
+                                : MembershipOutcome.ALREADY_MEMBER))
+                .toList();
+
+        recordBulkTiming("add", requested.size(), start);
+        return BulkMembershipResultDto.builder()
+                .groupId(groupId)
+                .requested(requested.size())
+                .changed(added.size())
+                .outcomes(outcomes)
+                .build();
+    }
+
+    @Transactional
+    public BulkMembershipResultDto removeUsersFromGroup(UUID groupId, UUID actingUserId, List<UUID> userIds) {
+        long start = System.nanoTime();
+
+        if (!groupRepository.existsById(groupId)) {
+            throw new RuntimeException("Group not found");
+        }
+        requireGroupAdmin(groupId, actingUserId);
+
+        Set<UUID> requested = new LinkedHashSet<>(userIds);
+        Set<UUID> removed = groupMemberBulkRepository.deleteMembers(groupId, requested);
+        if (!removed.isEmpty()) {
+            groupRepository.incrementVersion(groupId);
+            eventPublisher.publishEvent(GroupMembershipChangedEvent.left(groupId, removed));
+        }
+
+        List<MemberOutcomeDto> outcomes = requested.stream()
+                .map(userId -> new MemberOutcomeDto(userId,
+                        removed.contains(userId) ? MembershipOutcome.REMOVED : MembershipOutcome.NOT_MEMBER))
+                .toList();
+
+        recordBulkTiming("remove", requested.size(), start);
+        return BulkMembershipResultDto.builder()
+                .groupId(groupId)
+                .requested(requested.size())
+                .changed(removed.size())
+                .outcomes(outcomes)
+                .build();
+    }
+
+    // Bulk enrollment changes the roster for everyone, so only the group's admins may do it
+    private void requireGroupAdmin(UUID groupId, UUID userId) {
+        if (!groupMemberRepository.existsByGroup_GroupIdAndUser_UserIdAndRole(groupId, userId, GroupMemberType.ADMIN)) {
+            throw new AccessDeniedException("Only group admins can change membership in bulk");
+        }
+    }
+
+    private void recordBulkTiming(String operation, int users, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        Timer.builder("group.membership.bulk")
+                .description("Duration of bulk membership changes")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Bulk {} of {} users took {} ms", operation, users, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * The roster's current version, read without loading the group or its members, so a
+     * conditional GET can answer 304 before any DTO is assembled.
+     */
+    public long getGroupVersion(UUID groupId) {
+        return groupRepository.findVersionById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+    }
+
+    /**
+     * Browses groups, optionally filtered by a substring of the name, largest or most recently
+     * active first. Reads only the groups table; pass {@code nextCursor} back as {@code cursor}
+     * for the next page.
+     */
+    public GroupPageDto discoverGroups(String query, String sort, String cursor, Integer size) {
+        GroupSortType sortType = parseSort(sort);
+        String nameQuery = query == null || query.isBlank() ? null : query.trim();
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // One extra row tells whether another page exists
+        List<GroupSummaryDto> results = groupDiscoveryRepository.findGroups(
+                nameQuery, sortType, decodeCursor(cursor), pageSize + 1);
+
+        if (results.size() <= pageSize) {
+            return new GroupPageDto(results, null);
+        }
+        List<GroupSummaryDto> page = results.subList(0, pageSize);
+        return new GroupPageDto(page, encodeCursor(page.get(pageSize - 1)));
+    }
+
+    private GroupSortType parseSort(String sort) {
+        if (sort == null || sort.isBlank()) return GroupSortType.ACTIVITY;
+        try {
+            return GroupSortType.valueOf(sort.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sort: " + sort, e);
+        }
+    }
+
+    // Carries both sort keys so a cursor stays valid whichever sort the next request uses
+    static String encodeCursor(GroupSummaryDto last) {
+        String position = last.getMemberCount() + "|" + last.getLastActivityAt() + "|" + last.getGroupId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static GroupDiscoveryRepository.Position decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new GroupDiscoveryRepository.Position(
+                    Integer.parseInt(parts[0]),
+                    LocalDateTime.parse(parts[1]),
+                    UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid group cursor");
+        }
+    }
+
     public GroupDto getGroupWithMembers(UUID groupId) {
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new RuntimeException("Group not found"));
@@ -0,0 +1,181 @@
+package io.stackmentor.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.stackmentor.dto.user.SuggestedMentorsDto;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.repository.MentorSuggestionRepository;
+import io.stackmentor.suggestion.MatchProfile;
+import io.stackmentor.suggestion.MentorMatcher;
+import io.stackmentor.suggestion.ScoredMentor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a ranked list of suggested mentors per mentee so the home feed is one primary-key
+ * read. The refresh only touches what changed since its last run: mentees whose profile
+ * changed are ranked again, and changed mentors are folded into every other mentee's stored
+ * list, with a full rank only where a changed mentor was already listed.
+ */
+@Service
+public class MentorSuggestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(MentorSuggestionService.class);
+
+    // Updates committed shortly before the previous run started are looked at again
+    static final Duration WATERMARK_OVERLAP = Duration.ofMinutes(5);
+
+    @Autowired
+    private MentorSuggestionRepository suggestionRepository;
+
+    @Value("${stackmentor.suggestions.size:20}")
+    private int size;
+
+    @Value("${stackmentor.suggestions.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${stackmentor.suggestions.parallelism:2}")
+    private int parallelism;
+
+    @Value("${stackmentor.suggestions.lease:PT30M}")
+    private Duration lease;
+
+    private final Counter refreshed;
+
+    public MentorSuggestionService(MeterRegistry meterRegistry) {
+        this.refreshed = Counter.builder("mentor.suggestions.refreshed")
+                .description("Mentee suggestion lists rewritten by the refresh job")
+                .register(meterRegistry);
+    }
+
+    public SuggestedMentorsDto getSuggestedMentors(UUID menteeId) {
+        return new SuggestedMentorsDto(menteeId, suggestionRepository.findSuggestedMentors(menteeId));
+    }
+
+    /**
+     * One refresh on whichever node takes the lease. Returns the number of mentee lists
+     * rewritten, or -1 when another node is already refreshing.
+     */
+    @Scheduled(fixedDelayString = "${stackmentor.suggestions.refresh-interval:PT10M}")
+    public int refresh() {
+        MentorSuggestionRepository.RunClaim claim = suggestionRepository.claimRun(lease);
+        if (claim == null) return -1;
+
+        try {
+            int written = refresh(claim);
+            suggestionRepository.completeRun(claim.startedAt());
+            return written;
+        } catch (RuntimeException e) {
+            suggestionRepository.releaseRun();
+            throw e;
+        }
+    }
+
+    private int refresh(MentorSuggestionRepository.RunClaim claim) {
+        long start = System.nanoTime();
+        List<MatchProfile> mentors = suggestionRepository.findVerifiedProfiles(RoleType.MENTOR);
+
+        RefreshPlan plan;
+        List<MatchProfile> changedMentees = List.of();
+        boolean allMentees;
+        if (claim.watermark() == null) {
+            // First run: every mentee is ranked from scratch
+            plan = new RefreshPlan(mentors, List.of(), Set.of(), Set.of());
+            allMentees = true;
+        } else {
+            LocalDateTime since = claim.watermark().minus(WATERMARK_OVERLAP);
+            List<MatchProfile> changedMentors =
+                    suggestionRepository.findVerifiedProfilesChangedAfter(RoleType.MENTOR, since);
+            changedMentees = suggestionRepository.findVerifiedProfilesChangedAfter(RoleType.MENTEE, since);
+            if (changedMentors.isEmpty() && changedMentees.isEmpty()) return 0;
+
+            Set<UUID> changedMentorIds = changedMentors.stream().map(MatchProfile::userId).collect(Collectors.toSet());
+            plan = new RefreshPlan(mentors, changedMentors,
+                    changedMentees.stream().map(MatchProfile::userId).collect(Collectors.toSet()),
+                    changedMentorIds.isEmpty() ? Set.of() : suggestionRepository.findMenteesSuggesting(changedMentorIds));
+            // A changed mentor can enter any mentee's list
+            allMentees = !changedMentors.isEmpty();
+        }
+
+        // At the limit submit blocks, so at most `parallelism` chunks hold a connection at once
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mentor-suggestions-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(parallelism);
+
+        List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+        if (allMentees) {
+            UUID after = null;
+            List<MatchProfile> page;
+            do {
+                page = suggestionRepository.findVerifiedProfilesAfter(RoleType.MENTEE, after, chunkSize);
+                if (page.isEmpty()) break;
+                List<MatchProfile> chunk = page;
+                chunks.add(executor.submitCompletable(() -> refreshChunk(chunk, plan, claim.startedAt())));
+                after = page.get(page.size() - 1).userId();
+            } while (page.size() == chunkSize);
+        } else {
+            for (int from = 0; from < changedMentees.size(); from += chunkSize) {
+                List<MatchProfile> chunk = changedMentees.subList(from, Math.min(from + chunkSize, changedMentees.size()));
+                chunks.add(executor.submitCompletable(() -> refreshChunk(chunk, plan, claim.startedAt())));
+            }
+        }
+
+        int written = chunks.stream().mapToInt(CompletableFuture::join).sum();
+        log.info("Refreshed {} suggested-mentor lists in {} ms", written,
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return written;
+    }
+
+    // Ranks or merges one chunk of mentees and writes only the lists that changed
+    int refreshChunk(List<MatchProfile> mentees, RefreshPlan plan, LocalDateTime computedAt) {
+        Map<UUID, List<ScoredMentor>> stored = suggestionRepository.findSuggestions(
+                mentees.stream().map(MatchProfile::userId).toList());
+
+        Map<UUID, List<ScoredMentor>> changed = new HashMap<>();
+        for (MatchProfile mentee : mentees) {
+            List<ScoredMentor> current = stored.get(mentee.userId());
+            List<ScoredMentor> next = plan.needsFullRank(mentee.userId(), current)
+                    ? MentorMatcher.rank(mentee, plan.mentors(), size)
+                    : MentorMatcher.merge(mentee, current, plan.changedMentors(), size);
+            if (!next.equals(current)) {
+                changed.put(mentee.userId(), next);
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            suggestionRepository.saveSuggestions(changed, computedAt);
+            refreshed.increment(changed.size());
+        }
+        return changed.size();
+    }
+
+    /**
+     * What one run knows about the changes since the last: every verified mentor, the ones
+     * that changed, the mentees that changed, and the mentees whose list holds a changed mentor.
+     */
+    record RefreshPlan(List<MatchProfile> mentors, List<MatchProfile> changedMentors,
+                       Set<UUID> changedMentees, Set<UUID> listingChangedMentor) {
+
+        boolean needsFullRank(UUID menteeId, List<ScoredMentor> stored) {
+            return stored == null
+                    || changedMentees.contains(menteeId)
+                    || listingChangedMentor.contains(menteeId);
+        }
+    }
+}
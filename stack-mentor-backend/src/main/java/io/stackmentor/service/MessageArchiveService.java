@@ -0,0 +1,366 @@
+package io.stackmentor.service;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Maintains the monthly partitions of messages and message_read_status (see changeset 010).
+ * Future partitions are created ahead of time; months past the retention window are exported
+ * to gzipped CSV files and dropped, and can be attached again on demand.
+ * <p>
+ * Every node runs the schedules, so each operation takes a transaction-scoped advisory lock
+ * first and a node that does not get it skips the run. The archive directory should be a mount
+ * all nodes share; when it is not, message_archives records which node wrote each file, and
+ * only that node can rehydrate the month.
+ */
+@Service
+public class MessageArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageArchiveService.class);
+
+    // Both tables share month boundaries, so a month is always archived and restored as a pair
+    static final List<String> PARTITIONED_TABLES = List.of("messages", "message_read_status");
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("'_p'yyyy_MM");
+    private static final Pattern SUFFIX_PATTERN = Pattern.compile("_p(\\d{4})_(\\d{2})$");
+
+    // Spelled out, so an archive's layout does not depend on the order columns were added in
+    static final Map<String, List<String>> ARCHIVED_COLUMNS = Map.of(
+            "messages", List.of("message_id", "conversation_id", "sender_id", "content", "media_url",
+                    "sent_at", "edited_at", "is_deleted", "deleted_at", "seq", "change_seq"),
+            "message_read_status", List.of("message_id", "user_id", "message_sent_at", "read_at"));
+
+    /*
+     * Written to message_archives with every archive. Version 1 files predate changeset 015 and
+     * have no seq or change_seq; they are numbered when they are rehydrated.
+     */
+    static final int ARCHIVE_FORMAT_VERSION = 2;
+    static final List<String> SEQUENCE_COLUMNS = List.of("seq", "change_seq");
+
+    // Key of the advisory lock every partition operation holds for its transaction
+    static final long MAINTENANCE_LOCK = 0x6d73675f61726368L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${stackmentor.messages.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${stackmentor.messages.archive.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${stackmentor.messages.archive.directory:archive/messages}")
+    private Path archiveDirectory;
+
+    @Value("${stackmentor.messages.archive.node:}")
+    private String node;
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${stackmentor.messages.partitions.cron:0 0 3 * * *}")
+    public void ensureFuturePartitions() {
+        Integer created = transactionTemplate.execute(status -> tryMaintenanceLock()
+                ? jdbcTemplate.queryForObject("SELECT create_future_message_partitions(?)", Integer.class, monthsAhead)
+                : null);
+        if (created == null) {
+            log.debug("Partition maintenance is running on another node; skipped creating partitions");
+        } else if (created > 0) {
+            log.info("Created {} message partitions", created);
+        }
+    }
+
+    @Scheduled(cron = "${stackmentor.messages.archive.cron:0 30 3 1 * *}")
+    public void archiveExpiredPartitions() {
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        for (YearMonth month : attachedMonths()) {
+            if (!month.isBefore(cutoff)) break;
+            if (!archive(month)) {
+                log.debug("Partition maintenance is running on another node; skipped archiving");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Months that currently have a messages partition attached, oldest first.
+     */
+    public TreeSet<YearMonth> attachedMonths() {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = 'messages'",
+                String.class);
+
+        TreeSet<YearMonth> months = new TreeSet<>();
+        for (String partition : partitions) {
+            Matcher matcher = SUFFIX_PATTERN.matcher(partition);
+            if (matcher.find()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Exports the month's partitions to the archive directory, then detaches and drops them, all
+     * in one transaction. The files are fsynced before anything is dropped.
+     */
+    public void archiveMonth(YearMonth month) {
+        if (!month.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("Cannot archive the current or a future month: " + month);
+        }
+        if (!archive(month)) {
+            throw new IllegalStateException("Partition maintenance is running on another node");
+        }
+    }
+
+    // False when another node holds the maintenance lock
+    private boolean archive(YearMonth month) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!tryMaintenanceLock()) return false;
+
+            // Checked under the lock: another node may have archived the month meanwhile
+            List<String> tables = PARTITIONED_TABLES.stream()
+                    .filter(table -> partitionExists(partitionName(table, month)))
+                    .toList();
+            if (tables.isEmpty()) return true;
+
+            try {
+                Files.createDirectories(archiveDirectory);
+                for (String table : tables) {
+                    exportPartition(table, partitionName(table, month));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to archive messages for " + month, e);
+            }
+
+            for (String table : tables) {
+                String partition = partitionName(table, month);
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                jdbcTemplate.update("INSERT INTO message_archives (partition_name, month, node, location, format_version) " +
+                                "VALUES (?, ?, ?, ?, ?) ON CONFLICT (partition_name) DO UPDATE " +
+                                "SET month = EXCLUDED.month, node = EXCLUDED.node, location = EXCLUDED.location, " +
+                                "format_version = EXCLUDED.format_version, archived_at = CURRENT_TIMESTAMP",
+                        partition, month.atDay(1), node(), archiveFile(partition).toAbsolutePath().toString(),
+                        ARCHIVE_FORMAT_VERSION);
+            }
+            log.info("Archived messages for {} to {} on {}", month, archiveDirectory, node());
+            return true;
+        }));
+    }
+
+    /**
+     * Restores an archived month: loads each file into a fresh table and attaches it as the
+     * month's partition, all in one transaction. Must run on a node that can read the files.
+     * Messages from a version 1 archive get sequence numbers below every seq their conversation
+     * already has, in send order, and one new change_seq per conversation, so clients pick the
+     * restored messages up through delta sync.
+     */
+    public void rehydrateMonth(YearMonth month) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!tryMaintenanceLock()) {
+                throw new IllegalStateException("Partition maintenance is running on another node");
+            }
+            for (String table : PARTITIONED_TABLES) {
+                if (partitionExists(partitionName(table, month))) {
+                    throw new IllegalArgumentException("Messages for " + month + " are already attached");
+                }
+            }
+            Path messagesArchive = locateArchive(partitionName("messages", month))
+                    .orElseThrow(() -> new IllegalArgumentException("No archive found for " + month));
+            if (!Files.isReadable(messagesArchive)) {
+                throw new IllegalStateException("The archive for " + month + " is at " + messagesArchive
+                        + " on node " + archiveNode(partitionName("messages", month)) + "; rehydrate it there");
+            }
+
+            for (String table : PARTITIONED_TABLES) {
+                String partition = partitionName(table, month);
+                jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE " + table + " INCLUDING DEFAULTS INCLUDING GENERATED)");
+                locateArchive(partition).filter(Files::exists).ifPresent(file ->
+                        importPartition(table, partition, file, formatVersion(partition, file)));
+                jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + partition +
+                        " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+                jdbcTemplate.update("DELETE FROM message_archives WHERE partition_name = ?", partition);
+            }
+        });
+        log.info("Rehydrated archived messages for {}", month);
+    }
+
+    private boolean tryMaintenanceLock() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, MAINTENANCE_LOCK));
+    }
+
+    // The recorded location; archives written before message_archives existed are looked up locally
+    private Optional<Path> locateArchive(String partition) {
+        List<String> recorded = jdbcTemplate.queryForList(
+                "SELECT location FROM message_archives WHERE partition_name = ?", String.class, partition);
+        if (!recorded.isEmpty()) return Optional.of(Path.of(recorded.get(0)));
+        Path file = archiveFile(partition);
+        return Files.exists(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    private String archiveNode(String partition) {
+        List<String> nodes = jdbcTemplate.queryForList(
+                "SELECT node FROM message_archives WHERE partition_name = ?", String.class, partition);
+        return nodes.isEmpty() ? node() : nodes.get(0);
+    }
+
+    private String node() {
+        if (node == null || node.isBlank()) {
+            try {
+                node = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                node = "unknown";
+            }
+        }
+        return node;
+    }
+
+    private void exportPartition(String table, String partition) throws IOException {
+        Path target = archiveFile(partition);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            try (GZIPOutputStream out = new GZIPOutputStream(file, 1 << 16)) {
+                jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                    try {
+                        return connection.unwrap(PGConnection.class).getCopyAPI()
+                                .copyOut("COPY " + partition + " (" + columnList(table)
+                                        + ") TO STDOUT WITH (FORMAT csv, HEADER)", out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                out.finish();
+                file.getFD().sync();
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void importPartition(String table, String partition, Path file, int formatVersion) {
+        boolean numberOnImport = table.equals("messages") && formatVersion < 2;
+        if (numberOnImport) {
+            jdbcTemplate.execute("ALTER TABLE " + partition
+                    + " ALTER COLUMN seq DROP NOT NULL, ALTER COLUMN change_seq DROP NOT NULL");
+        }
+
+        List<String> columns = archivedColumns(table, formatVersion);
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 1 << 16)) {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyIn("COPY " + partition + " (" + String.join(", ", columns)
+                                + ") FROM STDIN WITH (FORMAT csv, HEADER)", in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        if (numberOnImport) {
+            numberMessages(partition);
+            jdbcTemplate.execute("ALTER TABLE " + partition
+                    + " ALTER COLUMN seq SET NOT NULL, ALTER COLUMN change_seq SET NOT NULL");
+        }
+    }
+
+    // Runs before the partition is attached, so "messages" holds only the seqs already in use
+    private void numberMessages(String partition) {
+        jdbcTemplate.update(
+                "WITH restored AS (SELECT DISTINCT conversation_id FROM " + partition + "), " +
+                "bumped AS (UPDATE conversations c SET last_seq = c.last_seq + 1 " +
+                "           FROM restored r WHERE c.conversation_id = r.conversation_id " +
+                "           RETURNING c.conversation_id, c.last_seq), " +
+                "lowest AS (SELECT m.conversation_id, min(m.seq) AS seq FROM messages m " +
+                "           JOIN restored r ON r.conversation_id = m.conversation_id GROUP BY m.conversation_id), " +
+                "numbered AS (SELECT message_id, conversation_id, row_number() OVER " +
+                "           (PARTITION BY conversation_id ORDER BY sent_at DESC, message_id DESC) AS back " +
+                "           FROM " + partition + ") " +
+                "UPDATE " + partition + " p " +
+                "SET seq = COALESCE(l.seq, 1) - n.back, change_seq = COALESCE(b.last_seq, 0) " +
+                "FROM numbered n " +
+                "LEFT JOIN bumped b ON b.conversation_id = n.conversation_id " +
+                "LEFT JOIN lowest l ON l.conversation_id = n.conversation_id " +
+                "WHERE p.message_id = n.message_id");
+    }
+
+    // Recorded with the archive; files written before that are told apart by their CSV header
+    private int formatVersion(String partition, Path file) {
+        List<Integer> recorded = jdbcTemplate.queryForList(
+                "SELECT format_version FROM message_archives WHERE partition_name = ?", Integer.class, partition);
+        if (!recorded.isEmpty()) return recorded.get(0);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            return header != null && Arrays.asList(header.split(",")).containsAll(SEQUENCE_COLUMNS)
+                    ? ARCHIVE_FORMAT_VERSION
+                    : 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive " + file, e);
+        }
+    }
+
+    static List<String> archivedColumns(String table, int formatVersion) {
+        List<String> columns = ARCHIVED_COLUMNS.get(table);
+        return formatVersion < 2
+                ? columns.stream().filter(column -> !SEQUENCE_COLUMNS.contains(column)).toList()
+                : columns;
+    }
+
+    private boolean partitionExists(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition));
+    }
+
+    private static String columnList(String table) {
+        return String.join(", ", ARCHIVED_COLUMNS.get(table));
+    }
+
+    private Path archiveFile(String partition) {
+        return archiveDirectory.resolve(partition + ".csv.gz");
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + month.format(SUFFIX);
+    }
+}
@@ -0,0 +1,79 @@
+package io.stackmentor.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Strips the content of messages that have been deleted for longer than the grace period,
+ * leaving a tombstone (id, conversation, sender, sent_at, deleted_at) so ordering and sync
+ * cursors stay intact. Works in small batches, each its own statement, so it never holds many
+ * row locks or builds a long transaction.
+ */
+@Service
+public class MessageCompactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageCompactionService.class);
+
+    // SKIP LOCKED lets a user's concurrent edit win; the row is picked up on a later run
+    static final String COMPACT_BATCH =
+            "WITH batch AS (" +
+                    "SELECT message_id, sent_at FROM messages " +
+                    "WHERE is_deleted = true AND content <> '' AND deleted_at < ? " +
+                    "ORDER BY deleted_at LIMIT ? " +
+                    "FOR UPDATE SKIP LOCKED) " +
+                    "UPDATE messages m SET content = '', media_url = NULL " +
+                    "FROM batch WHERE m.message_id = batch.message_id AND m.sent_at = batch.sent_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${stackmentor.messages.compaction.grace-period:30d}")
+    private Duration gracePeriod;
+
+    @Value("${stackmentor.messages.compaction.batch-size:500}")
+    private int batchSize;
+
+    @Value("${stackmentor.messages.compaction.max-batches:200}")
+    private int maxBatches;
+
+    private final Counter compacted;
+
+    public MessageCompactionService(MeterRegistry meterRegistry) {
+        this.compacted = Counter.builder("message.tombstones.compacted")
+                .description("Deleted messages whose content was stripped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs until a batch comes back short or the per-run batch budget is spent.
+     * Returns the number of messages compacted.
+     */
+    @Scheduled(cron = "${stackmentor.messages.compaction.cron:0 15 * * * *}")
+    public int compact() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(gracePeriod));
+        int total = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int updated = jdbcTemplate.update(COMPACT_BATCH, cutoff, batchSize);
+            total += updated;
+            compacted.increment(updated);
+            if (updated < batchSize) break;
+        }
+
+        if (total > 0) {
+            log.info("Compacted {} deleted messages", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,87 @@
+package io.stackmentor.service;
+
+import io.stackmentor.dto.message.MessageSearchPageDto;
+import io.stackmentor.dto.message.MessageSearchResultDto;
+import io.stackmentor.repository.ConversationRepository;
+import io.stackmentor.repository.MessageSearchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class MessageSearchService {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 50;
+    static final int MAX_QUERY_LENGTH = 200;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private MessageSearchRepository messageSearchRepository;
+
+    /**
+     * Searches the caller's conversations, or just {@code conversationId} when given, which the
+     * caller must belong to. Pages are keyset-paginated: pass {@code nextCursor} back as
+     * {@code cursor} for the next page.
+     */
+    public MessageSearchPageDto search(UUID userId, String query, UUID conversationId, String cursor, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+
+        List<UUID> conversationIds;
+        if (conversationId != null) {
+            if (!conversationRepository.isParticipant(conversationId, userId)) {
+                throw new RuntimeException("User is not a participant in this conversation");
+            }
+            conversationIds = List.of(conversationId);
+        } else {
+            conversationIds = conversationRepository.findConversationIdsByUserId(userId);
+        }
+        if (conversationIds.isEmpty()) {
+            return new MessageSearchPageDto(List.of(), null);
+        }
+
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // One extra row tells whether another page exists
+        List<MessageSearchResultDto> results = messageSearchRepository.search(
+                query.trim(), conversationIds, decodeCursor(cursor), pageSize + 1);
+
+        if (results.size() <= pageSize) {
+            return new MessageSearchPageDto(results, null);
+        }
+        List<MessageSearchResultDto> page = results.subList(0, pageSize);
+        return new MessageSearchPageDto(page, encodeCursor(page.get(pageSize - 1)));
+    }
+
+    static String encodeCursor(MessageSearchResultDto last) {
+        // Rank as raw float bits so the next page compares against exactly the same value
+        String position = Integer.toHexString(Float.floatToIntBits(last.getRank())) + "|"
+                + last.getSentAt() + "|" + last.getMessageId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static MessageSearchRepository.Position decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new MessageSearchRepository.Position(
+                    Float.intBitsToFloat(Integer.parseUnsignedInt(parts[0], 16)),
+                    LocalDateTime.parse(parts[1]),
+                    UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+    }
+}
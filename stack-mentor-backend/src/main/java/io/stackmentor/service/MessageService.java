@@ -1,15 +1,41 @@
 package io.stackmentor.service;
 
+import io.stackmentor.dto.message.EditMessageDto;
+import io.stackmentor.dto.message.MarkReadDto;
 import io.stackmentor.dto.message.MessageDto;
+import io.stackmentor.dto.message.ReadReceiptDto;
+import io.stackmentor.dto.message.SendMessageDto;
+import io.stackmentor.event.MessageDeletedEvent;
+import io.stackmentor.event.MessageEditedEvent;
+import io.stackmentor.event.MessageSentEvent;
+import io.stackmentor.event.MessagesReadEvent;
+import io.stackmentor.model.Conversation;
 import io.stackmentor.model.Message;
+import io.stackmentor.model.User;
+import io.stackmentor.ratelimit.MessageRateLimiter;
 import io.stackmentor.repository.*;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
 @Service
 public class MessageService {
 
+    static final int DEFAULT_HISTORY_SIZE = 50;
+    static final int MAX_HISTORY_SIZE = 200;
+
     @Autowired
     private MessageRepository messageRepository;
 
@@ -25,20 +51,215 @@ public class MessageService {
     @Autowired
     GroupRepository groupRepository;
 
+    @Autowired
+    ConversationRepository conversationRepository;
+
     @Autowired
     SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MessageRateLimiter rateLimiter;
+
+    @Autowired
+    private MessageSyncRepository messageSyncRepository;
+
+    @Autowired
+    private ReadReceiptRepository readReceiptRepository;
+
+
+    /**
+     * Stores the message; subscribers on every node receive it once the transaction commits
+     * (see MessageBroadcaster). {@code senderId} is the authenticated caller. Throws
+     * RateLimitExceededException when the sender is over their send limit.
+     */
+    @Transactional
+    public MessageDto sendMessage(UUID conversationId, UUID senderId, SendMessageDto dto) {
+
+        User sender = userRepository.findById(senderId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Before the participant check, so sends to conversations the caller is not in count too
+        rateLimiter.acquire(senderId, conversationId, sender.getPosition());
+
+        if (!conversationRepository.isParticipant(conversationId, senderId)) {
+            throw new AccessDeniedException("User is not a participant in this conversation");
+        }
+
+        long seq = messageSyncRepository.nextSeq(conversationId);
+        Message message = Message.builder()
+                .conversation(conversationRepository.getReferenceById(conversationId))
+                .seq(seq)
+                .changeSeq(seq)
+                .sender(sender)
+                .content(dto.getContent())
+                .mediaUrl(dto.getMediaUrl() != null ? List.of(dto.getMediaUrl()) : null)
+                .isDeleted(false)
+                .build();
+
+        // Flushed so sent_at is populated before the DTO is built
+        Message savedMessage = messageRepository.saveAndFlush(message);
+        MessageDto result = convertToDto(savedMessage, true);
+
+        eventPublisher.publishEvent(new MessageSentEvent(result, sender.getRole()));
+        return result;
+    }
+
+    /**
+     * Soft-deletes a message. Only its sender may delete it; from then on it is invisible to
+     * every read path, and its content is stripped later by MessageCompactionService.
+     */
+    @Transactional
+    public void deleteMessage(UUID conversationId, UUID messageId, UUID userId) {
+
+        Message message = messageRepository.findById(messageId)
+                .filter(m -> m.getConversation().getConversationId().equals(conversationId))
+                .orElseThrow(() -> new RuntimeException("Message not found"));
+        if (!message.getSender().getUserId().equals(userId)) {
+            throw new AccessDeniedException("Only the sender can delete this message");
+        }
+
+        message.setDeleted(true);
+        message.setDeletedAt(LocalDateTime.now());
+        message.setChangeSeq(messageSyncRepository.nextSeq(conversationId));
+        messageRepository.save(message);
+
+        MessageDto tombstone = MessageDto.builder()
+                .messageId(message.getMessageId())
+                .conversationId(conversationId)
+                .seq(message.getSeq())
+                .changeSeq(message.getChangeSeq())
+                .senderId(userId)
+                .sentAt(message.getSentAt())
+                .isDeleted(true)
+                .deletedAt(message.getDeletedAt())
+                .build();
+        eventPublisher.publishEvent(new MessageDeletedEvent(tombstone));
+    }
+
+    /**
+     * Replaces a message's content. Only its sender may edit it; the edit gets a new change
+     * sequence number so delta sync picks it up.
+     */
+    @Transactional
+    public MessageDto editMessage(UUID conversationId, UUID messageId, UUID userId, EditMessageDto dto) {
+
+        Message message = messageRepository.findById(messageId)
+                .filter(m -> m.getConversation().getConversationId().equals(conversationId))
+                .orElseThrow(() -> new RuntimeException("Message not found"));
+        if (!message.getSender().getUserId().equals(userId)) {
+            throw new AccessDeniedException("Only the sender can edit this message");
+        }
+
+        message.setContent(dto.getContent());
+        message.setEditedAt(LocalDateTime.now());
+        message.setChangeSeq(messageSyncRepository.nextSeq(conversationId));
+        MessageDto result = convertToDto(messageRepository.save(message), true);
+
+        eventPublisher.publishEvent(new MessageEditedEvent(result));
+        return result;
+    }
+
+    /**
+     * Records that the user has read the given messages and, for the ones not read before,
+     * broadcasts a receipt to the conversation. Read state is per recipient, so it never rides
+     * along with the message broadcasts every participant shares.
+     */
+    @Transactional
+    public ReadReceiptDto markMessagesRead(UUID conversationId, UUID userId, MarkReadDto dto) {
+
+        if (!conversationRepository.isParticipant(conversationId, userId)) {
+            throw new AccessDeniedException("User is not a participant in this conversation");
+        }
+
+        LocalDateTime readAt = LocalDateTime.now();
+        List<UUID> newlyRead = readReceiptRepository.markRead(
+                conversationId, userId, Set.copyOf(dto.getMessageIds()), readAt);
+
+        ReadReceiptDto receipt = new ReadReceiptDto(conversationId, userId, newlyRead, readAt);
+        if (!newlyRead.isEmpty()) {
+            eventPublisher.publishEvent(new MessagesReadEvent(receipt));
+        }
+        return receipt;
+    }
+
+    /**
+     * Returns the newest messages older than the cursor, newest first, to a participant of the
+     * conversation. The cursor is the last message of the previous page, as its
+     * {@code (sentAt, messageId)}; messages sharing that timestamp are ordered by id, so none
+     * are skipped at a page boundary. Without {@code beforeId}, every message sent at
+     * {@code before} or later is excluded. The messages table is partitioned by month, so history
+     * is read one month window at a time, stepping back only while the page is not yet full and
+     * the conversation existed.
+     */
+    public List<MessageDto> getConversationHistory(UUID conversationId,
+                                                   UUID userId,
+                                                   LocalDateTime before,
+                                                   UUID beforeId,
+                                                   Integer size) {
+
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new RuntimeException("Conversation not found"));
+        if (!conversationRepository.isParticipant(conversationId, userId)) {
+            throw new AccessDeniedException("User is not a participant in this conversation");
+        }
+
+        int pageSize = size == null ? DEFAULT_HISTORY_SIZE : Math.max(1, Math.min(size, MAX_HISTORY_SIZE));
+        LocalDateTime to = before != null ? before : LocalDateTime.now();
+        LocalDateTime floor = monthStart(conversation.getCreatedAt() != null
+                ? conversation.getCreatedAt()
+                : to);
+
+        List<Message> messages = new ArrayList<>();
+        LocalDateTime from = monthStart(to);
+        if (before != null && beforeId != null) {
+            // Only the first window can hold messages tied with the cursor
+            messages.addAll(messageRepository.findConversationWindowBefore(
+                    conversationId, from, to, beforeId, Limit.of(pageSize)));
+            to = from;
+            from = from.minusMonths(1);
+        }
+        while (messages.size() < pageSize && to.isAfter(floor)) {
+            messages.addAll(messageRepository.findConversationWindow(
+                    conversationId, from, to, Limit.of(pageSize - messages.size())));
+            to = from;
+            from = from.minusMonths(1);
+        }
+
+        Set<UUID> readIds = messages.isEmpty()
+                ? Set.of()
+                : messageReadStatusRepository.findReadMessageIdsByUserIdAndMessageIdIn(userId,
+                        messages.stream().map(Message::getMessageId).collect(Collectors.toSet()));
+
+        return messages.stream()
+                .map(message -> convertToDto(message, readIds.contains(message.getMessageId())))
+                .toList();
+    }
+
+    private static LocalDateTime monthStart(LocalDateTime time) {
+        return time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+    }
 
     private MessageDto convertToDto(Message message, boolean isRead) {
         return MessageDto.builder()
                 .messageId(message.getMessageId())
+                .conversationId(message.getConversation() != null
+                        ? message.getConversation().getConversationId()
+                        : null)
+                .seq(message.getSeq())
+                .changeSeq(message.getChangeSeq())
                 .senderId(message.getSender().getUserId())
                 .senderName(message.getSender().getFirstName()
                         + " " + message.getSender().getLastName())
                 .content(message.getContent())
-                .mediaUrl(String.join(", ", message.getMediaUrl()))
+                .mediaUrl(message.getMediaUrl() != null
+                        ? String.join(", ", message.getMediaUrl())
+                        : null)
                 .sentAt(message.getSentAt())
                 .editedAt(message.getEditedAt())
+                .isDeleted(message.isDeleted())
                 .deletedAt(message.getDeletedAt())
                 .isRead(isRead)
                 .build();
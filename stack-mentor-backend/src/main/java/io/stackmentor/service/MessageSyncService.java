@@ -0,0 +1,80 @@
+package io.stackmentor.service;
+
+import io.stackmentor.dto.message.ConversationDeltaDto;
+import io.stackmentor.dto.message.MessageDto;
+import io.stackmentor.dto.message.SyncRequestDto;
+import io.stackmentor.dto.message.SyncResponseDto;
+import io.stackmentor.repository.ConversationRepository;
+import io.stackmentor.repository.MessageSyncRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class MessageSyncService {
+
+    static final int MAX_CHANGES_PER_CONVERSATION = 200;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private MessageSyncRepository messageSyncRepository;
+
+    /**
+     * Everything that changed since the client's last seen sequence numbers. Conversations whose
+     * counter has not moved cost nothing beyond the counter lookup, so a reconnect scales with
+     * the number of changes rather than with history.
+     */
+    public SyncResponseDto sync(UUID userId, SyncRequestDto request) {
+        Map<UUID, Long> lastSeen = request.getLastSeen() != null ? request.getLastSeen() : Map.of();
+
+        List<UUID> conversationIds = conversationRepository.findConversationIdsByUserId(userId);
+        Map<UUID, Long> current = conversationIds.isEmpty()
+                ? Map.of()
+                : messageSyncRepository.lastSeqs(conversationIds);
+
+        Map<UUID, Long> behind = new LinkedHashMap<>();
+        List<ConversationDeltaDto> deltas = new ArrayList<>();
+        for (UUID conversationId : conversationIds) {
+            long lastSeq = current.getOrDefault(conversationId, 0L);
+            Long seen = lastSeen.get(conversationId);
+            if (seen == null) {
+                // New to the client: it loads history and starts syncing from lastSeq
+                deltas.add(new ConversationDeltaDto(conversationId, lastSeq, List.of(), false));
+            } else if (lastSeq > seen) {
+                behind.put(conversationId, seen);
+            }
+        }
+
+        if (!behind.isEmpty()) {
+            // One extra change per conversation tells whether it has more
+            Map<UUID, List<MessageDto>> changes = messageSyncRepository
+                    .changesAfter(behind, MAX_CHANGES_PER_CONVERSATION + 1).stream()
+                    .collect(Collectors.groupingBy(MessageDto::getConversationId));
+
+            for (UUID conversationId : behind.keySet()) {
+                List<MessageDto> conversationChanges = changes.getOrDefault(conversationId, List.of());
+                boolean hasMore = conversationChanges.size() > MAX_CHANGES_PER_CONVERSATION;
+                deltas.add(new ConversationDeltaDto(conversationId, current.get(conversationId),
+                        hasMore ? conversationChanges.subList(0, MAX_CHANGES_PER_CONVERSATION) : conversationChanges,
+                        hasMore));
+            }
+        }
+
+        Set<UUID> mine = new HashSet<>(conversationIds);
+        List<UUID> removed = lastSeen.keySet().stream()
+                .filter(conversationId -> !mine.contains(conversationId))
+                .toList();
+
+        return new SyncResponseDto(deltas, removed);
+    }
+}
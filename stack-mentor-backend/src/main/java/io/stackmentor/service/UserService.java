@@ -1,26 +1,66 @@
 package io.stackmentor.service;
 
+import io.stackmentor.cache.UserSearchCache;
+import io.stackmentor.cache.UserSearchKey;
+import io.stackmentor.dto.user.AccessTokenDto;
+import io.stackmentor.dto.user.LoginDto;
+import io.stackmentor.dto.user.NearbyUserDto;
 import io.stackmentor.dto.user.RegisterUserDto;
+import io.stackmentor.dto.user.TypeaheadResultDto;
+import io.stackmentor.dto.user.UpdateProfileDto;
 import io.stackmentor.dto.user.UserDto;
+import io.stackmentor.dto.user.UserPageDto;
+import io.stackmentor.dto.user.UserSummaryDto;
 import io.stackmentor.enums.PositionType;
 import io.stackmentor.enums.RoleType;
 import io.stackmentor.model.User;
 import io.stackmentor.model.VerificationToken;
+import io.stackmentor.event.UserProfileUpdatedEvent;
+import io.stackmentor.event.UserRegisteredEvent;
+import io.stackmentor.event.UserVerifiedEvent;
+import io.stackmentor.index.EmailBloomFilter;
+import io.stackmentor.index.GeoGridIndex;
+import io.stackmentor.index.GeoPoint;
+import io.stackmentor.index.UserNameIndex;
+import io.stackmentor.index.ZipCentroidDirectory;
+import io.stackmentor.repository.UserRegistrationRepository;
 import io.stackmentor.repository.UserRepository;
 import io.stackmentor.repository.VerificationTokenRepository;
+import io.stackmentor.security.JwtTokenService;
+import io.stackmentor.specification.ExperienceRange;
 import io.stackmentor.specification.UserSpecificationBuilder;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.crypto.bcrypt.BCrypt;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_TYPEAHEAD_RESULTS = UserNameIndex.MAX_RESULTS;
+    private static final double MAX_RADIUS_KM = 500;
+    // Geo candidates fetched per requested result, leaving room for text/industry filters
+    private static final int NEARBY_CANDIDATE_FACTOR = 4;
+    // Checked against when the email is unknown, so a failed login takes as long either way
+    private static final String UNKNOWN_USER_HASH = BCrypt.hashpw("unknown-user", BCrypt.gensalt());
+
     @Autowired
     private UserRepository userRepository;
 
@@ -33,6 +73,30 @@ public class UserService {
     @Autowired
     private UserSpecificationBuilder specBuilder;
 
+    @Autowired
+    private UserSearchCache searchCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserNameIndex nameIndex;
+
+    @Autowired
+    private ZipCentroidDirectory zipDirectory;
+
+    @Autowired
+    private GeoGridIndex geoIndex;
+
+    @Autowired
+    private UserRegistrationRepository registrationRepository;
+
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
+    @Autowired
+    private JwtTokenService tokenService;
+
 
     private UserDto convertToDto(User user) {
         return UserDto.builder()
@@ -59,14 +123,36 @@ public class UserService {
                 .build();
     }
 
+    private UserSummaryDto toSummary(User user) {
+        return UserSummaryDto.builder()
+                .userId(user.getUserId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .role(user.getRole())
+                .jobTitle(user.getJobTitle())
+                .industry(user.getIndustry())
+                .yearsOfExperience(user.getYearsOfExperience())
+                .city(user.getCity())
+                .state(user.getState())
+                .profilePictureUrl(user.getProfilePictureUrl())
+                .latitude(user.getLatitude())
+                .longitude(user.getLongitude())
+                .build();
+    }
+
+    // Resolves coordinates from the bundled ZIP dataset; unknown ZIPs leave the user unlocated
+    private void applyZipCode(User user, String zipCode) {
+        user.setZipCode(zipCode);
+        Optional<GeoPoint> centroid = zipDirectory.lookup(zipCode);
+        user.setLatitude(centroid.map(GeoPoint::latitude).orElse(null));
+        user.setLongitude(centroid.map(GeoPoint::longitude).orElse(null));
+    }
+
     @Transactional
     public UserDto registerUser(RegisterUserDto dto) {
 
         // Business logic for registering a user
         // e.g., hashing password, validating data, etc.
-        if (userRepository.existsByEmail(dto.getEmail())) {
-            throw new IllegalArgumentException("Email already in use");
-        }
         // Split name
         if (!dto.getName().trim().contains(" ")) {
             throw new IllegalArgumentException("Only  include your first and last name, separated by a space");
@@ -82,7 +168,8 @@ public class UserService {
 
         //Build new user
         User.UserBuilder userBuilder = User.builder()
-                .email(dto.getEmail())
+                .userId(UUID.randomUUID())
+                .email(dto.getEmail().trim())
                 .passwordHash(hashedPassword)
                 .firstName(firstNamePart)
                 .lastName(lastNamePart)
@@ -93,6 +180,7 @@ public class UserService {
                 .yearsOfExperience(dto.getYearsOfExperience())
                 .role(dto.getRole())
                 .position(PositionType.MEMBER)
+                .createdAt(LocalDateTime.now())
                 .isVerified(false);
 
         // Set role-specific fields
@@ -107,14 +195,21 @@ public class UserService {
         User newUser = userBuilder.build();
 
         newUser.setAge(newUser.calculateAge());
+        if (dto.getZipCode() != null) {
+            applyZipCode(newUser, dto.getZipCode());
+        }
 
-        // Save user to DB (UUID Auto-generated)
-        User savedUser = userRepository.save(newUser);
+        // One round trip: the insert itself detects a taken email, so concurrent signups cannot both win
+        UUID userId = registrationRepository.insertIfEmailAvailable(newUser)
+                .orElseThrow(() -> new IllegalArgumentException("Email already in use"));
+        emailFilter.add(newUser.getEmail());
+        eventPublisher.publishEvent(new UserRegisteredEvent(userId));
 
         //Token generation/verification logic
         String token = UUID.randomUUID().toString();
         VerificationToken vt = new VerificationToken(
-                null, token, savedUser, java.time.LocalDateTime.now().plusHours(24));  // Token valid for 24 hours
+                null, token, userRepository.getReferenceById(userId),
+                java.time.LocalDateTime.now().plusHours(24));  // Token valid for 24 hours
         verificationTokenRepository.save(vt);
 
         // Send verification email
@@ -124,6 +219,88 @@ public class UserService {
             throw new RuntimeException("Failed to send email", e);
         }
 
+        return convertToDto(newUser);
+    }
+
+    public AccessTokenDto login(LoginDto dto) {
+        Optional<User> user = userRepository.findByEmailIgnoringCase(dto.getEmail().trim());
+        String hash = user.map(User::getPasswordHash).orElse(UNKNOWN_USER_HASH);
+        if (!BCrypt.checkpw(dto.getPassword(), hash) || user.isEmpty()) {
+            throw new BadCredentialsException("Invalid email or password");
+        }
+        if (!user.get().isVerified()) {
+            throw new DisabledException("Email address has not been verified");
+        }
+        return tokenService.issue(user.get());
+    }
+
+    // Most new addresses are answered by the filter alone; only possible matches hit the database
+    public boolean isEmailAvailable(String email) {
+        if (!emailFilter.mightContain(email)) {
+            return true;
+        }
+        return !userRepository.existsByEmailIgnoringCase(email.trim());
+    }
+
+    @Transactional
+    public UserDto verifyUser(String token) {
+        VerificationToken verificationToken = verificationTokenRepository.findByToken(token);
+        if (verificationToken == null) {
+            throw new IllegalArgumentException("Invalid verification token");
+        }
+        if (verificationToken.getExpiryDate().isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Verification token has expired");
+        }
+
+        User user = verificationToken.getUser();
+        if (!user.isVerified()) {
+            user.setVerified(true);
+            userRepository.save(user);
+            eventPublisher.publishEvent(new UserVerifiedEvent(toSummary(user)));
+        }
+        verificationTokenRepository.delete(verificationToken);
+
+        return convertToDto(user);
+    }
+
+    public UserDto getUserProfile(UUID userId) {
+        return userRepository.findById(userId)
+                .map(this::convertToDto)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    // The profile's current version, for conditional GETs; no entity is loaded
+    public long getUserVersion(UUID userId) {
+        return userRepository.findVersionById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    @Transactional
+    public UserDto updateUserProfile(UUID userId, UpdateProfileDto dto) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        UserSummaryDto previous = toSummary(user);
+
+        if (dto.getJobTitle() != null) user.setJobTitle(dto.getJobTitle());
+        if (dto.getIndustry() != null) user.setIndustry(dto.getIndustry());
+        if (dto.getYearsOfExperience() != null) user.setYearsOfExperience(dto.getYearsOfExperience());
+        if (dto.getBio() != null) user.setBio(dto.getBio());
+        if (dto.getCity() != null) user.setCity(dto.getCity());
+        if (dto.getState() != null) user.setState(dto.getState());
+        if (dto.getProfilePictureUrl() != null) user.setProfilePictureUrl(dto.getProfilePictureUrl());
+        if (dto.getZipCode() != null) applyZipCode(user, dto.getZipCode());
+        if (dto.getSkillsOrInterests() != null) {
+            String joined = String.join(", ", dto.getSkillsOrInterests());
+            if (user.getRole() == RoleType.MENTOR) {
+                user.setSkills(joined);
+            } else {
+                user.setInterests(joined);
+            }
+        }
+
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserProfileUpdatedEvent(previous, toSummary(savedUser), savedUser.isVerified()));
+
         return convertToDto(savedUser);
     }
 
@@ -132,30 +309,126 @@ public class UserService {
         // Implement search logic using specifications or custom queries
         // For simplicity, returning all users here
 
-        //Trim search text
-        String trimmedSearchText = (searchText != null) ? searchText.trim() : null;
+        Specification<User> specification = buildSearchSpecification(
+                searchText, role, experienceRange, industries);
 
-        // Parse experienceRange
-        Integer minExp = null;
-        Integer maxExp = null;
+        return userRepository.findAll(specification);
+    }
+
+    // Keyset-paginated search returning summaries only; popular filter combinations are served from cache
+    public UserPageDto searchUserSummaries(String searchText, String role, String experienceRange,
+                                           List<String> industries, UUID cursor, Integer size) {
+
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        UserSearchKey key = UserSearchKey.of(searchText, role, ExperienceRange.parse(experienceRange),
+                industries, cursor, pageSize);
+
+        return searchCache.get(key, () -> loadSummaryPage(key));
+    }
+
+    private UserPageDto loadSummaryPage(UserSearchKey key) {
+        // Query with the canonical values so every request sharing this key gets identical results
+        Specification<User> specification = Specification.allOf(
+                specBuilder.searchWithFilters(key.text(), key.role(), key.minYears(), key.maxYears(),
+                        key.industries()),
+                specBuilder.afterUserId(key.cursor()));
+
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        List<UserSummaryDto> rows = userRepository.findSummaries(specification, key.size() + 1);
+        boolean hasNext = rows.size() > key.size();
+        List<UserSummaryDto> results = hasNext ? List.copyOf(rows.subList(0, key.size())) : rows;
+
+        return UserPageDto.builder()
+                .results(results)
+                .nextCursor(hasNext ? results.get(results.size() - 1).getUserId() : null)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    // Served entirely from memory -- no database access per keystroke
+    public List<TypeaheadResultDto> typeahead(String query, Integer limit) {
+        int maxResults = (limit == null || limit <= 0) ? 10 : Math.min(limit, MAX_TYPEAHEAD_RESULTS);
+        return nameIndex.search(query, maxResults);
+    }
+
+    // Radius search when radiusKm is given, otherwise the nearest users within MAX_RADIUS_KM
+    public List<NearbyUserDto> findUsersNearby(String zipCode, Double latitude, Double longitude,
+                                               Double radiusKm, Integer limit, String searchText,
+                                               String role, String experienceRange, List<String> industries) {
+
+        GeoPoint origin = resolveOrigin(zipCode, latitude, longitude);
+        int maxResults = (limit == null || limit <= 0) ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        int candidateCount = maxResults * NEARBY_CANDIDATE_FACTOR;
+        RoleType roleType = parseRole(role);
+        ExperienceRange range = ExperienceRange.parse(experienceRange);
+
+        // Role and experience are filtered inside the index, before distance ranking
+        List<GeoGridIndex.Neighbor> neighbors = radiusKm != null
+                ? geoIndex.withinRadius(origin, Math.min(radiusKm, MAX_RADIUS_KM), roleType, range, candidateCount)
+                : geoIndex.nearest(origin, candidateCount, MAX_RADIUS_KM, roleType, range);
+        if (neighbors.isEmpty()) return List.of();
+
+        Map<UUID, Double> distances = new HashMap<>();
+        neighbors.forEach(neighbor -> distances.put(neighbor.userId(), neighbor.distanceKm()));
+
+        // The remaining filters run in the database, restricted to the candidate ids
+        Specification<User> specification = Specification.allOf(
+                buildSearchSpecification(searchText, role, experienceRange, industries),
+                specBuilder.idIn(distances.keySet()));
+
+        return userRepository.findSummaries(specification, candidateCount).stream()
+                .map(summary -> NearbyUserDto.builder()
+                        .user(summary)
+                        .distanceKm(distances.get(summary.getUserId()))
+                        .build())
+                .sorted(Comparator.comparingDouble(NearbyUserDto::getDistanceKm))
+                .limit(maxResults)
+                .toList();
+    }
+
+    private GeoPoint resolveOrigin(String zipCode, Double latitude, Double longitude) {
+        if (zipCode != null && !zipCode.isBlank()) {
+            return zipDirectory.lookup(zipCode.trim())
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown ZIP code: " + zipCode));
+        }
+        if (latitude != null && longitude != null) {
+            return new GeoPoint(latitude, longitude);
+        }
+        throw new IllegalArgumentException("Provide a ZIP code or latitude and longitude");
+    }
+
+    private RoleType parseRole(String role) {
+        if (role == null || role.isBlank()) return null;
         try {
-            if (experienceRange != null && !experienceRange.isEmpty()) {
-                if (experienceRange.endsWith("+")) {
-                    minExp = Integer.parseInt(experienceRange.replace("+", "").trim());
-                } else if (experienceRange.contains("-")) {
-                    String[] parts = experienceRange.split("-");
-                    minExp = Integer.parseInt(parts[0].trim());
-                    maxExp = Integer.parseInt(parts[1].trim());
-                }
-            }
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid experience range format: " + experienceRange, e);
+            return RoleType.valueOf(role.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid role: " + role, e);
         }
+    }
 
-        Specification<User> specification = specBuilder.searchWithFilters(
-                trimmedSearchText, role, minExp, maxExp, industries);
+    // Streams every match to the sink; rows are read in fetch-size chunks and never held together
+    @Transactional
+    public void exportUsers(String searchText, String role, String experienceRange,
+                            List<String> industries, Consumer<UserSummaryDto> sink) {
 
-        return userRepository.findAll(specification);
+        Specification<User> specification = buildSearchSpecification(
+                searchText, role, experienceRange, industries);
+
+        try (Stream<UserSummaryDto> summaries = userRepository.streamSummaries(specification)) {
+            summaries.forEach(sink);
+        }
+    }
+
+    private Specification<User> buildSearchSpecification(String searchText, String role,
+                                                         String experienceRange, List<String> industries) {
+        //Trim search text
+        String trimmedSearchText = (searchText != null) ? searchText.trim() : null;
+
+        // Parse experienceRange
+        ExperienceRange range = ExperienceRange.parse(experienceRange);
+
+        return specBuilder.searchWithFilters(
+                trimmedSearchText, role, range.min(), range.max(), industries);
     }
 
 }
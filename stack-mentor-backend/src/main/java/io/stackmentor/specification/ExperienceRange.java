@@ -0,0 +1,29 @@
+package io.stackmentor.specification;
+
+// Parsed form of the experience dropdown, e.g. "2-5" or "10+"
+public record ExperienceRange(Integer min, Integer max) {
+
+    public static final ExperienceRange ANY = new ExperienceRange(null, null);
+
+    public static ExperienceRange parse(String experienceRange) {
+        try {
+            if (experienceRange != null && !experienceRange.isEmpty()) {
+                if (experienceRange.endsWith("+")) {
+                    return new ExperienceRange(Integer.parseInt(experienceRange.replace("+", "").trim()), null);
+                } else if (experienceRange.contains("-")) {
+                    String[] parts = experienceRange.split("-");
+                    return new ExperienceRange(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid experience range format: " + experienceRange, e);
+        }
+        return ANY;
+    }
+
+    public boolean contains(Integer years) {
+        if (min == null && max == null) return true;
+        if (years == null) return false;
+        return (min == null || years >= min) && (max == null || years <= max);
+    }
+}
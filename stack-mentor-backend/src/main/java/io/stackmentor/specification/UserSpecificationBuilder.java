@@ -4,7 +4,9 @@ import io.stackmentor.model.User;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 @Component
 public class UserSpecificationBuilder {
@@ -99,6 +101,19 @@ public class UserSpecificationBuilder {
         };
     }
 
+    //Keyset pagination -- rows after the last userId of the previous page
+    public Specification<User> afterUserId(UUID cursor) {
+        return (root, query, criteriaBuilder) -> {
+            if (cursor == null) return criteriaBuilder.conjunction();
+            return criteriaBuilder.greaterThan(root.get("userId"), cursor);
+        };
+    }
+
+    //Restrict to a candidate set, e.g. users found by the geo index
+    public Specification<User> idIn(Collection<UUID> userIds) {
+        return (root, query, criteriaBuilder) -> root.get("userId").in(userIds);
+    }
+
     // Combined search specification for multiple filters
     public Specification<User> searchWithFilters(
             String searchText,
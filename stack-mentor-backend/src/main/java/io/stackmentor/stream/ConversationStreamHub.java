@@ -0,0 +1,410 @@
+package io.stackmentor.stream;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.stackmentor.dto.message.ConversationEventDto;
+import io.stackmentor.dto.message.ConversationEventsDto;
+import io.stackmentor.relay.LocalSubscriptionRegistry;
+import io.stackmentor.repository.ConversationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Conversation updates for clients that cannot hold a WebSocket. Listens on the STOMP broker
+ * channel, so it sees exactly what WebSocket subscribers see, relayed events from other nodes
+ * included, and keeps the recent ones per conversation for resuming.
+ * <p>
+ * Long-poll requests park as a {@link DeferredResult} and SSE streams as an {@link SseEmitter};
+ * neither holds a thread while waiting. Cursors are only meaningful to the node and channel that
+ * issued them; any other cursor, or one that has fallen out of the buffer, gets a reset and the
+ * client reloads history once.
+ */
+@Component
+public class ConversationStreamHub implements MessageHandler {
+
+    static final String DESTINATION_PREFIX = "/topic/conversations/";
+    static final String[] STREAMED_KINDS = {"messages", "receipts", "presence"};
+
+    // Stands in for the stream clients in the subscription registry so relayed events arrive
+    private static final String INTEREST_SESSION = "conversation-stream-hub";
+    private static final int MAX_BATCH = 100;
+
+    private final LocalSubscriptionRegistry localSubscriptions;
+    private final ConversationRepository conversationRepository;
+    private final TaskExecutor sseExecutor;
+    private final LongSupplier clock;
+    private final String nodeToken = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final AtomicLong generations = new AtomicLong();
+    private final ConcurrentHashMap<UUID, EventChannel> channels = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ParticipantKey, Long> verifiedParticipants = new ConcurrentHashMap<>();
+
+    private final int ringCapacity;
+    private final long pollTimeoutMillis;
+    private final long sseTimeoutMillis;
+    private final long idleExpiryMillis;
+    private final long participantRecheckMillis;
+
+    @Autowired
+    @Qualifier("brokerChannel")
+    private SubscribableChannel brokerChannel;
+
+    @Autowired
+    public ConversationStreamHub(LocalSubscriptionRegistry localSubscriptions,
+                                 ConversationRepository conversationRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                 @Value("${stackmentor.stream.ring-capacity:256}") int ringCapacity,
+                                 @Value("${stackmentor.stream.poll-timeout:25s}") Duration pollTimeout,
+                                 @Value("${stackmentor.stream.sse-timeout:30m}") Duration sseTimeout,
+                                 @Value("${stackmentor.stream.idle-expiry:5m}") Duration idleExpiry,
+                                 @Value("${stackmentor.stream.participant-recheck:1m}") Duration participantRecheck) {
+        this(localSubscriptions, conversationRepository, sseExecutor(virtualThreads), System::currentTimeMillis,
+                ringCapacity, pollTimeout, sseTimeout, idleExpiry, participantRecheck);
+
+        Gauge.builder("conversation.stream.channels", channels, Map::size)
+                .description("Conversations with SSE or long-poll clients on this node")
+                .register(meterRegistry);
+    }
+
+    ConversationStreamHub(LocalSubscriptionRegistry localSubscriptions,
+                          ConversationRepository conversationRepository,
+                          TaskExecutor sseExecutor,
+                          LongSupplier clock,
+                          int ringCapacity,
+                          Duration pollTimeout,
+                          Duration sseTimeout,
+                          Duration idleExpiry,
+                          Duration participantRecheck) {
+        this.localSubscriptions = localSubscriptions;
+        this.conversationRepository = conversationRepository;
+        this.sseExecutor = sseExecutor;
+        this.clock = clock;
+        this.ringCapacity = ringCapacity;
+        this.pollTimeoutMillis = pollTimeout.toMillis();
+        this.sseTimeoutMillis = sseTimeout.toMillis();
+        this.idleExpiryMillis = idleExpiry.toMillis();
+        this.participantRecheckMillis = participantRecheck.toMillis();
+    }
+
+    // Subscribed once the hub is fully built, since broadcasts may arrive at once
+    @PostConstruct
+    void subscribeToBroker() {
+        brokerChannel.subscribe(this);
+    }
+
+    private static TaskExecutor sseExecutor(boolean virtualThreads) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("sse-");
+        executor.setVirtualThreads(virtualThreads);
+        return executor;
+    }
+
+    /**
+     * Completes as soon as there are events after {@code cursor}, or with none when the poll
+     * times out. Without a cursor it answers at once with the current position, so a client can
+     * take the cursor, load history and then poll without a gap.
+     */
+    public DeferredResult<ConversationEventsDto> poll(UUID conversationId, UUID userId, String cursor) {
+        checkParticipant(conversationId, userId);
+
+        DeferredResult<ConversationEventsDto> result = new DeferredResult<>(pollTimeoutMillis);
+        while (true) {
+            EventChannel channel = channel(conversationId);
+            long seq = position(channel, cursor);
+            if (seq < 0) {
+                boolean reset = cursor != null && !cursor.isBlank();
+                result.setResult(new ConversationEventsDto(cursor(channel, channel.lastSeq()), reset, List.of()));
+                return result;
+            }
+
+            EventChannel.Read read = channel.readAfter(seq, MAX_BATCH);
+            if (!read.events().isEmpty()) {
+                result.setResult(toDto(channel, read));
+                return result;
+            }
+
+            EventChannel.Listener waiter = new EventChannel.Listener() {
+                @Override
+                public void onAppend(EventChannel c) {
+                    c.removeListener(this);
+                    result.setResult(toDto(c, c.readAfter(seq, MAX_BATCH)));
+                }
+            };
+            result.onTimeout(() -> result.setResult(new ConversationEventsDto(cursor(channel, seq), false, List.of())));
+            result.onCompletion(() -> {
+                channel.removeListener(waiter);
+                channel.touch(clock.getAsLong());
+            });
+            if (channel.parkIfCaughtUp(seq, waiter)) {
+                return result;
+            }
+            // An event arrived or the channel expired in between; read again
+        }
+    }
+
+    /**
+     * Streams events after {@code cursor} (the SSE Last-Event-ID) until the client goes away or
+     * the stream times out. Each event's id is its resume cursor.
+     */
+    public SseEmitter stream(UUID conversationId, UUID userId, String cursor) {
+        checkParticipant(conversationId, userId);
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+        while (true) {
+            EventChannel channel = channel(conversationId);
+            long seq = position(channel, cursor);
+            SseSubscriber subscriber = new SseSubscriber(channel, emitter, conversationId, userId, seq < 0 ? channel.lastSeq() : seq);
+            if (!channel.addListener(subscriber)) continue;
+
+            emitter.onCompletion(() -> {
+                channel.removeListener(subscriber);
+                channel.touch(clock.getAsLong());
+            });
+            emitter.onTimeout(emitter::complete);
+            emitter.onError(e -> channel.removeListener(subscriber));
+
+            if (seq < 0) {
+                subscriber.sendMarker(cursor == null || cursor.isBlank() ? "ready" : "reset");
+            }
+            subscriber.schedule();
+            return emitter;
+        }
+    }
+
+    @Override
+    public void handleMessage(Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null || !destination.startsWith(DESTINATION_PREFIX)) return;
+
+        // Compact binary frames duplicate a JSON broadcast on the plain destination
+        MimeType contentType = message.getHeaders().get(MessageHeaders.CONTENT_TYPE, MimeType.class);
+        if (contentType != null && !MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(contentType)) return;
+
+        int slash = destination.indexOf('/', DESTINATION_PREFIX.length());
+        if (slash < 0) return;
+
+        UUID conversationId;
+        try {
+            conversationId = UUID.fromString(destination.substring(DESTINATION_PREFIX.length(), slash));
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+
+        // Only conversations someone is streaming are buffered
+        EventChannel channel = channels.get(conversationId);
+        if (channel == null) return;
+
+        Object payload = message.getPayload();
+        String json = payload instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : payload.toString();
+        channel.append(eventType(destination.substring(slash + 1)), json);
+    }
+
+    /**
+     * Keeps idle SSE connections open through proxies, ends streams whose user has left the
+     * conversation, and drops channels nobody has used within the idle expiry.
+     */
+    @Scheduled(fixedDelayString = "${stackmentor.stream.heartbeat-interval:PT15S}")
+    public void maintain() {
+        long now = clock.getAsLong();
+        channels.forEach((conversationId, channel) -> {
+            if (channel.closeIfIdle(now, idleExpiryMillis)) {
+                channels.remove(conversationId, channel);
+                for (String kind : STREAMED_KINDS) {
+                    localSubscriptions.unsubscribe(INTEREST_SESSION, destination(conversationId, kind));
+                }
+                return;
+            }
+            for (EventChannel.Listener listener : channel.listeners()) {
+                if (listener instanceof SseSubscriber subscriber) {
+                    sseExecutor.execute(() -> subscriber.maintain(now));
+                }
+            }
+        });
+        verifiedParticipants.values().removeIf(verifiedAt -> now - verifiedAt > participantRecheckMillis);
+    }
+
+    int channelCount() {
+        return channels.size();
+    }
+
+    private EventChannel channel(UUID conversationId) {
+        EventChannel channel = channels.computeIfAbsent(conversationId, id -> {
+            for (String kind : STREAMED_KINDS) {
+                String destination = destination(id, kind);
+                localSubscriptions.subscribe(INTEREST_SESSION, destination, destination);
+            }
+            return new EventChannel(nodeToken + "." + generations.incrementAndGet(), ringCapacity, clock.getAsLong());
+        });
+        channel.touch(clock.getAsLong());
+        return channel;
+    }
+
+    // Sequence number the cursor points at, or -1 when the client must start over
+    private static long position(EventChannel channel, String cursor) {
+        if (cursor == null || cursor.isBlank()) return -1;
+
+        int dot = cursor.lastIndexOf('.');
+        if (dot < 0 || !cursor.substring(0, dot).equals(channel.token())) return -1;
+        try {
+            long seq = Long.parseLong(cursor.substring(dot + 1));
+            return channel.readAfter(seq, 0).reset() ? -1 : seq;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String cursor(EventChannel channel, long seq) {
+        return channel.token() + "." + seq;
+    }
+
+    private static ConversationEventsDto toDto(EventChannel channel, EventChannel.Read read) {
+        List<ConversationEventDto> events = read.events().stream()
+                .map(event -> new ConversationEventDto(event.type(), cursor(channel, event.seq()), event.payload()))
+                .toList();
+        long last = events.isEmpty() ? read.lastSeq() : read.events().get(events.size() - 1).seq();
+        return new ConversationEventsDto(cursor(channel, last), read.reset(), events);
+    }
+
+    private void checkParticipant(UUID conversationId, UUID userId) {
+        ParticipantKey key = new ParticipantKey(conversationId, userId);
+        Long verifiedAt = verifiedParticipants.get(key);
+        long now = clock.getAsLong();
+        if (verifiedAt != null && now - verifiedAt <= participantRecheckMillis) return;
+
+        if (userId == null || !conversationRepository.isParticipant(conversationId, userId)) {
+            throw new AccessDeniedException("User is not a participant in this conversation");
+        }
+        verifiedParticipants.put(key, now);
+    }
+
+    private static String destination(UUID conversationId, String kind) {
+        return DESTINATION_PREFIX + conversationId + "/" + kind;
+    }
+
+    private static String eventType(String kind) {
+        return switch (kind) {
+            case "messages" -> "message";
+            case "receipts" -> "receipt";
+            default -> kind;
+        };
+    }
+
+    private record ParticipantKey(UUID conversationId, UUID userId) {
+    }
+
+    /**
+     * One SSE connection. Appends only schedule a drain; the drain reads from the ring on an
+     * executor thread, so at most one task per subscriber is ever running.
+     */
+    private final class SseSubscriber implements EventChannel.Listener {
+
+        private final EventChannel channel;
+        private final SseEmitter emitter;
+        private final UUID conversationId;
+        private final UUID userId;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long seq;
+        private volatile long verifiedAt;
+
+        SseSubscriber(EventChannel channel, SseEmitter emitter, UUID conversationId, UUID userId, long seq) {
+            this.channel = channel;
+            this.emitter = emitter;
+            this.conversationId = conversationId;
+            this.userId = userId;
+            this.seq = seq;
+            this.verifiedAt = clock.getAsLong();
+        }
+
+        @Override
+        public void onAppend(EventChannel c) {
+            schedule();
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                sseExecutor.execute(this::drain);
+            }
+        }
+
+        boolean sendMarker(String name) {
+            return send(SseEmitter.event().id(cursor(channel, seq)).name(name).data(""));
+        }
+
+        // A stream outlives the check made when it opened, so participation is checked again
+        void maintain(long now) {
+            if (now - verifiedAt > participantRecheckMillis) {
+                if (!conversationRepository.isParticipant(conversationId, userId)) {
+                    channel.removeListener(this);
+                    emitter.complete();
+                    return;
+                }
+                verifiedAt = now;
+            }
+            send(SseEmitter.event().comment("keepalive"));
+        }
+
+        private void drain() {
+            while (true) {
+                EventChannel.Read read = channel.readAfter(seq, MAX_BATCH);
+                if (read.reset()) {
+                    // Fell behind the ring; skip to the head and tell the client to reload
+                    seq = read.lastSeq();
+                    if (!sendMarker("reset")) return;
+                    continue;
+                }
+                if (read.events().isEmpty()) break;
+
+                for (StreamEvent event : read.events()) {
+                    if (!send(SseEmitter.event().id(cursor(channel, event.seq())).name(event.type()).data(event.payload()))) {
+                        return;
+                    }
+                    seq = event.seq();
+                }
+            }
+
+            scheduled.set(false);
+            if (channel.lastSeq() > seq) {
+                schedule();
+            }
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                channel.removeListener(this);
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
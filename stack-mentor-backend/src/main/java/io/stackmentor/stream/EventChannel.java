@@ -0,0 +1,103 @@
+package io.stackmentor.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recent broadcasts for one conversation in a fixed ring, numbered from 1. Listeners are told
+ * about appends outside the lock and read what they need themselves, so a slow reader never
+ * holds up the broadcasting thread.
+ */
+final class EventChannel {
+
+    interface Listener {
+        void onAppend(EventChannel channel);
+    }
+
+    record Read(List<StreamEvent> events, boolean reset, long lastSeq) {
+    }
+
+    private final String token;
+    private final StreamEvent[] ring;
+    private final List<Listener> listeners = new ArrayList<>();
+    private long lastSeq;
+    private long lastActivity;
+    private boolean closed;
+
+    EventChannel(String token, int capacity, long now) {
+        this.token = token;
+        this.ring = new StreamEvent[capacity];
+        this.lastActivity = now;
+    }
+
+    String token() {
+        return token;
+    }
+
+    void append(String type, String payload) {
+        List<Listener> toNotify;
+        synchronized (this) {
+            lastSeq++;
+            ring[(int) (lastSeq % ring.length)] = new StreamEvent(lastSeq, type, payload);
+            toNotify = listeners.isEmpty() ? List.of() : List.copyOf(listeners);
+        }
+        for (Listener listener : toNotify) {
+            listener.onAppend(this);
+        }
+    }
+
+    synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Up to {@code max} events after {@code seq}. A cursor that has fallen out of the ring, or
+     * that this channel never issued, comes back as a reset.
+     */
+    synchronized Read readAfter(long seq, int max) {
+        long oldest = Math.max(1, lastSeq - ring.length + 1);
+        if (seq < oldest - 1 || seq > lastSeq) {
+            return new Read(List.of(), true, lastSeq);
+        }
+
+        int count = (int) Math.min(max, lastSeq - seq);
+        List<StreamEvent> events = new ArrayList<>(count);
+        for (long s = seq + 1; s <= seq + count; s++) {
+            events.add(ring[(int) (s % ring.length)]);
+        }
+        return new Read(events, false, lastSeq);
+    }
+
+    // Check and register under one lock so an append in between cannot be missed
+    synchronized boolean parkIfCaughtUp(long seq, Listener listener) {
+        if (closed || lastSeq > seq) return false;
+        listeners.add(listener);
+        return true;
+    }
+
+    synchronized boolean addListener(Listener listener) {
+        if (closed) return false;
+        listeners.add(listener);
+        return true;
+    }
+
+    synchronized void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    synchronized void touch(long now) {
+        lastActivity = now;
+    }
+
+    synchronized List<Listener> listeners() {
+        return List.copyOf(listeners);
+    }
+
+    // Once closed, attaching fails and the hub opens a fresh channel instead
+    synchronized boolean closeIfIdle(long now, long idleMillis) {
+        if (listeners.isEmpty() && now - lastActivity > idleMillis) {
+            closed = true;
+        }
+        return closed;
+    }
+}
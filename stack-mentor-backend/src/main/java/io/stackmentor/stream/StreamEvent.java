@@ -0,0 +1,5 @@
+package io.stackmentor.stream;
+
+// One broadcast as buffered for SSE and long-poll clients; payload is the JSON sent over STOMP
+record StreamEvent(long seq, String type, String payload) {
+}
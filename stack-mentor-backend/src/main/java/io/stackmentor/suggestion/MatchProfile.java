@@ -0,0 +1,23 @@
+package io.stackmentor.suggestion;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * The fields suggestions are scored on. For a mentor {@code topics} are their skills, for a
+ * mentee their interests, both lower-cased.
+ */
+public record MatchProfile(UUID userId, Set<String> topics, String industry, Integer yearsOfExperience,
+                           Double latitude, Double longitude) {
+
+    // Skills and interests are stored joined with ", "
+    public static Set<String> topics(String joined) {
+        if (joined == null || joined.isBlank()) return Set.of();
+        return Arrays.stream(joined.split(","))
+                .map(topic -> topic.trim().toLowerCase())
+                .filter(topic -> !topic.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,93 @@
+package io.stackmentor.suggestion;
+
+import io.stackmentor.index.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Scores mentors for a mentee between 0 and 1: how many of the mentee's interests the mentor
+ * covers, a shared industry, how much more experienced the mentor is, and how close they are.
+ */
+public final class MentorMatcher {
+
+    static final float TOPIC_WEIGHT = 0.45f;
+    static final float INDUSTRY_WEIGHT = 0.2f;
+    static final float EXPERIENCE_WEIGHT = 0.15f;
+    static final float PROXIMITY_WEIGHT = 0.2f;
+
+    // Ten years ahead of the mentee counts fully; more does not score higher
+    static final int EXPERIENCE_GAP_CAP = 10;
+
+    // Proximity halves at this distance
+    static final double PROXIMITY_HALF_KM = 50;
+
+    // Best first; equal scores in mentor id order so reruns produce identical lists
+    static final Comparator<ScoredMentor> BEST_FIRST = Comparator
+            .comparing(ScoredMentor::score, Comparator.reverseOrder())
+            .thenComparing(ScoredMentor::mentorId);
+
+    private MentorMatcher() {
+    }
+
+    public static float score(MatchProfile mentee, MatchProfile mentor) {
+        float score = 0;
+
+        if (!mentee.topics().isEmpty()) {
+            long covered = mentee.topics().stream().filter(mentor.topics()::contains).count();
+            score += TOPIC_WEIGHT * covered / mentee.topics().size();
+        }
+
+        if (mentee.industry() != null && mentee.industry().equalsIgnoreCase(mentor.industry())) {
+            score += INDUSTRY_WEIGHT;
+        }
+
+        if (mentor.yearsOfExperience() != null) {
+            int gap = mentor.yearsOfExperience()
+                    - (mentee.yearsOfExperience() != null ? mentee.yearsOfExperience() : 0);
+            score += EXPERIENCE_WEIGHT * Math.max(0, Math.min(gap, EXPERIENCE_GAP_CAP)) / EXPERIENCE_GAP_CAP;
+        }
+
+        if (mentee.latitude() != null && mentee.longitude() != null
+                && mentor.latitude() != null && mentor.longitude() != null) {
+            double km = new GeoPoint(mentee.latitude(), mentee.longitude())
+                    .distanceKm(mentor.latitude(), mentor.longitude());
+            score += (float) (PROXIMITY_WEIGHT / (1 + km / PROXIMITY_HALF_KM));
+        }
+
+        return score;
+    }
+
+    // Best mentors up to the limit, keeping a bounded heap rather than sorting everyone
+    public static List<ScoredMentor> rank(MatchProfile mentee, Collection<MatchProfile> mentors, int limit) {
+        PriorityQueue<ScoredMentor> best = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+        for (MatchProfile mentor : mentors) {
+            if (mentor.userId().equals(mentee.userId())) continue;
+
+            best.add(new ScoredMentor(mentor.userId(), score(mentee, mentor)));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<ScoredMentor> ranked = new ArrayList<>(best);
+        ranked.sort(BEST_FIRST);
+        return ranked;
+    }
+
+    /**
+     * Folds changed mentors into a stored list, for mentees whose own profile did not change.
+     * Only valid when none of {@code changed} is already on the list: a listed mentor whose
+     * score dropped may now belong below mentors that are not stored, which needs a full rank.
+     */
+    public static List<ScoredMentor> merge(MatchProfile mentee, List<ScoredMentor> stored,
+                                           Collection<MatchProfile> changed, int limit) {
+        List<ScoredMentor> merged = new ArrayList<>(stored);
+        merged.addAll(rank(mentee, changed, limit));
+        merged.sort(BEST_FIRST);
+        return merged.size() > limit ? List.copyOf(merged.subList(0, limit)) : merged;
+    }
+}
@@ -0,0 +1,6 @@
+package io.stackmentor.suggestion;
+
+import java.util.UUID;
+
+public record ScoredMentor(UUID mentorId, float score) {
+}
@@ -0,0 +1,113 @@
+package io.stackmentor.analytics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.stackmentor.analytics.ActivityRollups.ConversationHour;
+import io.stackmentor.dto.message.MessageDto;
+import io.stackmentor.dto.message.ReadReceiptDto;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.event.MessageSentEvent;
+import io.stackmentor.event.MessagesReadEvent;
+import io.stackmentor.repository.ActivityRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityRollupsTest {
+
+    @Mock
+    private ActivityRollupRepository rollupRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ActivityRollups rollups;
+
+    private final UUID conversationId = UUID.randomUUID();
+    private final UUID mentee = UUID.randomUUID();
+    private final UUID mentor = UUID.randomUUID();
+    // Today, so the sketches are still open
+    private final LocalDateTime nine = LocalDate.now().atTime(LocalTime.of(9, 0));
+
+    @BeforeEach
+    void setUp() {
+        rollups = new ActivityRollups(meterRegistry, Duration.ofDays(7));
+        ReflectionTestUtils.setField(rollups, "rollupRepository", rollupRepository);
+    }
+
+    private MessageSentEvent sent(UUID senderId, RoleType role, LocalDateTime sentAt) {
+        return new MessageSentEvent(MessageDto.builder()
+                .conversationId(conversationId).senderId(senderId).sentAt(sentAt).build(), role);
+    }
+
+    @Test
+    void flush_writesHourlyCountsPerConversation() {
+        rollups.onMessageSent(sent(mentee, RoleType.MENTEE, nine.plusMinutes(5)));
+        rollups.onMessageSent(sent(mentee, RoleType.MENTEE, nine.plusMinutes(50)));
+        rollups.onMessageSent(sent(mentor, RoleType.MENTOR, nine.plusMinutes(70)));
+        rollups.onMessagesRead(new MessagesReadEvent(new ReadReceiptDto(conversationId, mentor,
+                List.of(UUID.randomUUID(), UUID.randomUUID()), nine.plusMinutes(45))));
+
+        rollups.flush();
+
+        verify(rollupRepository).addGroupActivity(Map.of(
+                new ConversationHour(conversationId, nine), new HourlyActivity(2, 2),
+                new ConversationHour(conversationId, nine.plusHours(1)), new HourlyActivity(1, 0)));
+    }
+
+    @Test
+    void mentorReply_isTimedFromTheFirstUnansweredMenteeMessage() {
+        rollups.onMessageSent(sent(mentee, RoleType.MENTEE, nine));
+        rollups.onMessageSent(sent(mentee, RoleType.MENTEE, nine.plusMinutes(2)));
+        rollups.onMessageSent(sent(mentor, RoleType.MENTOR, nine.plusMinutes(4)));
+        // Already answered: a second mentor message is not another response
+        rollups.onMessageSent(sent(mentor, RoleType.MENTOR, nine.plusMinutes(6)));
+
+        rollups.flush();
+
+        verify(rollupRepository).addMentorResponses(Map.of(nine, new ResponseStats(1, 240, 1, 1, 1)));
+    }
+
+    @Test
+    void flush_writesDailySketchOnlyWhenItChanged() {
+        rollups.onMessageSent(sent(mentee, RoleType.MENTEE, nine));
+        rollups.onMessageSent(sent(mentor, RoleType.MENTOR, nine.plusMinutes(1)));
+
+        rollups.flush();
+        rollups.onMessageSent(sent(mentee, RoleType.MENTEE, nine.plusMinutes(2)));
+        rollups.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<LocalDate, byte[]>> sketches = ArgumentCaptor.forClass(Map.class);
+        verify(rollupRepository, times(1)).saveActiveUserSketches(any(), sketches.capture());
+        assertEquals(2, HyperLogLog.fromBytes(sketches.getValue().get(nine.toLocalDate())).estimate());
+    }
+
+    @Test
+    void flush_keepsCountsWhenTheWriteFails() {
+        rollups.onMessageSent(sent(mentee, RoleType.MENTEE, nine));
+        doThrow(new RuntimeException("database down")).when(rollupRepository).addGroupActivity(anyMap());
+
+        rollups.flush();
+        rollups.onMessageSent(sent(mentee, RoleType.MENTEE, nine.plusMinutes(1)));
+        doNothing().when(rollupRepository).addGroupActivity(anyMap());
+        rollups.flush();
+
+        verify(rollupRepository).addGroupActivity(Map.of(new ConversationHour(conversationId, nine), new HourlyActivity(2, 0)));
+        assertEquals(1.0, meterRegistry.get("analytics.rollups.flush.failures").counter().count());
+    }
+}
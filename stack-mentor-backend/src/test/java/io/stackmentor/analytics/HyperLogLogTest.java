@@ -0,0 +1,64 @@
+package io.stackmentor.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    private static UUID id(Random random) {
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+
+    @Test
+    void estimate_staysWithinFewPercentFromTensToHundredsOfThousands() {
+        Random random = new Random(7);
+        HyperLogLog sketch = new HyperLogLog();
+        int added = 0;
+        for (int target : new int[]{50, 1_000, 20_000, 300_000}) {
+            while (added < target) {
+                sketch.add(id(random));
+                added++;
+            }
+            assertEquals(target, sketch.estimate(), target * 0.05, "estimate for " + target);
+        }
+    }
+
+    @Test
+    void add_ignoresRepeatsOfTheSameUser() {
+        HyperLogLog sketch = new HyperLogLog();
+        UUID user = UUID.randomUUID();
+
+        assertTrue(sketch.add(user));
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(sketch.add(user));
+        }
+        assertEquals(1, sketch.estimate());
+    }
+
+    @Test
+    void merge_countsTheUnionOnceAndRoundTripsThroughBytes() {
+        Random random = new Random(11);
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        for (int i = 0; i < 10_000; i++) {
+            UUID user = id(random);
+            monday.add(user);
+            // Half of Monday's users come back
+            if (i % 2 == 0) tuesday.add(user);
+        }
+        for (int i = 0; i < 5_000; i++) {
+            tuesday.add(id(random));
+        }
+
+        HyperLogLog week = HyperLogLog.fromBytes(monday.toBytes());
+        week.merge(HyperLogLog.fromBytes(tuesday.toBytes()));
+
+        assertEquals(15_000, week.estimate(), 15_000 * 0.05);
+        assertEquals(HyperLogLog.REGISTERS, week.toBytes().length);
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[16]));
+    }
+}
@@ -0,0 +1,51 @@
+package io.stackmentor.cache;
+
+import io.stackmentor.dto.user.UserSummaryDto;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.specification.ExperienceRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserSearchKeyTest {
+
+    private final UserSummaryDto mentor = UserSummaryDto.builder()
+            .firstName("Master")
+            .lastName("Admin")
+            .role(RoleType.MENTOR)
+            .industry("Tech")
+            .yearsOfExperience(6)
+            .build();
+
+    @Test
+    void equivalentFiltersProduceEqualKeys() {
+        UserSearchKey first = UserSearchKey.of(" Java ", "MENTOR", ExperienceRange.parse("2-5"),
+                List.of("Tech", "Finance"), null, 20);
+        UserSearchKey second = UserSearchKey.of("java", "mentor", ExperienceRange.parse(" 2 - 5 "),
+                List.of("finance", "TECH"), null, 20);
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    void couldContain_matchesUserSatisfyingEveryFilter() {
+        UserSearchKey key = UserSearchKey.of("adm", "MENTOR", ExperienceRange.parse("5+"),
+                List.of("tech"), null, 20);
+
+        assertTrue(key.couldContain(mentor));
+    }
+
+    @Test
+    void couldContain_skipsEntriesForOtherRolesIndustriesAndExperience() {
+        assertFalse(UserSearchKey.of(null, "MENTEE", ExperienceRange.ANY, null, null, 20)
+                .couldContain(mentor));
+        assertFalse(UserSearchKey.of(null, null, ExperienceRange.ANY, List.of("finance"), null, 20)
+                .couldContain(mentor));
+        assertFalse(UserSearchKey.of(null, null, ExperienceRange.parse("10+"), null, null, 20)
+                .couldContain(mentor));
+        assertFalse(UserSearchKey.of("zed", null, ExperienceRange.ANY, null, null, 20)
+                .couldContain(mentor));
+    }
+}
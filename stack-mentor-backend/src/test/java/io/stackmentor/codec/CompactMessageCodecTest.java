@@ -0,0 +1,122 @@
+package io.stackmentor.codec;
+
+import io.stackmentor.dto.message.CompactMessagesDto;
+import io.stackmentor.dto.message.CompactSyncResponseDto;
+import io.stackmentor.dto.message.ConversationDeltaDto;
+import io.stackmentor.dto.message.MessageDto;
+import io.stackmentor.dto.message.SyncResponseDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactMessageCodecTest {
+
+    private final CompactMessageCodec codec = new CompactMessageCodec();
+
+    private final UUID conversationId = UUID.randomUUID();
+    private final UUID ada = UUID.randomUUID();
+    private final UUID grace = UUID.randomUUID();
+    private final LocalDateTime start = LocalDateTime.of(2025, 3, 1, 12, 0, 0, 123_456_000);
+
+    private MessageDto message(UUID senderId, String senderName, LocalDateTime sentAt, long seq) {
+        return MessageDto.builder()
+                .messageId(UUID.randomUUID())
+                .conversationId(conversationId)
+                .seq(seq)
+                .changeSeq(seq)
+                .senderId(senderId)
+                .senderName(senderName)
+                .content("message " + seq)
+                .sentAt(sentAt)
+                .build();
+    }
+
+    private static void assertSameMessage(MessageDto expected, MessageDto actual) {
+        assertEquals(expected.getMessageId(), actual.getMessageId());
+        assertEquals(expected.getConversationId(), actual.getConversationId());
+        assertEquals(expected.getSeq(), actual.getSeq());
+        assertEquals(expected.getChangeSeq(), actual.getChangeSeq());
+        assertEquals(expected.getSenderId(), actual.getSenderId());
+        assertEquals(expected.getSenderName(), actual.getSenderName());
+        assertEquals(expected.getContent(), actual.getContent());
+        assertEquals(expected.getMediaUrl(), actual.getMediaUrl());
+        assertEquals(expected.getSentAt(), actual.getSentAt());
+        assertEquals(expected.getEditedAt(), actual.getEditedAt());
+        assertEquals(expected.getDeletedAt(), actual.getDeletedAt());
+        assertEquals(expected.isDeleted(), actual.isDeleted());
+        assertEquals(expected.isRead(), actual.isRead());
+    }
+
+    @Test
+    void history_roundTripsThroughCborWithSendersInADictionary() {
+        MessageDto edited = message(ada, "Ada Lovelace", start, 3);
+        edited.setEditedAt(start.plusMinutes(5));
+        edited.setRead(true);
+        edited.setMediaUrl("https://cdn.example/a.png, https://cdn.example/b.png");
+        MessageDto deleted = message(grace, "Grace Hopper", start.minusSeconds(40), 2);
+        deleted.setContent(null);
+        deleted.setDeleted(true);
+        deleted.setDeletedAt(start.plusHours(1));
+        // History comes newest first, so deltas can be negative
+        List<MessageDto> history = List.of(edited, deleted, message(ada, "Ada Lovelace", start.minusMinutes(3), 1));
+
+        CompactMessagesDto compact = codec.encode(conversationId, history);
+        CompactMessagesDto wire = codec.fromCbor(codec.toCbor(compact), CompactMessagesDto.class);
+
+        assertEquals(2, wire.getSenders().size());
+        assertEquals(0, wire.getMessages().get(2).getSender());
+        assertEquals(List.of("https://cdn.example/a.png", "https://cdn.example/b.png"),
+                wire.getMessages().get(0).getMedia());
+        List<MessageDto> decoded = codec.decode(wire);
+        assertEquals(history.size(), decoded.size());
+        for (int i = 0; i < history.size(); i++) {
+            assertSameMessage(history.get(i), decoded.get(i));
+        }
+    }
+
+    @Test
+    void sync_sharesDictionaryAndTimestampChainAcrossConversations() {
+        UUID other = UUID.randomUUID();
+        MessageDto first = message(ada, "Ada Lovelace", start, 10);
+        MessageDto second = message(ada, "Ada Lovelace", start.plusSeconds(2), 4);
+        second.setConversationId(other);
+        SyncResponseDto response = new SyncResponseDto(List.of(
+                new ConversationDeltaDto(conversationId, 10, List.of(first), false),
+                new ConversationDeltaDto(other, 9, List.of(second), true)),
+                List.of(UUID.randomUUID()));
+
+        CompactSyncResponseDto wire = codec.fromCbor(codec.toCbor(codec.encode(response)), CompactSyncResponseDto.class);
+        SyncResponseDto decoded = codec.decode(wire);
+
+        assertEquals(1, wire.getSenders().size());
+        assertEquals(2_000_000L, wire.getConversations().get(1).getChanges().get(0).getSentAt());
+        assertEquals(response.getRemovedConversationIds(), decoded.getRemovedConversationIds());
+        assertTrue(decoded.getConversations().get(1).isHasMore());
+        assertEquals(9, decoded.getConversations().get(1).getLastSeq());
+        assertSameMessage(first, decoded.getConversations().get(0).getChanges().get(0));
+        assertSameMessage(second, decoded.getConversations().get(1).getChanges().get(0));
+    }
+
+    @Test
+    void emptyPayloadsAndMessagesWithoutSenderOrTimestamp() {
+        MessageDto bare = MessageDto.builder().messageId(UUID.randomUUID()).conversationId(conversationId).build();
+
+        List<MessageDto> decoded = codec.decode(codec.fromCbor(
+                codec.toCbor(codec.encode(conversationId, List.of(bare))), CompactMessagesDto.class));
+
+        assertSameMessage(bare, decoded.get(0));
+        assertTrue(codec.decode(codec.encode(conversationId, List.of())).isEmpty());
+    }
+
+    @Test
+    void micros_roundTripBeforeAndAfterTheEpoch() {
+        LocalDateTime before = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000);
+        assertEquals(-1L, CompactMessageCodec.toMicros(before));
+        assertEquals(before, CompactMessageCodec.fromMicros(-1L));
+        assertEquals(start, CompactMessageCodec.fromMicros(CompactMessageCodec.toMicros(start)));
+    }
+}
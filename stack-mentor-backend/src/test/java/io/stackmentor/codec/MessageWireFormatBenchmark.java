@@ -0,0 +1,126 @@
+package io.stackmentor.codec;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.stackmentor.dto.message.CompactMessagesDto;
+import io.stackmentor.dto.message.MessageDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bytes on the wire and serialization CPU for a page of history, verbose JSON against the
+ * compact CBOR format. Run with {@code ./gradlew benchmark}; the regular test task skips it.
+ */
+@Tag("benchmark")
+class MessageWireFormatBenchmark {
+
+    private static final int MESSAGES = 200;
+    private static final int SENDERS = 4;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+
+    // Configured like Spring Boot's mapper: ISO timestamps, not epoch numbers
+    private final ObjectMapper jsonMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final CompactMessageCodec codec = new CompactMessageCodec();
+
+    private static List<MessageDto> history() {
+        Random random = new Random(42);
+        UUID conversationId = UUID.randomUUID();
+        List<UUID> senders = new ArrayList<>();
+        for (int i = 0; i < SENDERS; i++) {
+            senders.add(UUID.randomUUID());
+        }
+
+        List<MessageDto> messages = new ArrayList<>(MESSAGES);
+        LocalDateTime sentAt = LocalDateTime.of(2025, 3, 1, 12, 0, 0, 123_456_000);
+        for (int i = MESSAGES; i > 0; i--) {
+            int sender = random.nextInt(SENDERS);
+            sentAt = sentAt.minusNanos(random.nextInt(600_000) * 1_000_000L);
+            messages.add(MessageDto.builder()
+                    .messageId(UUID.randomUUID())
+                    .conversationId(conversationId)
+                    .seq((long) i)
+                    .changeSeq((long) i)
+                    .senderId(senders.get(sender))
+                    .senderName("Mentor Number" + sender)
+                    .content("Could you take a look at my Spring Boot service before the review on Thursday? #" + i)
+                    .mediaUrl(i % 5 == 0
+                            ? "https://cdn.stackmentor.io/media/" + UUID.randomUUID() + ".png, https://cdn.stackmentor.io/media/"
+                                    + UUID.randomUUID() + ".png"
+                            : null)
+                    .sentAt(sentAt)
+                    .editedAt(i % 7 == 0 ? sentAt.plusSeconds(30) : null)
+                    .isRead(i > 20)
+                    .build());
+        }
+        return messages;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (var gzip = new java.util.zip.GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static double microsPerOp(Supplier<?> operation) {
+        Object sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = operation.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = operation.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertNotNull(sink);
+        return elapsed / 1_000.0 / ITERATIONS;
+    }
+
+    @Test
+    void historyPage_jsonVersusCompactCbor() throws IOException {
+        List<MessageDto> history = history();
+        UUID conversationId = history.get(0).getConversationId();
+
+        byte[] json = jsonMapper.writeValueAsBytes(history);
+        byte[] cbor = codec.toCbor(codec.encode(conversationId, history));
+
+        double jsonWrite = microsPerOp(() -> {
+            try {
+                return jsonMapper.writeValueAsBytes(history);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        double cborWrite = microsPerOp(() -> codec.toCbor(codec.encode(conversationId, history)));
+        double jsonRead = microsPerOp(() -> {
+            try {
+                return jsonMapper.readValue(json, new TypeReference<List<MessageDto>>() { });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        double cborRead = microsPerOp(() -> codec.decode(codec.fromCbor(cbor, CompactMessagesDto.class)));
+
+        System.out.printf("%d messages, %d senders%n", MESSAGES, SENDERS);
+        System.out.printf("%-14s %10s %10s %12s %12s%n", "format", "bytes", "gzipped", "write us/op", "read us/op");
+        System.out.printf("%-14s %10d %10d %12.1f %12.1f%n", "json", json.length, gzip(json).length, jsonWrite, jsonRead);
+        System.out.printf("%-14s %10d %10d %12.1f %12.1f%n", "compact cbor", cbor.length, gzip(cbor).length, cborWrite, cborRead);
+
+        assertTrue(cbor.length < json.length * 0.6, "compact payload should be well under the JSON size");
+    }
+}
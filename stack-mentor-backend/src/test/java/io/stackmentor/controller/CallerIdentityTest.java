@@ -0,0 +1,222 @@
+package io.stackmentor.controller;
+
+import io.stackmentor.codec.CompactMessageCodec;
+import io.stackmentor.dto.message.SendMessageDto;
+import io.stackmentor.dto.presence.TypingDto;
+import io.stackmentor.presence.PresenceRegistry;
+import io.stackmentor.security.ConversationAccess;
+import io.stackmentor.security.JwtTokenService;
+import io.stackmentor.service.GroupService;
+import io.stackmentor.service.MentorSuggestionService;
+import io.stackmentor.service.MessageSearchService;
+import io.stackmentor.service.MessageService;
+import io.stackmentor.service.MessageSyncService;
+import io.stackmentor.service.UserService;
+import io.stackmentor.stream.ConversationStreamHub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A token for user A must never let its holder act as user B, whatever ids the request names.
+ */
+@ExtendWith(MockitoExtension.class)
+class CallerIdentityTest {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private MessageSearchService messageSearchService;
+
+    @Mock
+    private MessageSyncService messageSyncService;
+
+    @Mock
+    private ConversationStreamHub streamHub;
+
+    @Mock
+    private CompactMessageCodec compactMessageCodec;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private MentorSuggestionService mentorSuggestionService;
+
+    @Mock
+    private GroupService groupService;
+
+    @Mock
+    private PresenceRegistry presenceRegistry;
+
+    @Mock
+    private ConversationAccess conversationAccess;
+
+    @InjectMocks
+    private ConversationController conversationController;
+
+    @InjectMocks
+    private UserController userController;
+
+    @InjectMocks
+    private GroupController groupController;
+
+    @InjectMocks
+    private ChatController chatController;
+
+    @InjectMocks
+    private PresenceController presenceController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(conversationController, userController, groupController)
+                .setControllerAdvice(new AuthenticationExceptionHandler())
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(tokenFor(alice));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static Authentication tokenFor(UUID userId) {
+        Jwt jwt = Jwt.withTokenValue("token-" + userId).header("alg", "HS256").subject(userId.toString())
+                .claim("role", "mentee").claim("position", "member")
+                .expiresAt(Instant.now().plusSeconds(60)).build();
+        return JwtTokenService.toAuthentication(jwt);
+    }
+
+    @Test
+    void sendMessage_ignoresSenderNamedInTheBody() throws Exception {
+        UUID conversationId = UUID.randomUUID();
+
+        mockMvc.perform(post("/api/conversations/{id}/messages", conversationId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"senderId\":\"" + bob + "\",\"content\":\"Hi\"}"))
+                .andExpect(status().isOk());
+
+        verify(messageService).sendMessage(eq(conversationId), eq(alice), any(SendMessageDto.class));
+    }
+
+    @Test
+    void deleteMessage_checksAuthorshipAgainstTheTokenNotTheQuery() throws Exception {
+        UUID conversationId = UUID.randomUUID();
+        UUID messageId = UUID.randomUUID();
+
+        mockMvc.perform(delete("/api/conversations/{id}/messages/{messageId}", conversationId, messageId)
+                        .param("userId", bob.toString()))
+                .andExpect(status().isNoContent());
+
+        verify(messageService).deleteMessage(conversationId, messageId, alice);
+    }
+
+    @Test
+    void searchAndHistory_readAsTheTokenSubject() throws Exception {
+        UUID conversationId = UUID.randomUUID();
+
+        mockMvc.perform(get("/api/conversations/search").param("q", "hello").param("userId", bob.toString()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/conversations/{id}/messages", conversationId).param("userId", bob.toString()))
+                .andExpect(status().isOk());
+
+        verify(messageSearchService).search(eq(alice), eq("hello"), isNull(), isNull(), isNull());
+        verify(messageService).getConversationHistory(eq(conversationId), eq(alice), isNull(), isNull(), isNull());
+    }
+
+    @Test
+    void updateProfile_forAnotherUserIsForbidden() throws Exception {
+        mockMvc.perform(put("/api/users/{userId}/profile", bob)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bio\":\"hijacked\"}"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void updateProfile_forSelfGoesThrough() throws Exception {
+        mockMvc.perform(put("/api/users/{userId}/profile", alice)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bio\":\"hello\"}"))
+                .andExpect(status().isOk());
+
+        verify(userService).updateUserProfile(eq(alice), any());
+    }
+
+    @Test
+    void suggestedMentors_forAnotherUserIsForbidden() throws Exception {
+        mockMvc.perform(get("/api/users/{userId}/suggested-mentors", bob))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(mentorSuggestionService);
+    }
+
+    @Test
+    void bulkAdd_byNonAdminIsForbidden() throws Exception {
+        UUID groupId = UUID.randomUUID();
+        when(groupService.addUsersToGroup(eq(groupId), eq(alice), anyList(), any()))
+                .thenThrow(new AccessDeniedException("Only group admins can change membership in bulk"));
+
+        mockMvc.perform(post("/api/groups/{groupId}/members/bulk-add", groupId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\":[\"" + bob + "\"]}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void stompFrames_actAsTheSessionUser() {
+        UUID conversationId = UUID.randomUUID();
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        headers.setSessionId("session-1");
+
+        chatController.send(conversationId, new SendMessageDto("Hi", null), tokenFor(alice));
+        presenceController.heartbeat(tokenFor(alice), headers);
+
+        verify(messageService).sendMessage(eq(conversationId), eq(alice), any(SendMessageDto.class));
+        verify(presenceRegistry).heartbeat(alice);
+    }
+
+    @Test
+    void typing_inAConversationTheCallerIsNotInIsRejected() {
+        UUID conversationId = UUID.randomUUID();
+        doThrow(new AccessDeniedException("User is not a participant in this conversation"))
+                .when(conversationAccess).requireParticipant(conversationId, alice);
+
+        assertThrows(AccessDeniedException.class,
+                () -> presenceController.typing(new TypingDto(conversationId, true), tokenFor(alice)));
+        verifyNoInteractions(presenceRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+package io.stackmentor.converter;
+
+import io.stackmentor.enums.GroupMemberType;
+import io.stackmentor.enums.PositionType;
+import io.stackmentor.enums.RoleType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnumValueConverterTest {
+
+    @Test
+    void writesTheLowercaseValueTheSchemaChecks() {
+        assertEquals("mentor", new RoleTypeConverter().convertToDatabaseColumn(RoleType.MENTOR));
+        assertEquals("moderator", new PositionTypeConverter().convertToDatabaseColumn(PositionType.MODERATOR));
+        assertEquals("admin", new GroupMemberTypeConverter().convertToDatabaseColumn(GroupMemberType.ADMIN));
+    }
+
+    @Test
+    void readsRowsWrittenByTheJdbcWriters() {
+        assertEquals(RoleType.MENTEE, new RoleTypeConverter().convertToEntityAttribute("mentee"));
+        assertEquals(PositionType.MEMBER, new PositionTypeConverter().convertToEntityAttribute("member"));
+        assertEquals(GroupMemberType.ADMIN, new GroupMemberTypeConverter().convertToEntityAttribute("admin"));
+    }
+
+    @Test
+    void nullsPassThrough_andUnknownValuesFail() {
+        RoleTypeConverter converter = new RoleTypeConverter();
+
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute("MENTOR"));
+    }
+}
@@ -0,0 +1,138 @@
+package io.stackmentor.counter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.stackmentor.dto.message.MessageDto;
+import io.stackmentor.event.GroupMembershipChangedEvent;
+import io.stackmentor.event.MessageSentEvent;
+import io.stackmentor.repository.GroupDiscoveryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupActivityCountersTest {
+
+    @Mock
+    private GroupDiscoveryRepository groupDiscoveryRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GroupActivityCounters counters;
+
+    private final UUID busyGroup = UUID.randomUUID();
+    private final UUID quietGroup = UUID.randomUUID();
+    private final UUID conversationId = UUID.randomUUID();
+    private final LocalDateTime noon = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        counters = new GroupActivityCounters(meterRegistry);
+        ReflectionTestUtils.setField(counters, "groupDiscoveryRepository", groupDiscoveryRepository);
+        ReflectionTestUtils.setField(counters, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    private static GroupMembershipChangedEvent changed(UUID groupId, int delta) {
+        Set<UUID> users = Stream.generate(UUID::randomUUID).limit(Math.abs(delta)).collect(Collectors.toSet());
+        return delta >= 0 ? GroupMembershipChangedEvent.joined(groupId, users) : GroupMembershipChangedEvent.left(groupId, users);
+    }
+
+    private static MessageSentEvent sent(UUID conversationId, LocalDateTime sentAt) {
+        return new MessageSentEvent(MessageDto.builder().conversationId(conversationId).sentAt(sentAt).build(), null);
+    }
+
+    @Test
+    void flush_appliesNetDeltasAndNewestActivityInOneBatchEach() {
+        counters.onMembershipChanged(changed(busyGroup, 1));
+        counters.onMembershipChanged(changed(busyGroup, 25));
+        counters.onMembershipChanged(changed(busyGroup, -3));
+        // Joined and left again: nothing to write
+        counters.onMembershipChanged(changed(quietGroup, 1));
+        counters.onMembershipChanged(changed(quietGroup, -1));
+        counters.onMessageSent(sent(conversationId, noon.plusSeconds(5)));
+        counters.onMessageSent(sent(conversationId, noon));
+
+        counters.flush();
+
+        verify(groupDiscoveryRepository).addMemberCounts(Map.of(busyGroup, 23));
+        verify(groupDiscoveryRepository).touchActivity(Map.of(conversationId, noon.plusSeconds(5)));
+
+        // Everything was drained
+        counters.flush();
+        verifyNoMoreInteractions(groupDiscoveryRepository);
+    }
+
+    @Test
+    void flush_keepsChangesForTheNextFlushWhenTheWriteFails() {
+        counters.onMembershipChanged(changed(busyGroup, 2));
+        counters.onMessageSent(sent(conversationId, noon));
+        doThrow(new RuntimeException("database down")).when(groupDiscoveryRepository).addMemberCounts(anyMap());
+
+        counters.flush();
+        counters.onMembershipChanged(changed(busyGroup, 1));
+        doNothing().when(groupDiscoveryRepository).addMemberCounts(anyMap());
+        counters.flush();
+
+        // The activity write is independent of the failed count write
+        verify(groupDiscoveryRepository).touchActivity(Map.of(conversationId, noon));
+        verify(groupDiscoveryRepository).addMemberCounts(Map.of(busyGroup, 3));
+        assertEquals(1.0, meterRegistry.get("group.counters.flush.failures").counter().count());
+    }
+
+    @Test
+    void reconcile_flushesLocalDeltasBeforeRecounting() {
+        counters.onMembershipChanged(changed(busyGroup, 1));
+        when(groupDiscoveryRepository.tryReconcileLock()).thenReturn(true);
+
+        counters.reconcile();
+
+        var inOrder = inOrder(groupDiscoveryRepository);
+        inOrder.verify(groupDiscoveryRepository).addMemberCounts(Map.of(busyGroup, 1));
+        inOrder.verify(groupDiscoveryRepository).tryReconcileLock();
+        inOrder.verify(groupDiscoveryRepository).reconcileMemberCounts();
+    }
+
+    @Test
+    void reconcile_dropsDeltasTheRecountAlreadyIncludes() {
+        when(groupDiscoveryRepository.reconcileMemberCounts()).thenReturn(1);
+        // Committed after the flush, before the recount reads the rosters
+        doAnswer(invocation -> {
+            counters.onMembershipChanged(changed(busyGroup, 2));
+            return true;
+        }).when(groupDiscoveryRepository).tryReconcileLock();
+
+        counters.reconcile();
+        counters.flush();
+
+        verify(groupDiscoveryRepository, never()).addMemberCounts(any());
+    }
+
+    @Test
+    void reconcile_leavesTheRecountToTheNodeHoldingTheLock() {
+        counters.onMembershipChanged(changed(busyGroup, 1));
+        when(groupDiscoveryRepository.tryReconcileLock()).thenReturn(false);
+
+        counters.reconcile();
+        counters.onMembershipChanged(changed(busyGroup, 2));
+        counters.flush();
+
+        verify(groupDiscoveryRepository, never()).reconcileMemberCounts();
+        verify(groupDiscoveryRepository).addMemberCounts(Map.of(busyGroup, 1));
+        verify(groupDiscoveryRepository).addMemberCounts(Map.of(busyGroup, 2));
+    }
+}
@@ -0,0 +1,147 @@
+package io.stackmentor.dataset;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Encodes rows in the text format of Postgres {@code COPY ... FROM STDIN} and hands the bytes to
+ * a sink a buffer at a time, so a table of any size streams through a fixed amount of memory.
+ * The sink may receive a row split across two buffers; COPY does not care where chunks end.
+ */
+public final class CopyRowWriter {
+
+    @FunctionalInterface
+    public interface Sink {
+        void write(byte[] bytes, int length) throws IOException;
+    }
+
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000};
+
+    private final Sink sink;
+    private byte[] buffer;
+    private int position;
+    private boolean rowStart = true;
+    private long rows;
+
+    public CopyRowWriter(Sink sink) {
+        this(sink, DEFAULT_BUFFER_SIZE);
+    }
+
+    CopyRowWriter(Sink sink, int bufferSize) {
+        this.sink = sink;
+        this.buffer = new byte[bufferSize];
+    }
+
+    public CopyRowWriter uuid(UUID value) throws IOException {
+        return value == null ? nul() : ascii(value.toString());
+    }
+
+    public CopyRowWriter text(String value) throws IOException {
+        if (value == null) return nul();
+        separator();
+        // Multi-byte UTF-8 sequences never contain ASCII bytes, so escaping byte-wise is safe
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            switch (b) {
+                case '\\' -> put2('\\', '\\');
+                case '\t' -> put2('\\', 't');
+                case '\n' -> put2('\\', 'n');
+                case '\r' -> put2('\\', 'r');
+                default -> put(b);
+            }
+        }
+        return this;
+    }
+
+    public CopyRowWriter number(long value) throws IOException {
+        return ascii(Long.toString(value));
+    }
+
+    public CopyRowWriter number(double value) throws IOException {
+        return ascii(Double.toString(value));
+    }
+
+    public CopyRowWriter bool(boolean value) throws IOException {
+        return ascii(value ? "t" : "f");
+    }
+
+    public CopyRowWriter date(LocalDate value) throws IOException {
+        return value == null ? nul() : ascii(value.toString());
+    }
+
+    // Microseconds since the epoch, written as a timestamp without time zone
+    public CopyRowWriter timestamp(long epochMicros) throws IOException {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(Math.floorDiv(epochMicros, 1_000_000),
+                Math.floorMod(epochMicros, 1_000_000) * 1_000, ZoneOffset.UTC);
+        separator();
+        digits(time.getYear(), 4);
+        put((byte) '-');
+        digits(time.getMonthValue(), 2);
+        put((byte) '-');
+        digits(time.getDayOfMonth(), 2);
+        put((byte) ' ');
+        digits(time.getHour(), 2);
+        put((byte) ':');
+        digits(time.getMinute(), 2);
+        put((byte) ':');
+        digits(time.getSecond(), 2);
+        put((byte) '.');
+        digits(time.getNano() / 1_000, 6);
+        return this;
+    }
+
+    public CopyRowWriter nul() throws IOException {
+        return ascii("\\N");
+    }
+
+    public void endRow() throws IOException {
+        put((byte) '\n');
+        rowStart = true;
+        rows++;
+    }
+
+    public void flush() throws IOException {
+        if (position > 0) {
+            sink.write(buffer, position);
+            position = 0;
+        }
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    private CopyRowWriter ascii(String value) throws IOException {
+        separator();
+        for (int i = 0; i < value.length(); i++) {
+            put((byte) value.charAt(i));
+        }
+        return this;
+    }
+
+    private void separator() throws IOException {
+        if (!rowStart) put((byte) '\t');
+        rowStart = false;
+    }
+
+    private void digits(int value, int width) throws IOException {
+        for (int divisor = POWERS_OF_TEN[width - 1]; divisor > 0; divisor /= 10) {
+            put((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    private void put2(char first, char second) throws IOException {
+        put((byte) first);
+        put((byte) second);
+    }
+
+    private void put(byte b) throws IOException {
+        if (position == buffer.length) flush();
+        buffer[position++] = b;
+    }
+}
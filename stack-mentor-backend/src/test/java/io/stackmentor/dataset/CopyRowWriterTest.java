@@ -0,0 +1,65 @@
+package io.stackmentor.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CopyRowWriterTest {
+
+    private final ByteArrayOutputStream copied = new ByteArrayOutputStream();
+
+    private String copied() {
+        return copied.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void row_escapesControlCharactersAndWritesNullsAsBackslashN() throws IOException {
+        CopyRowWriter writer = new CopyRowWriter((bytes, length) -> copied.write(bytes, 0, length));
+        UUID id = UUID.randomUUID();
+
+        writer.uuid(id).text("tab\there\nnew line \\ slash, café").nul().number(42).bool(false).endRow();
+        writer.date(LocalDate.of(2025, 3, 1)).text(null).number(-73.9826).endRow();
+        writer.flush();
+
+        assertEquals(id + "\ttab\\there\\nnew line \\\\ slash, café\t\\N\t42\tf\n"
+                + "2025-03-01\t\\N\t-73.9826\n", copied());
+        assertEquals(2, writer.rows());
+    }
+
+    @Test
+    void timestamp_writesMicrosecondsWithoutTimeZone() throws IOException {
+        CopyRowWriter writer = new CopyRowWriter((bytes, length) -> copied.write(bytes, 0, length));
+        LocalDateTime time = LocalDateTime.of(2025, 3, 1, 9, 5, 0, 7_000);
+
+        writer.timestamp(time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + 7).timestamp(-1).endRow();
+        writer.flush();
+
+        assertEquals("2025-03-01 09:05:00.000007\t1969-12-31 23:59:59.999999\n", copied());
+    }
+
+    @Test
+    void flush_handsOverFullBuffersEvenMidRow() throws IOException {
+        int[] chunks = new int[1];
+        CopyRowWriter writer = new CopyRowWriter((bytes, length) -> {
+            chunks[0]++;
+            copied.write(bytes, 0, length);
+        }, 8);
+
+        for (int i = 0; i < 10; i++) {
+            writer.text("row number " + i).number(i).endRow();
+        }
+        writer.flush();
+
+        assertTrue(chunks[0] > 10);
+        assertEquals(10, copied().lines().count());
+        assertEquals("row number 9\t9", copied().lines().toList().get(9));
+    }
+}
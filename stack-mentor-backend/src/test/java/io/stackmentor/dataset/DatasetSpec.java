@@ -0,0 +1,73 @@
+package io.stackmentor.dataset;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+
+/**
+ * Shape of a synthetic dataset. The same spec, seed included, always produces the same rows,
+ * so a slow query found under load can be reproduced against an identical database.
+ *
+ * @param end                   messages are spread over the {@code months} before this date
+ * @param directConversations   mentor/mentee private conversations, on top of one per group
+ * @param groupSizeExponent     Pareto exponent of group sizes; lower means a heavier tail
+ * @param groupReadsPerMessage  mean number of members recorded as having read a group message
+ * @param directReadShare       share of private messages the other participant has read
+ */
+@Builder(toBuilder = true)
+public record DatasetSpec(long seed, LocalDate end, int months,
+                          int users, double mentorShare, double verifiedShare,
+                          int groups, int minGroupSize, int maxGroupSize, double groupSizeExponent,
+                          int directConversations, long messages,
+                          double groupReadsPerMessage, double directReadShare) {
+
+    public DatasetSpec {
+        if (users < 2) throw new IllegalArgumentException("A dataset needs at least two users");
+        if (months < 1) throw new IllegalArgumentException("The message window must span at least one month");
+        if (minGroupSize < 1 || maxGroupSize < minGroupSize) {
+            throw new IllegalArgumentException("Group sizes must satisfy 1 <= min <= max");
+        }
+        if (groups + directConversations == 0 && messages > 0) {
+            throw new IllegalArgumentException("Messages need at least one conversation");
+        }
+    }
+
+    // The volumes load tests run against: 1M users, 100k groups, 50M messages
+    public static DatasetSpec standard(long seed, LocalDate end) {
+        return defaults(seed, end)
+                .users(1_000_000)
+                .groups(100_000)
+                .directConversations(500_000)
+                .messages(50_000_000)
+                .build();
+    }
+
+    // Small enough for an integration test to load in a few seconds
+    public static DatasetSpec small(long seed, LocalDate end) {
+        return defaults(seed, end)
+                .users(2_000)
+                .groups(200)
+                .maxGroupSize(500)
+                .directConversations(1_000)
+                .messages(50_000)
+                .build();
+    }
+
+    private static DatasetSpecBuilder defaults(long seed, LocalDate end) {
+        return builder()
+                .seed(seed)
+                .end(end)
+                .months(6)
+                .mentorShare(0.2)
+                .verifiedShare(0.95)
+                .minGroupSize(3)
+                .maxGroupSize(20_000)
+                .groupSizeExponent(1.3)
+                .groupReadsPerMessage(2.0)
+                .directReadShare(0.9);
+    }
+
+    public LocalDate start() {
+        return end.minusMonths(months);
+    }
+}
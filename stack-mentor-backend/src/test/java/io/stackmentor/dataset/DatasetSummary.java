@@ -0,0 +1,6 @@
+package io.stackmentor.dataset;
+
+// Rows written per table
+public record DatasetSummary(long users, long groups, long groupMembers, long conversations,
+                             long directParticipants, long messages, long readStatuses) {
+}
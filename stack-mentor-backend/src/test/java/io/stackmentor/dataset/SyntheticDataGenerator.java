@@ -0,0 +1,466 @@
+package io.stackmentor.dataset;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generates a synthetic dataset table by table, in foreign-key order, into a {@link Target}.
+ * <p>
+ * Ids are derived from the seed and the row's index rather than drawn in sequence, and every
+ * conversation has its own random streams, so the message pass and the read-status pass can
+ * regenerate the same messages without holding 50M of them in memory. Only group member lists
+ * and private conversation pairs, a few bytes per membership, are kept between tables.
+ * <p>
+ * Every user's password is {@link #PASSWORD}; user 0 is an admin.
+ */
+public final class SyntheticDataGenerator {
+
+    public static final String PASSWORD = "synthetic-password";
+    public static final String EMAIL_DOMAIN = "synthetic.stackmentor.io";
+
+    // A fixed salt keeps the hash, and with it the users table, identical across runs
+    private static final String PASSWORD_HASH = BCrypt.hashpw(PASSWORD, "$2a$10$c3ludGhldGljLWRhdGFzZX");
+
+    // Kinds mixed into ids and random streams so they never collide
+    private static final long USER = 1;
+    private static final long GROUP = 2;
+    private static final long CONVERSATION = 3;
+    private static final long MESSAGE = 4;
+    private static final long STRUCTURE = 5;
+    private static final long CONTENT = 6;
+    private static final long READS = 7;
+    private static final long LAYOUT = 8;
+    private static final long MEMBERSHIP = 9;
+
+    private static final long MICROS_PER_MINUTE = 60_000_000L;
+    private static final long MICROS_PER_DAY = 1_440 * MICROS_PER_MINUTE;
+
+    @FunctionalInterface
+    public interface Target {
+        long copy(String table, String columns, Rows rows) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Rows {
+        void writeTo(CopyRowWriter writer) throws IOException;
+    }
+
+    private final DatasetSpec spec;
+    private final long startMicros;
+    private final long endMicros;
+
+    private boolean[] mentor;
+    private long[] userCreatedAt;
+    private int[][] groupMembers;
+    private int[][] directPairs;
+    private int[] messageCounts;
+
+    public SyntheticDataGenerator(DatasetSpec spec) {
+        this.spec = spec;
+        this.startMicros = micros(spec.start());
+        this.endMicros = micros(spec.end());
+    }
+
+    public DatasetSummary generate(Target target) throws IOException {
+        layOut();
+        long users = target.copy("users", "user_id, email, password_hash, first_name, last_name, date_of_birth, "
+                + "city, state, zip_code, gender, age, role, job_title, years_of_experience, industry, skills, "
+                + "interests, created_at, updated_at, position, is_verified, latitude, longitude", this::writeUsers);
+        long groups = target.copy("groups", "group_id, group_name, description, created_by, created_at, "
+                + "member_count, last_activity_at", this::writeGroups);
+        long members = target.copy("group_members", "group_id, user_id, role, joined_at", this::writeGroupMembers);
+        long conversations = target.copy("conversations", "conversation_id, type, group_id, created_at, last_seq",
+                this::writeConversations);
+        long participants = target.copy("direct_conversation_participants", "conversation_id, user_id",
+                this::writeDirectParticipants);
+        long messages = target.copy("messages", "message_id, conversation_id, sender_id, content, media_url, "
+                + "sent_at, edited_at, is_deleted, deleted_at, seq, change_seq", this::writeMessages);
+        long reads = target.copy("message_read_status", "message_id, user_id, message_sent_at, read_at",
+                this::writeReadStatuses);
+        return new DatasetSummary(users, groups, members, conversations, participants, messages, reads);
+    }
+
+    public static UUID userId(long seed, int user) {
+        return uuid(seed, USER, user);
+    }
+
+    public static UUID groupId(long seed, int group) {
+        return uuid(seed, GROUP, group);
+    }
+
+    // Conversations 0..groups-1 belong to the group with the same index; private ones follow
+    public static UUID conversationId(long seed, int conversation) {
+        return uuid(seed, CONVERSATION, conversation);
+    }
+
+    public static String email(int user) {
+        return "user" + user + "@" + EMAIL_DOMAIN;
+    }
+
+    // Everything later tables refer to: roles, group members, private pairs and message counts
+    private void layOut() {
+        SplittableRandom random = stream(LAYOUT, 0);
+
+        mentor = new boolean[spec.users()];
+        userCreatedAt = new long[spec.users()];
+        for (int u = 0; u < spec.users(); u++) {
+            mentor[u] = random.nextDouble() < spec.mentorShare();
+            userCreatedAt[u] = startMicros - (long) (random.nextDouble() * 730 * MICROS_PER_DAY);
+        }
+
+        int maxGroupSize = Math.min(spec.maxGroupSize(), spec.users());
+        groupMembers = new int[spec.groups()][];
+        Set<Integer> chosen = new HashSet<>();
+        for (int g = 0; g < spec.groups(); g++) {
+            int size = (int) Math.min(maxGroupSize,
+                    spec.minGroupSize() / Math.pow(1 - random.nextDouble(), 1 / spec.groupSizeExponent()));
+            int[] members = new int[size];
+            chosen.clear();
+            for (int i = 0; i < members.length; ) {
+                int user = random.nextInt(spec.users());
+                if (chosen.add(user)) members[i++] = user;
+            }
+            groupMembers[g] = members;
+        }
+
+        int[] mentors = indexes(true);
+        int[] mentees = indexes(false);
+        directPairs = new int[spec.directConversations()][];
+        Set<Long> pairs = new HashSet<>();
+        for (int d = 0, attempts = 0; d < directPairs.length; attempts++) {
+            if (attempts > 100 + directPairs.length * 10L) {
+                throw new IllegalArgumentException("Too few users for " + directPairs.length + " distinct private conversations");
+            }
+            int first = mentors.length > 0 && mentees.length > 0
+                    ? mentors[random.nextInt(mentors.length)] : random.nextInt(spec.users());
+            int second = mentors.length > 0 && mentees.length > 0
+                    ? mentees[random.nextInt(mentees.length)] : random.nextInt(spec.users());
+            if (first != second && pairs.add((long) Math.min(first, second) << 32 | Math.max(first, second))) {
+                directPairs[d++] = new int[]{first, second};
+            }
+        }
+
+        // Busy groups talk more, and a few conversations of either kind carry much of the traffic
+        int conversations = spec.groups() + spec.directConversations();
+        double[] weights = new double[conversations];
+        double total = 0;
+        for (int c = 0; c < conversations; c++) {
+            double activity = 1 / Math.pow(1 - random.nextDouble(), 1 / 1.5);
+            weights[c] = c < spec.groups() ? Math.pow(groupMembers[c].length, 0.7) * activity : activity;
+            total += weights[c];
+        }
+        messageCounts = new int[conversations];
+        long assigned = 0;
+        for (int c = 0; c < conversations; c++) {
+            messageCounts[c] = (int) Math.min(Integer.MAX_VALUE, (long) (spec.messages() * weights[c] / total));
+            assigned += messageCounts[c];
+        }
+        for (long remaining = spec.messages() - assigned; remaining > 0; remaining--) {
+            messageCounts[random.nextInt(conversations)]++;
+        }
+    }
+
+    private void writeUsers(CopyRowWriter out) throws IOException {
+        SplittableRandom random = stream(USER, 0);
+        for (int u = 0; u < spec.users(); u++) {
+            String firstName = Vocabulary.FIRST_NAMES[random.nextInt(Vocabulary.FIRST_NAMES.length)];
+            String lastName = Vocabulary.LAST_NAMES[random.nextInt(Vocabulary.LAST_NAMES.length)];
+            Vocabulary.Metro metro = Vocabulary.METROS.pick(random);
+            int experience = mentor[u] ? 2 + geometric(random, 8) : random.nextInt(4);
+            int age = Math.min(70, (mentor[u] ? 22 : 18) + experience + random.nextInt(8));
+            String topics = topics(random, 2 + random.nextInt(5));
+            boolean verified = u == 0 || random.nextDouble() < spec.verifiedShare();
+            String position = u == 0 ? "admin" : random.nextDouble() < 0.001 ? "moderator" : "member";
+            String industry = Vocabulary.INDUSTRIES.pick(random);
+            String[] titles = mentor[u] ? Vocabulary.MENTOR_TITLES : Vocabulary.MENTEE_TITLES;
+
+            out.uuid(userId(spec.seed(), u))
+                    .text(email(u))
+                    .text(PASSWORD_HASH)
+                    .text(firstName)
+                    .text(lastName)
+                    .date(spec.end().minusYears(age).minusDays(random.nextInt(365)))
+                    .text(metro.city())
+                    .text(metro.state())
+                    .text(metro.zipCode())
+                    .text(Vocabulary.GENDERS[random.nextInt(Vocabulary.GENDERS.length)])
+                    .number(age)
+                    .text(mentor[u] ? "mentor" : "mentee")
+                    .text(titles[random.nextInt(titles.length)])
+                    .number(experience)
+                    .text(industry);
+            if (mentor[u]) {
+                out.text(topics).nul();
+            } else {
+                out.nul().text(topics);
+            }
+            out.timestamp(userCreatedAt[u])
+                    .timestamp(userCreatedAt[u])
+                    .text(position)
+                    .bool(verified)
+                    .number(metro.latitude())
+                    .number(metro.longitude())
+                    .endRow();
+        }
+    }
+
+    private void writeGroups(CopyRowWriter out) throws IOException {
+        for (int g = 0; g < spec.groups(); g++) {
+            SplittableRandom random = stream(GROUP, g);
+            String topic = Vocabulary.SKILLS.pick(random);
+            String kind = Vocabulary.GROUP_KINDS[random.nextInt(Vocabulary.GROUP_KINDS.length)];
+            int[] members = groupMembers[g];
+            long createdAt = groupCreatedAt(g);
+            long lastActivity = messageCounts[g] > 0 ? new MessageCursor(g).newest() : createdAt;
+
+            out.uuid(groupId(spec.seed(), g))
+                    .text(topic + " " + kind + " " + (g + 1))
+                    .text("A place to talk about " + topic + " with " + kind.toLowerCase(Locale.ROOT) + " members.")
+                    .uuid(userId(spec.seed(), members[0]))
+                    .timestamp(createdAt)
+                    .number(members.length)
+                    .timestamp(Math.max(createdAt, lastActivity))
+                    .endRow();
+        }
+    }
+
+    private void writeGroupMembers(CopyRowWriter out) throws IOException {
+        for (int g = 0; g < spec.groups(); g++) {
+            SplittableRandom random = stream(MEMBERSHIP, g);
+            long createdAt = groupCreatedAt(g);
+            UUID groupId = groupId(spec.seed(), g);
+            int[] members = groupMembers[g];
+            for (int i = 0; i < members.length; i++) {
+                // The creator joins first, as the group's admin
+                long joinedAt = i == 0 ? createdAt : createdAt + (long) (random.nextDouble() * (startMicros - createdAt));
+                out.uuid(groupId)
+                        .uuid(userId(spec.seed(), members[i]))
+                        .text(i == 0 ? "admin" : "member")
+                        .timestamp(joinedAt)
+                        .endRow();
+            }
+        }
+    }
+
+    private void writeConversations(CopyRowWriter out) throws IOException {
+        for (int c = 0; c < messageCounts.length; c++) {
+            boolean group = c < spec.groups();
+            out.uuid(conversationId(spec.seed(), c))
+                    .text(group ? "group" : "private");
+            if (group) {
+                out.uuid(groupId(spec.seed(), c)).timestamp(groupCreatedAt(c));
+            } else {
+                int[] pair = directPairs[c - spec.groups()];
+                out.nul().timestamp(Math.max(userCreatedAt[pair[0]], userCreatedAt[pair[1]]));
+            }
+            out.number(messageCounts[c]).endRow();
+        }
+    }
+
+    private void writeDirectParticipants(CopyRowWriter out) throws IOException {
+        for (int d = 0; d < directPairs.length; d++) {
+            UUID conversationId = conversationId(spec.seed(), spec.groups() + d);
+            for (int user : directPairs[d]) {
+                out.uuid(conversationId).uuid(userId(spec.seed(), user)).endRow();
+            }
+        }
+    }
+
+    private void writeMessages(CopyRowWriter out) throws IOException {
+        StringBuilder content = new StringBuilder(256);
+        for (int c = 0; c < messageCounts.length; c++) {
+            UUID conversationId = conversationId(spec.seed(), c);
+            SplittableRandom words = stream(CONTENT, c);
+            for (MessageCursor message = new MessageCursor(c); message.next(); ) {
+                out.uuid(message.id())
+                        .uuid(conversationId)
+                        .uuid(userId(spec.seed(), message.sender))
+                        .text(message.deleted ? "" : sentence(words, content))
+                        .text(message.media ? "https://cdn.stackmentor.io/media/" + message.id() + ".png" : null);
+                out.timestamp(message.sentAt);
+                if (message.editedAt > 0) out.timestamp(message.editedAt); else out.nul();
+                out.bool(message.deleted);
+                if (message.deleted) out.timestamp(message.deletedAt); else out.nul();
+                out.number(message.seq)
+                        .number(message.seq)
+                        .endRow();
+            }
+        }
+    }
+
+    private void writeReadStatuses(CopyRowWriter out) throws IOException {
+        int[] readers = new int[16];
+        for (int c = 0; c < messageCounts.length; c++) {
+            SplittableRandom random = stream(READS, c);
+            int[] participants = c < spec.groups() ? groupMembers[c] : directPairs[c - spec.groups()];
+            for (MessageCursor message = new MessageCursor(c); message.next(); ) {
+                int count;
+                if (c < spec.groups()) {
+                    count = Math.min(geometric(random, spec.groupReadsPerMessage()), participants.length - 1);
+                } else {
+                    count = random.nextDouble() < spec.directReadShare() ? 1 : 0;
+                }
+                if (readers.length < count) readers = new int[count];
+
+                // Distinct readers other than the sender; rejection is cheap while count is small
+                int found = 0;
+                for (int attempt = 0; found < count && attempt < count * 8; attempt++) {
+                    int reader = participants[random.nextInt(participants.length)];
+                    if (reader == message.sender || contains(readers, found, reader)) continue;
+                    readers[found++] = reader;
+                }
+
+                for (int i = 0; i < found; i++) {
+                    long delay = (long) (-Math.log(1 - random.nextDouble()) * 20 * MICROS_PER_MINUTE);
+                    out.uuid(message.id())
+                            .uuid(userId(spec.seed(), readers[i]))
+                            .timestamp(message.sentAt)
+                            .timestamp(Math.min(message.sentAt + delay, endMicros - 1))
+                            .endRow();
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays one conversation's messages from its own random stream, newest first. Send times
+     * are drawn as descending uniform order statistics, so the newest message comes first and
+     * no conversation's times ever have to be held and sorted.
+     */
+    private final class MessageCursor {
+
+        private final int conversation;
+        private final SplittableRandom random;
+        private final int[] participants;
+        private final boolean group;
+        private double position = 1;
+
+        int seq;
+        int sender;
+        long sentAt;
+        long editedAt;
+        long deletedAt;
+        boolean deleted;
+        boolean media;
+
+        MessageCursor(int conversation) {
+            this.conversation = conversation;
+            this.random = stream(STRUCTURE, conversation);
+            this.group = conversation < spec.groups();
+            this.participants = group ? groupMembers[conversation] : directPairs[conversation - spec.groups()];
+            this.seq = messageCounts[conversation] + 1;
+        }
+
+        boolean next() {
+            if (seq <= 1) return false;
+            seq--;
+            position *= Math.pow(random.nextDouble(), 1.0 / seq);
+            sentAt = startMicros + (long) (position * (endMicros - 1 - startMicros));
+
+            // Members near the front of the list, the creator first, do most of the talking
+            sender = group
+                    ? participants[(int) (participants.length * Math.pow(random.nextDouble(), 2))]
+                    : participants[random.nextInt(2)];
+            double flags = random.nextDouble();
+            deleted = flags < 0.01;
+            editedAt = !deleted && flags < 0.03 ? sentAt + (long) (random.nextDouble() * 10 * MICROS_PER_MINUTE) : 0;
+            deletedAt = deleted ? sentAt + (long) (random.nextDouble() * MICROS_PER_DAY) : 0;
+            media = !deleted && random.nextDouble() < 0.03;
+            return true;
+        }
+
+        long newest() {
+            next();
+            return sentAt;
+        }
+
+        UUID id() {
+            return uuid(spec.seed(), MESSAGE, (long) conversation << 32 | seq);
+        }
+    }
+
+    private long groupCreatedAt(int group) {
+        // Never before its creator signed up
+        long creatorCreatedAt = userCreatedAt[groupMembers[group][0]];
+        return creatorCreatedAt + (long) (stream(GROUP, -1 - group).nextDouble() * (startMicros - creatorCreatedAt));
+    }
+
+    private String topics(SplittableRandom random, int count) {
+        Set<String> topics = new LinkedHashSet<>();
+        for (int attempt = 0; topics.size() < count && attempt < count * 4; attempt++) {
+            topics.add(Vocabulary.SKILLS.pick(random));
+        }
+        return String.join(", ", topics);
+    }
+
+    private static String sentence(SplittableRandom random, StringBuilder builder) {
+        builder.setLength(0);
+        int words = 4 + random.nextInt(28);
+        for (int i = 0; i < words; i++) {
+            String word = random.nextDouble() < 0.15
+                    ? Vocabulary.SKILLS.pick(random)
+                    : Vocabulary.WORDS[random.nextInt(Vocabulary.WORDS.length)];
+            if (i > 0) builder.append(' ');
+            if (i == 0) {
+                builder.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                builder.append(word);
+            }
+        }
+        return builder.append(random.nextInt(4) == 0 ? '?' : '.').toString();
+    }
+
+    private int[] indexes(boolean mentors) {
+        int count = 0;
+        for (boolean m : mentor) if (m == mentors) count++;
+        int[] indexes = new int[count];
+        for (int u = 0, i = 0; u < mentor.length; u++) {
+            if (mentor[u] == mentors) indexes[i++] = u;
+        }
+        return indexes;
+    }
+
+    // Number of failures before a success, with the given mean
+    private static int geometric(SplittableRandom random, double mean) {
+        double p = 1 / (1 + mean);
+        return (int) Math.min(1_000, Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p)));
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private SplittableRandom stream(long kind, long index) {
+        return new SplittableRandom(mix(spec.seed(), kind, index));
+    }
+
+    private static UUID uuid(long seed, long kind, long index) {
+        long high = mix(seed, kind, index);
+        long low = mix(~seed, kind, index);
+        // Shaped like a random (version 4) UUID
+        return new UUID((high & ~0xF000L) | 0x4000L, (low & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L);
+    }
+
+    private static long mix(long seed, long kind, long index) {
+        long z = (seed * 0x9E37_79B9_7F4A_7C15L + kind) * 0x9E37_79B9_7F4A_7C15L + index;
+        z = (z ^ (z >>> 33)) * 0xFF51_AFD7_ED55_8CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CE_B9FE_1A85_EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    private static long micros(LocalDate date) {
+        return date.atStartOfDay().toEpochSecond(ZoneOffset.UTC) * 1_000_000;
+    }
+}
@@ -0,0 +1,55 @@
+package io.stackmentor.dataset;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * How fast the generator produces COPY data on its own, at a tenth of the standard volumes,
+ * with the bytes discarded. Whatever a load takes beyond this is spent in Postgres. Run with
+ * {@code ./gradlew benchmark}; the regular test task skips it.
+ */
+@Tag("benchmark")
+class SyntheticDataGeneratorBenchmark {
+
+    @Test
+    void generationThroughput() throws IOException {
+        DatasetSpec spec = DatasetSpec.standard(42, LocalDate.of(2025, 6, 1)).toBuilder()
+                .users(100_000)
+                .groups(10_000)
+                .directConversations(50_000)
+                .messages(5_000_000)
+                .build();
+        Map<String, long[]> tables = new LinkedHashMap<>();
+
+        long start = System.nanoTime();
+        DatasetSummary summary = new SyntheticDataGenerator(spec).generate((table, columns, rows) -> {
+            long[] bytes = new long[1];
+            long tableStart = System.nanoTime();
+            CopyRowWriter writer = new CopyRowWriter((buffer, length) -> bytes[0] += length);
+            rows.writeTo(writer);
+            writer.flush();
+            tables.put(table, new long[]{writer.rows(), bytes[0], System.nanoTime() - tableStart});
+            return writer.rows();
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long totalBytes = 0;
+        System.out.printf("%-34s %12s %10s %10s%n", "table", "rows", "MB", "rows/s");
+        for (Map.Entry<String, long[]> table : tables.entrySet()) {
+            long[] stats = table.getValue();
+            totalBytes += stats[1];
+            System.out.printf("%-34s %,12d %10.0f %,10.0f%n", table.getKey(), stats[0], stats[1] / 1e6,
+                    stats[0] / (stats[2] / 1e9));
+        }
+        System.out.printf("total: %.0f MB in %.1f s, %.0f MB/s%n", totalBytes / 1e6, seconds, totalBytes / 1e6 / seconds);
+
+        assertEquals(5_000_000, summary.messages());
+    }
+}
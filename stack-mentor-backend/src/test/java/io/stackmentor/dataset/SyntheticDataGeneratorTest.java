@@ -0,0 +1,163 @@
+package io.stackmentor.dataset;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticDataGeneratorTest {
+
+    private static final LocalDate END = LocalDate.of(2025, 6, 1);
+
+    private static final DatasetSpec SPEC = DatasetSpec.small(7, END).toBuilder()
+            .users(1_000)
+            .groups(100)
+            .directConversations(300)
+            .messages(20_000)
+            .build();
+
+    private static Map<String, byte[]> tables;
+    private static DatasetSummary summary;
+
+    // Collects each table's COPY stream in memory
+    private static Map<String, byte[]> generate(DatasetSpec spec, DatasetSummary[] summary) throws IOException {
+        Map<String, byte[]> tables = new LinkedHashMap<>();
+        summary[0] = new SyntheticDataGenerator(spec).generate((table, columns, rows) -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            CopyRowWriter writer = new CopyRowWriter((bytes, length) -> out.write(bytes, 0, length));
+            rows.writeTo(writer);
+            writer.flush();
+            tables.put(table, out.toByteArray());
+            return writer.rows();
+        });
+        return tables;
+    }
+
+    private static List<String[]> rows(String table) {
+        return new String(tables.get(table), StandardCharsets.UTF_8).lines()
+                .map(line -> line.split("\t", -1))
+                .toList();
+    }
+
+    private static Set<String> column(String table, int column) {
+        return rows(table).stream().map(row -> row[column]).collect(Collectors.toSet());
+    }
+
+    @BeforeAll
+    static void generateOnce() throws IOException {
+        DatasetSummary[] result = new DatasetSummary[1];
+        tables = generate(SPEC, result);
+        summary = result[0];
+    }
+
+    @Test
+    void generate_isReproducibleFromTheSeed() throws IOException {
+        DatasetSummary[] again = new DatasetSummary[1];
+        Map<String, byte[]> sameSeed = generate(SPEC, again);
+        Map<String, byte[]> otherSeed = generate(SPEC.toBuilder().seed(8).build(), new DatasetSummary[1]);
+
+        assertEquals(summary, again[0]);
+        for (String table : tables.keySet()) {
+            assertArrayEquals(tables.get(table), sameSeed.get(table), table);
+            assertFalse(Arrays.equals(tables.get(table), otherSeed.get(table)), table);
+        }
+    }
+
+    @Test
+    void generate_writesTheRequestedVolumes() {
+        assertEquals(1_000, summary.users());
+        assertEquals(100, summary.groups());
+        assertEquals(400, summary.conversations());
+        assertEquals(600, summary.directParticipants());
+        assertEquals(20_000, summary.messages());
+        assertEquals(SyntheticDataGenerator.userId(7, 0).toString(), rows("users").get(0)[0]);
+        assertEquals("admin", rows("users").get(0)[19]);
+    }
+
+    @Test
+    void generate_keepsEveryReferenceAndKeyConsistent() {
+        Set<String> users = column("users", 0);
+        Map<String, Set<String>> members = new HashMap<>();
+        for (String[] row : rows("group_members")) {
+            assertTrue(users.contains(row[1]));
+            assertTrue(members.computeIfAbsent(row[0], id -> new HashSet<>()).add(row[1]), "duplicate member");
+        }
+        for (String[] group : rows("groups")) {
+            assertEquals(Integer.parseInt(group[5]), members.get(group[0]).size());
+            assertTrue(members.get(group[0]).contains(group[3]), "creator is a member");
+        }
+
+        Map<String, Set<String>> participants = new HashMap<>();
+        Map<String, String> groupOfConversation = new HashMap<>();
+        for (String[] conversation : rows("conversations")) {
+            groupOfConversation.put(conversation[0], conversation[2]);
+        }
+        for (String[] row : rows("direct_conversation_participants")) {
+            participants.computeIfAbsent(row[0], id -> new HashSet<>()).add(row[1]);
+        }
+        participants.values().forEach(pair -> assertEquals(2, pair.size()));
+
+        // Seqs run 1..last_seq, senders belong to the conversation, and readers never include the sender
+        Map<String, List<Integer>> seqs = new HashMap<>();
+        Map<String, String[]> messages = new HashMap<>();
+        for (String[] message : rows("messages")) {
+            String group = groupOfConversation.get(message[1]);
+            Set<String> allowed = group.equals("\\N") ? participants.get(message[1]) : members.get(group);
+            assertTrue(allowed.contains(message[2]), "sender outside the conversation");
+            assertTrue(message[5].compareTo(END.toString()) < 0);
+            assertTrue(message[5].compareTo(SPEC.start().toString()) >= 0);
+            seqs.computeIfAbsent(message[1], id -> new ArrayList<>()).add(Integer.parseInt(message[9]));
+            assertNull(messages.put(message[0], message), "duplicate message id");
+        }
+        for (String[] conversation : rows("conversations")) {
+            List<Integer> numbers = seqs.getOrDefault(conversation[0], List.of()).stream().sorted().toList();
+            assertEquals(Integer.parseInt(conversation[4]), numbers.size());
+            for (int i = 0; i < numbers.size(); i++) {
+                assertEquals(i + 1, numbers.get(i));
+            }
+        }
+
+        Set<String> readKeys = new HashSet<>();
+        for (String[] read : rows("message_read_status")) {
+            String[] message = messages.get(read[0]);
+            assertNotNull(message);
+            assertEquals(message[5], read[2], "message_sent_at mirrors sent_at");
+            assertNotEquals(message[2], read[1]);
+            assertTrue(readKeys.add(read[0] + read[1]), "duplicate read status");
+        }
+        assertEquals(summary.readStatuses(), readKeys.size());
+    }
+
+    @Test
+    void generate_skewsGroupSizesSkillsAndTraffic() {
+        int[] sizes = rows("groups").stream().mapToInt(group -> Integer.parseInt(group[5])).sorted().toArray();
+        assertTrue(sizes[sizes.length - 1] >= 10 * sizes[sizes.length / 2], "largest group dwarfs the median");
+        assertTrue(sizes[0] >= SPEC.minGroupSize());
+
+        Map<String, Long> skills = rows("users").stream()
+                .map(user -> user[15].equals("\\N") ? user[16] : user[15])
+                .flatMap(topics -> Arrays.stream(topics.split(", ")))
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        assertTrue(skills.get("Java") > 5 * skills.getOrDefault("Leadership", 0L));
+
+        Map<String, Long> perConversation = rows("messages").stream()
+                .collect(Collectors.groupingBy(message -> message[1], Collectors.counting()));
+        long busiest = perConversation.values().stream().mapToLong(Long::longValue).max().orElseThrow();
+        assertTrue(busiest > 20 * SPEC.messages() / summary.conversations());
+    }
+}
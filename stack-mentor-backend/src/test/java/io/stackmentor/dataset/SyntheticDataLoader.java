@@ -0,0 +1,147 @@
+package io.stackmentor.dataset;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads a synthetic dataset into a migrated database with {@code COPY ... FROM STDIN}, one
+ * streaming COPY per table, all in one transaction. Integration tests call
+ * {@link #load(Connection, DatasetSpec)}; for a load-test database run
+ * <pre>
+ *   ./gradlew generateDataset --args="--url=jdbc:postgresql://localhost:5433/stackmentor --seed=42"
+ * </pre>
+ * which loads {@link DatasetSpec#standard} unless counts are given, e.g. {@code --users=100000}.
+ * Every user's password is {@link SyntheticDataGenerator#PASSWORD}.
+ */
+public final class SyntheticDataLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataLoader.class);
+
+    private static final List<String> TABLES = List.of("users", "groups", "group_members", "conversations",
+            "direct_conversation_participants", "messages", "message_read_status");
+
+    private SyntheticDataLoader() {
+    }
+
+    public static DatasetSummary load(Connection connection, DatasetSpec spec) throws SQLException, IOException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            try (Statement statement = connection.createStatement();
+                 ResultSet existing = statement.executeQuery("SELECT 1 FROM users WHERE email LIKE '%@"
+                         + SyntheticDataGenerator.EMAIL_DOMAIN + "' LIMIT 1")) {
+                if (existing.next()) {
+                    throw new IllegalStateException("The database already holds a synthetic dataset");
+                }
+            }
+            createPartitions(connection, spec);
+
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            DatasetSummary summary = new SyntheticDataGenerator(spec).generate((table, columns, rows) -> {
+                long start = System.nanoTime();
+                long written = copy(copyManager, table, columns, rows);
+                log.info("Copied {} rows into {} in {} s", written, table,
+                        Duration.ofNanos(System.nanoTime() - start).toSeconds());
+                return written;
+            });
+            connection.commit();
+
+            // Fresh statistics, or the first queries plan against empty tables
+            try (Statement statement = connection.createStatement()) {
+                for (String table : TABLES) {
+                    statement.execute("ANALYZE " + table);
+                }
+            }
+            connection.commit();
+            return summary;
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static long copy(CopyManager copyManager, String table, String columns, SyntheticDataGenerator.Rows rows)
+            throws IOException {
+        try {
+            CopyIn copyIn = copyManager.copyIn("COPY " + table + " (" + columns + ") FROM STDIN");
+            try {
+                CopyRowWriter writer = new CopyRowWriter((bytes, length) -> {
+                    try {
+                        copyIn.writeToCopy(bytes, 0, length);
+                    } catch (SQLException e) {
+                        throw new IOException("COPY into " + table + " failed", e);
+                    }
+                });
+                rows.writeTo(writer);
+                writer.flush();
+                copyIn.endCopy();
+                return writer.rows();
+            } finally {
+                if (copyIn.isActive()) copyIn.cancelCopy();
+            }
+        } catch (SQLException e) {
+            throw new IOException("COPY into " + table + " failed", e);
+        }
+    }
+
+    // Monthly partitions for the message window; ones that exist already are left alone
+    private static void createPartitions(Connection connection, DatasetSpec spec) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT create_message_partitions(?)")) {
+            for (LocalDate month = spec.start().withDayOfMonth(1); month.isBefore(spec.end()); month = month.plusMonths(1)) {
+                statement.setObject(1, month);
+                statement.execute();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        // Today by default; pass --end to rebuild an earlier dataset exactly
+        LocalDate end = LocalDate.parse(options.getOrDefault("end", LocalDate.now(ZoneOffset.UTC).toString()));
+        DatasetSpec.DatasetSpecBuilder spec = DatasetSpec.standard(seed, end).toBuilder();
+        if (options.containsKey("months")) spec.months(Integer.parseInt(options.get("months")));
+        if (options.containsKey("users")) spec.users(Integer.parseInt(options.get("users")));
+        if (options.containsKey("groups")) spec.groups(Integer.parseInt(options.get("groups")));
+        if (options.containsKey("direct-conversations")) {
+            spec.directConversations(Integer.parseInt(options.get("direct-conversations")));
+        }
+        if (options.containsKey("messages")) spec.messages(Long.parseLong(options.get("messages")));
+
+        try (Connection connection = DriverManager.getConnection(
+                options.getOrDefault("url", "jdbc:postgresql://localhost:5433/stackmentor"),
+                options.getOrDefault("user", "postgres"),
+                options.getOrDefault("password", "postgres"))) {
+            long start = System.nanoTime();
+            DatasetSummary summary = load(connection, spec.build());
+            log.info("Loaded {} in {} s", summary, Duration.ofNanos(System.nanoTime() - start).toSeconds());
+        }
+    }
+}
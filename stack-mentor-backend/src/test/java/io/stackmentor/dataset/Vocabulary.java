@@ -0,0 +1,116 @@
+package io.stackmentor.dataset;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+// Word lists and weighted choices the synthetic dataset draws from
+final class Vocabulary {
+
+    private Vocabulary() {
+    }
+
+    record Metro(String city, String state, String zipCode, double latitude, double longitude) {
+    }
+
+    // Draws values with the given relative weights
+    static final class Weighted<T> {
+
+        private final List<T> values;
+        private final double[] cumulative;
+
+        Weighted(List<T> values, Function<Integer, Double> weightOfRank) {
+            this.values = values;
+            this.cumulative = new double[values.size()];
+            double total = 0;
+            for (int i = 0; i < values.size(); i++) {
+                total += weightOfRank.apply(i);
+                cumulative[i] = total;
+            }
+            for (int i = 0; i < cumulative.length; i++) {
+                cumulative[i] /= total;
+            }
+        }
+
+        // Zipf: the value at rank r is drawn in proportion to 1 / (r + 1)^exponent
+        static <T> Weighted<T> zipf(List<T> values, double exponent) {
+            return new Weighted<>(values, rank -> 1 / Math.pow(rank + 1, exponent));
+        }
+
+        T pick(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return values.get(Math.min(index < 0 ? -index - 1 : index, values.size() - 1));
+        }
+    }
+
+    // Most popular first; a handful of skills dominate profiles, as on real platforms
+    static final Weighted<String> SKILLS = Weighted.zipf(List.of(
+            "Java", "JavaScript", "Python", "SQL", "React", "Spring Boot", "AWS", "Docker", "TypeScript",
+            "Kubernetes", "Node.js", "Git", "Machine Learning", "Go", "C#", "Data Analysis", "PostgreSQL",
+            "System Design", "Linux", "Angular", "Kotlin", "Rust", "Swift", "Terraform", "GraphQL", "Redis",
+            "Kafka", "Product Management", "UX Design", "Security", "C++", "Scala", "Flutter", "Vue",
+            "Data Engineering", "Testing", "Agile", "Career Growth", "Public Speaking", "Leadership"), 1.1);
+
+    static final Weighted<String> INDUSTRIES = Weighted.zipf(List.of(
+            "Software", "Finance", "Healthcare", "E-commerce", "Consulting", "Education", "Gaming",
+            "Telecommunications", "Government", "Media", "Manufacturing", "Energy", "Nonprofit"), 1.0);
+
+    // Weighted by rough metro population; coordinates match geo/zip-centroids.csv
+    static final Weighted<Metro> METROS;
+
+    static {
+        List<Metro> metros = List.of(
+                new Metro("New York", "NY", "10010", 40.7390, -73.9826),
+                new Metro("Los Angeles", "CA", "90012", 34.0614, -118.2396),
+                new Metro("Chicago", "IL", "60601", 41.8858, -87.6181),
+                new Metro("Washington", "DC", "20001", 38.9123, -77.0177),
+                new Metro("San Francisco", "CA", "94102", 37.7793, -122.4193),
+                new Metro("Boston", "MA", "02108", 42.3576, -71.0651),
+                new Metro("Miami", "FL", "33130", 25.7671, -80.2058),
+                new Metro("Philadelphia", "PA", "19103", 39.9525, -75.1740),
+                new Metro("Atlanta", "GA", "30303", 33.7528, -84.3906),
+                new Metro("Phoenix", "AZ", "85004", 33.4514, -112.0687),
+                new Metro("Seattle", "WA", "98101", 47.6114, -122.3364),
+                new Metro("Denver", "CO", "80202", 39.7527, -104.9988),
+                new Metro("Austin", "TX", "78701", 30.2713, -97.7426),
+                new Metro("Columbus", "OH", "43215", 39.9655, -83.0115),
+                new Metro("Elk Grove Village", "IL", "60007", 42.0086, -87.9973));
+        double[] population = {19.5, 12.8, 9.3, 6.3, 4.6, 4.9, 6.1, 6.2, 6.2, 5.0, 4.0, 3.0, 2.4, 2.1, 0.5};
+        METROS = new Weighted<>(metros, rank -> population[rank]);
+    }
+
+    static final String[] FIRST_NAMES = {
+            "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+            "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Carlos", "Karen",
+            "Wei", "Priya", "Ahmed", "Fatima", "Hiroshi", "Yuki", "Olusegun", "Amara", "Diego", "Sofia",
+            "Ivan", "Olga", "Mateo", "Lucia", "Arjun", "Ananya", "Kwame", "Ama", "Minh", "Linh"};
+
+    static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Nguyen", "Patel", "Kim", "Chen", "Singh", "Okafor", "Mensah", "Tanaka", "Ivanova",
+            "Silva", "Kowalski", "Haddad", "Cohen", "Murphy", "Rossi", "Schmidt", "Dubois", "Park", "Ali"};
+
+    static final String[] GENDERS = {"Female", "Male", "Non-binary", "Undisclosed"};
+
+    static final String[] MENTOR_TITLES = {
+            "Software Engineer", "Senior Software Engineer", "Staff Engineer", "Engineering Manager",
+            "Data Scientist", "DevOps Engineer", "Product Manager", "Solutions Architect", "Tech Lead", "CTO"};
+
+    static final String[] MENTEE_TITLES = {
+            "Student", "Bootcamp Graduate", "Junior Developer", "Intern", "QA Analyst", "Career Changer",
+            "Associate Engineer", "IT Support Specialist"};
+
+    static final String[] GROUP_KINDS = {
+            "Study Group", "Circle", "Guild", "Meetup", "Mentorship Pod", "Office Hours", "Book Club", "Lab"};
+
+    static final String[] WORDS = {
+            "the", "a", "to", "and", "of", "in", "is", "it", "for", "that", "on", "with", "this", "my", "your",
+            "can", "how", "what", "when", "should", "would", "could", "we", "you", "I", "they", "about", "just",
+            "thanks", "question", "project", "review", "interview", "resume", "team", "code", "bug", "feature",
+            "deploy", "test", "learn", "help", "idea", "week", "today", "tomorrow", "meeting", "career", "job",
+            "offer", "salary", "portfolio", "design", "pattern", "performance", "database", "query", "service",
+            "api", "cloud", "course", "book", "practice", "feedback", "goal", "plan", "advice", "start", "finish",
+            "problem", "solution", "tried", "works", "broke", "great", "really", "maybe", "again", "still"};
+}
@@ -0,0 +1,65 @@
+package io.stackmentor.diagnostics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private static final String DRIVER_FRAME = "org.postgresql.core.v3.QueryExecutorImpl.execute:356";
+    private static final String SERVICE_FRAME = "io.stackmentor.service.MessageService.sendMessage:120";
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(meterRegistry, true, true, Duration.ofMillis(20));
+    }
+
+    @Test
+    void record_attributesToInnermostApplicationFrame() {
+        monitor.record(List.of(DRIVER_FRAME,
+                "org.hibernate.engine.jdbc.internal.ResultSetReturnImpl.executeQuery:58",
+                SERVICE_FRAME,
+                "io.stackmentor.controller.ConversationController.sendMessage:44"), Duration.ofMillis(30));
+
+        PinnedCallSite site = monitor.callSites().get(0);
+        assertEquals(SERVICE_FRAME, site.callSite());
+        assertEquals(DRIVER_FRAME, site.pinnedAt());
+        assertEquals(1, meterRegistry.get("jvm.threads.virtual.pinned").counter().count());
+    }
+
+    @Test
+    void record_fallsBackToPinnedFrameWithoutApplicationCode() {
+        monitor.record(List.of(DRIVER_FRAME, "java.lang.Thread.run:1583"), Duration.ofMillis(25));
+        monitor.record(List.of(), Duration.ofMillis(25));
+
+        List<PinnedCallSite> sites = monitor.callSites();
+        assertEquals(List.of(DRIVER_FRAME, VirtualThreadPinningMonitor.UNKNOWN),
+                sites.stream().map(PinnedCallSite::callSite).sorted().toList());
+    }
+
+    @Test
+    void callSites_aggregatesAndSortsByTotalTimePinned() {
+        List<String> hot = List.of(DRIVER_FRAME, SERVICE_FRAME);
+        List<String> cold = List.of("org.example.Lib.call:1", "io.stackmentor.service.UserService.registerUser:88");
+        monitor.record(hot, Duration.ofMillis(40));
+        monitor.record(hot, Duration.ofMillis(60));
+        monitor.record(cold, Duration.ofMillis(70));
+
+        List<PinnedCallSite> sites = monitor.callSites();
+        assertEquals(2, sites.size());
+        assertEquals(new PinnedCallSite(SERVICE_FRAME, DRIVER_FRAME, 2, 100.0, 60.0), sites.get(0));
+        assertEquals(1, sites.get(1).count());
+
+        monitor.reset();
+        assertTrue(monitor.callSites().isEmpty());
+    }
+}
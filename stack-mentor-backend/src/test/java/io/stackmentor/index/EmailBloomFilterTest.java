@@ -0,0 +1,87 @@
+package io.stackmentor.index;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EmailBloomFilterTest {
+
+    @Test
+    void mightContain_answersMaybeUntilLoaded() {
+        EmailBloomFilter filter = new EmailBloomFilter(1000, 0.01);
+
+        assertTrue(filter.mightContain("anyone@example.com"));
+    }
+
+    @Test
+    void mightContain_neverMissesAnAddedEmailRegardlessOfCase() {
+        EmailBloomFilter filter = new EmailBloomFilter(10_000, 0.01);
+        filter.markLoaded();
+        IntStream.range(0, 10_000).forEach(i -> filter.add("user" + i + "@example.com"));
+
+        IntStream.range(0, 10_000).forEach(i ->
+                assertTrue(filter.mightContain("User" + i + "@Example.com ")));
+    }
+
+    @Test
+    void mightContain_keepsFalsePositivesNearTheConfiguredRate() {
+        EmailBloomFilter filter = new EmailBloomFilter(10_000, 0.01);
+        filter.markLoaded();
+        IntStream.range(0, 10_000).forEach(i -> filter.add("user" + i + "@example.com"));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("other" + i + "@example.org"))
+                .count();
+
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void rebuild_replacesTheBitsWithTheTableAndKeepsConcurrentAdds() throws Exception {
+        EmailBloomFilter filter = new EmailBloomFilter(10_000, 0.01);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ReflectionTestUtils.setField(filter, "jdbcTemplate", jdbcTemplate);
+        filter.markLoaded();
+        filter.add("deleted@example.com");
+
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString(1)).thenReturn("elsewhere@example.com");
+        doAnswer(invocation -> {
+            // Registered on this node while the table is being read
+            filter.add("during@example.com");
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        filter.rebuild();
+
+        assertTrue(filter.mightContain("elsewhere@example.com"));
+        assertTrue(filter.mightContain("during@example.com"));
+        assertFalse(filter.mightContain("deleted@example.com"));
+    }
+
+    @Test
+    void rebuild_keepsTheCurrentBitsWhenTheTableCannotBeRead() {
+        EmailBloomFilter filter = new EmailBloomFilter(10_000, 0.01);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ReflectionTestUtils.setField(filter, "jdbcTemplate", jdbcTemplate);
+        filter.markLoaded();
+        filter.add("known@example.com");
+        doThrow(new DataAccessResourceFailureException("down"))
+                .when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        assertThrows(DataAccessResourceFailureException.class, filter::rebuild);
+
+        assertTrue(filter.mightContain("known@example.com"));
+    }
+}
@@ -0,0 +1,106 @@
+package io.stackmentor.index;
+
+import io.stackmentor.dto.user.UserSummaryDto;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.event.UserProfileUpdatedEvent;
+import io.stackmentor.repository.UserRepository;
+import io.stackmentor.specification.ExperienceRange;
+import io.stackmentor.specification.UserSpecificationBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class GeoGridIndexTest {
+
+    private static final GeoPoint COLUMBUS = new GeoPoint(39.9655, -83.0115);
+
+    private GeoGridIndex index;
+
+    private final UUID downtown = UUID.randomUUID();
+    private final UUID dublin = UUID.randomUUID();
+    private final UUID cincinnati = UUID.randomUUID();
+    private final UUID chicago = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        index = new GeoGridIndex(mock(UserRepository.class), new UserSpecificationBuilder());
+        index.put(user(downtown, 39.9612, -82.9988, RoleType.MENTOR, 10));
+        index.put(user(dublin, 40.0992, -83.1141, RoleType.MENTEE, 1));
+        index.put(user(cincinnati, 39.1031, -84.5120, RoleType.MENTOR, 3));
+        index.put(user(chicago, 41.8858, -87.6181, RoleType.MENTOR, 20));
+    }
+
+    @Test
+    void withinRadius_returnsOnlyUsersInsideTheCircleNearestFirst() {
+        List<GeoGridIndex.Neighbor> result = index.withinRadius(COLUMBUS, 30, null, ExperienceRange.ANY, 10);
+
+        assertEquals(List.of(downtown, dublin), ids(result));
+        assertTrue(result.get(0).distanceKm() < 2);
+    }
+
+    @Test
+    void withinRadius_appliesRoleAndExperienceFilters() {
+        List<GeoGridIndex.Neighbor> result = index.withinRadius(COLUMBUS, 200, RoleType.MENTOR,
+                ExperienceRange.parse("2-5"), 10);
+
+        assertEquals(List.of(cincinnati), ids(result));
+    }
+
+    @Test
+    void nearest_expandsRingsUntilKUsersFound() {
+        List<GeoGridIndex.Neighbor> result = index.nearest(COLUMBUS, 3, 500, RoleType.MENTOR, ExperienceRange.ANY);
+
+        assertEquals(List.of(downtown, cincinnati, chicago), ids(result));
+    }
+
+    @Test
+    void put_movesAndRemovesUsers() {
+        index.put(user(downtown, 41.8800, -87.6300, RoleType.MENTOR, 10));
+        assertEquals(List.of(dublin), ids(index.withinRadius(COLUMBUS, 30, null, ExperienceRange.ANY, 10)));
+
+        index.put(user(dublin, null, null, RoleType.MENTEE, 1));
+        assertTrue(index.withinRadius(COLUMBUS, 30, null, ExperienceRange.ANY, 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void onUserProfileUpdated_indexesVerifiedUsersOnly() {
+        UUID unverified = UUID.randomUUID();
+        UserSummaryDto profile = user(unverified, 39.9700, -83.0000, RoleType.MENTOR, 5);
+
+        index.onUserProfileUpdated(new UserProfileUpdatedEvent(profile, profile, false));
+        assertFalse(ids(index.withinRadius(COLUMBUS, 30, null, ExperienceRange.ANY, 10)).contains(unverified));
+
+        index.onUserProfileUpdated(new UserProfileUpdatedEvent(profile, profile, true));
+        assertTrue(ids(index.withinRadius(COLUMBUS, 30, null, ExperienceRange.ANY, 10)).contains(unverified));
+    }
+
+    @Test
+    void onUserProfileUpdated_removesUsersThatNoLongerQualify() {
+        UserSummaryDto profile = user(downtown, 39.9612, -82.9988, RoleType.MENTOR, 10);
+
+        index.onUserProfileUpdated(new UserProfileUpdatedEvent(profile, profile, false));
+
+        assertEquals(List.of(dublin), ids(index.withinRadius(COLUMBUS, 30, null, ExperienceRange.ANY, 10)));
+        assertEquals(3, index.size());
+    }
+
+    private static UserSummaryDto user(UUID id, Double latitude, Double longitude, RoleType role, int years) {
+        return UserSummaryDto.builder()
+                .userId(id)
+                .latitude(latitude)
+                .longitude(longitude)
+                .role(role)
+                .yearsOfExperience(years)
+                .build();
+    }
+
+    private static List<UUID> ids(List<GeoGridIndex.Neighbor> neighbors) {
+        return neighbors.stream().map(GeoGridIndex.Neighbor::userId).toList();
+    }
+}
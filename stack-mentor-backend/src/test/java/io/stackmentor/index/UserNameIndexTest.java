@@ -0,0 +1,141 @@
+package io.stackmentor.index;
+
+import io.stackmentor.dto.user.TypeaheadResultDto;
+import io.stackmentor.dto.user.UserSummaryDto;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.repository.UserRepository;
+import io.stackmentor.specification.UserSpecificationBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class UserNameIndexTest {
+
+    private UserRepository userRepository;
+    private UserNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        index = new UserNameIndex(userRepository, new UserSpecificationBuilder());
+    }
+
+    @Test
+    void search_matchesFirstAndLastNamePrefixesCaseInsensitively() {
+        load(user("Maria", "Lopez", RoleType.MENTEE, 1),
+                user("Mark", "Stone", RoleType.MENTEE, 1),
+                user("Sam", "Markham", RoleType.MENTEE, 1),
+                user("Tom", "Reed", RoleType.MENTEE, 1));
+
+        List<String> names = names(index.search("MAR", 10));
+
+        assertEquals(3, names.size());
+        assertTrue(names.containsAll(List.of("Maria Lopez", "Mark Stone", "Sam Markham")));
+    }
+
+    @Test
+    void search_ranksFirstNameMatchesAndMentorsHigher() {
+        load(user("Sam", "Jordan", RoleType.MENTEE, 2),
+                user("Jordan", "Hill", RoleType.MENTEE, 2),
+                user("Jordyn", "Park", RoleType.MENTOR, 15));
+
+        List<String> names = names(index.search("jord", 3));
+
+        assertEquals(List.of("Jordyn Park", "Jordan Hill", "Sam Jordan"), names);
+    }
+
+    @Test
+    void search_withSpaceMatchesFirstAndLastNameTogether() {
+        load(user("Anna", "Smith", RoleType.MENTOR, 5),
+                user("Anna", "Jones", RoleType.MENTOR, 5),
+                user("Annie", "Smithers", RoleType.MENTEE, 1));
+
+        assertEquals(List.of("Anna Smith", "Annie Smithers"), names(index.search("ann smi", 10)));
+    }
+
+    @Test
+    void search_respectsLimitAndReturnsNothingForUnknownPrefix() {
+        load(IntStream.range(0, 50)
+                .mapToObj(i -> user("Alex", "Number" + i, RoleType.MENTEE, i))
+                .toArray(UserSummaryDto[]::new));
+
+        assertEquals(5, index.search("al", 5).size());
+        assertTrue(index.search("zz", 5).isEmpty());
+    }
+
+    @Test
+    void search_ranksEveryMatchOfAShortPrefixNotJustTheFirstAlphabetically() {
+        Stream<UserSummaryDto> crowd = IntStream.range(0, UserNameIndex.SCAN_LIMIT * 2)
+                .mapToObj(i -> user("Aa" + i, "Member", RoleType.MENTEE, 0));
+        load(Stream.concat(crowd, Stream.of(
+                        user("Axel", "Berg", RoleType.MENTOR, 5),
+                        user("Azra", "Young", RoleType.MENTOR, 12)))
+                .toArray(UserSummaryDto[]::new));
+
+        // Served from the precomputed top, and by a full scan for limits beyond it
+        assertEquals(List.of("Azra Young", "Axel Berg"), names(index.search("a", 2)));
+        assertEquals(List.of("Azra Young", "Axel Berg"), names(index.search("A", 30)).subList(0, 2));
+        assertEquals(List.of("Azra Young"), names(index.search("AZ", 1)));
+    }
+
+    @Test
+    void search_withSpaceFindsRareLastNamesBehindACommonFirstName() {
+        Stream<UserSummaryDto> crowd = IntStream.range(0, UserNameIndex.SCAN_LIMIT * 2)
+                .mapToObj(i -> user("Ann", "Member" + i, RoleType.MENTEE, 0));
+        load(Stream.concat(crowd, Stream.of(user("Ann", "Zimmer", RoleType.MENTEE, 3)))
+                .toArray(UserSummaryDto[]::new));
+
+        assertEquals(List.of("Ann Zimmer"), names(index.search("a zim", 5)));
+    }
+
+    @Test
+    void search_listsAUserMatchingOnBothNamesOnceAtTheBetterScore() {
+        load(user("Anders", "Andersen", RoleType.MENTEE, 1),
+                user("Sam", "Anderton", RoleType.MENTOR, 2));
+
+        assertEquals(List.of("Anders Andersen", "Sam Anderton"), names(index.search("ander", 10)));
+    }
+
+    @Test
+    void add_makesUserSearchableBeforeAndAfterMerge() {
+        load();
+        index.add(user("Grace", "Hopper", RoleType.MENTOR, 30));
+
+        assertEquals(List.of("Grace Hopper"), names(index.search("hop", 10)));
+
+        for (int i = 0; i < UserNameIndex.MERGE_THRESHOLD; i++) {
+            index.add(user("Filler", "User" + i, RoleType.MENTEE, 0));
+        }
+
+        assertEquals(List.of("Grace Hopper"), names(index.search("grac", 10)));
+    }
+
+    private void load(UserSummaryDto... users) {
+        when(userRepository.streamSummaries(any())).thenReturn(Stream.of(users));
+        index.load();
+    }
+
+    private static UserSummaryDto user(String firstName, String lastName, RoleType role, int years) {
+        return UserSummaryDto.builder()
+                .userId(UUID.randomUUID())
+                .firstName(firstName)
+                .lastName(lastName)
+                .role(role)
+                .yearsOfExperience(years)
+                .build();
+    }
+
+    private static List<String> names(List<TypeaheadResultDto> results) {
+        return results.stream()
+                .map(result -> result.getFirstName() + " " + result.getLastName())
+                .toList();
+    }
+}
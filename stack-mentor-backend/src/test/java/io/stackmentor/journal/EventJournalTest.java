@@ -0,0 +1,136 @@
+package io.stackmentor.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final UUID groupId = UUID.randomUUID();
+
+    // Room for exactly four records per segment
+    private EventJournal openJournal() {
+        EventJournal journal = new EventJournal(directory, DataSize.ofBytes(4 * JournalSegment.RECORD_SIZE + 10),
+                new SimpleMeterRegistry());
+        journal.open();
+        return journal;
+    }
+
+    private static List<JournalRecord> replayAll(EventJournal journal, long after) {
+        List<JournalRecord> records = new ArrayList<>();
+        journal.replay(after, records::add);
+        return records;
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(JournalSegment.SUFFIX)).count();
+        }
+    }
+
+    @Test
+    void append_rotatesFullSegmentsAndReplaysInOrderAcrossThem() throws IOException {
+        EventJournal journal = openJournal();
+        List<UUID> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            UUID user = UUID.randomUUID();
+            users.add(user);
+            assertEquals(i + 1, journal.append(JournalRecordType.MEMBER_ADDED, groupId, user, null));
+        }
+
+        List<JournalRecord> records = replayAll(journal, 0);
+
+        assertEquals(3, segmentFiles());
+        assertEquals(10, records.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i + 1, records.get(i).sequence());
+            assertEquals(JournalRecordType.MEMBER_ADDED, records.get(i).type());
+            assertEquals(groupId, records.get(i).scopeId());
+            assertEquals(users.get(i), records.get(i).subjectId());
+            assertNull(records.get(i).actorId());
+        }
+        // Starting mid-segment skips straight to the next record
+        assertEquals(List.of(7L, 8L, 9L, 10L), replayAll(journal, 6).stream().map(JournalRecord::sequence).toList());
+        assertTrue(replayAll(journal, 10).isEmpty());
+    }
+
+    @Test
+    void open_continuesAfterTheLastIntactRecordAndDropsATornOne() throws IOException {
+        EventJournal journal = openJournal();
+        for (int i = 0; i < 7; i++) {
+            journal.append(JournalRecordType.USER_REGISTERED, null, UUID.randomUUID(), null);
+        }
+        journal.close();
+
+        // Simulate a crash halfway through writing record 7, the third in the newest segment
+        Path newest = JournalSegment.pathFor(directory, 5);
+        try (FileChannel channel = FileChannel.open(newest, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), 2L * JournalSegment.RECORD_SIZE + 50);
+        }
+
+        EventJournal reopened = openJournal();
+
+        assertEquals(6, reopened.lastSequence());
+        assertEquals(7, reopened.append(JournalRecordType.USER_VERIFIED, null, UUID.randomUUID(), null));
+        List<JournalRecord> records = replayAll(reopened, 0);
+        assertEquals(7, records.size());
+        assertEquals(JournalRecordType.USER_VERIFIED, records.get(6).type());
+    }
+
+    @Test
+    void subscribe_catchesUpThenReceivesLiveRecordsWithoutGapsOrRepeats() {
+        EventJournal journal = openJournal();
+        for (int i = 0; i < 6; i++) {
+            journal.append(JournalRecordType.MESSAGE_SENT, groupId, UUID.randomUUID(), UUID.randomUUID());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        journal.subscribe(2, record -> seen.add(record.sequence()));
+        journal.append(JournalRecordType.MESSAGE_READ, groupId, UUID.randomUUID(), UUID.randomUUID());
+
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L), seen);
+    }
+
+    @Test
+    void subscribe_failingSubscriberDoesNotFailTheAppend() {
+        EventJournal journal = openJournal();
+        journal.subscribe(0, record -> {
+            throw new IllegalStateException("broken projection");
+        });
+
+        assertEquals(1, journal.append(JournalRecordType.USER_REGISTERED, null, UUID.randomUUID(), null));
+    }
+
+    @Test
+    void deleteSegmentsThrough_keepsUncoveredAndRetainedSegments() throws IOException {
+        EventJournal journal = openJournal();
+        for (int i = 0; i < 14; i++) {
+            journal.append(JournalRecordType.USER_REGISTERED, null, UUID.randomUUID(), null);
+        }
+        // Segments start at 1, 5, 9 and 13
+
+        assertEquals(0, journal.deleteSegmentsThrough(3, 0));
+        assertEquals(1, journal.deleteSegmentsThrough(Long.MAX_VALUE, 2));
+
+        assertEquals(3, segmentFiles());
+        assertEquals(5, journal.firstSequence());
+        assertEquals(5, replayAll(journal, 0).get(0).sequence());
+    }
+}
@@ -0,0 +1,174 @@
+package io.stackmentor.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.stackmentor.repository.GroupMemberBulkRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class JournalProjectionsTest {
+
+    @TempDir
+    Path directory;
+
+    private final UUID groupId = UUID.randomUUID();
+
+    // Members of one group, the kind of set a cache would keep
+    static final class MembersProjection implements JournalProjection {
+
+        final Set<UUID> members = new HashSet<>();
+        long applied;
+        int replayed;
+
+        @Override
+        public String name() {
+            return "members";
+        }
+
+        @Override
+        public synchronized void apply(JournalRecord record) {
+            if (record.type() == JournalRecordType.MEMBER_ADDED) members.add(record.subjectId());
+            if (record.type() == JournalRecordType.MEMBER_REMOVED) members.remove(record.subjectId());
+            applied = record.sequence();
+            replayed++;
+        }
+
+        @Override
+        public synchronized long writeSnapshot(DataOutput out) throws IOException {
+            out.writeLong(applied);
+            out.writeInt(members.size());
+            for (UUID member : members) {
+                out.writeLong(member.getMostSignificantBits());
+                out.writeLong(member.getLeastSignificantBits());
+            }
+            return applied;
+        }
+
+        @Override
+        public synchronized long readSnapshot(DataInput in) throws IOException {
+            applied = in.readLong();
+            for (int i = in.readInt(); i > 0; i--) {
+                members.add(new UUID(in.readLong(), in.readLong()));
+            }
+            return applied;
+        }
+    }
+
+    private EventJournal openJournal() {
+        EventJournal journal = new EventJournal(directory, DataSize.ofBytes(4 * JournalSegment.RECORD_SIZE),
+                new SimpleMeterRegistry());
+        journal.open();
+        return journal;
+    }
+
+    private static JournalProjections projections(EventJournal journal, JournalProjection projection) {
+        JournalProjections projections = new JournalProjections();
+        ReflectionTestUtils.setField(projections, "journal", journal);
+        ReflectionTestUtils.setField(projections, "projections", List.of(projection));
+        ReflectionTestUtils.setField(projections, "retainedSegments", 0);
+        return projections;
+    }
+
+    @Test
+    void warm_restoresSnapshotAndReplaysOnlyTheRecordsAfterIt() {
+        EventJournal journal = openJournal();
+        MembersProjection first = new MembersProjection();
+        JournalProjections running = projections(journal, first);
+        running.warm();
+
+        UUID ada = UUID.randomUUID();
+        UUID grace = UUID.randomUUID();
+        UUID linus = UUID.randomUUID();
+        journal.append(JournalRecordType.MEMBER_ADDED, groupId, ada, null);
+        journal.append(JournalRecordType.MEMBER_ADDED, groupId, grace, null);
+        running.snapshot();
+        journal.append(JournalRecordType.MEMBER_REMOVED, groupId, ada, null);
+        journal.append(JournalRecordType.MEMBER_ADDED, groupId, linus, null);
+        journal.append(JournalRecordType.MESSAGE_SENT, groupId, UUID.randomUUID(), grace);
+        journal.close();
+
+        // Restart
+        EventJournal reopened = openJournal();
+        MembersProjection second = new MembersProjection();
+        projections(reopened, second).warm();
+
+        assertEquals(Set.of(grace, linus), second.members);
+        assertEquals(3, second.replayed);
+        reopened.append(JournalRecordType.MEMBER_REMOVED, groupId, grace, null);
+        assertEquals(Set.of(linus), second.members);
+    }
+
+    @Test
+    void snapshot_deletesSegmentsEverySnapshotCovers() throws IOException {
+        EventJournal journal = openJournal();
+        MembersProjection projection = new MembersProjection();
+        JournalProjections running = projections(journal, projection);
+        running.warm();
+        for (int i = 0; i < 10; i++) {
+            journal.append(JournalRecordType.MEMBER_ADDED, groupId, UUID.randomUUID(), null);
+        }
+
+        running.snapshot();
+
+        // Records 1-8 filled two segments; 9 and 10 are in the open one
+        assertEquals(9, journal.firstSequence());
+        assertTrue(Files.exists(running.snapshotPath(projection)));
+        assertEquals(10, projection.members.size());
+    }
+
+    @Test
+    void warm_seedsFromTheDatabaseWhenThereIsNoSnapshotAndReplaysOnlyLaterRecords() {
+        EventJournal journal = openJournal();
+        UUID ada = UUID.randomUUID();
+        UUID grace = UUID.randomUUID();
+        UUID linus = UUID.randomUUID();
+        // Journaled before this node had the projection; already in the table
+        journal.append(JournalRecordType.MEMBER_ADDED, groupId, ada, null);
+        journal.append(JournalRecordType.MEMBER_ADDED, groupId, linus, null);
+        journal.append(JournalRecordType.MEMBER_REMOVED, groupId, linus, null);
+
+        GroupMemberBulkRepository repository = mock(GroupMemberBulkRepository.class);
+        doAnswer(invocation -> {
+            BiConsumer<UUID, UUID> rows = invocation.getArgument(0);
+            rows.accept(groupId, ada);
+            rows.accept(groupId, grace);
+            return null;
+        }).when(repository).forEachMember(any());
+        GroupMembersProjection projection = new GroupMembersProjection();
+        ReflectionTestUtils.setField(projection, "groupMemberBulkRepository", repository);
+        JournalProjections running = projections(journal, projection);
+
+        running.warm();
+
+        assertEquals(Set.of(ada, grace), projection.members(groupId));
+        journal.append(JournalRecordType.MEMBER_REMOVED, groupId, ada, null);
+        assertEquals(Set.of(grace), projection.members(groupId));
+
+        // The seeded state snapshots like a replayed one
+        running.snapshot();
+        journal.close();
+        EventJournal reopened = openJournal();
+        GroupMembersProjection restored = new GroupMembersProjection();
+        ReflectionTestUtils.setField(restored, "groupMemberBulkRepository", repository);
+        projections(reopened, restored).warm();
+
+        assertEquals(Set.of(grace), restored.members(groupId));
+        verify(repository, times(1)).forEachMember(any());
+    }
+}
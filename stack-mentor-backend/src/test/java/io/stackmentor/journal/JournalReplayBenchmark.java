@@ -0,0 +1,68 @@
+package io.stackmentor.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Append and replay throughput of the event journal over several segment rotations. Run with
+ * {@code ./gradlew benchmark}; the regular test task skips it.
+ */
+@Tag("benchmark")
+class JournalReplayBenchmark {
+
+    private static final int RECORDS = 2_000_000;
+    private static final DataSize SEGMENT_SIZE = DataSize.ofMegabytes(32);
+    private static final int REPLAYS = 5;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayThroughput() {
+        EventJournal journal = new EventJournal(directory, SEGMENT_SIZE, new SimpleMeterRegistry());
+        journal.open();
+
+        UUID[] conversations = new UUID[1_000];
+        for (int i = 0; i < conversations.length; i++) {
+            conversations[i] = UUID.randomUUID();
+        }
+
+        long appendStart = System.nanoTime();
+        for (int i = 0; i < RECORDS; i++) {
+            journal.append(i % 4 == 0 ? JournalRecordType.MESSAGE_SENT : JournalRecordType.MESSAGE_READ,
+                    conversations[i % conversations.length], UUID.randomUUID(), UUID.randomUUID());
+        }
+        double appendSeconds = (System.nanoTime() - appendStart) / 1e9;
+        journal.force();
+
+        // Fresh instance, as after a restart; the first replay warms the JIT and page cache
+        EventJournal reopened = new EventJournal(directory, SEGMENT_SIZE, new SimpleMeterRegistry());
+        reopened.open();
+        double best = Double.MAX_VALUE;
+        long[] checksum = new long[1];
+        for (int round = 0; round <= REPLAYS; round++) {
+            checksum[0] = 0;
+            long start = System.nanoTime();
+            reopened.replay(0, record -> checksum[0] += record.sequence() ^ record.subjectId().getLeastSignificantBits());
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (round > 0) best = Math.min(best, seconds);
+        }
+
+        double megabytes = (double) RECORDS * JournalSegment.RECORD_SIZE / (1 << 20);
+        System.out.printf("%d records, %.0f MB in %d-MB segments%n", RECORDS, megabytes, SEGMENT_SIZE.toMegabytes());
+        System.out.printf("append: %,.0f records/s%n", RECORDS / appendSeconds);
+        System.out.printf("replay: %,.0f records/s, %.0f MB/s%n", RECORDS / best, megabytes / best);
+
+        assertEquals(RECORDS, reopened.lastSequence());
+        assertNotEquals(0, checksum[0]);
+        assertTrue(RECORDS / best > 1_000_000, "replay should exceed a million records per second");
+    }
+}
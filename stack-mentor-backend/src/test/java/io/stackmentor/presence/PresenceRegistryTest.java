@@ -0,0 +1,118 @@
+package io.stackmentor.presence;
+
+import io.stackmentor.dto.presence.PresenceBatchDto;
+import io.stackmentor.dto.presence.PresenceChangeDto;
+import io.stackmentor.relay.MessageBroadcaster;
+import io.stackmentor.repository.ConversationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PresenceRegistryTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID conversationId = UUID.randomUUID();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private MessageBroadcaster broadcaster;
+    private ConversationRepository conversationRepository;
+    private PresenceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = mock(MessageBroadcaster.class);
+        conversationRepository = mock(ConversationRepository.class);
+        when(conversationRepository.findConversationIdsByUserId(userId)).thenReturn(List.of(conversationId));
+
+        registry = new PresenceRegistry(broadcaster, conversationRepository, now::get,
+                Duration.ofSeconds(30), Duration.ofSeconds(6));
+    }
+
+    private void advanceSeconds(long seconds) {
+        for (long i = 0; i < seconds; i++) {
+            now.addAndGet(PresenceRegistry.TICK_MILLIS);
+            registry.advanceWheel();
+        }
+    }
+
+    @Test
+    void heartbeat_publishesOnlyTheTransition() {
+        assertTrue(registry.heartbeat(userId));
+        assertFalse(registry.heartbeat(userId));
+        assertFalse(registry.heartbeat(userId));
+
+        assertEquals(List.of(new PresenceChangeDto(userId, true, null)), registry.pendingChanges(conversationId));
+        // The membership lookup only happens when the user comes online
+        verify(conversationRepository, times(1)).findConversationIdsByUserId(userId);
+    }
+
+    @Test
+    void heartbeats_keepUserOnlinePastTheOriginalDeadline() {
+        registry.heartbeat(userId);
+
+        for (int i = 0; i < 5; i++) {
+            advanceSeconds(20);
+            registry.heartbeat(userId);
+        }
+
+        assertTrue(registry.isOnline(userId));
+    }
+
+    @Test
+    void missingHeartbeats_expireUserAndCoalesceIntoOneChange() {
+        registry.heartbeat(userId);
+
+        advanceSeconds(31);
+
+        assertFalse(registry.isOnline(userId));
+        assertEquals(0, registry.onlineCount());
+        // Online then offline within one window collapses to the latest state
+        assertEquals(List.of(new PresenceChangeDto(userId, false, null)), registry.pendingChanges(conversationId));
+    }
+
+    @Test
+    void typing_expiresOnItsOwnTtl() {
+        registry.heartbeat(userId);
+        registry.typing(userId, conversationId, true);
+
+        advanceSeconds(7);
+
+        assertTrue(registry.isOnline(userId));
+        assertEquals(List.of(new PresenceChangeDto(userId, true, false)), registry.pendingChanges(conversationId));
+    }
+
+    @Test
+    void flush_sendsOneBatchPerConversationAndDrainsIt() {
+        registry.heartbeat(userId);
+        registry.typing(userId, conversationId, true);
+
+        registry.flush();
+        registry.flush();
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(broadcaster, times(1))
+                .broadcast(eq("/topic/conversations/" + conversationId + "/presence"), payload.capture());
+        PresenceBatchDto batch = (PresenceBatchDto) payload.getValue();
+        assertEquals(conversationId, batch.getConversationId());
+        assertEquals(List.of(new PresenceChangeDto(userId, true, true)), batch.getChanges());
+    }
+
+    @Test
+    void heartbeatAfterDisconnect_bringsUserBackOnline() {
+        registry.heartbeat(userId);
+        registry.disconnect(userId);
+
+        assertFalse(registry.isOnline(userId));
+        assertTrue(registry.heartbeat(userId));
+        assertTrue(registry.isOnline(userId));
+    }
+}
@@ -0,0 +1,111 @@
+package io.stackmentor.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.stackmentor.enums.PositionType;
+import io.stackmentor.exception.RateLimitExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageRateLimiterTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID conversationId = UUID.randomUUID();
+    private final AtomicLong now = new AtomicLong(10_000);
+
+    private SimpleMeterRegistry meterRegistry;
+    private MessageRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        MessageRateLimitProperties properties = new MessageRateLimitProperties(
+                Map.of(PositionType.MEMBER, new MessageRateLimitProperties.Limit(3, 1),
+                        PositionType.MODERATOR, new MessageRateLimitProperties.Limit(6, 2)),
+                Map.of(PositionType.MEMBER, new MessageRateLimitProperties.Limit(5, 1)),
+                Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new MessageRateLimiter(properties, meterRegistry, now::get);
+    }
+
+    private double throttled(String scope, PositionType position) {
+        return meterRegistry.get("message.send.throttled")
+                .tag("scope", scope)
+                .tag("position", position.getValue())
+                .counter().count();
+    }
+
+    @Test
+    void acquire_allowsBurstThenThrottlesUntilRefill() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(userId, conversationId, PositionType.MEMBER);
+        }
+
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(userId, conversationId, PositionType.MEMBER));
+        assertEquals(1000, exception.getRetryAfterMillis());
+        assertEquals(1, throttled(MessageRateLimiter.SCOPE_CONVERSATION, PositionType.MEMBER));
+
+        now.addAndGet(1000);
+        limiter.acquire(userId, conversationId, PositionType.MEMBER);
+    }
+
+    @Test
+    void acquire_appliesUserWideCapAcrossConversations() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(userId, UUID.randomUUID(), PositionType.MEMBER);
+        }
+
+        assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(userId, UUID.randomUUID(), PositionType.MEMBER));
+        assertEquals(1, throttled(MessageRateLimiter.SCOPE_USER, PositionType.MEMBER));
+    }
+
+    @Test
+    void acquire_refundsUserTokenWhenConversationLimitRejects() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(userId, conversationId, PositionType.MEMBER);
+        }
+        assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(userId, conversationId, PositionType.MEMBER));
+
+        // Two user-wide tokens are left, the rejected send did not use one
+        limiter.acquire(userId, UUID.randomUUID(), PositionType.MEMBER);
+        limiter.acquire(userId, UUID.randomUUID(), PositionType.MEMBER);
+        assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(userId, UUID.randomUUID(), PositionType.MEMBER));
+    }
+
+    @Test
+    void acquire_usesPositionSpecificLimitsAndFallsBackToMember() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(userId, conversationId, PositionType.MODERATOR);
+        }
+        // Admin has no per-conversation entry of its own and gets the member burst of 3
+        UUID adminId = UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(adminId, conversationId, PositionType.ADMIN);
+        }
+        assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(adminId, conversationId, PositionType.ADMIN));
+    }
+
+    @Test
+    void evictIdle_dropsOnlyBucketsPastTheIdleWindow() {
+        limiter.acquire(userId, conversationId, PositionType.MEMBER);
+        now.addAndGet(Duration.ofSeconds(30).toMillis());
+        limiter.acquire(UUID.randomUUID(), conversationId, PositionType.MEMBER);
+        assertEquals(4, limiter.bucketCount());
+
+        now.addAndGet(Duration.ofSeconds(45).toMillis());
+        limiter.evictIdle();
+
+        assertEquals(2, limiter.bucketCount());
+        assertEquals(2, meterRegistry.get("message.rate.buckets").gauge().value());
+    }
+}
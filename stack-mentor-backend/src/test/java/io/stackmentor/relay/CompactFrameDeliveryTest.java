@@ -0,0 +1,170 @@
+package io.stackmentor.relay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.stackmentor.codec.CompactMessageCodec;
+import io.stackmentor.config.WebSocketConfig;
+import io.stackmentor.dto.message.CompactMessagesDto;
+import io.stackmentor.dto.message.MessageDto;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.event.MessageSentEvent;
+import io.stackmentor.repository.ConversationRepository;
+import io.stackmentor.security.ConversationAccess;
+import io.stackmentor.security.StompAuthenticationInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketServletAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compact frames through a real broker, STOMP handler and WebSocket client: a frame the server
+ * writes as text instead of binary reaches the client with its CBOR mangled, which a mocked
+ * messaging template cannot show.
+ */
+@SpringBootTest(classes = CompactFrameDeliveryTest.WebSocketOnly.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CompactFrameDeliveryTest {
+
+    private static final String TOKEN = "token";
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class, WebSocketServletAutoConfiguration.class})
+    @Import({WebSocketConfig.class, StompAuthenticationInterceptor.class, ConversationAccess.class,
+            MessageBroadcaster.class, LocalSubscriptionRegistry.class, CompactMessageCodec.class})
+    static class WebSocketOnly {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ConversationRepository conversationRepository() {
+            ConversationRepository repository = mock(ConversationRepository.class);
+            when(repository.isParticipant(any(), any())).thenReturn(true);
+            return repository;
+        }
+
+        @Bean
+        JwtDecoder jwtDecoder() {
+            return token -> Jwt.withTokenValue(token).header("alg", "HS256").subject(UUID.randomUUID().toString())
+                    .claim("role", "mentee").expiresAt(Instant.now().plusSeconds(60)).build();
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MessageBroadcaster broadcaster;
+
+    @Autowired
+    private LocalSubscriptionRegistry subscriptions;
+
+    @Autowired
+    private CompactMessageCodec codec;
+
+    private StompSession session;
+
+    @AfterEach
+    void tearDown() {
+        if (session != null) session.disconnect();
+    }
+
+    @Test
+    void compactFrame_reachesTheClientAsDecodableCbor() throws Exception {
+        UUID conversationId = UUID.randomUUID();
+        String destination = "/topic/conversations/" + conversationId + "/messages"
+                + MessageBroadcaster.COMPACT_SUFFIX;
+        MessageDto message = MessageDto.builder()
+                .messageId(UUID.randomUUID())
+                .conversationId(conversationId)
+                .seq(7L)
+                .senderId(UUID.randomUUID())
+                .senderName("Grace Hopper")
+                .content("héllo ✓")
+                .sentAt(LocalDateTime.of(2025, 3, 1, 12, 0))
+                .build();
+
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + TOKEN);
+        session = new WebSocketStompClient(new StandardWebSocketClient())
+                .connectAsync("ws://localhost:" + port + "/ws", new WebSocketHttpHeaders(), connectHeaders,
+                        new StompSessionHandlerAdapter() {
+                        })
+                .get(5, TimeUnit.SECONDS);
+
+        BlockingQueue<StompHeaders> headers = new LinkedBlockingQueue<>();
+        BlockingQueue<byte[]> payloads = new LinkedBlockingQueue<>();
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders frameHeaders) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders frameHeaders, Object payload) {
+                headers.add(frameHeaders);
+                payloads.add((byte[]) payload);
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!subscriptions.hasSubscribers(destination)) {
+            assertTrue(System.nanoTime() < deadline, "Subscription never reached the server");
+            Thread.sleep(10);
+        }
+
+        broadcaster.onMessageSent(new MessageSentEvent(message, RoleType.MENTEE));
+
+        byte[] payload = payloads.poll(5, TimeUnit.SECONDS);
+        assertNotNull(payload, "No compact frame delivered");
+        StompHeaders frameHeaders = headers.poll();
+        assertEquals(MimeTypeUtils.APPLICATION_OCTET_STREAM, frameHeaders.getContentType());
+        assertEquals(MediaType.APPLICATION_CBOR_VALUE, frameHeaders.getFirst(MessageBroadcaster.WIRE_FORMAT_HEADER));
+
+        List<MessageDto> decoded = codec.decode(codec.fromCbor(payload, CompactMessagesDto.class));
+        assertEquals(message.getMessageId(), decoded.get(0).getMessageId());
+        assertEquals("héllo ✓", decoded.get(0).getContent());
+        assertEquals(message.getSentAt(), decoded.get(0).getSentAt());
+    }
+}
@@ -0,0 +1,188 @@
+package io.stackmentor.relay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.stackmentor.codec.CompactMessageCodec;
+import io.stackmentor.dto.message.CompactMessagesDto;
+import io.stackmentor.dto.message.MessageDto;
+import io.stackmentor.dto.message.ReadReceiptDto;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.event.MessageSentEvent;
+import io.stackmentor.event.MessagesReadEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MessageBroadcasterTest {
+
+    private static final String DESTINATION = "/topic/conversations/abc/messages";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final CompactMessageCodec codec = new CompactMessageCodec();
+
+    private SimpMessagingTemplate messagingTemplate;
+    private RelayTransport transport;
+    private LocalSubscriptionRegistry subscriptions;
+    private MessageBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        transport = mock(RelayTransport.class);
+        subscriptions = new LocalSubscriptionRegistry();
+        broadcaster = new MessageBroadcaster(messagingTemplate, objectMapper, codec, subscriptions, transport,
+                new SimpleMeterRegistry(), "node-a", 2, 100);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String deliveredPayload() {
+        ArgumentCaptor<Message<?>> message = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate).send(eq(DESTINATION), message.capture());
+        return new String((byte[]) message.getValue().getPayload(), StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompactMessagesDto deliveredCompact(String destination) {
+        ArgumentCaptor<Message<?>> message = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate).send(eq(destination + MessageBroadcaster.COMPACT_SUFFIX), message.capture());
+        return codec.fromCbor((byte[]) message.getValue().getPayload(), CompactMessagesDto.class);
+    }
+
+    private static MessageDto message(UUID conversationId) {
+        return MessageDto.builder()
+                .messageId(UUID.randomUUID())
+                .conversationId(conversationId)
+                .seq(4L)
+                .senderId(UUID.randomUUID())
+                .senderName("Ada Lovelace")
+                .content("hello")
+                .sentAt(LocalDateTime.of(2025, 3, 1, 12, 0))
+                .build();
+    }
+
+    @Test
+    void broadcast_deliversLocallyAndRelaysInBatches() {
+        broadcaster.broadcast(DESTINATION, Map.of("content", "one"));
+        broadcaster.broadcast("/topic/other", Map.of("content", "two"));
+        broadcaster.broadcast("/topic/other", Map.of("content", "three"));
+
+        assertEquals("{\"content\":\"one\"}", deliveredPayload());
+
+        broadcaster.flush();
+
+        ArgumentCaptor<List<RelayEnvelope>> batches = ArgumentCaptor.captor();
+        verify(transport, times(2)).publish(batches.capture());
+        assertEquals(List.of(2, 1), batches.getAllValues().stream().map(List::size).toList());
+        assertEquals("node-a", batches.getAllValues().get(0).get(0).nodeId());
+    }
+
+    @Test
+    void receive_deliversRemoteEventsOnlyToLocallySubscribedDestinations() {
+        subscriptions.subscribe("session-1", "sub-1", DESTINATION);
+
+        broadcaster.receive(List.of(
+                new RelayEnvelope(1, "node-b", DESTINATION, "{\"content\":\"remote\"}"),
+                new RelayEnvelope(2, "node-b", "/topic/nobody-here", "{}"),
+                new RelayEnvelope(3, "node-a", DESTINATION, "{\"content\":\"own\"}")));
+
+        assertEquals("{\"content\":\"remote\"}", deliveredPayload());
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    void receive_stopsDeliveringOnceTheLastLocalSubscriberLeaves() {
+        subscriptions.subscribe("session-1", "sub-1", DESTINATION);
+        subscriptions.subscribe("session-2", "sub-1", DESTINATION);
+        subscriptions.unsubscribe("session-1", "sub-1");
+        assertTrue(subscriptions.hasSubscribers(DESTINATION));
+
+        subscriptions.unsubscribe("session-2", "sub-1");
+        broadcaster.receive(List.of(new RelayEnvelope(1, "node-b", DESTINATION, "{}")));
+
+        assertFalse(subscriptions.hasSubscribers(DESTINATION));
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void onMessageSent_encodesCompactFrameOnlyWhenSomeoneSubscribedToIt() {
+        UUID conversationId = UUID.randomUUID();
+        String destination = "/topic/conversations/" + conversationId + "/messages";
+        MessageDto message = message(conversationId);
+
+        broadcaster.onMessageSent(new MessageSentEvent(message, RoleType.MENTOR));
+        verify(messagingTemplate).send(eq(destination), any(Message.class));
+        verifyNoMoreInteractions(messagingTemplate);
+
+        subscriptions.subscribe("session-1", "sub-1", destination + MessageBroadcaster.COMPACT_SUFFIX);
+        broadcaster.onMessageSent(new MessageSentEvent(message, RoleType.MENTOR));
+
+        List<MessageDto> decoded = codec.decode(deliveredCompact(destination));
+        assertEquals(message.getMessageId(), decoded.get(0).getMessageId());
+        assertEquals(message.getSentAt(), decoded.get(0).getSentAt());
+    }
+
+    @Test
+    void receive_reencodesRelayedMessagesForCompactSubscribers() throws Exception {
+        UUID conversationId = UUID.randomUUID();
+        String destination = "/topic/conversations/" + conversationId + "/messages";
+        MessageDto message = message(conversationId);
+        subscriptions.subscribe("session-1", "sub-1", destination + MessageBroadcaster.COMPACT_SUFFIX);
+
+        broadcaster.receive(List.of(
+                new RelayEnvelope(1, "node-b", destination, objectMapper.writeValueAsString(message))));
+
+        assertEquals("hello", codec.decode(deliveredCompact(destination)).get(0).getContent());
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    void onMessageSent_serializesOnceForAllSubscribersWithoutReadState() {
+        UUID conversationId = UUID.randomUUID();
+        String destination = "/topic/conversations/" + conversationId + "/messages";
+        for (int i = 0; i < 3; i++) {
+            subscriptions.subscribe("session-" + i, "sub-1", destination);
+        }
+        MessageDto message = message(conversationId);
+        message.setRead(true);
+
+        broadcaster.onMessageSent(new MessageSentEvent(message, RoleType.MENTOR));
+        broadcaster.flush();
+
+        // One send to the broker, which hands the same bytes to each session
+        ArgumentCaptor<Message<?>> sent = ArgumentCaptor.captor();
+        verify(messagingTemplate).send(eq(destination), sent.capture());
+        String json = new String((byte[]) sent.getValue().getPayload(), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"content\":\"hello\""));
+        assertFalse(json.contains("\"read\""));
+        assertTrue(message.isRead(), "the caller's DTO is left alone");
+
+        ArgumentCaptor<List<RelayEnvelope>> batch = ArgumentCaptor.captor();
+        verify(transport).publish(batch.capture());
+        assertEquals(json, batch.getValue().get(0).payload());
+    }
+
+    @Test
+    void onMessagesRead_broadcastsReceiptOnItsOwnDestination() {
+        UUID conversationId = UUID.randomUUID();
+        UUID messageId = UUID.randomUUID();
+
+        broadcaster.onMessagesRead(new MessagesReadEvent(new ReadReceiptDto(conversationId, UUID.randomUUID(),
+                List.of(messageId), LocalDateTime.of(2025, 3, 1, 12, 5))));
+
+        ArgumentCaptor<Message<?>> sent = ArgumentCaptor.captor();
+        verify(messagingTemplate).send(eq("/topic/conversations/" + conversationId + "/receipts"), sent.capture());
+        assertTrue(new String((byte[]) sent.getValue().getPayload(), StandardCharsets.UTF_8).contains(messageId.toString()));
+    }
+}
@@ -0,0 +1,95 @@
+package io.stackmentor.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingJwtDecoderTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-03-01T12:00:00Z"));
+    private final JwtDecoder delegate = mock(JwtDecoder.class);
+    private final CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, new SimpleMeterRegistry(), clock);
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private Jwt jwt(Instant expiresAt) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("user")
+                .issuedAt(clock.instant())
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    @Test
+    void decode_verifiesEachTokenOnceWhileItIsValid() {
+        Jwt jwt = jwt(clock.instant().plus(Duration.ofMinutes(10)));
+        when(delegate.decode("a")).thenReturn(jwt);
+
+        assertSame(jwt, decoder.decode("a"));
+        clock.advance(Duration.ofMinutes(9));
+        assertSame(jwt, decoder.decode("a"));
+
+        verify(delegate, times(1)).decode("a");
+    }
+
+    @Test
+    void decode_dropsTheEntryWhenTheTokenExpires() {
+        when(delegate.decode("a")).thenReturn(jwt(clock.instant().plus(Duration.ofMinutes(10))));
+        decoder.decode("a");
+
+        clock.advance(Duration.ofMinutes(10));
+        when(delegate.decode("a")).thenThrow(new BadJwtException("expired"));
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("a"));
+        assertEquals(0, decoder.size());
+    }
+
+    @Test
+    void decode_neverCachesRejectedTokens() {
+        when(delegate.decode("forged")).thenThrow(new BadJwtException("bad signature"));
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+
+        verify(delegate, times(2)).decode("forged");
+        assertEquals(0, decoder.size());
+    }
+}
@@ -0,0 +1,50 @@
+package io.stackmentor.security;
+
+import io.stackmentor.repository.ConversationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConversationAccessTest {
+
+    private final UUID conversationId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    private ConversationRepository conversationRepository;
+    private ConversationAccess access;
+
+    @BeforeEach
+    void setUp() {
+        conversationRepository = mock(ConversationRepository.class);
+        access = new ConversationAccess(conversationRepository, now::get, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void requireParticipant_reusesAPassedCheckWithinTheWindow() {
+        when(conversationRepository.isParticipant(conversationId, userId)).thenReturn(true);
+
+        access.requireParticipant(conversationId, userId);
+        now.addAndGet(30_000);
+        access.requireParticipant(conversationId, userId);
+
+        verify(conversationRepository, times(1)).isParticipant(conversationId, userId);
+    }
+
+    @Test
+    void requireParticipant_rejectsOnceTheUserLeavesAndTheWindowPasses() {
+        when(conversationRepository.isParticipant(conversationId, userId)).thenReturn(true, false);
+
+        access.requireParticipant(conversationId, userId);
+        now.addAndGet(61_000);
+
+        assertThrows(AccessDeniedException.class, () -> access.requireParticipant(conversationId, userId));
+    }
+}
@@ -0,0 +1,124 @@
+package io.stackmentor.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.stackmentor.config.SecurityConfig;
+import io.stackmentor.dto.user.AccessTokenDto;
+import io.stackmentor.enums.PositionType;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenServiceTest {
+
+    private static final String OLD_SECRET = secret('a');
+    private static final String NEW_SECRET = secret('b');
+
+    private final SecurityConfig securityConfig = new SecurityConfig();
+
+    private final User admin = User.builder()
+            .userId(UUID.randomUUID())
+            .role(RoleType.MENTOR)
+            .position(PositionType.ADMIN)
+            .build();
+
+    private static String secret(char fill) {
+        return Base64.getEncoder().encodeToString(String.valueOf(fill).repeat(32).getBytes());
+    }
+
+    private static JwtProperties properties(String signingKey, Map<String, String> keys) {
+        return new JwtProperties(null, Duration.ofMinutes(30), signingKey, keys, 0);
+    }
+
+    private JwtTokenService tokenService(JwtProperties properties) {
+        JwtKeys keys = JwtKeys.from(properties);
+        JwtTokenService service = new JwtTokenService();
+        ReflectionTestUtils.setField(service, "jwtEncoder", securityConfig.jwtEncoder(keys));
+        ReflectionTestUtils.setField(service, "jwtKeys", keys);
+        ReflectionTestUtils.setField(service, "properties", properties);
+        return service;
+    }
+
+    private JwtDecoder decoder(JwtProperties properties) {
+        return securityConfig.jwtDecoder(JwtKeys.from(properties), properties, new SimpleMeterRegistry());
+    }
+
+    private static Map<String, String> keys(String... idsAndSecrets) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        for (int i = 0; i < idsAndSecrets.length; i += 2) {
+            keys.put(idsAndSecrets[i], idsAndSecrets[i + 1]);
+        }
+        return keys;
+    }
+
+    @Test
+    void issue_signsWithTheSigningKeyAndCarriesRoleAndPosition() {
+        JwtProperties properties = properties(null, keys("k1", OLD_SECRET));
+
+        AccessTokenDto token = tokenService(properties).issue(admin);
+        Jwt jwt = decoder(properties).decode(token.getAccessToken());
+
+        assertEquals("Bearer", token.getTokenType());
+        assertEquals(1800, token.getExpiresIn());
+        assertEquals("k1", jwt.getHeaders().get("kid"));
+        assertEquals(admin.getUserId().toString(), jwt.getSubject());
+        assertEquals("stackmentor", jwt.getClaimAsString("iss"));
+
+        JwtAuthenticationToken authentication = JwtTokenService.toAuthentication(jwt);
+        assertEquals(admin.getUserId().toString(), authentication.getName());
+        assertEquals(Set.of("ROLE_MENTOR", "ROLE_ADMIN"), authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void rotation_keepsOldTokensValidUntilTheOldKeyIsRemoved() {
+        String issuedBeforeRotation = tokenService(properties(null, keys("old", OLD_SECRET))).issue(admin).getAccessToken();
+
+        JwtProperties rotated = properties("new", keys("old", OLD_SECRET, "new", NEW_SECRET));
+        String issuedAfterRotation = tokenService(rotated).issue(admin).getAccessToken();
+        JwtDecoder duringRotation = decoder(rotated);
+        JwtDecoder afterRotation = decoder(properties(null, keys("new", NEW_SECRET)));
+
+        assertEquals("new", duringRotation.decode(issuedAfterRotation).getHeaders().get("kid"));
+        assertEquals(admin.getUserId().toString(), duringRotation.decode(issuedBeforeRotation).getSubject());
+        assertThrows(JwtException.class, () -> afterRotation.decode(issuedBeforeRotation));
+        assertEquals(admin.getUserId().toString(), afterRotation.decode(issuedAfterRotation).getSubject());
+    }
+
+    @Test
+    void decode_rejectsTokensSignedWithAnUnknownSecretOrAnotherIssuer() {
+        String forged = tokenService(properties(null, keys("k1", NEW_SECRET))).issue(admin).getAccessToken();
+        JwtProperties otherIssuer = new JwtProperties("someone-else", null, null, keys("k1", OLD_SECRET), 0);
+        String foreign = tokenService(otherIssuer).issue(admin).getAccessToken();
+        JwtDecoder decoder = decoder(properties(null, keys("k1", OLD_SECRET)));
+
+        assertThrows(JwtException.class, () -> decoder.decode(forged));
+        assertThrows(JwtException.class, () -> decoder.decode(foreign));
+    }
+
+    @Test
+    void keys_requireLongSecretsAndAnExplicitSigningKeyWhenThereAreSeveral() {
+        String shortSecret = Base64.getEncoder().encodeToString(new byte[16]);
+
+        assertThrows(IllegalArgumentException.class, () -> JwtKeys.from(properties(null, keys("k1", shortSecret))));
+        assertThrows(IllegalArgumentException.class,
+                () -> JwtKeys.from(properties(null, keys("k1", OLD_SECRET, "k2", NEW_SECRET))));
+        assertThrows(IllegalArgumentException.class, () -> properties("k3", keys("k1", OLD_SECRET)));
+        assertTrue(JwtKeys.from(properties(null, Map.of())).signingKeyId().startsWith("ephemeral-"));
+    }
+}
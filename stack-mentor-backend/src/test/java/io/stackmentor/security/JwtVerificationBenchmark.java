@@ -0,0 +1,85 @@
+package io.stackmentor.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.stackmentor.config.SecurityConfig;
+import io.stackmentor.enums.PositionType;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.model.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-request cost of authenticating a bearer token, with and without the verified-token
+ * cache, for a pool of clients each resending its own token. Run with
+ * {@code ./gradlew benchmark}; the regular test task skips it.
+ */
+@Tag("benchmark")
+class JwtVerificationBenchmark {
+
+    private static final int CLIENTS = 1_000;
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+
+    @Test
+    void verification_cachedVersusUncached() {
+        JwtProperties properties = new JwtProperties(null, Duration.ofHours(1), null,
+                Map.of("k1", Base64.getEncoder().encodeToString(new byte[32])), CLIENTS * 2);
+        JwtKeys keys = JwtKeys.from(properties);
+        SecurityConfig securityConfig = new SecurityConfig();
+        JwtTokenService tokenService = new JwtTokenService();
+        ReflectionTestUtils.setField(tokenService, "jwtEncoder", securityConfig.jwtEncoder(keys));
+        ReflectionTestUtils.setField(tokenService, "jwtKeys", keys);
+        ReflectionTestUtils.setField(tokenService, "properties", properties);
+
+        List<String> tokens = new ArrayList<>(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            tokens.add(tokenService.issue(User.builder().userId(UUID.randomUUID())
+                    .role(RoleType.MENTEE).position(PositionType.MEMBER).build()).getAccessToken());
+        }
+
+        CachingJwtDecoder cached = (CachingJwtDecoder) securityConfig.jwtDecoder(keys, properties, new SimpleMeterRegistry());
+        JwtDecoder uncached = uncachedDecoder(securityConfig, keys, properties);
+
+        double uncachedMicros = microsPerDecode(uncached, tokens);
+        double cachedMicros = microsPerDecode(cached, tokens);
+
+        System.out.printf("%d clients, %d requests%n", CLIENTS, ITERATIONS);
+        System.out.printf("uncached: %.2f us/request%n", uncachedMicros);
+        System.out.printf("cached:   %.2f us/request%n", cachedMicros);
+
+        assertEquals(CLIENTS, cached.size());
+        assertTrue(cachedMicros * 5 < uncachedMicros, "cache hits should be well under a fifth of a full verification");
+    }
+
+    // A cache of one entry across many clients misses every time, which is a plain verification
+    private static JwtDecoder uncachedDecoder(SecurityConfig securityConfig, JwtKeys keys, JwtProperties properties) {
+        return securityConfig.jwtDecoder(keys, new JwtProperties(properties.issuer(), properties.ttl(), null,
+                properties.keys(), 1), new SimpleMeterRegistry());
+    }
+
+    private static double microsPerDecode(JwtDecoder decoder, List<String> tokens) {
+        Jwt sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = decoder.decode(tokens.get(i % tokens.size()));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = decoder.decode(tokens.get(i % tokens.size()));
+        }
+        long elapsed = System.nanoTime() - start;
+        assertNotNull(sink);
+        return elapsed / 1_000.0 / ITERATIONS;
+    }
+}
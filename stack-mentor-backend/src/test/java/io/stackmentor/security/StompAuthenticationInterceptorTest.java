@@ -0,0 +1,113 @@
+package io.stackmentor.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StompAuthenticationInterceptorTest {
+
+    @Mock
+    private JwtDecoder jwtDecoder;
+
+    @Mock
+    private ConversationAccess conversationAccess;
+
+    @Mock
+    private MessageChannel channel;
+
+    @InjectMocks
+    private StompAuthenticationInterceptor interceptor;
+
+    private static Message<byte[]> frame(StompCommand command, String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        if (authorization != null) accessor.addNativeHeader("Authorization", authorization);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    void connect_withValidTokenAuthenticatesTheSession() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS256").subject("user-1")
+                .claim("role", "mentee").expiresAt(Instant.now().plusSeconds(60)).build();
+        when(jwtDecoder.decode("token")).thenReturn(jwt);
+
+        Message<?> message = interceptor.preSend(frame(StompCommand.CONNECT, "Bearer token"), channel);
+
+        assertEquals("user-1", StompHeaderAccessor.wrap(message).getUser().getName());
+    }
+
+    @Test
+    void connect_withoutTokenOrWithInvalidTokenIsRejected() {
+        when(jwtDecoder.decode("forged")).thenThrow(new BadJwtException("bad signature"));
+
+        assertThrows(AuthenticationCredentialsNotFoundException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, null), channel));
+        assertThrows(BadCredentialsException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, "Bearer forged"), channel));
+    }
+
+    private static Message<byte[]> subscribe(String destination, UUID userId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setUser(() -> userId.toString());
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    void laterFramesPassThroughWithoutVerification() {
+        interceptor.preSend(frame(StompCommand.SEND, null), channel);
+
+        verifyNoInteractions(jwtDecoder);
+    }
+
+    @Test
+    void subscribe_toAConversationTopicChecksParticipation() {
+        UUID conversationId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+
+        interceptor.preSend(subscribe("/topic/conversations/" + conversationId + "/messages.cbor", userId), channel);
+
+        verify(conversationAccess).requireParticipant(conversationId, userId);
+    }
+
+    @Test
+    void subscribe_byANonParticipantOrToAPatternIsRejected() {
+        UUID conversationId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        doThrow(new AccessDeniedException("not a participant"))
+                .when(conversationAccess).requireParticipant(conversationId, userId);
+
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(
+                subscribe("/topic/conversations/" + conversationId + "/presence", userId), channel));
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(
+                subscribe("/topic/conversations/*/messages", userId), channel));
+    }
+
+    @Test
+    void subscribe_toOtherDestinationsIsNotChecked() {
+        interceptor.preSend(subscribe("/user/queue/errors", UUID.randomUUID()), channel);
+
+        verifyNoInteractions(conversationAccess);
+    }
+}
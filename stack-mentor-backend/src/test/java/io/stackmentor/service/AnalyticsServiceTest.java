@@ -0,0 +1,73 @@
+package io.stackmentor.service;
+
+import io.stackmentor.analytics.HyperLogLog;
+import io.stackmentor.dto.analytics.ActiveUsersDto;
+import io.stackmentor.repository.ActivityRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AnalyticsServiceTest {
+
+    @Mock
+    private ActivityRollupRepository rollupRepository;
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    private static byte[] sketchOf(List<UUID> users) {
+        HyperLogLog sketch = new HyperLogLog();
+        users.forEach(sketch::add);
+        return sketch.toBytes();
+    }
+
+    @Test
+    void getActiveUsers_mergesWritersPerDayAndDaysAcrossTheRange() {
+
+        // Arrange
+        UUID ada = UUID.randomUUID();
+        UUID grace = UUID.randomUUID();
+        UUID linus = UUID.randomUUID();
+        LocalDate monday = LocalDate.of(2025, 3, 3);
+        Map<LocalDate, List<byte[]>> stored = new TreeMap<>();
+        // Two processes saw Monday's users, with Ada on both
+        stored.put(monday, List.of(sketchOf(List.of(ada, grace)), sketchOf(List.of(ada))));
+        stored.put(monday.plusDays(1), List.of(sketchOf(List.of(ada, linus))));
+        when(rollupRepository.findActiveUserSketches(monday, monday.plusDays(6))).thenReturn(stored);
+
+        // Act
+        ActiveUsersDto result = analyticsService.getActiveUsers(monday, monday.plusDays(6));
+
+        // Assert
+        assertEquals(2, result.getDays().size());
+        assertEquals(2, result.getDays().get(0).getActiveUsers());
+        assertEquals(2, result.getDays().get(1).getActiveUsers());
+        assertEquals(3, result.getDistinctUsers());
+    }
+
+    @Test
+    void rangesAreValidatedBeforeAnyQuery() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.getGroupActivity(null, start, start));
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.getMentorResponses(start, start.plusDays(32)));
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.getActiveUsers(start.toLocalDate().plusDays(1), start.toLocalDate()));
+        verifyNoInteractions(rollupRepository);
+    }
+}
@@ -0,0 +1,91 @@
+package io.stackmentor.service;
+
+import io.stackmentor.dto.group.BulkMembershipResultDto;
+import io.stackmentor.dto.group.GroupMemberDto;
+import io.stackmentor.enums.GroupMemberType;
+import io.stackmentor.enums.MembershipOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against a real Postgres: the admin check compares the role column as the schema stores it
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional
+class GroupBulkMembershipTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14")
+            .withDatabaseName("testdb")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID groupId;
+    private UUID adminId;
+    private UUID outsiderId;
+
+    @BeforeEach
+    void setUp() {
+        groupId = jdbcTemplate.queryForObject(
+                "SELECT group_id FROM group_members WHERE role = 'admin' LIMIT 1", UUID.class);
+        adminId = jdbcTemplate.queryForObject(
+                "SELECT user_id FROM group_members WHERE group_id = ? AND role = 'admin' LIMIT 1",
+                UUID.class, groupId);
+        outsiderId = jdbcTemplate.queryForObject(
+                "SELECT user_id FROM users WHERE user_id NOT IN " +
+                        "(SELECT user_id FROM group_members WHERE group_id = ?) LIMIT 1", UUID.class, groupId);
+    }
+
+    @Test
+    void addUsersToGroup_seededAdminEnrollsAndTheRowReadsBackThroughJpa() {
+        BulkMembershipResultDto result = groupService.addUsersToGroup(groupId, adminId, List.of(outsiderId), null);
+
+        assertEquals(1, result.getChanged());
+        assertEquals(MembershipOutcome.ADDED, result.getOutcomes().get(0).getOutcome());
+        assertEquals("member", jdbcTemplate.queryForObject(
+                "SELECT role FROM group_members WHERE group_id = ? AND user_id = ?",
+                String.class, groupId, outsiderId));
+
+        GroupMemberDto added = groupService.getGroupWithMembers(groupId).getMembers().stream()
+                .filter(member -> member.getUserId().equals(outsiderId))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(GroupMemberType.MEMBER, added.getRole());
+    }
+
+    @Test
+    void removeUsersFromGroup_rejectsAMemberAndAllowsTheAdmin() {
+        groupService.addUsersToGroup(groupId, adminId, List.of(outsiderId), GroupMemberType.MEMBER);
+
+        assertThrows(AccessDeniedException.class,
+                () -> groupService.removeUsersFromGroup(groupId, outsiderId, List.of(adminId)));
+        assertEquals(1, groupService.removeUsersFromGroup(groupId, adminId, List.of(outsiderId)).getChanged());
+    }
+}
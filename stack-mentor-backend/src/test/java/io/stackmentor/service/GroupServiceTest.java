@@ -1,10 +1,21 @@
 package io.stackmentor.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.stackmentor.dto.group.BulkMembershipResultDto;
 import io.stackmentor.dto.group.GroupDto;
+import io.stackmentor.dto.group.GroupPageDto;
+import io.stackmentor.dto.group.GroupSummaryDto;
+import io.stackmentor.dto.group.MemberOutcomeDto;
 import io.stackmentor.enums.GroupMemberType;
+import io.stackmentor.enums.GroupSortType;
+import io.stackmentor.enums.MembershipOutcome;
+import io.stackmentor.event.GroupMembershipChangedEvent;
 import io.stackmentor.model.Group;
 import io.stackmentor.model.GroupMember;
 import io.stackmentor.model.User;
+import io.stackmentor.repository.GroupDiscoveryRepository;
+import io.stackmentor.repository.GroupMemberBulkRepository;
 import io.stackmentor.repository.GroupMemberRepository;
 import io.stackmentor.repository.GroupRepository;
 import io.stackmentor.repository.UserRepository;
@@ -12,11 +23,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,9 +50,23 @@ public class GroupServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private GroupMemberBulkRepository groupMemberBulkRepository;
+
+    @Mock
+    private GroupDiscoveryRepository groupDiscoveryRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private GroupService groupService;
 
+    private final UUID admin = UUID.randomUUID();
+
     @Test
     void createGroup_createsGroupSucessfully() {
 
@@ -157,6 +186,8 @@ public class GroupServiceTest {
         assertEquals(0, result.getMembers().size());
 
         verify(groupMemberRepository).deleteByGroup_GroupIdAndUser_UserId(groupId, userId);
+        verify(groupRepository).incrementVersion(groupId);
+        verify(eventPublisher).publishEvent(GroupMembershipChangedEvent.left(groupId, Set.of(userId)));
     }
 
     @Test
@@ -210,4 +241,186 @@ public class GroupServiceTest {
         verify(groupRepository).findById(groupId);
         verify(groupMemberRepository).findByGroup_GroupId(groupId);
     }
+
+    @Test
+    void addUsersToGroup_reportsOutcomePerUser() {
+        // Arrange
+        UUID groupId = UUID.randomUUID();
+        UUID newMember = UUID.randomUUID();
+        UUID existingMember = UUID.randomUUID();
+        UUID unknownUser = UUID.randomUUID();
+
+        when(groupRepository.existsById(groupId)).thenReturn(true);
+        when(groupMemberRepository.existsByGroup_GroupIdAndUser_UserIdAndRole(groupId, admin, GroupMemberType.ADMIN))
+                .thenReturn(true);
+        when(userRepository.findExistingUserIds(anyCollection()))
+                .thenReturn(Set.of(newMember, existingMember));
+        when(groupMemberBulkRepository.insertMembers(eq(groupId), anyCollection(),
+                eq(GroupMemberType.MEMBER), any(LocalDateTime.class)))
+                .thenReturn(Set.of(newMember));
+
+        // Act
+        BulkMembershipResultDto result = groupService.addUsersToGroup(groupId, admin,
+                List.of(newMember, existingMember, unknownUser, newMember), null);
+
+        // Assert
+        assertEquals(3, result.getRequested());
+        assertEquals(1, result.getChanged());
+        assertEquals(List.of(
+                new MemberOutcomeDto(newMember, MembershipOutcome.ADDED),
+                new MemberOutcomeDto(existingMember, MembershipOutcome.ALREADY_MEMBER),
+                new MemberOutcomeDto(unknownUser, MembershipOutcome.USER_NOT_FOUND)), result.getOutcomes());
+
+        // One validation query and one insert, no per-user lookups or roster rebuild
+        verify(userRepository).findExistingUserIds(anyCollection());
+        verify(groupMemberBulkRepository).insertMembers(eq(groupId), anyCollection(), any(), any());
+        verify(userRepository, never()).findById(any());
+        verify(groupMemberRepository, never()).findByGroup_GroupId(any());
+        verify(groupRepository).incrementVersion(groupId);
+        verify(eventPublisher).publishEvent(GroupMembershipChangedEvent.joined(groupId, Set.of(newMember)));
+        assertEquals(1, meterRegistry.get("group.membership.bulk").timer().count());
+    }
+
+    @Test
+    void addUsersToGroup_skipsInsertWhenNoUsersExist() {
+        UUID groupId = UUID.randomUUID();
+        UUID unknownUser = UUID.randomUUID();
+
+        when(groupRepository.existsById(groupId)).thenReturn(true);
+        when(groupMemberRepository.existsByGroup_GroupIdAndUser_UserIdAndRole(groupId, admin, GroupMemberType.ADMIN))
+                .thenReturn(true);
+        when(userRepository.findExistingUserIds(anyCollection())).thenReturn(Set.of());
+
+        BulkMembershipResultDto result = groupService.addUsersToGroup(groupId, admin, List.of(unknownUser),
+                GroupMemberType.MEMBER);
+
+        assertEquals(MembershipOutcome.USER_NOT_FOUND, result.getOutcomes().get(0).getOutcome());
+        verifyNoInteractions(groupMemberBulkRepository);
+        verify(groupRepository, never()).incrementVersion(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void removeUsersFromGroup_reportsRemovedAndNonMembers() {
+        UUID groupId = UUID.randomUUID();
+        UUID member = UUID.randomUUID();
+        UUID stranger = UUID.randomUUID();
+
+        when(groupRepository.existsById(groupId)).thenReturn(true);
+        when(groupMemberRepository.existsByGroup_GroupIdAndUser_UserIdAndRole(groupId, admin, GroupMemberType.ADMIN))
+                .thenReturn(true);
+        when(groupMemberBulkRepository.deleteMembers(eq(groupId), anyCollection())).thenReturn(Set.of(member));
+
+        BulkMembershipResultDto result = groupService.removeUsersFromGroup(groupId, admin, List.of(member, stranger));
+
+        assertEquals(1, result.getChanged());
+        assertEquals(MembershipOutcome.REMOVED, result.getOutcomes().get(0).getOutcome());
+        assertEquals(MembershipOutcome.NOT_MEMBER, result.getOutcomes().get(1).getOutcome());
+        verify(eventPublisher).publishEvent(GroupMembershipChangedEvent.left(groupId, Set.of(member)));
+    }
+
+    @Test
+    void addUsersToGroup_byNonAdminIsRejected() {
+        UUID groupId = UUID.randomUUID();
+        UUID member = UUID.randomUUID();
+        when(groupRepository.existsById(groupId)).thenReturn(true);
+        when(groupMemberRepository.existsByGroup_GroupIdAndUser_UserIdAndRole(groupId, member, GroupMemberType.ADMIN))
+                .thenReturn(false);
+
+        assertThrows(AccessDeniedException.class,
+                () -> groupService.addUsersToGroup(groupId, member, List.of(UUID.randomUUID()), GroupMemberType.ADMIN));
+
+        verifyNoInteractions(groupMemberBulkRepository, eventPublisher);
+    }
+
+    @Test
+    void removeUsersFromGroup_byNonAdminIsRejected() {
+        UUID groupId = UUID.randomUUID();
+        UUID member = UUID.randomUUID();
+        when(groupRepository.existsById(groupId)).thenReturn(true);
+
+        assertThrows(AccessDeniedException.class,
+                () -> groupService.removeUsersFromGroup(groupId, member, List.of(UUID.randomUUID())));
+
+        verifyNoInteractions(groupMemberBulkRepository, eventPublisher);
+    }
+
+    @Test
+    void addUsersToGroup_withUnknownGroupThrowsException() {
+        UUID groupId = UUID.randomUUID();
+        when(groupRepository.existsById(groupId)).thenReturn(false);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> groupService.addUsersToGroup(groupId, admin, List.of(UUID.randomUUID()), null));
+
+        assertEquals("Group not found", e.getMessage());
+    }
+
+    @Test
+    void removeUsersFromGroup_keepsVersionWhenNobodyWasRemoved() {
+        UUID groupId = UUID.randomUUID();
+
+        when(groupRepository.existsById(groupId)).thenReturn(true);
+        when(groupMemberRepository.existsByGroup_GroupIdAndUser_UserIdAndRole(groupId, admin, GroupMemberType.ADMIN))
+                .thenReturn(true);
+        when(groupMemberBulkRepository.deleteMembers(eq(groupId), anyCollection())).thenReturn(Set.of());
+
+        groupService.removeUsersFromGroup(groupId, admin, List.of(UUID.randomUUID()));
+
+        // Cached rosters stay valid
+        verify(groupRepository, never()).incrementVersion(any());
+    }
+
+    @Test
+    void getGroupVersion_readsOnlyTheVersion() {
+        UUID groupId = UUID.randomUUID();
+        when(groupRepository.findVersionById(groupId)).thenReturn(Optional.of(7L));
+
+        assertEquals(7L, groupService.getGroupVersion(groupId));
+        verify(groupRepository, never()).findById(any());
+        verifyNoInteractions(groupMemberRepository);
+
+        when(groupRepository.findVersionById(groupId)).thenReturn(Optional.empty());
+        assertThrows(RuntimeException.class, () -> groupService.getGroupVersion(groupId));
+    }
+
+    @Test
+    void discoverGroups_returnsCursorThatResumesAfterTheLastRow() {
+
+        // Arrange
+        List<GroupSummaryDto> rows = List.of(
+                GroupSummaryDto.builder().groupId(UUID.randomUUID()).memberCount(40)
+                        .lastActivityAt(LocalDateTime.of(2025, 3, 1, 12, 0)).build(),
+                GroupSummaryDto.builder().groupId(UUID.randomUUID()).memberCount(12)
+                        .lastActivityAt(LocalDateTime.of(2025, 2, 27, 9, 30)).build(),
+                GroupSummaryDto.builder().groupId(UUID.randomUUID()).memberCount(3)
+                        .lastActivityAt(LocalDateTime.of(2025, 1, 5, 8, 0)).build());
+        when(groupDiscoveryRepository.findGroups("java", GroupSortType.SIZE, null, 3)).thenReturn(rows);
+
+        // Act
+        GroupPageDto page = groupService.discoverGroups("  java ", "size", null, 2);
+
+        // Assert
+        assertEquals(rows.subList(0, 2), page.getResults());
+        GroupDiscoveryRepository.Position next = GroupService.decodeCursor(page.getNextCursor());
+        assertEquals(new GroupDiscoveryRepository.Position(12, LocalDateTime.of(2025, 2, 27, 9, 30),
+                rows.get(1).getGroupId()), next);
+        verifyNoInteractions(groupMemberRepository);
+    }
+
+    @Test
+    void discoverGroups_defaultsToActivityAndRejectsUnknownSortOrCursor() {
+
+        // Arrange
+        when(groupDiscoveryRepository.findGroups(null, GroupSortType.ACTIVITY, null, 21)).thenReturn(List.of());
+
+        // Act
+        GroupPageDto page = groupService.discoverGroups(" ", null, null, null);
+
+        // Assert
+        assertTrue(page.getResults().isEmpty());
+        assertNull(page.getNextCursor());
+        assertThrows(IllegalArgumentException.class, () -> groupService.discoverGroups(null, "members", null, null));
+        assertThrows(IllegalArgumentException.class, () -> groupService.discoverGroups(null, null, "not-a-cursor", null));
+    }
 }
@@ -0,0 +1,164 @@
+package io.stackmentor.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.repository.MentorSuggestionRepository;
+import io.stackmentor.repository.MentorSuggestionRepository.RunClaim;
+import io.stackmentor.suggestion.MatchProfile;
+import io.stackmentor.suggestion.MentorMatcher;
+import io.stackmentor.suggestion.ScoredMentor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MentorSuggestionServiceTest {
+
+    @Mock
+    private MentorSuggestionRepository suggestionRepository;
+
+    private MentorSuggestionService mentorSuggestionService;
+
+    private final LocalDateTime startedAt = LocalDateTime.of(2025, 3, 1, 12, 0);
+    private final MatchProfile javaMentor = profile(Set.of("java"));
+    private final MatchProfile sqlMentor = profile(Set.of("sql"));
+
+    private static MatchProfile profile(Set<String> topics) {
+        return new MatchProfile(UUID.randomUUID(), topics, null, null, null, null);
+    }
+
+    @BeforeEach
+    void setUp() {
+        mentorSuggestionService = new MentorSuggestionService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(mentorSuggestionService, "suggestionRepository", suggestionRepository);
+        ReflectionTestUtils.setField(mentorSuggestionService, "size", 1);
+        ReflectionTestUtils.setField(mentorSuggestionService, "chunkSize", 2);
+        ReflectionTestUtils.setField(mentorSuggestionService, "parallelism", 2);
+        ReflectionTestUtils.setField(mentorSuggestionService, "lease", Duration.ofMinutes(30));
+    }
+
+    @Test
+    void refresh_skipsRunWhenAnotherNodeHoldsTheLease() {
+
+        // Arrange
+        when(suggestionRepository.claimRun(Duration.ofMinutes(30))).thenReturn(null);
+
+        // Act
+        int written = mentorSuggestionService.refresh();
+
+        // Assert
+        assertEquals(-1, written);
+        verify(suggestionRepository, never()).findVerifiedProfiles(any());
+        verify(suggestionRepository, never()).completeRun(any());
+    }
+
+    @Test
+    void refresh_firstRunRanksEveryMenteeInKeysetPages() {
+
+        // Arrange
+        MatchProfile first = profile(Set.of("java"));
+        MatchProfile second = profile(Set.of("sql"));
+        MatchProfile third = profile(Set.of("java"));
+        when(suggestionRepository.claimRun(any())).thenReturn(new RunClaim(null, startedAt));
+        when(suggestionRepository.findVerifiedProfiles(RoleType.MENTOR)).thenReturn(List.of(javaMentor, sqlMentor));
+        when(suggestionRepository.findVerifiedProfilesAfter(RoleType.MENTEE, null, 2)).thenReturn(List.of(first, second));
+        when(suggestionRepository.findVerifiedProfilesAfter(RoleType.MENTEE, second.userId(), 2)).thenReturn(List.of(third));
+        when(suggestionRepository.findSuggestions(anyCollection())).thenReturn(Map.of());
+
+        // Act
+        int written = mentorSuggestionService.refresh();
+
+        // Assert
+        assertEquals(3, written);
+        verify(suggestionRepository).saveSuggestions(argThat(lists -> lists.size() == 2
+                && lists.get(first.userId()).get(0).mentorId().equals(javaMentor.userId())
+                && lists.get(second.userId()).get(0).mentorId().equals(sqlMentor.userId())), eq(startedAt));
+        verify(suggestionRepository).saveSuggestions(argThat(lists -> lists.keySet().equals(Set.of(third.userId()))),
+                eq(startedAt));
+        verify(suggestionRepository).completeRun(startedAt);
+        verify(suggestionRepository, never()).findVerifiedProfilesChangedAfter(any(), any());
+    }
+
+    @Test
+    void refresh_withOnlyMenteeChangesReranksJustThoseMentees() {
+
+        // Arrange
+        LocalDateTime watermark = startedAt.minusMinutes(10);
+        MatchProfile changedMentee = profile(Set.of("sql"));
+        when(suggestionRepository.claimRun(any())).thenReturn(new RunClaim(watermark, startedAt));
+        when(suggestionRepository.findVerifiedProfiles(RoleType.MENTOR)).thenReturn(List.of(javaMentor, sqlMentor));
+        LocalDateTime since = watermark.minus(MentorSuggestionService.WATERMARK_OVERLAP);
+        when(suggestionRepository.findVerifiedProfilesChangedAfter(RoleType.MENTOR, since)).thenReturn(List.of());
+        when(suggestionRepository.findVerifiedProfilesChangedAfter(RoleType.MENTEE, since)).thenReturn(List.of(changedMentee));
+        when(suggestionRepository.findSuggestions(List.of(changedMentee.userId())))
+                .thenReturn(Map.of(changedMentee.userId(), List.of(new ScoredMentor(javaMentor.userId(), 0f))));
+
+        // Act
+        int written = mentorSuggestionService.refresh();
+
+        // Assert
+        assertEquals(1, written);
+        verify(suggestionRepository).saveSuggestions(
+                Map.of(changedMentee.userId(), MentorMatcher.rank(changedMentee, List.of(javaMentor, sqlMentor), 1)),
+                startedAt);
+        verify(suggestionRepository, never()).findVerifiedProfilesAfter(any(), any(), anyInt());
+        verify(suggestionRepository, never()).findMenteesSuggesting(any());
+    }
+
+    @Test
+    void refresh_releasesLeaseWithoutMovingWatermarkOnFailure() {
+
+        // Arrange
+        when(suggestionRepository.claimRun(any())).thenReturn(new RunClaim(null, startedAt));
+        when(suggestionRepository.findVerifiedProfiles(RoleType.MENTOR)).thenThrow(new RuntimeException("database down"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> mentorSuggestionService.refresh());
+        verify(suggestionRepository).releaseRun();
+        verify(suggestionRepository, never()).completeRun(any());
+    }
+
+    @Test
+    void refreshChunk_mergesChangedMentorsAndWritesOnlyListsThatMoved() {
+
+        // Arrange
+        MatchProfile javaMentee = profile(Set.of("java"));
+        MatchProfile sqlMentee = profile(Set.of("sql"));
+        MatchProfile listingMentee = profile(Set.of("sql"));
+        ScoredMentor storedSql = new ScoredMentor(sqlMentor.userId(), MentorMatcher.score(sqlMentee, sqlMentor));
+        when(suggestionRepository.findSuggestions(anyList())).thenReturn(Map.of(
+                javaMentee.userId(), List.of(new ScoredMentor(sqlMentor.userId(), 0f)),
+                sqlMentee.userId(), List.of(storedSql),
+                listingMentee.userId(), List.of(new ScoredMentor(javaMentor.userId(), 0f))));
+        // javaMentor changed and is already on listingMentee's list, so that one gets a full rank
+        var plan = new MentorSuggestionService.RefreshPlan(List.of(javaMentor, sqlMentor), List.of(javaMentor),
+                Set.of(), Set.of(listingMentee.userId()));
+
+        // Act
+        int written = mentorSuggestionService.refreshChunk(List.of(javaMentee, sqlMentee, listingMentee), plan, startedAt);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<UUID, List<ScoredMentor>>> saved = ArgumentCaptor.forClass(Map.class);
+        verify(suggestionRepository).saveSuggestions(saved.capture(), eq(startedAt));
+        assertEquals(2, written);
+        assertEquals(Set.of(javaMentee.userId(), listingMentee.userId()), saved.getValue().keySet());
+        assertEquals(javaMentor.userId(), saved.getValue().get(javaMentee.userId()).get(0).mentorId());
+        assertEquals(sqlMentor.userId(), saved.getValue().get(listingMentee.userId()).get(0).mentorId());
+    }
+}
@@ -0,0 +1,187 @@
+package io.stackmentor.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against a real Postgres: partitions, COPY and advisory locks cannot be mocked meaningfully
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class MessageArchiveServiceTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14")
+            .withDatabaseName("testdb")
+            .withUsername("postgres")
+            .withPassword("postgres");
+
+    static final Path ARCHIVE_DIRECTORY = createTempDirectory();
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("stackmentor.messages.archive.directory", ARCHIVE_DIRECTORY::toString);
+        registry.add("stackmentor.messages.archive.node", () -> "node-a");
+    }
+
+    @Autowired
+    private MessageArchiveService archiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // Well before the retention window and any seeded data
+    private final YearMonth month = YearMonth.now().minusMonths(30);
+
+    private UUID conversationId;
+    private UUID senderId;
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("message-archive");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        Map<String, Object> seeded = jdbcTemplate.queryForMap(
+                "SELECT conversation_id, sender_id FROM messages WHERE conversation_id IS NOT NULL LIMIT 1");
+        conversationId = (UUID) seeded.get("conversation_id");
+        senderId = (UUID) seeded.get("sender_id");
+        jdbcTemplate.update("DELETE FROM message_archives");
+        if (!archiveService.attachedMonths().contains(month)) {
+            jdbcTemplate.queryForObject("SELECT create_message_partitions(?)", Integer.class, month.atDay(1));
+        }
+        jdbcTemplate.update("DELETE FROM messages WHERE sent_at >= ? AND sent_at < ?",
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    private UUID insertMessage(long seq) {
+        UUID messageId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO messages (message_id, conversation_id, sender_id, content, sent_at, " +
+                        "is_deleted, seq, change_seq) VALUES (?, ?, ?, 'archived', ?, false, ?, ?)",
+                messageId, conversationId, senderId, Timestamp.valueOf(month.atDay(3).atTime(12, 0)), seq, seq);
+        return messageId;
+    }
+
+    @Test
+    void archiveAndRehydrate_roundTripsTheMonthAndRecordsTheNode() {
+        UUID messageId = insertMessage(-5);
+
+        archiveService.archiveMonth(month);
+
+        assertFalse(archiveService.attachedMonths().contains(month));
+        assertEquals("node-a", jdbcTemplate.queryForObject(
+                "SELECT node FROM message_archives WHERE partition_name = ?", String.class,
+                MessageArchiveService.partitionName("messages", month)));
+
+        archiveService.rehydrateMonth(month);
+
+        assertTrue(archiveService.attachedMonths().contains(month));
+        assertEquals(-5L, jdbcTemplate.queryForObject(
+                "SELECT seq FROM messages WHERE message_id = ?", Long.class, messageId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM message_archives", Integer.class));
+    }
+
+    @Test
+    void rehydrate_namesTheNodeHoldingAnArchiveThisNodeCannotRead() {
+        insertMessage(-5);
+        archiveService.archiveMonth(month);
+        jdbcTemplate.update("UPDATE message_archives SET node = 'node-b', location = '/elsewhere/' || partition_name");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> archiveService.rehydrateMonth(month));
+
+        assertTrue(e.getMessage().contains("node-b"), e.getMessage());
+        assertFalse(archiveService.attachedMonths().contains(month));
+    }
+
+    @Test
+    void rehydrate_numbersMessagesFromAnArchiveWrittenBeforeSequenceNumbers() throws IOException {
+        // The month as a pre-015 node left it: partitions dropped, a file without seq or change_seq
+        for (String table : MessageArchiveService.PARTITIONED_TABLES) {
+            String partition = MessageArchiveService.partitionName(table, month);
+            jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            Files.deleteIfExists(ARCHIVE_DIRECTORY.resolve(partition + ".csv.gz"));
+        }
+        UUID older = UUID.randomUUID();
+        UUID newer = UUID.randomUUID();
+        String header = String.join(",", MessageArchiveService.archivedColumns("messages", 1));
+        assertFalse(header.contains("seq"));
+        writeArchive(MessageArchiveService.partitionName("messages", month), List.of(header,
+                older + "," + conversationId + "," + senderId + ",first,," + month.atDay(3) + " 09:00:00,,f,",
+                newer + "," + conversationId + "," + senderId + ",second,," + month.atDay(3) + " 10:00:00,,f,"));
+
+        long lowestSeq = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(min(seq), 1) FROM messages WHERE conversation_id = ?", Long.class, conversationId);
+        long lastSeq = jdbcTemplate.queryForObject(
+                "SELECT last_seq FROM conversations WHERE conversation_id = ?", Long.class, conversationId);
+
+        archiveService.rehydrateMonth(month);
+
+        // Below every existing seq, in send order; one new change_seq so delta sync delivers them
+        assertEquals(lowestSeq - 2, jdbcTemplate.queryForObject(
+                "SELECT seq FROM messages WHERE message_id = ?", Long.class, older));
+        assertEquals(lowestSeq - 1, jdbcTemplate.queryForObject(
+                "SELECT seq FROM messages WHERE message_id = ?", Long.class, newer));
+        assertEquals(lastSeq + 1, jdbcTemplate.queryForObject(
+                "SELECT change_seq FROM messages WHERE message_id = ?", Long.class, newer));
+        assertEquals(lastSeq + 1, jdbcTemplate.queryForObject(
+                "SELECT last_seq FROM conversations WHERE conversation_id = ?", Long.class, conversationId));
+    }
+
+    private static void writeArchive(String partition, List<String> lines) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(
+                Files.newOutputStream(ARCHIVE_DIRECTORY.resolve(partition + ".csv.gz"))), StandardCharsets.UTF_8)) {
+            writer.write(String.join("\n", lines) + "\n");
+        }
+    }
+
+    @Test
+    void archive_backsOffWhileAnotherNodeHoldsTheMaintenanceLock() throws Exception {
+        insertMessage(-5);
+
+        try (Connection otherNode = dataSource.getConnection(); Statement statement = otherNode.createStatement()) {
+            otherNode.setAutoCommit(false);
+            statement.execute("SELECT pg_advisory_xact_lock(" + MessageArchiveService.MAINTENANCE_LOCK + ")");
+
+            assertThrows(IllegalStateException.class, () -> archiveService.archiveMonth(month));
+            assertTrue(archiveService.attachedMonths().contains(month));
+
+            otherNode.rollback();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.stackmentor.service;
+
+import io.stackmentor.dto.message.MessageSearchPageDto;
+import io.stackmentor.dto.message.MessageSearchResultDto;
+import io.stackmentor.repository.ConversationRepository;
+import io.stackmentor.repository.MessageSearchRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MessageSearchServiceTest {
+
+    @Mock
+    private ConversationRepository conversationRepository;
+
+    @Mock
+    private MessageSearchRepository messageSearchRepository;
+
+    @InjectMocks
+    private MessageSearchService messageSearchService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    private static MessageSearchResultDto result(float rank, LocalDateTime sentAt) {
+        return MessageSearchResultDto.builder()
+                .messageId(UUID.randomUUID())
+                .rank(rank)
+                .sentAt(sentAt)
+                .build();
+    }
+
+    @Test
+    void search_restrictsToCallersConversationsAndReturnsCursorWhenMoreRemain() {
+        List<UUID> conversations = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(conversationRepository.findConversationIdsByUserId(userId)).thenReturn(conversations);
+        LocalDateTime now = LocalDateTime.now();
+        List<MessageSearchResultDto> rows = IntStream.range(0, 3)
+                .mapToObj(i -> result(0.5f - i * 0.1f, now.minusMinutes(i)))
+                .toList();
+        when(messageSearchRepository.search(eq("spring boot"), eq(conversations), isNull(), eq(3)))
+                .thenReturn(rows);
+
+        MessageSearchPageDto page = messageSearchService.search(userId, "  spring boot ", null, null, 2);
+
+        assertEquals(2, page.getResults().size());
+        MessageSearchRepository.Position next = MessageSearchService.decodeCursor(page.getNextCursor());
+        assertEquals(rows.get(1).getRank(), next.rank());
+        assertEquals(rows.get(1).getSentAt(), next.sentAt());
+        assertEquals(rows.get(1).getMessageId(), next.messageId());
+    }
+
+    @Test
+    void search_lastPageHasNoCursor() {
+        when(conversationRepository.findConversationIdsByUserId(userId)).thenReturn(List.of(UUID.randomUUID()));
+        when(messageSearchRepository.search(any(), any(), any(), anyInt()))
+                .thenReturn(List.of(result(0.1f, LocalDateTime.now())));
+
+        assertNull(messageSearchService.search(userId, "java", null, null, null).getNextCursor());
+    }
+
+    @Test
+    void search_withinOneConversationRequiresMembership() {
+        UUID conversationId = UUID.randomUUID();
+        when(conversationRepository.isParticipant(conversationId, userId)).thenReturn(false);
+
+        assertThrows(RuntimeException.class,
+                () -> messageSearchService.search(userId, "java", conversationId, null, null));
+        verifyNoInteractions(messageSearchRepository);
+    }
+
+    @Test
+    void search_skipsQueryWhenUserHasNoConversations() {
+        when(conversationRepository.findConversationIdsByUserId(userId)).thenReturn(List.of());
+
+        assertTrue(messageSearchService.search(userId, "java", null, null, null).getResults().isEmpty());
+        verifyNoInteractions(messageSearchRepository);
+    }
+
+    @Test
+    void search_rejectsBlankQueryAndMalformedCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> messageSearchService.search(userId, " ", null, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> MessageSearchService.decodeCursor("not-a-cursor"));
+    }
+}
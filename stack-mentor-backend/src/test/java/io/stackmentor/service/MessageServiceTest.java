@@ -0,0 +1,456 @@
+package io.stackmentor.service;
+
+import io.stackmentor.dto.message.EditMessageDto;
+import io.stackmentor.dto.message.MarkReadDto;
+import io.stackmentor.dto.message.MessageDto;
+import io.stackmentor.dto.message.ReadReceiptDto;
+import io.stackmentor.dto.message.SendMessageDto;
+import io.stackmentor.enums.PositionType;
+import io.stackmentor.enums.RoleType;
+import io.stackmentor.event.MessageDeletedEvent;
+import io.stackmentor.event.MessageEditedEvent;
+import io.stackmentor.event.MessageSentEvent;
+import io.stackmentor.event.MessagesReadEvent;
+import io.stackmentor.exception.RateLimitExceededException;
+import io.stackmentor.model.Conversation;
+import io.stackmentor.model.Message;
+import io.stackmentor.model.User;
+import io.stackmentor.ratelimit.MessageRateLimiter;
+import io.stackmentor.repository.ConversationRepository;
+import io.stackmentor.repository.MessageReadStatusRepository;
+import io.stackmentor.repository.MessageRepository;
+import io.stackmentor.repository.MessageSyncRepository;
+import io.stackmentor.repository.ReadReceiptRepository;
+import io.stackmentor.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MessageServiceTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private MessageReadStatusRepository messageReadStatusRepository;
+
+    @Mock
+    private ConversationRepository conversationRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MessageRateLimiter rateLimiter;
+
+    @Mock
+    private MessageSyncRepository messageSyncRepository;
+
+    @Mock
+    private ReadReceiptRepository readReceiptRepository;
+
+    @InjectMocks
+    private MessageService messageService;
+
+    private static Message message(Conversation conversation, User sender, LocalDateTime sentAt) {
+        return Message.builder()
+                .messageId(UUID.randomUUID())
+                .conversation(conversation)
+                .sender(sender)
+                .content("Hello")
+                .sentAt(sentAt)
+                .build();
+    }
+
+    @Test
+    void getConversationHistory_stepsBackOneMonthPartitionAtATime() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        Conversation conversation = Conversation.builder()
+                .conversationId(conversationId)
+                .createdAt(LocalDateTime.of(2025, 1, 10, 9, 0))
+                .build();
+        User sender = new User();
+        sender.setUserId(UUID.randomUUID());
+        sender.setFirstName("Ada");
+        sender.setLastName("Lovelace");
+
+        LocalDateTime before = LocalDateTime.of(2025, 3, 15, 12, 0);
+        Message march = message(conversation, sender, LocalDateTime.of(2025, 3, 2, 8, 0));
+        Message january = message(conversation, sender, LocalDateTime.of(2025, 1, 20, 8, 0));
+
+        when(conversationRepository.findById(conversationId)).thenReturn(Optional.of(conversation));
+        when(conversationRepository.isParticipant(conversationId, userId)).thenReturn(true);
+        when(messageRepository.findConversationWindow(eq(conversationId),
+                eq(LocalDateTime.of(2025, 3, 1, 0, 0)), eq(before), eq(Limit.of(3))))
+                .thenReturn(List.of(march));
+        when(messageRepository.findConversationWindow(eq(conversationId),
+                eq(LocalDateTime.of(2025, 2, 1, 0, 0)), eq(LocalDateTime.of(2025, 3, 1, 0, 0)), eq(Limit.of(2))))
+                .thenReturn(List.of());
+        when(messageRepository.findConversationWindow(eq(conversationId),
+                eq(LocalDateTime.of(2025, 1, 1, 0, 0)), eq(LocalDateTime.of(2025, 2, 1, 0, 0)), eq(Limit.of(2))))
+                .thenReturn(List.of(january));
+        when(messageReadStatusRepository.findReadMessageIdsByUserIdAndMessageIdIn(eq(userId), anySet()))
+                .thenReturn(Set.of(january.getMessageId()));
+
+        // Act
+        List<MessageDto> history = messageService.getConversationHistory(conversationId, userId, before, null, 3);
+
+        // Assert
+        assertEquals(List.of(march.getMessageId(), january.getMessageId()),
+                history.stream().map(MessageDto::getMessageId).toList());
+        assertFalse(history.get(0).isRead());
+        assertTrue(history.get(1).isRead());
+        assertEquals(conversationId, history.get(0).getConversationId());
+        assertEquals("Ada Lovelace", history.get(0).getSenderName());
+        // Nothing is read from before the month the conversation was created in
+        verify(messageRepository, times(3)).findConversationWindow(any(), any(), any(), any());
+    }
+
+    @Test
+    void getConversationHistory_cursorKeepsMessagesTiedWithTheLastOne() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        Conversation conversation = Conversation.builder()
+                .conversationId(conversationId)
+                .createdAt(LocalDateTime.of(2025, 3, 1, 9, 0))
+                .build();
+        User sender = new User();
+        sender.setUserId(UUID.randomUUID());
+        LocalDateTime tied = LocalDateTime.of(2025, 3, 2, 8, 0);
+        Message lastSeen = message(conversation, sender, tied);
+        Message sameInstant = message(conversation, sender, tied);
+
+        when(conversationRepository.findById(conversationId)).thenReturn(Optional.of(conversation));
+        when(conversationRepository.isParticipant(conversationId, userId)).thenReturn(true);
+        when(messageRepository.findConversationWindowBefore(conversationId, LocalDateTime.of(2025, 3, 1, 0, 0),
+                tied, lastSeen.getMessageId(), Limit.of(2)))
+                .thenReturn(List.of(sameInstant));
+
+        // Act
+        List<MessageDto> history = messageService.getConversationHistory(conversationId, userId,
+                tied, lastSeen.getMessageId(), 2);
+
+        // Assert
+        assertEquals(List.of(sameInstant.getMessageId()), history.stream().map(MessageDto::getMessageId).toList());
+        // The conversation began this month, so there is no older window to read
+        verify(messageRepository, never()).findConversationWindow(any(), any(), any(), any());
+    }
+
+    @Test
+    void getConversationHistory_isRefusedToNonParticipants() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        UUID outsider = UUID.randomUUID();
+        when(conversationRepository.findById(conversationId))
+                .thenReturn(Optional.of(Conversation.builder().conversationId(conversationId).build()));
+        when(conversationRepository.isParticipant(conversationId, outsider)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(AccessDeniedException.class,
+                () -> messageService.getConversationHistory(conversationId, outsider, null, null, null));
+        verifyNoInteractions(messageRepository, messageReadStatusRepository);
+    }
+
+    @Test
+    void getConversationHistory_throwsWhenConversationDoesNotExist() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        when(conversationRepository.findById(conversationId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> messageService.getConversationHistory(conversationId, null, null, null, null));
+        assertEquals("Conversation not found", exception.getMessage());
+        verifyNoInteractions(messageRepository);
+    }
+
+    @Test
+    void sendMessage_storesMessageAndPublishesEvent() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        Conversation conversation = Conversation.builder().conversationId(conversationId).build();
+        User sender = new User();
+        sender.setUserId(UUID.randomUUID());
+        sender.setFirstName("Ada");
+        sender.setLastName("Lovelace");
+        sender.setRole(RoleType.MENTEE);
+        SendMessageDto dto = new SendMessageDto("Hi all", null);
+
+        when(conversationRepository.isParticipant(conversationId, sender.getUserId())).thenReturn(true);
+        when(userRepository.findById(sender.getUserId())).thenReturn(Optional.of(sender));
+        when(conversationRepository.getReferenceById(conversationId)).thenReturn(conversation);
+        when(messageSyncRepository.nextSeq(conversationId)).thenReturn(7L);
+        when(messageRepository.saveAndFlush(any(Message.class))).thenAnswer(invocation -> {
+            Message message = invocation.getArgument(0);
+            message.setMessageId(UUID.randomUUID());
+            message.setSentAt(LocalDateTime.now());
+            return message;
+        });
+
+        // Act
+        MessageDto result = messageService.sendMessage(conversationId, sender.getUserId(), dto);
+
+        // Assert
+        assertEquals(conversationId, result.getConversationId());
+        assertEquals("Hi all", result.getContent());
+        assertNull(result.getMediaUrl());
+        assertEquals(7L, result.getSeq());
+        assertEquals(7L, result.getChangeSeq());
+        verify(eventPublisher).publishEvent(new MessageSentEvent(result, RoleType.MENTEE));
+    }
+
+    @Test
+    void sendMessage_throwsWhenSenderIsNotAParticipant() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        User outsider = new User();
+        outsider.setUserId(UUID.randomUUID());
+        SendMessageDto dto = new SendMessageDto("Hi all", null);
+        when(userRepository.findById(outsider.getUserId())).thenReturn(Optional.of(outsider));
+        when(conversationRepository.isParticipant(conversationId, outsider.getUserId())).thenReturn(false);
+
+        // Act & Assert
+        AccessDeniedException exception = assertThrows(AccessDeniedException.class,
+                () -> messageService.sendMessage(conversationId, outsider.getUserId(), dto));
+        assertEquals("User is not a participant in this conversation", exception.getMessage());
+        verify(messageRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void sendMessage_throttledSenderIsRejectedBeforeAnythingIsStored() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        User sender = new User();
+        sender.setUserId(UUID.randomUUID());
+        sender.setPosition(PositionType.MEMBER);
+        SendMessageDto dto = new SendMessageDto("Spam", null);
+
+        when(userRepository.findById(sender.getUserId())).thenReturn(Optional.of(sender));
+        doThrow(new RateLimitExceededException(500))
+                .when(rateLimiter).acquire(sender.getUserId(), conversationId, PositionType.MEMBER);
+
+        // Act & Assert
+        assertThrows(RateLimitExceededException.class,
+                () -> messageService.sendMessage(conversationId, sender.getUserId(), dto));
+        verify(conversationRepository, never()).isParticipant(any(), any());
+        verify(messageRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void sendMessage_chargesTheAuthenticatedSendersBucket() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        User sender = new User();
+        sender.setUserId(UUID.randomUUID());
+        sender.setPosition(PositionType.MODERATOR);
+        when(userRepository.findById(sender.getUserId())).thenReturn(Optional.of(sender));
+        when(conversationRepository.isParticipant(conversationId, sender.getUserId())).thenReturn(false);
+
+        // Act
+        assertThrows(AccessDeniedException.class,
+                () -> messageService.sendMessage(conversationId, sender.getUserId(), new SendMessageDto("Hi", null)));
+
+        // Assert: a rejected send still costs the caller, and only the caller
+        verify(rateLimiter).acquire(sender.getUserId(), conversationId, PositionType.MODERATOR);
+        verifyNoMoreInteractions(rateLimiter);
+    }
+
+    @Test
+    void deleteMessage_marksDeletedAndPublishesTombstone() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        Conversation conversation = Conversation.builder().conversationId(conversationId).build();
+        User sender = new User();
+        sender.setUserId(UUID.randomUUID());
+        Message message = message(conversation, sender, LocalDateTime.now().minusHours(1));
+        message.setSeq(3L);
+        when(messageRepository.findById(message.getMessageId())).thenReturn(Optional.of(message));
+        when(messageSyncRepository.nextSeq(conversationId)).thenReturn(9L);
+
+        // Act
+        messageService.deleteMessage(conversationId, message.getMessageId(), sender.getUserId());
+
+        // Assert
+        assertTrue(message.isDeleted());
+        assertNotNull(message.getDeletedAt());
+        verify(messageRepository).save(message);
+
+        ArgumentCaptor<MessageDeletedEvent> event = ArgumentCaptor.forClass(MessageDeletedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertTrue(event.getValue().tombstone().isDeleted());
+        assertNull(event.getValue().tombstone().getContent());
+        assertEquals(3L, event.getValue().tombstone().getSeq());
+        assertEquals(9L, event.getValue().tombstone().getChangeSeq());
+    }
+
+    @Test
+    void editMessage_replacesContentWithNewChangeSeqAndPublishesEvent() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        Conversation conversation = Conversation.builder().conversationId(conversationId).build();
+        User sender = new User();
+        sender.setUserId(UUID.randomUUID());
+        Message message = message(conversation, sender, LocalDateTime.now().minusMinutes(5));
+        message.setSeq(4L);
+        message.setChangeSeq(4L);
+        when(messageRepository.findById(message.getMessageId())).thenReturn(Optional.of(message));
+        when(messageSyncRepository.nextSeq(conversationId)).thenReturn(11L);
+        when(messageRepository.save(message)).thenReturn(message);
+
+        // Act
+        MessageDto result = messageService.editMessage(conversationId, message.getMessageId(),
+                sender.getUserId(), new EditMessageDto("Hello, edited"));
+
+        // Assert
+        assertEquals("Hello, edited", result.getContent());
+        assertNotNull(result.getEditedAt());
+        assertEquals(4L, result.getSeq());
+        assertEquals(11L, result.getChangeSeq());
+        verify(eventPublisher).publishEvent(new MessageEditedEvent(result));
+    }
+
+    @Test
+    void editMessage_throwsWhenUserIsNotTheSender() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        Conversation conversation = Conversation.builder().conversationId(conversationId).build();
+        User sender = new User();
+        sender.setUserId(UUID.randomUUID());
+        Message message = message(conversation, sender, LocalDateTime.now());
+        when(messageRepository.findById(message.getMessageId())).thenReturn(Optional.of(message));
+
+        // Act & Assert
+        AccessDeniedException exception = assertThrows(AccessDeniedException.class,
+                () -> messageService.editMessage(conversationId, message.getMessageId(),
+                        UUID.randomUUID(), new EditMessageDto("Not mine")));
+        assertEquals("Only the sender can edit this message", exception.getMessage());
+        assertEquals("Hello", message.getContent());
+        verifyNoInteractions(messageSyncRepository, eventPublisher);
+    }
+
+    @Test
+    void deleteMessage_throwsWhenUserIsNotTheSender() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        Conversation conversation = Conversation.builder().conversationId(conversationId).build();
+        User sender = new User();
+        sender.setUserId(UUID.randomUUID());
+        Message message = message(conversation, sender, LocalDateTime.now());
+        when(messageRepository.findById(message.getMessageId())).thenReturn(Optional.of(message));
+
+        // Act & Assert
+        AccessDeniedException exception = assertThrows(AccessDeniedException.class,
+                () -> messageService.deleteMessage(conversationId, message.getMessageId(), UUID.randomUUID()));
+        assertEquals("Only the sender can delete this message", exception.getMessage());
+        assertFalse(message.isDeleted());
+        verify(messageRepository, never()).save(any());
+    }
+
+    @Test
+    void deleteMessage_throwsWhenMessageIsInAnotherConversation() {
+
+        // Arrange
+        Conversation conversation = Conversation.builder().conversationId(UUID.randomUUID()).build();
+        User sender = new User();
+        sender.setUserId(UUID.randomUUID());
+        Message message = message(conversation, sender, LocalDateTime.now());
+        when(messageRepository.findById(message.getMessageId())).thenReturn(Optional.of(message));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> messageService.deleteMessage(UUID.randomUUID(), message.getMessageId(), sender.getUserId()));
+        assertEquals("Message not found", exception.getMessage());
+    }
+
+    @Test
+    void markMessagesRead_publishesReceiptForNewlyReadMessages() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        UUID alreadyRead = UUID.randomUUID();
+        UUID unread = UUID.randomUUID();
+        when(conversationRepository.isParticipant(conversationId, userId)).thenReturn(true);
+        when(readReceiptRepository.markRead(eq(conversationId), eq(userId), eq(Set.of(alreadyRead, unread)), any()))
+                .thenReturn(List.of(unread));
+
+        // Act
+        ReadReceiptDto receipt = messageService.markMessagesRead(conversationId,
+                userId,
+                new MarkReadDto(List.of(alreadyRead, unread, unread)));
+
+        // Assert
+        assertEquals(List.of(unread), receipt.getMessageIds());
+        assertNotNull(receipt.getReadAt());
+        verify(eventPublisher).publishEvent(new MessagesReadEvent(receipt));
+    }
+
+    @Test
+    void markMessagesRead_staysQuietWhenNothingChanged() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        when(conversationRepository.isParticipant(conversationId, userId)).thenReturn(true);
+        when(readReceiptRepository.markRead(any(), any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        ReadReceiptDto receipt = messageService.markMessagesRead(conversationId, userId,
+                new MarkReadDto(List.of(UUID.randomUUID())));
+
+        // Assert
+        assertTrue(receipt.getMessageIds().isEmpty());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void markMessagesRead_throwsForNonParticipant() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        when(conversationRepository.isParticipant(conversationId, userId)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(AccessDeniedException.class, () -> messageService.markMessagesRead(conversationId, userId,
+                new MarkReadDto(List.of(UUID.randomUUID()))));
+        verifyNoInteractions(readReceiptRepository, eventPublisher);
+    }
+}
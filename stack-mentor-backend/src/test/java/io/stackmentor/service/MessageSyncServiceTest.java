@@ -0,0 +1,110 @@
+package io.stackmentor.service;
+
+import io.stackmentor.dto.message.ConversationDeltaDto;
+import io.stackmentor.dto.message.MessageDto;
+import io.stackmentor.dto.message.SyncRequestDto;
+import io.stackmentor.dto.message.SyncResponseDto;
+import io.stackmentor.repository.ConversationRepository;
+import io.stackmentor.repository.MessageSyncRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MessageSyncServiceTest {
+
+    @Mock
+    private ConversationRepository conversationRepository;
+
+    @Mock
+    private MessageSyncRepository messageSyncRepository;
+
+    @InjectMocks
+    private MessageSyncService messageSyncService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    private static MessageDto change(UUID conversationId, long changeSeq) {
+        return MessageDto.builder().conversationId(conversationId).seq(changeSeq).changeSeq(changeSeq).build();
+    }
+
+    @Test
+    void sync_queriesOnlyConversationsWhoseCounterMoved() {
+
+        // Arrange
+        UUID unchanged = UUID.randomUUID();
+        UUID changed = UUID.randomUUID();
+        UUID joined = UUID.randomUUID();
+        UUID left = UUID.randomUUID();
+        List<UUID> conversations = List.of(unchanged, changed, joined);
+        when(conversationRepository.findConversationIdsByUserId(userId)).thenReturn(conversations);
+        when(messageSyncRepository.lastSeqs(conversations)).thenReturn(Map.of(unchanged, 10L, changed, 12L, joined, 3L));
+        when(messageSyncRepository.changesAfter(Map.of(changed, 10L), MessageSyncService.MAX_CHANGES_PER_CONVERSATION + 1))
+                .thenReturn(List.of(change(changed, 11), change(changed, 12)));
+
+        // Act
+        SyncResponseDto response = messageSyncService.sync(userId, new SyncRequestDto(
+                Map.of(unchanged, 10L, changed, 10L, left, 5L)));
+
+        // Assert
+        Map<UUID, ConversationDeltaDto> deltas = response.getConversations().stream()
+                .collect(Collectors.toMap(ConversationDeltaDto::getConversationId, d -> d));
+        assertEquals(2, deltas.size());
+        assertEquals(2, deltas.get(changed).getChanges().size());
+        assertEquals(12L, deltas.get(changed).getLastSeq());
+        assertFalse(deltas.get(changed).isHasMore());
+        assertTrue(deltas.get(joined).getChanges().isEmpty());
+        assertEquals(3L, deltas.get(joined).getLastSeq());
+        assertEquals(List.of(left), response.getRemovedConversationIds());
+    }
+
+    @Test
+    void sync_pagesLongBacklogs() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        int limit = MessageSyncService.MAX_CHANGES_PER_CONVERSATION;
+        when(conversationRepository.findConversationIdsByUserId(userId)).thenReturn(List.of(conversationId));
+        when(messageSyncRepository.lastSeqs(anyCollection())).thenReturn(Map.of(conversationId, 1000L));
+        when(messageSyncRepository.changesAfter(anyMap(), eq(limit + 1)))
+                .thenReturn(LongStream.rangeClosed(1, limit + 1).mapToObj(seq -> change(conversationId, seq)).toList());
+
+        // Act
+        ConversationDeltaDto delta = messageSyncService.sync(userId, new SyncRequestDto(Map.of(conversationId, 0L)))
+                .getConversations().get(0);
+
+        // Assert
+        assertTrue(delta.isHasMore());
+        assertEquals(limit, delta.getChanges().size());
+        assertEquals(limit, delta.getChanges().get(limit - 1).getChangeSeq());
+    }
+
+    @Test
+    void sync_upToDateClientGetsNothing() {
+
+        // Arrange
+        UUID conversationId = UUID.randomUUID();
+        when(conversationRepository.findConversationIdsByUserId(userId)).thenReturn(List.of(conversationId));
+        when(messageSyncRepository.lastSeqs(anyCollection())).thenReturn(Map.of(conversationId, 4L));
+
+        // Act
+        SyncResponseDto response = messageSyncService.sync(userId, new SyncRequestDto(Map.of(conversationId, 4L)));
+
+        // Assert
+        assertTrue(response.getConversations().isEmpty());
+        assertTrue(response.getRemovedConversationIds().isEmpty());
+        verify(messageSyncRepository, never()).changesAfter(any(), anyInt());
+    }
+}
@@ -1,22 +1,47 @@
 package io.stackmentor.service;
 
+import io.stackmentor.cache.UserSearchCache;
+import io.stackmentor.cache.UserSearchKey;
+import io.stackmentor.dto.user.AccessTokenDto;
+import io.stackmentor.dto.user.LoginDto;
+import io.stackmentor.dto.user.NearbyUserDto;
 import io.stackmentor.dto.user.RegisterUserDto;
+import io.stackmentor.dto.user.UpdateProfileDto;
 import io.stackmentor.dto.user.UserDto;
+import io.stackmentor.dto.user.UserPageDto;
+import io.stackmentor.dto.user.UserSummaryDto;
 import io.stackmentor.enums.RoleType;
+import io.stackmentor.event.UserProfileUpdatedEvent;
+import io.stackmentor.event.UserVerifiedEvent;
+import io.stackmentor.index.EmailBloomFilter;
+import io.stackmentor.index.GeoGridIndex;
+import io.stackmentor.index.GeoPoint;
+import io.stackmentor.index.ZipCentroidDirectory;
 import io.stackmentor.model.User;
+import io.stackmentor.model.VerificationToken;
+import io.stackmentor.repository.UserRegistrationRepository;
 import io.stackmentor.repository.UserRepository;
 import io.stackmentor.repository.VerificationTokenRepository;
+import io.stackmentor.security.JwtTokenService;
 import io.stackmentor.specification.UserSpecificationBuilder;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.crypto.bcrypt.BCrypt;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,13 +63,31 @@ public class UserServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private UserSearchCache searchCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ZipCentroidDirectory zipDirectory;
+
+    @Mock
+    private GeoGridIndex geoIndex;
+
+    @Mock
+    private UserRegistrationRepository registrationRepository;
+
+    @Mock
+    private EmailBloomFilter emailFilter;
+
+    @Mock
+    private JwtTokenService tokenService;
+
     @InjectMocks
     private UserService userService;
 
-    @Test
-    void registerUser_createsNewUserSuccessfully() {
-
-        //Arrange
+    private static RegisterUserDto mentorRegistration() {
         RegisterUserDto dto = new RegisterUserDto();
         dto.setName("Master Admin");
         dto.setEmail("admin@admin.com");
@@ -55,23 +98,17 @@ public class UserServiceTest {
         dto.setSkillsOrInterests(List.of("Java", "Spring Boot"));
         dto.setCity("Columbus");
         dto.setState("OH");
+        return dto;
+    }
 
-        // Mock user to be returned after save
-        UUID userId = UUID.randomUUID();
-        User savedUser = new User();
-        savedUser.setUserId(userId);
-        savedUser.setFirstName("Master");
-        savedUser.setLastName("Admin");
-        savedUser.setEmail("admin@admin.com");
-        savedUser.setDateOfBirth(LocalDate.of(1999, 11, 27));
-        savedUser.setRole(RoleType.MENTOR);
-        savedUser.setYearsOfExperience(12);
-        savedUser.setSkills("Java, Spring Boot");
-        savedUser.setCity("Columbus");
-        savedUser.setState("OH");
-
-        when(userRepository.existsByEmail(dto.getEmail())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+    @Test
+    void registerUser_createsNewUserSuccessfully() {
+
+        //Arrange
+        RegisterUserDto dto = mentorRegistration();
+
+        when(registrationRepository.insertIfEmailAvailable(any(User.class)))
+                .thenAnswer(invocation -> Optional.of(invocation.<User>getArgument(0).getUserId()));
         doNothing().when(emailService).sendVerificationEmail(any(), any());
 
         //Act
@@ -90,9 +127,12 @@ public class UserServiceTest {
         assertEquals("Columbus", result.getCity());
         assertEquals("OH", result.getState());
 
-        // Verify interactions
-        verify(userRepository).existsByEmail("admin@admin.com");
-        verify(userRepository).save(any(User.class));
+        // Verify interactions: a single insert, no separate existence check
+        verify(registrationRepository).insertIfEmailAvailable(any(User.class));
+        verify(userRepository, never()).existsByEmailIgnoringCase(any());
+        verify(userRepository, never()).save(any(User.class));
+        verify(emailFilter).add("admin@admin.com");
+        verify(verificationTokenRepository).save(any(VerificationToken.class));
     }
 
     @Test
@@ -102,8 +142,6 @@ public class UserServiceTest {
         RegisterUserDto dto = new RegisterUserDto();
         dto.setName("Master Ad Min");
 
-        when(userRepository.existsByEmail(dto.getEmail())).thenReturn(false);
-
         //Act & Assert
         IllegalArgumentException e = assertThrows(
                 IllegalArgumentException.class,
@@ -112,6 +150,7 @@ public class UserServiceTest {
 
         assertEquals("Full name must not include middle names",
                 e.getMessage());
+        verifyNoInteractions(registrationRepository);
     }
 
     @Test
@@ -121,8 +160,6 @@ public class UserServiceTest {
         RegisterUserDto dto = new RegisterUserDto();
         dto.setName("MasterAdmin");
 
-        when(userRepository.existsByEmail(dto.getEmail())).thenReturn(false);
-
         //Act & Assert
         IllegalArgumentException e = assertThrows(
                 IllegalArgumentException.class,
@@ -131,14 +168,16 @@ public class UserServiceTest {
 
         assertEquals("Only  include your first and last name, separated by a space",
                 e.getMessage());
+        verifyNoInteractions(registrationRepository);
     }
 
     @Test
     void registerUser_withUsedEmailThrowsException() {
-        RegisterUserDto dto = new RegisterUserDto();
-        dto.setEmail("admin@admin.com");
+        RegisterUserDto dto = mentorRegistration();
+        dto.setEmail("Admin@Admin.com");
 
-        when(userRepository.existsByEmail(dto.getEmail())).thenReturn(true);
+        // The lower(email) index reports the conflict by inserting nothing
+        when(registrationRepository.insertIfEmailAvailable(any(User.class))).thenReturn(Optional.empty());
 
         //Act & Assert
         IllegalArgumentException e = assertThrows(
@@ -148,6 +187,24 @@ public class UserServiceTest {
 
         assertEquals("Email already in use",
                 e.getMessage());
+        verifyNoInteractions(verificationTokenRepository, emailService);
+        verify(emailFilter, never()).add(any());
+    }
+
+    @Test
+    void isEmailAvailable_skipsDatabaseWhenFilterHasNeverSeenEmail() {
+        when(emailFilter.mightContain("new@user.com")).thenReturn(false);
+
+        assertTrue(userService.isEmailAvailable("new@user.com"));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void isEmailAvailable_confirmsPossibleMatchWithDatabase() {
+        when(emailFilter.mightContain("Admin@Admin.com")).thenReturn(true);
+        when(userRepository.existsByEmailIgnoringCase("Admin@Admin.com")).thenReturn(true);
+
+        assertFalse(userService.isEmailAvailable("Admin@Admin.com"));
     }
 
     @Test
@@ -292,4 +349,236 @@ public class UserServiceTest {
 
         verify(userRepository).findAll(eq(mockSpec));
     }
+
+    @Test
+    void searchUserSummaries_returnsNextCursorWhenMoreRowsExist() {
+        // Arrange
+        UserSummaryDto first = UserSummaryDto.builder().userId(UUID.randomUUID()).build();
+        UserSummaryDto second = UserSummaryDto.builder().userId(UUID.randomUUID()).build();
+        UserSummaryDto extra = UserSummaryDto.builder().userId(UUID.randomUUID()).build();
+        passThroughCache();
+
+        when(specBuilder.searchWithFilters(any(), any(), any(), any(), any())).thenReturn(mock(Specification.class));
+        when(specBuilder.afterUserId(any())).thenReturn(mock(Specification.class));
+        when(userRepository.findSummaries(any(), eq(3))).thenReturn(List.of(first, second, extra));
+
+        // Act
+        UserPageDto page = userService.searchUserSummaries("Master", "MENTOR", null, null, null, 2);
+
+        // Assert
+        assertTrue(page.isHasNext());
+        assertEquals(2, page.getResults().size());
+        assertEquals(second.getUserId(), page.getNextCursor());
+    }
+
+    @Test
+    void searchUserSummaries_lastPageHasNoCursor() {
+        // Arrange
+        UUID cursor = UUID.randomUUID();
+        UserSummaryDto only = UserSummaryDto.builder().userId(UUID.randomUUID()).build();
+        passThroughCache();
+
+        when(specBuilder.searchWithFilters(any(), any(), any(), any(), any())).thenReturn(mock(Specification.class));
+        when(specBuilder.afterUserId(cursor)).thenReturn(mock(Specification.class));
+        when(userRepository.findSummaries(any(), anyInt())).thenReturn(List.of(only));
+
+        // Act
+        UserPageDto page = userService.searchUserSummaries(null, null, null, null, cursor, 20);
+
+        // Assert
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        verify(specBuilder).afterUserId(cursor);
+    }
+
+    @Test
+    void searchUserSummaries_capsPageSize() {
+        passThroughCache();
+        when(specBuilder.searchWithFilters(any(), any(), any(), any(), any())).thenReturn(mock(Specification.class));
+        when(specBuilder.afterUserId(any())).thenReturn(mock(Specification.class));
+        when(userRepository.findSummaries(any(), anyInt())).thenReturn(List.of());
+
+        userService.searchUserSummaries(null, null, null, null, null, 10_000);
+
+        // Max page size plus the look-ahead row
+        verify(userRepository).findSummaries(any(), eq(101));
+    }
+
+    @Test
+    void searchUserSummaries_canonicalizesCacheKey() {
+        ArgumentCaptor<UserSearchKey> captor = ArgumentCaptor.forClass(UserSearchKey.class);
+        when(searchCache.get(captor.capture(), any())).thenReturn(new UserPageDto());
+
+        userService.searchUserSummaries("  Master  Admin ", "MENTOR", "2-5",
+                List.of("Tech", " finance", "tech"), null, null);
+
+        UserSearchKey key = captor.getValue();
+        assertEquals("master admin", key.text());
+        assertEquals("mentor", key.role());
+        assertEquals(2, key.minYears());
+        assertEquals(5, key.maxYears());
+        assertEquals(List.of("finance", "tech"), key.industries());
+        assertEquals(20, key.size());
+    }
+
+    @Test
+    void verifyUser_marksUserVerifiedAndPublishesEvent() {
+        // Arrange
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setFirstName("Master");
+        user.setLastName("Admin");
+
+        VerificationToken token = new VerificationToken(
+                UUID.randomUUID(), "abc", user, LocalDateTime.now().plusHours(1));
+        when(verificationTokenRepository.findByToken("abc")).thenReturn(token);
+
+        // Act
+        UserDto result = userService.verifyUser("abc");
+
+        // Assert
+        assertTrue(result.isVerified());
+        verify(userRepository).save(user);
+        verify(eventPublisher).publishEvent(any(UserVerifiedEvent.class));
+        verify(verificationTokenRepository).delete(token);
+    }
+
+    @Test
+    void verifyUser_withExpiredTokenThrowsException() {
+        VerificationToken token = new VerificationToken(
+                UUID.randomUUID(), "abc", new User(), LocalDateTime.now().minusMinutes(1));
+        when(verificationTokenRepository.findByToken("abc")).thenReturn(token);
+
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class,
+                () -> userService.verifyUser("abc")
+        );
+
+        assertEquals("Verification token has expired", e.getMessage());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updateUserProfile_publishesPreviousAndCurrentState() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setUserId(userId);
+        user.setRole(RoleType.MENTOR);
+        user.setIndustry("Tech");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        UpdateProfileDto dto = new UpdateProfileDto();
+        dto.setIndustry("Finance");
+        dto.setSkillsOrInterests(List.of("Java", "SQL"));
+
+        // Act
+        UserDto result = userService.updateUserProfile(userId, dto);
+
+        // Assert
+        ArgumentCaptor<UserProfileUpdatedEvent> captor = ArgumentCaptor.forClass(UserProfileUpdatedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals("Tech", captor.getValue().previous().getIndustry());
+        assertEquals("Finance", captor.getValue().current().getIndustry());
+        assertThat(result.getSkills()).containsExactly("Java", "SQL");
+    }
+
+    @Test
+    void findUsersNearby_ordersDatabaseMatchesByDistance() {
+        // Arrange
+        UUID near = UUID.randomUUID();
+        UUID far = UUID.randomUUID();
+        GeoPoint origin = new GeoPoint(39.96, -83.01);
+
+        when(zipDirectory.lookup("43215")).thenReturn(Optional.of(origin));
+        when(geoIndex.withinRadius(eq(origin), eq(25.0), eq(RoleType.MENTOR), any(), eq(8)))
+                .thenReturn(List.of(new GeoGridIndex.Neighbor(near, 1.5), new GeoGridIndex.Neighbor(far, 20.0)));
+        when(specBuilder.searchWithFilters(any(), any(), any(), any(), any())).thenReturn(mock(Specification.class));
+        when(specBuilder.idIn(any())).thenReturn(mock(Specification.class));
+        when(userRepository.findSummaries(any(), eq(8))).thenReturn(List.of(
+                UserSummaryDto.builder().userId(far).build(),
+                UserSummaryDto.builder().userId(near).build()));
+
+        // Act
+        List<NearbyUserDto> result = userService.findUsersNearby("43215", null, null, 25.0, 2,
+                null, "mentor", null, null);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(near, result.get(0).getUser().getUserId());
+        assertEquals(1.5, result.get(0).getDistanceKm());
+    }
+
+    @Test
+    void findUsersNearby_withUnknownZipThrowsException() {
+        when(zipDirectory.lookup("00000")).thenReturn(Optional.empty());
+
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class,
+                () -> userService.findUsersNearby("00000", null, null, null, null, null, null, null, null)
+        );
+
+        assertEquals("Unknown ZIP code: 00000", e.getMessage());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void passThroughCache() {
+        when(searchCache.get(any(), any())).thenAnswer(invocation ->
+                ((Supplier<UserPageDto>) invocation.getArgument(1)).get());
+    }
+
+    private static User loginUser(boolean verified) {
+        return User.builder()
+                .userId(UUID.randomUUID())
+                .email("ada@example.com")
+                .passwordHash(BCrypt.hashpw("correct horse", BCrypt.gensalt(4)))
+                .role(RoleType.MENTOR)
+                .isVerified(verified)
+                .build();
+    }
+
+    @Test
+    void login_issuesTokenForVerifiedUserWithMatchingPassword() {
+        // Arrange
+        User user = loginUser(true);
+        AccessTokenDto token = new AccessTokenDto("token", "Bearer", 3600);
+        when(userRepository.findByEmailIgnoringCase("Ada@Example.com")).thenReturn(Optional.of(user));
+        when(tokenService.issue(user)).thenReturn(token);
+
+        // Act
+        AccessTokenDto result = userService.login(new LoginDto(" Ada@Example.com ", "correct horse"));
+
+        // Assert
+        assertSame(token, result);
+    }
+
+    @Test
+    void login_rejectsWrongPasswordAndUnknownEmailAlike() {
+        // Arrange
+        when(userRepository.findByEmailIgnoringCase("ada@example.com")).thenReturn(Optional.of(loginUser(true)));
+        when(userRepository.findByEmailIgnoringCase("nobody@example.com")).thenReturn(Optional.empty());
+
+        // Act
+        BadCredentialsException wrongPassword = assertThrows(BadCredentialsException.class,
+                () -> userService.login(new LoginDto("ada@example.com", "battery staple")));
+        BadCredentialsException unknownEmail = assertThrows(BadCredentialsException.class,
+                () -> userService.login(new LoginDto("nobody@example.com", "correct horse")));
+
+        // Assert
+        assertEquals(wrongPassword.getMessage(), unknownEmail.getMessage());
+        verifyNoInteractions(tokenService);
+    }
+
+    @Test
+    void login_rejectsUnverifiedUser() {
+        // Arrange
+        when(userRepository.findByEmailIgnoringCase("ada@example.com")).thenReturn(Optional.of(loginUser(false)));
+
+        // Act & Assert
+        assertThrows(DisabledException.class,
+                () -> userService.login(new LoginDto("ada@example.com", "correct horse")));
+        verifyNoInteractions(tokenService);
+    }
 }
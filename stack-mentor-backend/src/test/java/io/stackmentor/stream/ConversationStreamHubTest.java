@@ -0,0 +1,152 @@
+package io.stackmentor.stream;
+
+import io.stackmentor.dto.message.ConversationEventDto;
+import io.stackmentor.dto.message.ConversationEventsDto;
+import io.stackmentor.relay.LocalSubscriptionRegistry;
+import io.stackmentor.repository.ConversationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ConversationStreamHubTest {
+
+    private final UUID conversationId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    private ConversationRepository conversationRepository;
+    private LocalSubscriptionRegistry subscriptions;
+    private ConversationStreamHub hub;
+
+    @BeforeEach
+    void setUp() {
+        conversationRepository = mock(ConversationRepository.class);
+        when(conversationRepository.isParticipant(conversationId, userId)).thenReturn(true);
+        subscriptions = new LocalSubscriptionRegistry();
+        hub = new ConversationStreamHub(subscriptions, conversationRepository, new SyncTaskExecutor(), now::get,
+                4, Duration.ofSeconds(25), Duration.ofMinutes(30), Duration.ofMinutes(5), Duration.ofMinutes(1));
+    }
+
+    private void broadcast(String kind, String json) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        headers.setDestination("/topic/conversations/" + conversationId + "/" + kind);
+        hub.handleMessage(MessageBuilder.createMessage(json.getBytes(StandardCharsets.UTF_8), headers.getMessageHeaders()));
+    }
+
+    private ConversationEventsDto resultOf(DeferredResult<ConversationEventsDto> result) {
+        assertTrue(result.hasResult());
+        return (ConversationEventsDto) result.getResult();
+    }
+
+    @Test
+    void poll_withoutCursorAnswersAtOnceAndRegistersInterest() {
+        ConversationEventsDto handshake = resultOf(hub.poll(conversationId, userId, null));
+
+        assertFalse(handshake.isReset());
+        assertTrue(handshake.getEvents().isEmpty());
+        assertNotNull(handshake.getCursor());
+        // Relayed events for the conversation now reach this node
+        assertTrue(subscriptions.hasSubscribers("/topic/conversations/" + conversationId + "/messages"));
+    }
+
+    @Test
+    void poll_parksUntilNextBroadcastThenResumesFromItsCursor() {
+        String cursor = resultOf(hub.poll(conversationId, userId, null)).getCursor();
+
+        DeferredResult<ConversationEventsDto> parked = hub.poll(conversationId, userId, cursor);
+        assertFalse(parked.hasResult());
+
+        broadcast("messages", "{\"content\":\"hi\"}");
+
+        ConversationEventsDto delivered = resultOf(parked);
+        ConversationEventDto event = delivered.getEvents().get(0);
+        assertEquals("message", event.getType());
+        assertEquals("{\"content\":\"hi\"}", event.getPayload());
+        assertEquals(event.getCursor(), delivered.getCursor());
+
+        // Events that arrive between polls are picked up by the next one
+        broadcast("presence", "{\"online\":true}");
+        broadcast("messages", "{\"content\":\"again\"}");
+        ConversationEventsDto next = resultOf(hub.poll(conversationId, userId, delivered.getCursor()));
+        assertEquals(2, next.getEvents().size());
+        assertEquals("presence", next.getEvents().get(0).getType());
+    }
+
+    @Test
+    void poll_resetsWhenCursorFellOutOfTheRingOrCameFromElsewhere() {
+        String cursor = resultOf(hub.poll(conversationId, userId, null)).getCursor();
+        for (int i = 0; i < 5; i++) {
+            broadcast("messages", "{}");
+        }
+
+        ConversationEventsDto lagged = resultOf(hub.poll(conversationId, userId, cursor));
+        assertTrue(lagged.isReset());
+        assertTrue(lagged.getEvents().isEmpty());
+
+        assertTrue(resultOf(hub.poll(conversationId, userId, "othernode.1.3")).isReset());
+    }
+
+    @Test
+    void handleMessage_ignoresConversationsNobodyStreams() {
+        broadcast("messages", "{}");
+
+        assertEquals(0, hub.channelCount());
+    }
+
+    @Test
+    void poll_rejectsNonParticipantsAndCachesVerification() {
+        assertThrows(RuntimeException.class, () -> hub.poll(conversationId, UUID.randomUUID(), null));
+
+        hub.poll(conversationId, userId, null);
+        hub.poll(conversationId, userId, null);
+        verify(conversationRepository, times(1)).isParticipant(conversationId, userId);
+
+        now.addAndGet(Duration.ofMinutes(2).toMillis());
+        hub.poll(conversationId, userId, null);
+        verify(conversationRepository, times(2)).isParticipant(any(), eq(userId));
+    }
+
+    @Test
+    void maintain_dropsIdleChannelsAndTheirInterest() {
+        hub.poll(conversationId, userId, null);
+
+        now.addAndGet(Duration.ofMinutes(6).toMillis());
+        hub.maintain();
+
+        assertEquals(0, hub.channelCount());
+        assertFalse(subscriptions.hasSubscribers("/topic/conversations/" + conversationId + "/messages"));
+    }
+
+    @Test
+    void maintain_endsStreamsOfUsersWhoLeftTheConversation() throws Exception {
+        UUID stayingUser = UUID.randomUUID();
+        when(conversationRepository.isParticipant(conversationId, stayingUser)).thenReturn(true);
+        SseEmitter leaving = hub.stream(conversationId, userId, null);
+        SseEmitter staying = hub.stream(conversationId, stayingUser, null);
+        when(conversationRepository.isParticipant(conversationId, userId)).thenReturn(false);
+
+        now.addAndGet(Duration.ofSeconds(30).toMillis());
+        hub.maintain();
+        leaving.send("still open within the recheck window");
+
+        now.addAndGet(Duration.ofSeconds(45).toMillis());
+        hub.maintain();
+
+        assertThrows(IllegalStateException.class, () -> leaving.send("after removal"));
+        staying.send("still streaming");
+    }
+}
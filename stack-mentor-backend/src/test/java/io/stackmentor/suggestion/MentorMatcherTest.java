@@ -0,0 +1,66 @@
+package io.stackmentor.suggestion;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MentorMatcherTest {
+
+    private static final double DENVER_LAT = 39.7392;
+    private static final double DENVER_LON = -104.9903;
+
+    private final MatchProfile mentee = new MatchProfile(UUID.randomUUID(), Set.of("java", "spring", "sql"),
+            "Fintech", 2, DENVER_LAT, DENVER_LON);
+
+    private static MatchProfile mentor(Set<String> skills, String industry, Integer years, Double lat, Double lon) {
+        return new MatchProfile(UUID.randomUUID(), skills, industry, years, lat, lon);
+    }
+
+    @Test
+    void score_weighsTopicsIndustryExperienceAndDistance() {
+        MatchProfile perfect = mentor(Set.of("java", "spring", "sql"), "fintech", 12, DENVER_LAT, DENVER_LON);
+        MatchProfile partial = mentor(Set.of("java"), "Retail", 5, null, null);
+
+        assertEquals(1.0f, MentorMatcher.score(mentee, perfect), 1e-5);
+        assertEquals(MentorMatcher.TOPIC_WEIGHT / 3 + MentorMatcher.EXPERIENCE_WEIGHT * 3 / 10,
+                MentorMatcher.score(mentee, partial), 1e-5);
+        // A less experienced mentor earns nothing for experience, rather than a penalty
+        assertEquals(0f, MentorMatcher.score(mentee, mentor(Set.of(), null, 1, null, null)));
+    }
+
+    @Test
+    void rank_keepsTheBestUpToTheLimitAndSkipsTheMenteeThemself() {
+        MatchProfile best = mentor(Set.of("java", "spring", "sql"), "Fintech", 10, DENVER_LAT, DENVER_LON);
+        MatchProfile second = mentor(Set.of("java", "spring"), "Fintech", 10, null, null);
+        MatchProfile third = mentor(Set.of("java"), null, null, null, null);
+        MatchProfile self = new MatchProfile(mentee.userId(), mentee.topics(), mentee.industry(), 30,
+                mentee.latitude(), mentee.longitude());
+
+        List<ScoredMentor> ranked = MentorMatcher.rank(mentee, List.of(third, self, best, second), 2);
+
+        assertEquals(List.of(best.userId(), second.userId()), ranked.stream().map(ScoredMentor::mentorId).toList());
+    }
+
+    @Test
+    void merge_foldsChangedMentorsIntoTheStoredList() {
+        UUID storedFirst = UUID.randomUUID();
+        UUID storedSecond = UUID.randomUUID();
+        List<ScoredMentor> stored = List.of(new ScoredMentor(storedFirst, 0.9f), new ScoredMentor(storedSecond, 0.3f));
+        MatchProfile newcomer = mentor(Set.of("java", "spring"), "Fintech", 10, null, null);
+        MatchProfile weak = mentor(Set.of(), null, null, null, null);
+
+        List<ScoredMentor> merged = MentorMatcher.merge(mentee, stored, List.of(newcomer, weak), 2);
+
+        assertEquals(List.of(storedFirst, newcomer.userId()), merged.stream().map(ScoredMentor::mentorId).toList());
+    }
+
+    @Test
+    void topics_splitsLowerCasesAndTrims() {
+        assertEquals(Set.of("java", "spring boot"), MatchProfile.topics("Java, Spring Boot ,,"));
+        assertTrue(MatchProfile.topics(null).isEmpty());
+    }
+}